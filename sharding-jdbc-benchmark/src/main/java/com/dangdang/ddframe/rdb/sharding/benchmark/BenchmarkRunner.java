@@ -0,0 +1,61 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试启动器.
+ * 
+ * <p>
+ * 结果以JSON格式输出, 并开启GC分析器, 以便逐次提交对比吞吐量和内存分配率.
+ * 使用方式: {@code java -jar target/benchmarks.jar [包含的基准测试正则表达式] [结果文件]},
+ * 默认运行全部基准测试, 结果输出至{@code jmh-result.json}.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+public final class BenchmarkRunner {
+    
+    private static final String DEFAULT_INCLUDE = BenchmarkRunner.class.getPackage().getName() + ".*";
+    
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+    
+    /**
+     * 运行基准测试.
+     * 
+     * @param args 包含的基准测试正则表达式和结果文件
+     * @throws RunnerException 运行基准测试失败
+     */
+    public static void main(final String[] args) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : DEFAULT_INCLUDE)
+                .resultFormat(ResultFormatType.JSON)
+                .result(args.length > 1 ? args[1] : DEFAULT_RESULT_FILE)
+                .addProfiler(GCProfiler.class)
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .forks(1);
+        new Runner(options.build()).run();
+    }
+}
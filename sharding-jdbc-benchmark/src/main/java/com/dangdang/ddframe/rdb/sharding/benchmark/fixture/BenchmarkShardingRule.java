@@ -0,0 +1,103 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.benchmark.fixture;
+
+import com.dangdang.ddframe.rdb.sharding.api.rule.BindingTableRule;
+import com.dangdang.ddframe.rdb.sharding.api.rule.DataSourceRule;
+import com.dangdang.ddframe.rdb.sharding.api.rule.ShardingRule;
+import com.dangdang.ddframe.rdb.sharding.api.rule.TableRule;
+import com.dangdang.ddframe.rdb.sharding.api.strategy.database.DatabaseShardingStrategy;
+import com.dangdang.ddframe.rdb.sharding.api.strategy.table.TableShardingStrategy;
+import com.dangdang.ddframe.rdb.sharding.routing.type.TableUnit;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试使用的分片规则.
+ * 
+ * <p>
+ * {@code t_order}与{@code t_order_item}为绑定表, {@code t_user}为独立分片表, 均按{@code user_id}分库, 按{@code order_id}或{@code user_id}分表.
+ * 数据源不会真正连接, 仅用于解析, 路由和改写.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class BenchmarkShardingRule {
+    
+    /**
+     * 数据源数量.
+     */
+    public static final int DATA_SOURCE_COUNT = 2;
+    
+    /**
+     * 创建分片规则.
+     * 
+     * @param tablesPerDataSource 每个数据源的分表数量
+     * @return 分片规则
+     */
+    public static ShardingRule create(final int tablesPerDataSource) {
+        Map<String, DataSource> dataSourceMap = new HashMap<>(DATA_SOURCE_COUNT, 1);
+        for (int i = 0; i < DATA_SOURCE_COUNT; i++) {
+            dataSourceMap.put("ds_" + i, null);
+        }
+        DataSourceRule dataSourceRule = new DataSourceRule(dataSourceMap);
+        ModuloShardingAlgorithm algorithm = new ModuloShardingAlgorithm();
+        TableRule orderTableRule = TableRule.builder("t_order").actualTables(getActualTables("t_order", tablesPerDataSource)).dataSourceRule(dataSourceRule).build();
+        TableRule orderItemTableRule = TableRule.builder("t_order_item").actualTables(getActualTables("t_order_item", tablesPerDataSource)).dataSourceRule(dataSourceRule).build();
+        TableRule userTableRule = TableRule.builder("t_user").actualTables(getActualTables("t_user", tablesPerDataSource)).dataSourceRule(dataSourceRule)
+                .tableShardingStrategy(new TableShardingStrategy("user_id", algorithm)).build();
+        return ShardingRule.builder().dataSourceRule(dataSourceRule).tableRules(Arrays.asList(orderTableRule, orderItemTableRule, userTableRule))
+                .bindingTableRules(Collections.singletonList(new BindingTableRule(Arrays.asList(orderTableRule, orderItemTableRule))))
+                .databaseShardingStrategy(new DatabaseShardingStrategy("user_id", algorithm))
+                .tableShardingStrategy(new TableShardingStrategy("order_id", algorithm)).build();
+    }
+    
+    /**
+     * 获取逻辑表在全部数据源的路由表单元.
+     * 
+     * @param logicTable 逻辑表名称
+     * @param tablesPerDataSource 每个数据源的分表数量
+     * @return 路由表单元集合
+     */
+    public static List<TableUnit> getAllTableUnits(final String logicTable, final int tablesPerDataSource) {
+        List<TableUnit> result = new ArrayList<>(DATA_SOURCE_COUNT * tablesPerDataSource);
+        for (int i = 0; i < DATA_SOURCE_COUNT; i++) {
+            for (String each : getActualTables(logicTable, tablesPerDataSource)) {
+                result.add(new TableUnit("ds_" + i, logicTable, each));
+            }
+        }
+        return result;
+    }
+    
+    private static List<String> getActualTables(final String logicTable, final int tablesPerDataSource) {
+        List<String> result = new ArrayList<>(tablesPerDataSource);
+        for (int i = 0; i < tablesPerDataSource; i++) {
+            result.add(logicTable + "_" + i);
+        }
+        return result;
+    }
+}
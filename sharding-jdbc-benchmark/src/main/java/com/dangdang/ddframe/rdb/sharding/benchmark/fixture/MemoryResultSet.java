@@ -0,0 +1,247 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.benchmark.fixture;
+
+import com.dangdang.ddframe.rdb.sharding.jdbc.unsupported.AbstractUnsupportedGeneratedKeysResultSet;
+import com.google.common.base.Preconditions;
+
+import java.math.BigDecimal;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * 内存结果集.
+ * 
+ * <p>
+ * 为归并基准测试提供不依赖数据库的分片结果集, 可通过{@link #reset()}重复遍历.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+public final class MemoryResultSet extends AbstractUnsupportedGeneratedKeysResultSet {
+    
+    private final MemoryResultSetMetaData metaData;
+    
+    private final List<Object[]> rows;
+    
+    private int cursor;
+    
+    private boolean wasNull;
+    
+    private boolean closed;
+    
+    public MemoryResultSet(final List<String> columnLabels, final List<Object[]> rows) {
+        metaData = new MemoryResultSetMetaData(columnLabels);
+        this.rows = rows;
+        cursor = -1;
+    }
+    
+    /**
+     * 重置游标至第一行之前.
+     */
+    public void reset() {
+        cursor = -1;
+        closed = false;
+    }
+    
+    @Override
+    public boolean next() throws SQLException {
+        checkState();
+        if (cursor + 1 >= rows.size()) {
+            cursor = rows.size();
+            return false;
+        }
+        cursor++;
+        return true;
+    }
+    
+    @Override
+    public boolean isClosed() throws SQLException {
+        return closed;
+    }
+    
+    @Override
+    public void close() throws SQLException {
+        closed = true;
+    }
+    
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        return metaData;
+    }
+    
+    @Override
+    public boolean wasNull() throws SQLException {
+        return wasNull;
+    }
+    
+    @Override
+    public Object getObject(final int columnIndex) throws SQLException {
+        checkState();
+        Preconditions.checkState(cursor >= 0 && cursor < rows.size(), "ResultSet should call next or has no more data.");
+        Object result = rows.get(cursor)[columnIndex - 1];
+        wasNull = null == result;
+        return result;
+    }
+    
+    @Override
+    public Object getObject(final String columnLabel) throws SQLException {
+        return getObject(findColumn(columnLabel));
+    }
+    
+    @Override
+    public int findColumn(final String columnLabel) throws SQLException {
+        return metaData.findColumn(columnLabel);
+    }
+    
+    @Override
+    public String getString(final int columnIndex) throws SQLException {
+        Object result = getObject(columnIndex);
+        return null == result ? null : result.toString();
+    }
+    
+    @Override
+    public String getString(final String columnLabel) throws SQLException {
+        return getString(findColumn(columnLabel));
+    }
+    
+    @Override
+    public byte getByte(final int columnIndex) throws SQLException {
+        Number result = getNumber(columnIndex);
+        return null == result ? 0 : result.byteValue();
+    }
+    
+    @Override
+    public byte getByte(final String columnLabel) throws SQLException {
+        return getByte(findColumn(columnLabel));
+    }
+    
+    @Override
+    public short getShort(final int columnIndex) throws SQLException {
+        Number result = getNumber(columnIndex);
+        return null == result ? 0 : result.shortValue();
+    }
+    
+    @Override
+    public short getShort(final String columnLabel) throws SQLException {
+        return getShort(findColumn(columnLabel));
+    }
+    
+    @Override
+    public int getInt(final int columnIndex) throws SQLException {
+        Number result = getNumber(columnIndex);
+        return null == result ? 0 : result.intValue();
+    }
+    
+    @Override
+    public int getInt(final String columnLabel) throws SQLException {
+        return getInt(findColumn(columnLabel));
+    }
+    
+    @Override
+    public long getLong(final int columnIndex) throws SQLException {
+        Number result = getNumber(columnIndex);
+        return null == result ? 0L : result.longValue();
+    }
+    
+    @Override
+    public long getLong(final String columnLabel) throws SQLException {
+        return getLong(findColumn(columnLabel));
+    }
+    
+    @Override
+    public float getFloat(final int columnIndex) throws SQLException {
+        Number result = getNumber(columnIndex);
+        return null == result ? 0F : result.floatValue();
+    }
+    
+    @Override
+    public float getFloat(final String columnLabel) throws SQLException {
+        return getFloat(findColumn(columnLabel));
+    }
+    
+    @Override
+    public double getDouble(final int columnIndex) throws SQLException {
+        Number result = getNumber(columnIndex);
+        return null == result ? 0D : result.doubleValue();
+    }
+    
+    @Override
+    public double getDouble(final String columnLabel) throws SQLException {
+        return getDouble(findColumn(columnLabel));
+    }
+    
+    @Override
+    public BigDecimal getBigDecimal(final int columnIndex, final int scale) throws SQLException {
+        BigDecimal result = getBigDecimal(columnIndex);
+        return null == result ? null : result.setScale(scale, BigDecimal.ROUND_HALF_UP);
+    }
+    
+    @Override
+    public BigDecimal getBigDecimal(final String columnLabel, final int scale) throws SQLException {
+        return getBigDecimal(findColumn(columnLabel), scale);
+    }
+    
+    @Override
+    public BigDecimal getBigDecimal(final int columnIndex) throws SQLException {
+        Object result = getObject(columnIndex);
+        return null == result ? null : new BigDecimal(result.toString());
+    }
+    
+    @Override
+    public BigDecimal getBigDecimal(final String columnLabel) throws SQLException {
+        return getBigDecimal(findColumn(columnLabel));
+    }
+    
+    @Override
+    public byte[] getBytes(final int columnIndex) throws SQLException {
+        Object result = getObject(columnIndex);
+        return null == result ? null : result.toString().getBytes();
+    }
+    
+    @Override
+    public byte[] getBytes(final String columnLabel) throws SQLException {
+        return getBytes(findColumn(columnLabel));
+    }
+    
+    @Override
+    public int getType() throws SQLException {
+        return TYPE_FORWARD_ONLY;
+    }
+    
+    @Override
+    public int getConcurrency() throws SQLException {
+        return CONCUR_READ_ONLY;
+    }
+    
+    @Override
+    public Statement getStatement() throws SQLException {
+        return null;
+    }
+    
+    private Number getNumber(final int columnIndex) throws SQLException {
+        Object result = getObject(columnIndex);
+        return null == result ? null : (Number) result;
+    }
+    
+    private void checkState() {
+        Preconditions.checkState(!closed, "ResultSet has closed.");
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.benchmark.fixture;
+
+import com.dangdang.ddframe.rdb.sharding.jdbc.adapter.WrapperAdapter;
+import lombok.RequiredArgsConstructor;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * 内存结果集元数据.
+ * 
+ * @author zhangliang
+ */
+@RequiredArgsConstructor
+public final class MemoryResultSetMetaData extends WrapperAdapter implements ResultSetMetaData {
+    
+    private final List<String> columnLabels;
+    
+    /**
+     * 根据列标签查找列序号.
+     * 
+     * @param columnLabel 列标签
+     * @return 列序号, 从1开始
+     * @throws SQLException 列标签不存在
+     */
+    public int findColumn(final String columnLabel) throws SQLException {
+        for (int i = 0; i < columnLabels.size(); i++) {
+            if (columnLabels.get(i).equalsIgnoreCase(columnLabel)) {
+                return i + 1;
+            }
+        }
+        throw new SQLException(String.format("Can not find column label '%s'.", columnLabel));
+    }
+    
+    @Override
+    public int getColumnCount() throws SQLException {
+        return columnLabels.size();
+    }
+    
+    @Override
+    public boolean isAutoIncrement(final int column) throws SQLException {
+        return false;
+    }
+    
+    @Override
+    public boolean isCaseSensitive(final int column) throws SQLException {
+        return false;
+    }
+    
+    @Override
+    public boolean isSearchable(final int column) throws SQLException {
+        return false;
+    }
+    
+    @Override
+    public boolean isCurrency(final int column) throws SQLException {
+        return false;
+    }
+    
+    @Override
+    public int isNullable(final int column) throws SQLException {
+        return columnNullableUnknown;
+    }
+    
+    @Override
+    public boolean isSigned(final int column) throws SQLException {
+        return true;
+    }
+    
+    @Override
+    public int getColumnDisplaySize(final int column) throws SQLException {
+        return 0;
+    }
+    
+    @Override
+    public String getColumnLabel(final int column) throws SQLException {
+        return columnLabels.get(column - 1);
+    }
+    
+    @Override
+    public String getColumnName(final int column) throws SQLException {
+        return getColumnLabel(column);
+    }
+    
+    @Override
+    public String getSchemaName(final int column) throws SQLException {
+        return "";
+    }
+    
+    @Override
+    public int getPrecision(final int column) throws SQLException {
+        return 0;
+    }
+    
+    @Override
+    public int getScale(final int column) throws SQLException {
+        return 0;
+    }
+    
+    @Override
+    public String getTableName(final int column) throws SQLException {
+        return "";
+    }
+    
+    @Override
+    public String getCatalogName(final int column) throws SQLException {
+        return "";
+    }
+    
+    @Override
+    public int getColumnType(final int column) throws SQLException {
+        return Types.JAVA_OBJECT;
+    }
+    
+    @Override
+    public String getColumnTypeName(final int column) throws SQLException {
+        return "";
+    }
+    
+    @Override
+    public boolean isReadOnly(final int column) throws SQLException {
+        return true;
+    }
+    
+    @Override
+    public boolean isWritable(final int column) throws SQLException {
+        return false;
+    }
+    
+    @Override
+    public boolean isDefinitelyWritable(final int column) throws SQLException {
+        return false;
+    }
+    
+    @Override
+    public String getColumnClassName(final int column) throws SQLException {
+        return Object.class.getName();
+    }
+}
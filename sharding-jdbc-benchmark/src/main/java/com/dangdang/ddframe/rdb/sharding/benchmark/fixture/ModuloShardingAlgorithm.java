@@ -0,0 +1,66 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.benchmark.fixture;
+
+import com.dangdang.ddframe.rdb.sharding.api.ShardingValue;
+import com.dangdang.ddframe.rdb.sharding.api.strategy.database.SingleKeyDatabaseShardingAlgorithm;
+import com.dangdang.ddframe.rdb.sharding.api.strategy.table.SingleKeyTableShardingAlgorithm;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+
+/**
+ * 基准测试使用的取模分片算法.
+ * 
+ * <p>
+ * 目标名称以{@code _分片值对目标数量取模}结尾时命中, 例如: {@code t_order_3}.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+public final class ModuloShardingAlgorithm implements SingleKeyDatabaseShardingAlgorithm<Integer>, SingleKeyTableShardingAlgorithm<Integer> {
+    
+    @Override
+    public String doEqualSharding(final Collection<String> availableTargetNames, final ShardingValue<Integer> shardingValue) {
+        String suffix = "_" + shardingValue.getValue() % availableTargetNames.size();
+        for (String each : availableTargetNames) {
+            if (each.endsWith(suffix)) {
+                return each;
+            }
+        }
+        throw new UnsupportedOperationException();
+    }
+    
+    @Override
+    public Collection<String> doInSharding(final Collection<String> availableTargetNames, final ShardingValue<Integer> shardingValue) {
+        Collection<String> result = new LinkedHashSet<>(availableTargetNames.size());
+        for (Integer value : shardingValue.getValues()) {
+            result.add(doEqualSharding(availableTargetNames, new ShardingValue<>(shardingValue.getLogicTableName(), shardingValue.getColumnName(), value)));
+        }
+        return result;
+    }
+    
+    @Override
+    public Collection<String> doBetweenSharding(final Collection<String> availableTargetNames, final ShardingValue<Integer> shardingValue) {
+        Collection<String> result = new LinkedHashSet<>(availableTargetNames.size());
+        for (int i = shardingValue.getValueRange().lowerEndpoint(); i <= shardingValue.getValueRange().upperEndpoint() && result.size() < availableTargetNames.size(); i++) {
+            result.add(doEqualSharding(availableTargetNames, new ShardingValue<>(shardingValue.getLogicTableName(), shardingValue.getColumnName(), i)));
+        }
+        return result;
+    }
+}
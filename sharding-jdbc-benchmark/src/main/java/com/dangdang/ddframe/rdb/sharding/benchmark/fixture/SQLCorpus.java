@@ -0,0 +1,67 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.benchmark.fixture;
+
+import com.dangdang.ddframe.rdb.sharding.constant.DatabaseType;
+import com.google.common.base.Charsets;
+import com.google.common.base.Splitter;
+import com.google.common.io.Resources;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 集成测试SQL语料.
+ * 
+ * <p>
+ * 语料取自集成测试的SQL, 占位符统一为{@code ?}. 每行格式为{@code 数据库类型<TAB>SQL}, 数据库类型为{@code *}时适用于全部数据库.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class SQLCorpus {
+    
+    private static final String CORPUS_FILE = "corpus/integrate-sql.txt";
+    
+    private static final String ALL_DATABASE_TYPES = "*";
+    
+    /**
+     * 加载适用于指定数据库类型的SQL.
+     * 
+     * @param databaseType 数据库类型
+     * @return SQL集合
+     * @throws IOException 读取语料文件失败
+     */
+    public static List<String> load(final DatabaseType databaseType) throws IOException {
+        List<String> result = new ArrayList<>();
+        for (String each : Resources.readLines(Resources.getResource(CORPUS_FILE), Charsets.UTF_8)) {
+            if (each.trim().isEmpty()) {
+                continue;
+            }
+            List<String> columns = Splitter.on('\t').limit(2).splitToList(each);
+            if (ALL_DATABASE_TYPES.equals(columns.get(0)) || Splitter.on(',').splitToList(columns.get(0)).contains(databaseType.name())) {
+                result.add(columns.get(1));
+            }
+        }
+        return result;
+    }
+}
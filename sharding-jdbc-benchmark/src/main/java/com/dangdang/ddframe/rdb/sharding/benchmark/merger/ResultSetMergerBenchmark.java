@@ -0,0 +1,133 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.benchmark.merger;
+
+import com.dangdang.ddframe.rdb.sharding.benchmark.fixture.BenchmarkShardingRule;
+import com.dangdang.ddframe.rdb.sharding.benchmark.fixture.MemoryResultSet;
+import com.dangdang.ddframe.rdb.sharding.constant.DatabaseType;
+import com.dangdang.ddframe.rdb.sharding.merger.MergeEngine;
+import com.dangdang.ddframe.rdb.sharding.merger.ResultSetMerger;
+import com.dangdang.ddframe.rdb.sharding.parsing.SQLParsingEngine;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.select.SelectStatement;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 结果集归并基准测试.
+ * 
+ * <p>
+ * 分片结果集为内存结果集, 每次调用通过归并引擎选择归并器并遍历全部归并结果.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ResultSetMergerBenchmark {
+    
+    @Param({"ITERATOR", "ORDER_BY_STREAM", "GROUP_BY_STREAM", "GROUP_BY_MEMORY", "LIMIT_DECORATOR"})
+    private MergerType mergerType;
+    
+    @Param({"4", "16"})
+    private int shardCount;
+    
+    @Param("1000")
+    private int rowsPerShard;
+    
+    private SelectStatement selectStatement;
+    
+    private List<ResultSet> resultSets;
+    
+    @Setup
+    public void setUp() {
+        selectStatement = (SelectStatement) new SQLParsingEngine(DatabaseType.MySQL, mergerType.getSql(), BenchmarkShardingRule.create(4)).parse();
+        resultSets = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            resultSets.add(mergerType.isAggregation() ? createAggregationResultSet() : createResultSet(i));
+        }
+    }
+    
+    private MemoryResultSet createResultSet(final int shardIndex) {
+        List<Object[]> rows = new ArrayList<>(rowsPerShard);
+        for (int i = 0; i < rowsPerShard; i++) {
+            int orderId = i * shardCount + shardIndex;
+            rows.add(new Object[] {orderId, orderId / 10, "init"});
+        }
+        return new MemoryResultSet(Arrays.asList("order_id", "user_id", "status"), rows);
+    }
+    
+    private MemoryResultSet createAggregationResultSet() {
+        List<Object[]> rows = new ArrayList<>(rowsPerShard);
+        for (int i = 0; i < rowsPerShard; i++) {
+            rows.add(new Object[] {i, (long) (i % 10 + 1)});
+        }
+        return new MemoryResultSet(Arrays.asList("user_id", "orders_count"), rows);
+    }
+    
+    @Setup(Level.Invocation)
+    public void resetResultSets() {
+        for (ResultSet each : resultSets) {
+            ((MemoryResultSet) each).reset();
+        }
+    }
+    
+    @Benchmark
+    public void merge(final Blackhole blackhole) throws SQLException {
+        ResultSetMerger resultSetMerger = new MergeEngine(DatabaseType.MySQL, resultSets, selectStatement).merge();
+        while (resultSetMerger.next()) {
+            blackhole.consume(resultSetMerger.getValue(1, Object.class));
+            blackhole.consume(resultSetMerger.getValue(2, Object.class));
+        }
+    }
+    
+    /**
+     * 归并器类型.
+     */
+    @RequiredArgsConstructor
+    @Getter
+    public enum MergerType {
+        
+        ITERATOR("SELECT order_id, user_id, status FROM t_order", false), 
+        ORDER_BY_STREAM("SELECT order_id, user_id, status FROM t_order ORDER BY order_id", false), 
+        GROUP_BY_STREAM("SELECT user_id, COUNT(order_id) AS orders_count FROM t_order GROUP BY user_id", true), 
+        GROUP_BY_MEMORY("SELECT user_id, COUNT(order_id) AS orders_count FROM t_order GROUP BY user_id ORDER BY orders_count DESC", true), 
+        LIMIT_DECORATOR("SELECT order_id, user_id, status FROM t_order ORDER BY order_id LIMIT 100, 100", false);
+        
+        private final String sql;
+        
+        private final boolean aggregation;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.benchmark.parsing;
+
+import com.dangdang.ddframe.rdb.sharding.benchmark.fixture.SQLCorpus;
+import com.dangdang.ddframe.rdb.sharding.constant.DatabaseType;
+import com.dangdang.ddframe.rdb.sharding.parsing.lexer.Lexer;
+import com.dangdang.ddframe.rdb.sharding.parsing.lexer.dialect.mysql.MySQLLexer;
+import com.dangdang.ddframe.rdb.sharding.parsing.lexer.dialect.oracle.OracleLexer;
+import com.dangdang.ddframe.rdb.sharding.parsing.lexer.dialect.postgresql.PostgreSQLLexer;
+import com.dangdang.ddframe.rdb.sharding.parsing.lexer.dialect.sqlserver.SQLServerLexer;
+import com.dangdang.ddframe.rdb.sharding.parsing.lexer.token.Assist;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 词法解析基准测试.
+ * 
+ * <p>
+ * 每次调用对全部语料做一遍词法解析, 辅助计数器{@code tokens}给出每秒词法标记数.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LexerBenchmark {
+    
+    @Param({"MySQL", "Oracle", "SQLServer", "PostgreSQL"})
+    private DatabaseType databaseType;
+    
+    private List<String> sqls;
+    
+    @Setup
+    public void setUp() throws IOException {
+        sqls = SQLCorpus.load(databaseType);
+    }
+    
+    @Benchmark
+    public void lexCorpus(final TokenCounter tokenCounter, final Blackhole blackhole) {
+        for (String each : sqls) {
+            Lexer lexer = createLexer(each);
+            lexer.nextToken();
+            while (Assist.END != lexer.getCurrentToken().getType() && Assist.ERROR != lexer.getCurrentToken().getType()) {
+                blackhole.consume(lexer.getCurrentToken());
+                tokenCounter.tokens++;
+                lexer.nextToken();
+            }
+        }
+    }
+    
+    private Lexer createLexer(final String sql) {
+        switch (databaseType) {
+            case Oracle:
+                return new OracleLexer(sql);
+            case SQLServer:
+                return new SQLServerLexer(sql);
+            case PostgreSQL:
+                return new PostgreSQLLexer(sql);
+            default:
+                return new MySQLLexer(sql);
+        }
+    }
+    
+    /**
+     * 词法标记计数器.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class TokenCounter {
+        
+        //CHECKSTYLE:OFF
+        public long tokens;
+        //CHECKSTYLE:ON
+        
+        @Setup(Level.Iteration)
+        public void reset() {
+            tokens = 0;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.benchmark.parsing;
+
+import com.dangdang.ddframe.rdb.sharding.api.rule.ShardingRule;
+import com.dangdang.ddframe.rdb.sharding.benchmark.fixture.BenchmarkShardingRule;
+import com.dangdang.ddframe.rdb.sharding.benchmark.fixture.SQLCorpus;
+import com.dangdang.ddframe.rdb.sharding.constant.DatabaseType;
+import com.dangdang.ddframe.rdb.sharding.parsing.SQLParsingEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL解析基准测试.
+ * 
+ * <p>
+ * 每次调用解析一遍语料中当前方言可以解析的全部SQL.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SQLParsingEngineBenchmark {
+    
+    @Param({"MySQL", "Oracle", "SQLServer", "PostgreSQL"})
+    private DatabaseType databaseType;
+    
+    private ShardingRule shardingRule;
+    
+    private List<String> sqls;
+    
+    @Setup
+    public void setUp() throws IOException {
+        shardingRule = BenchmarkShardingRule.create(4);
+        sqls = new ArrayList<>();
+        for (String each : SQLCorpus.load(databaseType)) {
+            try {
+                new SQLParsingEngine(databaseType, each, shardingRule).parse();
+                sqls.add(each);
+                //CHECKSTYLE:OFF
+            } catch (final Exception ignored) {
+                //CHECKSTYLE:ON
+                // 语料中包含当前解析引擎不支持的SQL, 不参与测试
+            }
+        }
+    }
+    
+    @Benchmark
+    public void parseCorpus(final Blackhole blackhole) {
+        for (String each : sqls) {
+            blackhole.consume(new SQLParsingEngine(databaseType, each, shardingRule).parse());
+        }
+    }
+}
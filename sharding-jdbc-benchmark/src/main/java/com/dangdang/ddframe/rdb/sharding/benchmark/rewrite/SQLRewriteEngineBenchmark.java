@@ -0,0 +1,82 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.benchmark.rewrite;
+
+import com.dangdang.ddframe.rdb.sharding.api.rule.ShardingRule;
+import com.dangdang.ddframe.rdb.sharding.benchmark.fixture.BenchmarkShardingRule;
+import com.dangdang.ddframe.rdb.sharding.constant.DatabaseType;
+import com.dangdang.ddframe.rdb.sharding.parsing.SQLParsingEngine;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.SQLStatement;
+import com.dangdang.ddframe.rdb.sharding.rewrite.SQLBuilder;
+import com.dangdang.ddframe.rdb.sharding.rewrite.SQLRewriteEngine;
+import com.dangdang.ddframe.rdb.sharding.routing.type.TableUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL改写基准测试.
+ * 
+ * <p>
+ * 每次调用改写一次SQL, 并为全部路由表单元生成真实SQL.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SQLRewriteEngineBenchmark {
+    
+    private static final String SQL = "SELECT o.user_id, AVG(o.order_id) AS order_id_avg FROM t_order o JOIN t_order_item i ON o.order_id = i.order_id "
+            + "WHERE o.status = ? GROUP BY o.user_id ORDER BY order_id_avg DESC";
+    
+    @Param({"4", "64"})
+    private int tablesPerDataSource;
+    
+    private ShardingRule shardingRule;
+    
+    private SQLStatement sqlStatement;
+    
+    private List<TableUnit> tableUnits;
+    
+    @Setup
+    public void setUp() {
+        shardingRule = BenchmarkShardingRule.create(tablesPerDataSource);
+        sqlStatement = new SQLParsingEngine(DatabaseType.MySQL, SQL, shardingRule).parse();
+        tableUnits = BenchmarkShardingRule.getAllTableUnits("t_order", tablesPerDataSource);
+    }
+    
+    @Benchmark
+    public void rewriteAndGenerateSQL(final Blackhole blackhole) {
+        SQLRewriteEngine rewriteEngine = new SQLRewriteEngine(shardingRule, SQL, sqlStatement);
+        SQLBuilder sqlBuilder = rewriteEngine.rewrite(true);
+        for (TableUnit each : tableUnits) {
+            blackhole.consume(rewriteEngine.generateSQL(each, sqlBuilder));
+        }
+    }
+}
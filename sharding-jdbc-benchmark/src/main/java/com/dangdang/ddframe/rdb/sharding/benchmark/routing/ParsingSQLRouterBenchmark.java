@@ -0,0 +1,104 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.benchmark.routing;
+
+import com.dangdang.ddframe.rdb.sharding.benchmark.fixture.BenchmarkShardingRule;
+import com.dangdang.ddframe.rdb.sharding.config.ShardingProperties;
+import com.dangdang.ddframe.rdb.sharding.config.ShardingPropertiesConstant;
+import com.dangdang.ddframe.rdb.sharding.constant.DatabaseType;
+import com.dangdang.ddframe.rdb.sharding.jdbc.core.ShardingContext;
+import com.dangdang.ddframe.rdb.sharding.metrics.ShardingMetrics;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.SQLStatement;
+import com.dangdang.ddframe.rdb.sharding.routing.SQLRouteResult;
+import com.dangdang.ddframe.rdb.sharding.routing.router.ParsingSQLRouter;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL路由基准测试.
+ * 
+ * <p>
+ * 解析在准备阶段完成, 只测量路由和改写.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParsingSQLRouterBenchmark {
+    
+    @Param({"SIMPLE", "BINDING", "CARTESIAN"})
+    private RoutingType routingType;
+    
+    @Param({"4", "64"})
+    private int tablesPerDataSource;
+    
+    @Param({"0", "1024"})
+    private int routingResultCacheSize;
+    
+    private ParsingSQLRouter router;
+    
+    private SQLStatement sqlStatement;
+    
+    @Setup
+    public void setUp() {
+        Properties props = new Properties();
+        props.setProperty(ShardingPropertiesConstant.SQL_SHOW.getKey(), Boolean.FALSE.toString());
+        props.setProperty(ShardingPropertiesConstant.PARSING_RESULT_CACHE_SIZE.getKey(), "0");
+        props.setProperty(ShardingPropertiesConstant.ROUTING_RESULT_CACHE_SIZE.getKey(), String.valueOf(routingResultCacheSize));
+        ShardingContext shardingContext = new ShardingContext(BenchmarkShardingRule.create(tablesPerDataSource), DatabaseType.MySQL, null, new ShardingMetrics(), new ShardingProperties(props));
+        router = new ParsingSQLRouter(shardingContext);
+        sqlStatement = router.parse(routingType.getSql(), routingType.getParameters().size());
+    }
+    
+    @Benchmark
+    public SQLRouteResult route() {
+        return router.route(routingType.getSql(), routingType.getParameters(), sqlStatement);
+    }
+    
+    /**
+     * 路由类型.
+     */
+    @RequiredArgsConstructor
+    @Getter
+    public enum RoutingType {
+    
+        SIMPLE("SELECT o.order_id, o.user_id, o.status FROM t_order o WHERE o.user_id IN (?, ?)", Arrays.<Object>asList(1, 2)), 
+        BINDING("SELECT i.* FROM t_order o JOIN t_order_item i ON o.user_id = i.user_id AND o.order_id = i.order_id WHERE o.user_id IN (?, ?) AND o.order_id IN (?, ?)", 
+                Arrays.<Object>asList(1, 2, 1000, 1001)), 
+        CARTESIAN("SELECT o.order_id, u.user_id FROM t_order o, t_user u WHERE o.user_id = u.user_id AND o.user_id = ? AND u.user_id IN (?, ?)", Arrays.<Object>asList(1, 1, 3));
+    
+        private final String sql;
+    
+        private final List<Object> parameters;
+    }
+}
@@ -17,23 +17,17 @@
 
 package com.dangdang.ddframe.rdb.sharding.spring.cases.namespace;
 
-import com.dangdang.ddframe.rdb.sharding.metrics.MetricsContext;
 import com.dangdang.ddframe.rdb.sharding.spring.AbstractShardingBothDataBasesAndTablesSpringDBUnitTest;
 import org.junit.Test;
 import org.springframework.test.context.ContextConfiguration;
 
-import java.sql.Connection;
-import java.sql.SQLException;
-
-import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 @ContextConfiguration(locations = "classpath:META-INF/rdb/namespace/withNamespaceAlgorithmClassAndProps.xml")
 public final class WithNamespaceAlgorithmClassAndPropsTest extends AbstractShardingBothDataBasesAndTablesSpringDBUnitTest {
     
     @Test
-    public void testMetricsContextWhenEnable() throws SQLException {
-        try (Connection connection = getShardingDataSource().getConnection()) {
-            assertNotNull(MetricsContext.start("name"));
-        }
+    public void testMetricsRegistryWhenEnable() {
+        assertTrue(getShardingDataSource().getMetricRegistry().isPresent());
     }
 }
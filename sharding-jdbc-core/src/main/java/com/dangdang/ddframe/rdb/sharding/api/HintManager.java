@@ -64,6 +64,12 @@ public final class HintManager implements AutoCloseable {
     @Getter
     private boolean databaseShardingOnly;
     
+    /**
+     * 近似聚合, COUNT(DISTINCT) 以 HyperLogLog 估算
+     */
+    @Getter
+    private boolean approximateCountDistinct;
+    
     /**
      * 获取线索分片管理器实例.
      * 
@@ -181,6 +187,18 @@ public final class HintManager implements AutoCloseable {
         masterRouteOnly = true;
     }
     
+    /**
+     * 设置跨分片的COUNT(DISTINCT)以HyperLogLog近似估算.
+     * 
+     * <p>
+     * 各分片按去重列分组返回去重值, 归并时估算去重数, 标准误差约为0.81%.
+     * 开启分组部分聚合时去重值在执行分片的工作线程中归并.
+     * </p>
+     */
+    public void setApproximateCountDistinct() {
+        approximateCountDistinct = true;
+    }
+    
     @Override
     public void close() {
         HintManagerHolder.clear();
@@ -58,6 +58,16 @@ public enum ShardingPropertiesConstant {
      */
     METRICS_MILLISECONDS_PERIOD("metrics.millisecond.period", "30000", long.class),
     
+    /**
+     * 度量输出方式.
+     * 
+     * <p>
+     * 可选值: slf4j, jmx, 多个以逗号分隔, 为空时仅可通过{@code ShardingDataSource#getMetricRegistry()}拉取.
+     * 默认值: slf4j
+     * </p>
+     */
+    METRICS_REPORTERS("metrics.reporters", "slf4j", String.class),
+    
     /**
      * 工作线程数量.
      * 
@@ -65,7 +75,137 @@ public enum ShardingPropertiesConstant {
      * 默认值: CPU核数
      * </p>
      */
-    EXECUTOR_SIZE("executor.size", String.valueOf(Runtime.getRuntime().availableProcessors()), int.class);
+    EXECUTOR_SIZE("executor.size", String.valueOf(Runtime.getRuntime().availableProcessors()), int.class),
+    
+    /**
+     * 工作线程池的任务队列容量.
+     * 
+     * <p>
+     * 队列已满时拒绝本次执行并抛出异常, 已占用的数据源隔离舱配额随之释放.
+     * 默认值: 1024
+     * </p>
+     */
+    EXECUTOR_QUEUE_SIZE("executor.queue.size", "1024", int.class),
+    
+    /**
+     * 每个数据源同时排队和执行的最大执行单元数量.
+     * 
+     * <p>
+     * 超过时直接拒绝本次执行, 避免慢数据源占满工作线程池的队列.
+     * 设置为0时不限制.
+     * 默认值: 0
+     * </p>
+     */
+    EXECUTOR_MAX_UNITS_PER_DATA_SOURCE("executor.max.units.per.data.source", "0", int.class),
+    
+    /**
+     * 每次查询每个数据源最多使用的数据库连接数量.
+     * 
+     * <p>
+     * 同一数据源的多个执行单元将分配到多个连接上并行执行, 仅在自动提交时生效.
+     * 设置为1时同一数据源的执行单元在一个连接上顺序执行.
+     * 默认值: 1
+     * </p>
+     */
+    MAX_CONNECTIONS_SIZE_PER_QUERY("max.connections.size.per.query", "1", int.class),
+    
+    /**
+     * 并发迭代归并的数据行队列容量.
+     * 
+     * <p>
+     * 无排序, 分组和聚合的多分片查询由工作线程将各分片数据行放入该容量的队列, 按分片就绪的先后顺序返回, 首行返回时间取决于最快的分片.
+     * 设置为0时按分片顺序依次迭代各分片结果集.
+     * 默认值: 0
+     * </p>
+     */
+    CONCURRENT_ITERATOR_MERGE_QUEUE_SIZE("concurrent.iterator.merge.queue.size", "0", int.class),
+    
+    /**
+     * 内存分组归并的最大内存字节数.
+     * 
+     * <p>
+     * 分组项与排序项不一致时需在内存中分组聚合, 分组数据的估算大小超过该值后按分组条件值的哈希分区溢写至本地临时文件, 再以外部排序归并.
+     * 设置为0时不限制, 全部在内存中分组聚合.
+     * 默认值: 0
+     * </p>
+     */
+    GROUP_BY_MERGE_MEMORY_MAX_BYTES("group.by.merge.memory.max.bytes", "0", long.class),
+    
+    /**
+     * 是否开启分组部分聚合.
+     * 
+     * <p>
+     * 开启后需内存分组归并的多分片查询由执行分片的工作线程读取分片结果集并做部分聚合, 调用线程仅合并各分片的部分聚合结果, 归并计算随工作线程数量扩展.
+     * 设置了内存分组归并的最大内存字节数时不生效.
+     * 默认值: 关闭
+     * </p>
+     */
+    GROUP_BY_PARTIAL_AGGREGATION_ENABLE("group.by.partial.aggregation.enable", Boolean.FALSE.toString(), boolean.class),
+    
+    /**
+     * 归并内存预算的最大字节数.
+     * 
+     * <p>
+     * 同一数据源所有查询的内存分组归并, 分组部分聚合和内存去重按估算大小共享该预算, 结果集读取完毕或关闭时归还.
+     * 设置为0时不限制.
+     * 默认值: 0
+     * </p>
+     */
+    MERGE_MEMORY_MAX_BYTES("merge.memory.max.bytes", "0", long.class),
+    
+    /**
+     * 归并内存预算耗尽时的处理策略.
+     * 
+     * <p>
+     * 可选值: FAIL_FAST, SPILL, WAIT.
+     * FAIL_FAST立即失败; SPILL将内存分组归并溢写至本地临时文件, 此时不做分组部分聚合, 无法溢写的归并立即失败; WAIT等待其他查询归还内存, 超时后失败.
+     * 默认值: FAIL_FAST
+     * </p>
+     */
+    MERGE_MEMORY_EXHAUSTED_POLICY("merge.memory.exhausted.policy", "FAIL_FAST", String.class),
+    
+    /**
+     * 归并内存预算耗尽时的最长等待时间.
+     * 
+     * <p>
+     * 单位: 毫秒.
+     * 仅在处理策略为WAIT时生效.
+     * 默认值: 10000毫秒.
+     * </p>
+     */
+    MERGE_MEMORY_WAIT_MILLISECONDS("merge.memory.wait.milliseconds", "10000", long.class),
+    
+    /**
+     * 批量执行时每个分片表累积的最大语句数量.
+     * 
+     * <p>
+     * 任一分片表通过addBatch累积的语句数量达到该值时, 立即执行所有分片表已累积的语句, 避免超大批量占用过多内存.
+     * 设置为0时不限制, 全部在executeBatch时执行.
+     * 默认值: 0
+     * </p>
+     */
+    BATCH_FLUSH_THRESHOLD("batch.flush.threshold", "0", int.class),
+    
+    /**
+     * SQL解析结果缓存的最大条目数.
+     * 
+     * <p>
+     * 设置为0时不缓存解析结果.
+     * 默认值: 1024
+     * </p>
+     */
+    PARSING_RESULT_CACHE_SIZE("parsing.result.cache.size", "1024", int.class),
+    
+    /**
+     * 路由结果缓存的最大条目数.
+     * 
+     * <p>
+     * 仅缓存分片条件全部为{@code =}或{@code IN}的非INSERT语句, 要求分片算法对相同分片值返回相同结果.
+     * 设置为0时不缓存路由结果.
+     * 默认值: 0
+     * </p>
+     */
+    ROUTING_RESULT_CACHE_SIZE("routing.result.cache.size", "0", int.class);
     
     private final String key;
     
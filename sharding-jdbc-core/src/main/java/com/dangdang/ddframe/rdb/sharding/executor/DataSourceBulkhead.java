@@ -0,0 +1,108 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.executor;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 数据源执行隔离舱.
+ * 
+ * <p>
+ * 限制单个数据源同时排队和执行的执行单元数量, 避免慢数据源占满执行线程池的队列而拖累其他数据源.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+@RequiredArgsConstructor
+public final class DataSourceBulkhead {
+    
+    @Getter
+    private final String dataSourceName;
+    
+    /**
+     * 排队和执行的执行单元数量上限, 为0时不限制.
+     */
+    @Getter
+    private final int maxUnits;
+    
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    
+    private final AtomicInteger activeCount = new AtomicInteger();
+    
+    /**
+     * 尝试占用执行单元配额.
+     * 
+     * @param units 执行单元数量
+     * @return 是否占用成功
+     */
+    public boolean tryAcquire(final int units) {
+        while (true) {
+            int current = pendingCount.get();
+            if (0 < maxUnits && current + units > maxUnits) {
+                return false;
+            }
+            if (pendingCount.compareAndSet(current, current + units)) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * 释放执行单元配额.
+     * 
+     * @param units 执行单元数量
+     */
+    public void release(final int units) {
+        pendingCount.addAndGet(-units);
+    }
+    
+    /**
+     * 标记执行单元开始执行.
+     */
+    public void activate() {
+        activeCount.incrementAndGet();
+    }
+    
+    /**
+     * 标记执行单元执行结束.
+     */
+    public void deactivate() {
+        activeCount.decrementAndGet();
+    }
+    
+    /**
+     * 获取正在执行的执行单元数量.
+     * 
+     * @return 正在执行的执行单元数量
+     */
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+    
+    /**
+     * 获取排队等待执行的执行单元数量.
+     * 
+     * @return 排队等待执行的执行单元数量
+     */
+    public int getQueueDepth() {
+        return Math.max(0, pendingCount.get() - activeCount.get());
+    }
+}
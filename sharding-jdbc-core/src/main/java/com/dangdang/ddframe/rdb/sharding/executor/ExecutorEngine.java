@@ -17,6 +17,9 @@
 
 package com.dangdang.ddframe.rdb.sharding.executor;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer.Context;
+import com.dangdang.ddframe.rdb.sharding.config.ShardingPropertiesConstant;
 import com.dangdang.ddframe.rdb.sharding.constant.SQLType;
 import com.dangdang.ddframe.rdb.sharding.exception.ShardingJdbcException;
 import com.dangdang.ddframe.rdb.sharding.executor.event.AbstractExecutionEvent;
@@ -28,9 +31,11 @@ import com.dangdang.ddframe.rdb.sharding.executor.threadlocal.ExecutorExceptionH
 import com.dangdang.ddframe.rdb.sharding.executor.type.batch.BatchPreparedStatementUnit;
 import com.dangdang.ddframe.rdb.sharding.executor.type.prepared.PreparedStatementUnit;
 import com.dangdang.ddframe.rdb.sharding.executor.type.statement.StatementUnit;
+import com.dangdang.ddframe.rdb.sharding.metrics.MetricsType;
+import com.dangdang.ddframe.rdb.sharding.metrics.ShardingMetrics;
 import com.dangdang.ddframe.rdb.sharding.util.EventBusInstance;
+import com.google.common.base.Function;
 import com.google.common.base.Optional;
-import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
@@ -38,18 +43,25 @@ import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.extern.slf4j.Slf4j;
 
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * SQL执行引擎.
@@ -62,9 +74,21 @@ public final class ExecutorEngine implements AutoCloseable {
     
     private final ListeningExecutorService executorService;
     
+    private final int maxUnitsPerDataSource;
+    
+    private final ShardingMetrics shardingMetrics;
+    
+    private final ConcurrentMap<String, DataSourceBulkhead> bulkheads = new ConcurrentHashMap<>();
+    
     public ExecutorEngine(final int executorSize) {
+        this(executorSize, Integer.parseInt(ShardingPropertiesConstant.EXECUTOR_QUEUE_SIZE.getDefaultValue()), 0, new ShardingMetrics());
+    }
+    
+    public ExecutorEngine(final int executorSize, final int queueSize, final int maxUnitsPerDataSource, final ShardingMetrics shardingMetrics) {
+        this.maxUnitsPerDataSource = maxUnitsPerDataSource;
+        this.shardingMetrics = shardingMetrics;
         executorService = MoreExecutors.listeningDecorator(new ThreadPoolExecutor(
-                executorSize, executorSize, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+                executorSize, executorSize, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(queueSize),
                 new ThreadFactoryBuilder().setDaemon(true).setNameFormat("ShardingJDBC-%d").build()));
         MoreExecutors.addDelayedShutdownHook(executorService, 60, TimeUnit.SECONDS); // TODO 疑问：会执行到么？数据
     }
@@ -82,6 +106,23 @@ public final class ExecutorEngine implements AutoCloseable {
         return execute(sqlType, statementUnits, Collections.<List<Object>>emptyList(), executeCallback);
     }
     
+    /**
+     * 异步执行Statement.
+     * 
+     * <p>
+     * 所有执行单元均提交至工作线程池, 调用线程不阻塞.
+     * </p>
+     *
+     * @param sqlType SQL类型
+     * @param statementUnits 语句对象执行单元集合
+     * @param executeCallback 执行回调函数
+     * @param <T> 返回值类型
+     * @return 执行结果的异步结果
+     */
+    public <T> ListenableFuture<List<T>> executeStatementAsync(final SQLType sqlType, final Collection<StatementUnit> statementUnits, final ExecuteCallback<T> executeCallback) {
+        return executeAsync(sqlType, statementUnits, Collections.<List<Object>>emptyList(), executeCallback);
+    }
+    
     /**
      * 执行PreparedStatement.
      *
@@ -97,6 +138,25 @@ public final class ExecutorEngine implements AutoCloseable {
         return execute(sqlType, preparedStatementUnits, Collections.singletonList(parameters), executeCallback);
     }
     
+    /**
+     * 异步执行PreparedStatement.
+     * 
+     * <p>
+     * 所有执行单元均提交至工作线程池, 调用线程不阻塞.
+     * </p>
+     *
+     * @param sqlType SQL类型
+     * @param preparedStatementUnits 语句对象执行单元集合
+     * @param parameters 参数列表
+     * @param executeCallback 执行回调函数
+     * @param <T> 返回值类型
+     * @return 执行结果的异步结果
+     */
+    public <T> ListenableFuture<List<T>> executePreparedStatementAsync(
+            final SQLType sqlType, final Collection<PreparedStatementUnit> preparedStatementUnits, final List<Object> parameters, final ExecuteCallback<T> executeCallback) {
+        return executeAsync(sqlType, preparedStatementUnits, Collections.singletonList(parameters), executeCallback);
+    }
+    
     /**
      * 执行Batch.
      *
@@ -126,16 +186,190 @@ public final class ExecutorEngine implements AutoCloseable {
         if (baseStatementUnits.isEmpty()) {
             return Collections.emptyList();
         }
-        Iterator<? extends BaseStatementUnit> iterator = baseStatementUnits.iterator();
-        BaseStatementUnit firstInput = iterator.next();
-        // 第二个任务开始所有 SQL任务 提交线程池【异步】执行任务
-        ListenableFuture<List<T>> restFutures = asyncExecute(sqlType, Lists.newArrayList(iterator), parameterSets, executeCallback);
-        T firstOutput;
-        List<T> restOutputs;
+        if (1 == baseStatementUnits.size()) {
+            return executeSingle(sqlType, baseStatementUnits.iterator().next(), parameterSets, executeCallback);
+        }
+        List<BaseStatementUnit> units = new ArrayList<>(baseStatementUnits);
+        List<Entry<Connection, List<Integer>>> groups;
+        try {
+            groups = groupByConnection(units);
+        } catch (final SQLException ex) {
+            ExecutorExceptionHandler.handleException(ex);
+            return null;
+        }
+        acquireBulkheads(units);
+        Context context = shardingMetrics.start(MetricsType.EXECUTE);
+        try {
+            return execute(sqlType, units, groups, parameterSets, executeCallback);
+        } finally {
+            ShardingMetrics.stop(context);
+        }
+    }
+    
+    /**
+     * 执行单个执行单元.
+     * 在调用线程中直接执行, 无需按数据库连接分组及提交线程池.
+     * 
+     * @param sqlType SQL类型
+     * @param baseStatementUnit 语句对象执行单元
+     * @param parameterSets 参数列表集
+     * @param executeCallback 执行回调函数
+     * @param <T> 返回值类型
+     * @return 执行结果
+     */
+    private <T> List<T> executeSingle(
+            final SQLType sqlType, final BaseStatementUnit baseStatementUnit, final List<List<Object>> parameterSets, final ExecuteCallback<T> executeCallback) {
+        Connection connection;
+        try {
+            connection = baseStatementUnit.getStatement().getConnection();
+        } catch (final SQLException ex) {
+            ExecutorExceptionHandler.handleException(ex);
+            return null;
+        }
+        acquireBulkheads(Collections.singletonList(baseStatementUnit));
+        Context context = shardingMetrics.start(MetricsType.EXECUTE);
         try {
-            // 第一个任务【同步】执行任务
-            firstOutput = syncExecute(sqlType, firstInput, parameterSets, executeCallback);
-            // 等待第二个任务开始所有 SQL任务完成
+            return Collections.singletonList(
+                    executeInternal(sqlType, baseStatementUnit, connection, parameterSets, executeCallback, ExecutorExceptionHandler.isExceptionThrown(), ExecutorDataMap.getDataMap()));
+            //CHECKSTYLE:OFF
+        } catch (final Exception ex) {
+            //CHECKSTYLE:ON
+            ExecutorExceptionHandler.handleException(ex);
+            return null;
+        } finally {
+            ShardingMetrics.stop(context);
+        }
+    }
+    
+    private <T> ListenableFuture<List<T>> executeAsync(
+            final SQLType sqlType, final Collection<? extends BaseStatementUnit> baseStatementUnits, final List<List<Object>> parameterSets, final ExecuteCallback<T> executeCallback) {
+        if (baseStatementUnits.isEmpty()) {
+            return Futures.immediateFuture(Collections.<T>emptyList());
+        }
+        final List<BaseStatementUnit> units = new ArrayList<>(baseStatementUnits);
+        final List<Entry<Connection, List<Integer>>> groups;
+        try {
+            groups = groupByConnection(units);
+        } catch (final SQLException ex) {
+            return Futures.immediateFailedFuture(ex);
+        }
+        acquireBulkheads(units);
+        final Context context = shardingMetrics.start(MetricsType.EXECUTE);
+        ListenableFuture<List<List<T>>> outputs;
+        try {
+            outputs = asyncExecute(sqlType, units, groups, parameterSets, executeCallback);
+        } catch (final RejectedExecutionException ex) {
+            ShardingMetrics.stop(context);
+            return Futures.immediateFailedFuture(new ShardingJdbcException("Execution rejected by executor engine.", ex));
+        }
+        outputs.addListener(new Runnable() {
+            
+            @Override
+            public void run() {
+                ShardingMetrics.stop(context);
+            }
+        }, MoreExecutors.directExecutor());
+        return Futures.transform(outputs, new Function<List<List<T>>, List<T>>() {
+            
+            @Override
+            public List<T> apply(final List<List<T>> input) {
+                return reorder(units.size(), groups, input);
+            }
+        });
+    }
+    
+    /**
+     * 按数据源占用隔离舱配额.
+     * 任一数据源配额不足时释放已占用的配额并拒绝本次执行, 避免部分执行单元已提交.
+     *
+     * @param baseStatementUnits 语句对象执行单元集合
+     */
+    private void acquireBulkheads(final Collection<? extends BaseStatementUnit> baseStatementUnits) {
+        Map<String, Integer> unitsCount = new LinkedHashMap<>();
+        for (BaseStatementUnit each : baseStatementUnits) {
+            String dataSourceName = each.getSqlExecutionUnit().getDataSource();
+            Integer count = unitsCount.get(dataSourceName);
+            unitsCount.put(dataSourceName, null == count ? 1 : count + 1);
+        }
+        Map<DataSourceBulkhead, Integer> acquired = new LinkedHashMap<>(unitsCount.size(), 1);
+        for (Entry<String, Integer> entry : unitsCount.entrySet()) {
+            DataSourceBulkhead bulkhead = getBulkhead(entry.getKey());
+            if (!bulkhead.tryAcquire(entry.getValue())) {
+                for (Entry<DataSourceBulkhead, Integer> each : acquired.entrySet()) {
+                    each.getKey().release(each.getValue());
+                }
+                throw new ShardingJdbcException("Execution of data source '%s' rejected: %s units requested, %s queued, %s active, limit is %s.", 
+                        entry.getKey(), entry.getValue(), bulkhead.getQueueDepth(), bulkhead.getActiveCount(), bulkhead.getMaxUnits());
+            }
+            acquired.put(bulkhead, entry.getValue());
+        }
+    }
+    
+    private DataSourceBulkhead getBulkhead(final String dataSourceName) {
+        DataSourceBulkhead result = bulkheads.get(dataSourceName);
+        if (null != result) {
+            return result;
+        }
+        final DataSourceBulkhead bulkhead = new DataSourceBulkhead(dataSourceName, maxUnitsPerDataSource);
+        result = bulkheads.putIfAbsent(dataSourceName, bulkhead);
+        if (null != result) {
+            return result;
+        }
+        shardingMetrics.registerExecutorGauges(dataSourceName, new Gauge<Integer>() {
+            
+            @Override
+            public Integer getValue() {
+                return bulkhead.getActiveCount();
+            }
+        }, new Gauge<Integer>() {
+            
+            @Override
+            public Integer getValue() {
+                return bulkhead.getQueueDepth();
+            }
+        });
+        return bulkhead;
+    }
+    
+    /**
+     * 按数据库连接将执行单元分组.
+     * 同一连接上的执行单元无法并行, 分为一组在同一线程中顺序执行, 避免占用多个工作线程等待连接锁.
+     *
+     * @param units 语句对象执行单元列表
+     * @return 数据库连接与执行单元下标的分组
+     * @throws SQLException 获取数据库连接时发生异常
+     */
+    private List<Entry<Connection, List<Integer>>> groupByConnection(final List<BaseStatementUnit> units) throws SQLException {
+        Map<Connection, List<Integer>> result = new LinkedHashMap<>();
+        for (int i = 0; i < units.size(); i++) {
+            Connection connection = units.get(i).getStatement().getConnection();
+            List<Integer> group = result.get(connection);
+            if (null == group) {
+                group = new LinkedList<>();
+                result.put(connection, group);
+            }
+            group.add(i);
+        }
+        return new ArrayList<>(result.entrySet());
+    }
+    
+    private <T> List<T> execute(
+            final SQLType sqlType, final List<BaseStatementUnit> units, final List<Entry<Connection, List<Integer>>> groups, 
+            final List<List<Object>> parameterSets, final ExecuteCallback<T> executeCallback) {
+        // 第二组开始所有 SQL任务 提交线程池【异步】执行任务
+        ListenableFuture<List<List<T>>> restFutures;
+        try {
+            restFutures = asyncExecute(sqlType, units, groups.subList(1, groups.size()), parameterSets, executeCallback);
+        } catch (final RejectedExecutionException ex) {
+            releaseBulkheads(units, groups.get(0).getValue());
+            throw new ShardingJdbcException("Execution rejected by executor engine.", ex);
+        }
+        List<T> firstOutputs;
+        List<List<T>> restOutputs;
+        try {
+            // 第一组任务【同步】执行任务
+            firstOutputs = syncExecute(sqlType, units, groups.get(0), parameterSets, executeCallback);
+            // 等待第二组开始所有 SQL任务完成
             restOutputs = restFutures.get();
             //CHECKSTYLE:OFF
         } catch (final Exception ex) {
@@ -143,77 +377,178 @@ public final class ExecutorEngine implements AutoCloseable {
             ExecutorExceptionHandler.handleException(ex);
             return null;
         }
-        // 返回结果
-        List<T> result = Lists.newLinkedList(restOutputs);
-        result.add(0, firstOutput);
+        List<List<T>> outputs = new ArrayList<>(groups.size());
+        outputs.add(firstOutputs);
+        outputs.addAll(restOutputs);
+        return reorder(units.size(), groups, outputs);
+    }
+    
+    /**
+     * 按执行单元原顺序返回结果.
+     * 
+     * @param size 执行单元数量
+     * @param groups 数据库连接与执行单元下标的分组
+     * @param outputs 各分组的执行结果
+     * @param <T> 返回值类型
+     * @return 按执行单元原顺序排列的执行结果
+     */
+    private <T> List<T> reorder(final int size, final List<Entry<Connection, List<Integer>>> groups, final List<List<T>> outputs) {
+        List<T> result = new ArrayList<>(Collections.<T>nCopies(size, null));
+        for (int i = 0; i < groups.size(); i++) {
+            Iterator<T> groupOutputs = outputs.get(i).iterator();
+            for (int each : groups.get(i).getValue()) {
+                result.set(each, groupOutputs.next());
+            }
+        }
         return result;
     }
 
-    private <T> ListenableFuture<List<T>> asyncExecute(
-            final SQLType sqlType, final Collection<BaseStatementUnit> baseStatementUnits, final List<List<Object>> parameterSets, final ExecuteCallback<T> executeCallback) {
-        List<ListenableFuture<T>> result = new ArrayList<>(baseStatementUnits.size());
+    /**
+     * 提交线程池异步执行各分组.
+     * 
+     * <p>
+     * 线程池拒绝提交时, 已提交但尚未开始执行的分组不再执行, 并与未提交的分组一起释放隔离舱配额.
+     * 尚未开始执行的分组被取消时同样释放隔离舱配额.
+     * </p>
+     * 
+     * @param sqlType SQL类型
+     * @param units 语句对象执行单元列表
+     * @param groups 数据库连接与执行单元下标的分组
+     * @param parameterSets 参数列表集
+     * @param executeCallback 执行回调函数
+     * @param <T> 返回值类型
+     * @return 各分组执行结果的异步结果
+     */
+    private <T> ListenableFuture<List<List<T>>> asyncExecute(final SQLType sqlType, final List<BaseStatementUnit> units, 
+                                                             final List<Entry<Connection, List<Integer>>> groups, final List<List<Object>> parameterSets, final ExecuteCallback<T> executeCallback) {
+        List<ListenableFuture<List<T>>> result = new ArrayList<>(groups.size());
+        List<AtomicBoolean> startedFlags = new ArrayList<>(groups.size());
         final boolean isExceptionThrown = ExecutorExceptionHandler.isExceptionThrown();
         final Map<String, Object> dataMap = ExecutorDataMap.getDataMap();
-        for (final BaseStatementUnit each : baseStatementUnits) {
-            // 提交线程池【异步】执行任务
-            result.add(executorService.submit(new Callable<T>() {
-
+        for (int i = 0; i < groups.size(); i++) {
+            final Entry<Connection, List<Integer>> group = groups.get(i);
+            final AtomicBoolean started = new AtomicBoolean();
+            final ListenableFuture<List<T>> future;
+            try {
+                // 提交线程池【异步】执行任务
+                future = executorService.submit(new Callable<List<T>>() {
+                    
+                    @Override
+                    public List<T> call() throws Exception {
+                        if (!started.compareAndSet(false, true)) {
+                            return Collections.emptyList();
+                        }
+                        return executeGroup(sqlType, units, group.getKey(), group.getValue(), parameterSets, executeCallback, isExceptionThrown, dataMap);
+                    }
+                });
+            } catch (final RejectedExecutionException ex) {
+                for (int j = 0; j < i; j++) {
+                    if (startedFlags.get(j).compareAndSet(false, true)) {
+                        releaseBulkheads(units, groups.get(j).getValue());
+                    }
+                }
+                for (Entry<Connection, List<Integer>> each : groups.subList(i, groups.size())) {
+                    releaseBulkheads(units, each.getValue());
+                }
+                throw ex;
+            }
+            future.addListener(new Runnable() {
+                
                 @Override
-                public T call() throws Exception {
-                    return executeInternal(sqlType, each, parameterSets, executeCallback, isExceptionThrown, dataMap);
+                public void run() {
+                    if (future.isCancelled() && started.compareAndSet(false, true)) {
+                        releaseBulkheads(units, group.getValue());
+                    }
                 }
-            }));
+            }, MoreExecutors.directExecutor());
+            result.add(future);
+            startedFlags.add(started);
         }
         // 返回 ListenableFuture
         return Futures.allAsList(result);
     }
+    
+    private void releaseBulkheads(final List<BaseStatementUnit> units, final List<Integer> group) {
+        for (int each : group) {
+            getBulkhead(units.get(each).getSqlExecutionUnit().getDataSource()).release(1);
+        }
+    }
 
-    private <T> T syncExecute(final SQLType sqlType, final BaseStatementUnit baseStatementUnit, final List<List<Object>> parameterSets, final ExecuteCallback<T> executeCallback) throws Exception {
+    private <T> List<T> syncExecute(final SQLType sqlType, final List<BaseStatementUnit> units, final Entry<Connection, List<Integer>> group, 
+                                    final List<List<Object>> parameterSets, final ExecuteCallback<T> executeCallback) throws Exception {
         // 【同步】执行任务
-        return executeInternal(sqlType, baseStatementUnit, parameterSets, executeCallback, ExecutorExceptionHandler.isExceptionThrown(), ExecutorDataMap.getDataMap());
+        return executeGroup(sqlType, units, group.getKey(), group.getValue(), parameterSets, executeCallback, ExecutorExceptionHandler.isExceptionThrown(), ExecutorDataMap.getDataMap());
+    }
+    
+    private <T> List<T> executeGroup(final SQLType sqlType, final List<BaseStatementUnit> units, final Connection connection, final List<Integer> group, 
+                                     final List<List<Object>> parameterSets, final ExecuteCallback<T> executeCallback, final boolean isExceptionThrown, final Map<String, Object> dataMap) throws Exception {
+        List<T> result = new ArrayList<>(group.size());
+        try {
+            for (int each : group) {
+                result.add(executeInternal(sqlType, units.get(each), connection, parameterSets, executeCallback, isExceptionThrown, dataMap));
+            }
+        } finally {
+            // 执行中断时释放后续未执行单元的隔离舱配额
+            releaseBulkheads(units, group.subList(Math.min(result.size() + 1, group.size()), group.size()));
+        }
+        return result;
     }
     
-    private <T> T executeInternal(final SQLType sqlType, final BaseStatementUnit baseStatementUnit, final List<List<Object>> parameterSets, final ExecuteCallback<T> executeCallback, 
+    private <T> T executeInternal(final SQLType sqlType, final BaseStatementUnit baseStatementUnit, final Connection connection, final List<List<Object>> parameterSets, final ExecuteCallback<T> executeCallback, 
                           final boolean isExceptionThrown, final Map<String, Object> dataMap) throws Exception {
-        synchronized (baseStatementUnit.getStatement().getConnection()) { // 可能拿到相同的 Connection，同步避免冲突
+        DataSourceBulkhead bulkhead = getBulkhead(baseStatementUnit.getSqlExecutionUnit().getDataSource());
+        try {
+            synchronized (connection) { // 可能拿到相同的 Connection，同步避免冲突
 //            System.out.println(baseStatementUnit.getStatement().getConnection() + "\t" + baseStatementUnit.getSqlExecutionUnit().getSql());
 
-            T result;
-            ExecutorExceptionHandler.setExceptionThrown(isExceptionThrown);
-            ExecutorDataMap.setDataMap(dataMap);
-            List<AbstractExecutionEvent> events = new LinkedList<>();
-            // 生成 Event
-            if (parameterSets.isEmpty()) {
-                events.add(getExecutionEvent(sqlType, baseStatementUnit, Collections.emptyList()));
-            } else {
-                for (List<Object> each : parameterSets) {
-                    events.add(getExecutionEvent(sqlType, baseStatementUnit, each));
+                T result;
+                ExecutorExceptionHandler.setExceptionThrown(isExceptionThrown);
+                ExecutorDataMap.setDataMap(dataMap);
+                // 生成 Event, 未注册监听器时无需生成
+                List<AbstractExecutionEvent> events = EventBusInstance.hasRegistered() ? getExecutionEvents(sqlType, baseStatementUnit, parameterSets) : Collections.<AbstractExecutionEvent>emptyList();
+                // EventBus 发布 EventExecutionType.BEFORE_EXECUTE
+                for (AbstractExecutionEvent event : events) {
+                    EventBusInstance.getInstance().post(event);
                 }
-            }
-            // EventBus 发布 EventExecutionType.BEFORE_EXECUTE
-            for (AbstractExecutionEvent event : events) {
-                EventBusInstance.getInstance().post(event);
-            }
-            try {
-                // 执行回调函数
-                result = executeCallback.execute(baseStatementUnit);
-            } catch (final SQLException ex) {
-                // EventBus 发布 EventExecutionType.EXECUTE_FAILURE
+                Context context = shardingMetrics.startExecute(baseStatementUnit.getSqlExecutionUnit().getDataSource());
+                bulkhead.activate();
+                try {
+                    // 执行回调函数
+                    result = executeCallback.execute(baseStatementUnit);
+                } catch (final SQLException ex) {
+                    // EventBus 发布 EventExecutionType.EXECUTE_FAILURE
+                    for (AbstractExecutionEvent each : events) {
+                        each.setEventExecutionType(EventExecutionType.EXECUTE_FAILURE);
+                        each.setException(Optional.of(ex));
+                        EventBusInstance.getInstance().post(each);
+                    }
+                    ExecutorExceptionHandler.handleException(ex);
+                    return null;
+                } finally {
+                    bulkhead.deactivate();
+                    ShardingMetrics.stop(context);
+                }
+                // EventBus 发布 EventExecutionType.EXECUTE_SUCCESS
                 for (AbstractExecutionEvent each : events) {
-                    each.setEventExecutionType(EventExecutionType.EXECUTE_FAILURE);
-                    each.setException(Optional.of(ex));
+                    each.setEventExecutionType(EventExecutionType.EXECUTE_SUCCESS);
                     EventBusInstance.getInstance().post(each);
-                    ExecutorExceptionHandler.handleException(ex); // TODO 疑问：如果多个任务，只发一个执行异常么？
                 }
-                return null;
-            }
-            // EventBus 发布 EventExecutionType.EXECUTE_SUCCESS
-            for (AbstractExecutionEvent each : events) {
-                each.setEventExecutionType(EventExecutionType.EXECUTE_SUCCESS);
-                EventBusInstance.getInstance().post(each);
+                return result;
             }
-            return result;
+        } finally {
+            bulkhead.release(1);
+        }
+    }
+    
+    private List<AbstractExecutionEvent> getExecutionEvents(final SQLType sqlType, final BaseStatementUnit baseStatementUnit, final List<List<Object>> parameterSets) {
+        if (parameterSets.isEmpty()) {
+            return Collections.singletonList(getExecutionEvent(sqlType, baseStatementUnit, Collections.emptyList()));
         }
+        List<AbstractExecutionEvent> result = new ArrayList<>(parameterSets.size());
+        for (List<Object> each : parameterSets) {
+            result.add(getExecutionEvent(sqlType, baseStatementUnit, each));
+        }
+        return result;
     }
     
     private AbstractExecutionEvent getExecutionEvent(final SQLType sqlType, final BaseStatementUnit baseStatementUnit, final List<Object> parameters) {
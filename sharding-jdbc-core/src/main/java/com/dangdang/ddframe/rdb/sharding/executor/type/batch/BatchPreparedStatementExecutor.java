@@ -17,17 +17,14 @@
 
 package com.dangdang.ddframe.rdb.sharding.executor.type.batch;
 
-import com.codahale.metrics.Timer.Context;
 import com.dangdang.ddframe.rdb.sharding.constant.SQLType;
 import com.dangdang.ddframe.rdb.sharding.executor.BaseStatementUnit;
 import com.dangdang.ddframe.rdb.sharding.executor.ExecuteCallback;
 import com.dangdang.ddframe.rdb.sharding.executor.ExecutorEngine;
-import com.dangdang.ddframe.rdb.sharding.metrics.MetricsContext;
 import lombok.RequiredArgsConstructor;
 
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 多线程执行批量预编译语句对象请求的执行器. // TODO 疑问： BatchStatementExecutor 为啥不支持
@@ -51,18 +48,13 @@ public final class BatchPreparedStatementExecutor {
      * @return 执行结果
      */
     public int[] executeBatch() {
-        Context context = MetricsContext.start("ShardingPreparedStatement-executeBatch");
-        try {
-            return accumulate(executorEngine.executeBatch(sqlType, batchPreparedStatementUnits, parameterSets, new ExecuteCallback<int[]>() {
-                
-                @Override
-                public int[] execute(final BaseStatementUnit baseStatementUnit) throws Exception {
-                    return baseStatementUnit.getStatement().executeBatch();
-                }
-            }));
-        } finally {
-            MetricsContext.stop(context);
-        }
+        return accumulate(executorEngine.executeBatch(sqlType, batchPreparedStatementUnits, parameterSets, new ExecuteCallback<int[]>() {
+            
+            @Override
+            public int[] execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                return baseStatementUnit.getStatement().executeBatch();
+            }
+        }));
     }
 
     /**
@@ -76,8 +68,10 @@ public final class BatchPreparedStatementExecutor {
         int count = 0;
         // 每个语句按照顺序，读取到其对应的每个分片SQL影响的行数进行累加
         for (BatchPreparedStatementUnit each : batchPreparedStatementUnits) {
-            for (Map.Entry<Integer, Integer> entry : each.getJdbcAndActualAddBatchCallTimesMap().entrySet()) {
-                result[entry.getKey()] += null == results.get(count) ? 0 : results.get(count)[entry.getValue()];
+            if (null != results.get(count)) {
+                for (int i = 0; i < each.getActualCallAddBatchTimes(); i++) {
+                    result[each.getJdbcAddBatchTimes(i)] += results.get(count)[i];
+                }
             }
             count++;
         }
@@ -24,8 +24,7 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
 import java.sql.PreparedStatement;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * 预编译语句对象的执行上下文.
@@ -40,9 +39,12 @@ public final class BatchPreparedStatementUnit implements BaseStatementUnit {
     
     private final PreparedStatement statement;
     
-    private final Map<Integer, Integer> jdbcAndActualAddBatchCallTimesMap = new HashMap<>();
-    
+    /**
+     * 路由之后的PreparedStatement内部第i次调用addBatch对应的通过JDBC API调用addBatch的次数
+     */
     @Getter(AccessLevel.NONE)
+    private int[] addBatchTimesMapping = new int[16];
+    
     private int actualCallAddBatchTimes;
     
     /**
@@ -51,6 +53,30 @@ public final class BatchPreparedStatementUnit implements BaseStatementUnit {
      * @param jdbcAddBatchTimes 通过JDBC API调用addBatch的次数
      */
     public void mapAddBatchCount(final int jdbcAddBatchTimes) {
-        jdbcAndActualAddBatchCallTimesMap.put(jdbcAddBatchTimes, actualCallAddBatchTimes++);
-    } // TODO 疑问：等调试 jdbc 专门在调试一次
+        if (actualCallAddBatchTimes == addBatchTimesMapping.length) {
+            addBatchTimesMapping = Arrays.copyOf(addBatchTimesMapping, actualCallAddBatchTimes << 1);
+        }
+        addBatchTimesMapping[actualCallAddBatchTimes++] = jdbcAddBatchTimes;
+    }
+    
+    /**
+     * 获取路由之后的PreparedStatement内部真实调用addBatch对应的通过JDBC API调用addBatch的次数.
+     * 
+     * @param actualAddBatchTimes PreparedStatement内部真实调用addBatch的次数
+     * @return 通过JDBC API调用addBatch的次数
+     */
+    public int getJdbcAddBatchTimes(final int actualAddBatchTimes) {
+        return addBatchTimesMapping[actualAddBatchTimes];
+    }
+    
+    /**
+     * 清除addBatch次数映射.
+     * 
+     * <p>
+     * 累积的语句执行后PreparedStatement内部的批量语句已清空, 再次调用addBatch时从0开始计数.
+     * </p>
+     */
+    public void clearAddBatchCount() {
+        actualCallAddBatchTimes = 0;
+    }
 }
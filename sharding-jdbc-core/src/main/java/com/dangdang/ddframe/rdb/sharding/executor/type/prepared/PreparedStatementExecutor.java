@@ -17,12 +17,15 @@
 
 package com.dangdang.ddframe.rdb.sharding.executor.type.prepared;
 
-import com.codahale.metrics.Timer.Context;
 import com.dangdang.ddframe.rdb.sharding.constant.SQLType;
 import com.dangdang.ddframe.rdb.sharding.executor.BaseStatementUnit;
 import com.dangdang.ddframe.rdb.sharding.executor.ExecuteCallback;
 import com.dangdang.ddframe.rdb.sharding.executor.ExecutorEngine;
-import com.dangdang.ddframe.rdb.sharding.metrics.MetricsContext;
+import com.dangdang.ddframe.rdb.sharding.merger.groupby.GroupByPartialAggregator;
+import com.dangdang.ddframe.rdb.sharding.merger.iterator.ConcurrentIteratorResultSetMerger;
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import lombok.RequiredArgsConstructor;
 
 import java.sql.PreparedStatement;
@@ -53,20 +56,13 @@ public final class PreparedStatementExecutor {
      * @return 结果集列表
      */
     public List<ResultSet> executeQuery() {
-        Context context = MetricsContext.start("ShardingPreparedStatement-executeQuery");
-        List<ResultSet> result;
-        try {
-            result = executorEngine.executePreparedStatement(sqlType, preparedStatementUnits, parameters, new ExecuteCallback<ResultSet>() {
-                
-                @Override
-                public ResultSet execute(final BaseStatementUnit baseStatementUnit) throws Exception {
-                    return ((PreparedStatement) baseStatementUnit.getStatement()).executeQuery();
-                }
-            });
-        } finally {
-            MetricsContext.stop(context);
-        }
-        return result;
+        return executorEngine.executePreparedStatement(sqlType, preparedStatementUnits, parameters, new ExecuteCallback<ResultSet>() {
+            
+            @Override
+            public ResultSet execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                return ((PreparedStatement) baseStatementUnit.getStatement()).executeQuery();
+            }
+        });
     }
     
     /**
@@ -75,19 +71,104 @@ public final class PreparedStatementExecutor {
      * @return 更新数量
      */
     public int executeUpdate() {
-        Context context = MetricsContext.start("ShardingPreparedStatement-executeUpdate");
-        try {
-            List<Integer> results = executorEngine.executePreparedStatement(sqlType, preparedStatementUnits, parameters, new ExecuteCallback<Integer>() {
-                
-                @Override
-                public Integer execute(final BaseStatementUnit baseStatementUnit) throws Exception {
-                    return ((PreparedStatement) baseStatementUnit.getStatement()).executeUpdate();
-                }
-            });
-            return accumulate(results);
-        } finally {
-            MetricsContext.stop(context);
-        }
+        List<Integer> results = executorEngine.executePreparedStatement(sqlType, preparedStatementUnits, parameters, new ExecuteCallback<Integer>() {
+            
+            @Override
+            public Integer execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                return ((PreparedStatement) baseStatementUnit.getStatement()).executeUpdate();
+            }
+        });
+        return accumulate(results);
+    }
+    
+    /**
+     * 执行SQL查询, 并在执行分片的工作线程中对各分片结果集做分组部分聚合.
+     * 
+     * @param groupByPartialAggregator 分组部分聚合器
+     * @return 结果集列表
+     */
+    public List<ResultSet> executeQuery(final GroupByPartialAggregator groupByPartialAggregator) {
+        return executorEngine.executePreparedStatement(sqlType, preparedStatementUnits, parameters, new ExecuteCallback<ResultSet>() {
+            
+            @Override
+            public ResultSet execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                ResultSet result = ((PreparedStatement) baseStatementUnit.getStatement()).executeQuery();
+                groupByPartialAggregator.aggregate(result);
+                return result;
+            }
+        });
+    }
+    
+    /**
+     * 执行SQL查询, 各分片结果集的数据行按分片就绪的先后顺序交由并发迭代归并结果集读取.
+     * 
+     * @param resultSetMerger 并发迭代归并结果集
+     */
+    public void executeQuery(final ConcurrentIteratorResultSetMerger resultSetMerger) {
+        resultSetMerger.bind(executorEngine.executePreparedStatementAsync(sqlType, preparedStatementUnits, parameters, new ExecuteCallback<ResultSet>() {
+            
+            @Override
+            public ResultSet execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                ResultSet result = ((PreparedStatement) baseStatementUnit.getStatement()).executeQuery();
+                resultSetMerger.produce(result);
+                return result;
+            }
+        }));
+    }
+    
+    /**
+     * 异步执行SQL查询.
+     * 
+     * @return 结果集列表的异步结果
+     */
+    public ListenableFuture<List<ResultSet>> executeQueryAsync() {
+        return executorEngine.executePreparedStatementAsync(sqlType, preparedStatementUnits, parameters, new ExecuteCallback<ResultSet>() {
+            
+            @Override
+            public ResultSet execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                return ((PreparedStatement) baseStatementUnit.getStatement()).executeQuery();
+            }
+        });
+    }
+    
+    /**
+     * 异步执行SQL查询, 并在执行分片的工作线程中对各分片结果集做分组部分聚合.
+     * 
+     * @param groupByPartialAggregator 分组部分聚合器
+     * @return 结果集列表的异步结果
+     */
+    public ListenableFuture<List<ResultSet>> executeQueryAsync(final GroupByPartialAggregator groupByPartialAggregator) {
+        return executorEngine.executePreparedStatementAsync(sqlType, preparedStatementUnits, parameters, new ExecuteCallback<ResultSet>() {
+            
+            @Override
+            public ResultSet execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                ResultSet result = ((PreparedStatement) baseStatementUnit.getStatement()).executeQuery();
+                groupByPartialAggregator.aggregate(result);
+                return result;
+            }
+        });
+    }
+    
+    /**
+     * 异步执行SQL更新.
+     * 
+     * @return 更新数量的异步结果
+     */
+    public ListenableFuture<Integer> executeUpdateAsync() {
+        ListenableFuture<List<Integer>> results = executorEngine.executePreparedStatementAsync(sqlType, preparedStatementUnits, parameters, new ExecuteCallback<Integer>() {
+            
+            @Override
+            public Integer execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                return ((PreparedStatement) baseStatementUnit.getStatement()).executeUpdate();
+            }
+        });
+        return Futures.transform(results, new Function<List<Integer>, Integer>() {
+            
+            @Override
+            public Integer apply(final List<Integer> input) {
+                return accumulate(input);
+            }
+        });
     }
     
     private int accumulate(final List<Integer> results) {
@@ -104,21 +185,16 @@ public final class PreparedStatementExecutor {
      * @return true表示执行DQL, false表示执行的DML
      */
     public boolean execute() {
-        Context context = MetricsContext.start("ShardingPreparedStatement-execute");
-        try {
-            List<Boolean> result = executorEngine.executePreparedStatement(sqlType, preparedStatementUnits, parameters, new ExecuteCallback<Boolean>() {
-                
-                @Override
-                public Boolean execute(final BaseStatementUnit baseStatementUnit) throws Exception {
-                    return ((PreparedStatement) baseStatementUnit.getStatement()).execute();
-                }
-            });
-            if (null == result || result.isEmpty() || null == result.get(0)) {
-                return false;
+        List<Boolean> result = executorEngine.executePreparedStatement(sqlType, preparedStatementUnits, parameters, new ExecuteCallback<Boolean>() {
+            
+            @Override
+            public Boolean execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                return ((PreparedStatement) baseStatementUnit.getStatement()).execute();
             }
-            return result.get(0);
-        } finally {
-            MetricsContext.stop(context);
+        });
+        if (null == result || result.isEmpty() || null == result.get(0)) {
+            return false;
         }
+        return result.get(0);
     }
 }
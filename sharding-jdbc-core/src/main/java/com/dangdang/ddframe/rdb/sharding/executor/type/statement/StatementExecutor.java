@@ -17,12 +17,12 @@
 
 package com.dangdang.ddframe.rdb.sharding.executor.type.statement;
 
-import com.codahale.metrics.Timer.Context;
 import com.dangdang.ddframe.rdb.sharding.constant.SQLType;
 import com.dangdang.ddframe.rdb.sharding.executor.BaseStatementUnit;
 import com.dangdang.ddframe.rdb.sharding.executor.ExecuteCallback;
 import com.dangdang.ddframe.rdb.sharding.executor.ExecutorEngine;
-import com.dangdang.ddframe.rdb.sharding.metrics.MetricsContext;
+import com.dangdang.ddframe.rdb.sharding.merger.groupby.GroupByPartialAggregator;
+import com.dangdang.ddframe.rdb.sharding.merger.iterator.ConcurrentIteratorResultSetMerger;
 import lombok.RequiredArgsConstructor;
 
 import java.sql.ResultSet;
@@ -53,20 +53,48 @@ import java.util.List;
      * @return 结果集列表
      */
     public List<ResultSet> executeQuery() {
-        Context context = MetricsContext.start("ShardingStatement-executeQuery");
-        List<ResultSet> result;
-        try {
-            result = executorEngine.executeStatement(sqlType, statementUnits, new ExecuteCallback<ResultSet>() {
-                
-                @Override
-                public ResultSet execute(final BaseStatementUnit baseStatementUnit) throws Exception {
-                    return baseStatementUnit.getStatement().executeQuery(baseStatementUnit.getSqlExecutionUnit().getSql());
-                }
-            });
-        } finally {
-            MetricsContext.stop(context);
-        }
-        return result;
+        return executorEngine.executeStatement(sqlType, statementUnits, new ExecuteCallback<ResultSet>() {
+            
+            @Override
+            public ResultSet execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                return baseStatementUnit.getStatement().executeQuery(baseStatementUnit.getSqlExecutionUnit().getSql());
+            }
+        });
+    }
+    
+    /**
+     * 执行SQL查询, 并在执行分片的工作线程中对各分片结果集做分组部分聚合.
+     * 
+     * @param groupByPartialAggregator 分组部分聚合器
+     * @return 结果集列表
+     */
+    public List<ResultSet> executeQuery(final GroupByPartialAggregator groupByPartialAggregator) {
+        return executorEngine.executeStatement(sqlType, statementUnits, new ExecuteCallback<ResultSet>() {
+            
+            @Override
+            public ResultSet execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                ResultSet result = baseStatementUnit.getStatement().executeQuery(baseStatementUnit.getSqlExecutionUnit().getSql());
+                groupByPartialAggregator.aggregate(result);
+                return result;
+            }
+        });
+    }
+    
+    /**
+     * 执行SQL查询, 各分片结果集的数据行按分片就绪的先后顺序交由并发迭代归并结果集读取.
+     * 
+     * @param resultSetMerger 并发迭代归并结果集
+     */
+    public void executeQuery(final ConcurrentIteratorResultSetMerger resultSetMerger) {
+        resultSetMerger.bind(executorEngine.executeStatementAsync(sqlType, statementUnits, new ExecuteCallback<ResultSet>() {
+            
+            @Override
+            public ResultSet execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                ResultSet result = baseStatementUnit.getStatement().executeQuery(baseStatementUnit.getSqlExecutionUnit().getSql());
+                resultSetMerger.produce(result);
+                return result;
+            }
+        }));
     }
     
     /**
@@ -115,19 +143,14 @@ import java.util.List;
     }
     
     private int executeUpdate(final Updater updater) {
-        Context context = MetricsContext.start("ShardingStatement-executeUpdate");
-        try {
-            List<Integer> results = executorEngine.executeStatement(sqlType, statementUnits, new ExecuteCallback<Integer>() {
-                
-                @Override
-                public Integer execute(final BaseStatementUnit baseStatementUnit) throws Exception {
-                    return updater.executeUpdate(baseStatementUnit.getStatement(), baseStatementUnit.getSqlExecutionUnit().getSql());
-                }
-            });
-            return accumulate(results);
-        } finally {
-            MetricsContext.stop(context);
-        }
+        List<Integer> results = executorEngine.executeStatement(sqlType, statementUnits, new ExecuteCallback<Integer>() {
+            
+            @Override
+            public Integer execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                return updater.executeUpdate(baseStatementUnit.getStatement(), baseStatementUnit.getSqlExecutionUnit().getSql());
+            }
+        });
+        return accumulate(results);
     }
 
     /**
@@ -190,22 +213,17 @@ import java.util.List;
     }
     
     private boolean execute(final Executor executor) {
-        Context context = MetricsContext.start("ShardingStatement-execute");
-        try {
-            List<Boolean> result = executorEngine.executeStatement(sqlType, statementUnits, new ExecuteCallback<Boolean>() {
-                
-                @Override
-                public Boolean execute(final BaseStatementUnit baseStatementUnit) throws Exception {
-                    return executor.execute(baseStatementUnit.getStatement(), baseStatementUnit.getSqlExecutionUnit().getSql());
-                }
-            });
-            if (null == result || result.isEmpty() || null == result.get(0)) {
-                return false;
+        List<Boolean> result = executorEngine.executeStatement(sqlType, statementUnits, new ExecuteCallback<Boolean>() {
+            
+            @Override
+            public Boolean execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                return executor.execute(baseStatementUnit.getStatement(), baseStatementUnit.getSqlExecutionUnit().getSql());
             }
-            return result.get(0);
-        } finally {
-            MetricsContext.stop(context);
+        });
+        if (null == result || result.isEmpty() || null == result.get(0)) {
+            return false;
         }
+        return result.get(0);
     }
     
     private interface Updater {
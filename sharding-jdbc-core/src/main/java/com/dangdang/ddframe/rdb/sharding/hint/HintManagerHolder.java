@@ -97,6 +97,15 @@ public final class HintManagerHolder {
         return null != HINT_MANAGER_HOLDER.get() && HINT_MANAGER_HOLDER.get().isDatabaseShardingOnly();
     }
     
+    /**
+     * 判断是否以HyperLogLog近似估算COUNT(DISTINCT).
+     * 
+     * @return 是否近似估算COUNT(DISTINCT)
+     */
+    public static boolean isApproximateCountDistinct() {
+        return null != HINT_MANAGER_HOLDER.get() && HINT_MANAGER_HOLDER.get().isApproximateCountDistinct();
+    }
+    
     /**
      * 清理线索分片管理器的本地线程持有者.
      */
@@ -37,8 +37,10 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -353,6 +355,59 @@ public abstract class AbstractPreparedStatementAdapter extends AbstractUnsupport
         }
     }
 
+    /**
+     * 回放记录的设置参数方法调用, 并在指定位置插入参数
+     * 插入位置之后的参数依次后移
+     *
+     * @param preparedStatement 预编译语句对象
+     * @param insertIndex 插入位置之前的参数数量
+     * @param insertedParameters 插入的参数
+     * @throws SQLException 当 JDBC 操作发生异常时
+     */
+    protected void replaySetParameter(final PreparedStatement preparedStatement, final int insertIndex, final List<Object> insertedParameters) throws SQLException {
+        addParameters();
+        for (SetParameterMethodInvocation each : setParameterMethodInvocations) {
+            updateParameterValues(each, parameters.get(each.getIndex() - 1));
+            each.invoke(preparedStatement, each.getIndex() > insertIndex ? insertedParameters.size() : 0);
+        }
+        for (int i = 0; i < insertedParameters.size(); i++) {
+            preparedStatement.setObject(insertIndex + i + 1, insertedParameters.get(i));
+        }
+    }
+    
+    /**
+     * 回放记录的设置参数方法调用, 按执行 SQL 中占位符对应的参数索引设置参数, 并在指定位置插入参数
+     * 执行 SQL 中不存在的参数不回放
+     *
+     * @param preparedStatement 预编译语句对象
+     * @param parameterIndexes 执行 SQL 中各占位符依次对应的参数索引
+     * @param insertIndex 插入位置之前的参数数量
+     * @param insertedParameters 插入的参数
+     * @throws SQLException 当 JDBC 操作发生异常时
+     */
+    protected void replaySetParameter(final PreparedStatement preparedStatement, final List<Integer> parameterIndexes, 
+                                      final int insertIndex, final List<Object> insertedParameters) throws SQLException {
+        addParameters();
+        Map<Integer, Integer> positions = new HashMap<>(parameterIndexes.size(), 1);
+        int insertPosition = 0;
+        for (int i = 0; i < parameterIndexes.size(); i++) {
+            positions.put(parameterIndexes.get(i), i);
+            if (parameterIndexes.get(i) < insertIndex) {
+                insertPosition++;
+            }
+        }
+        for (SetParameterMethodInvocation each : setParameterMethodInvocations) {
+            updateParameterValues(each, parameters.get(each.getIndex() - 1));
+            Integer position = positions.get(each.getIndex() - 1);
+            if (null != position) {
+                each.invoke(preparedStatement, position + 1 - each.getIndex() + (position >= insertPosition ? insertedParameters.size() : 0));
+            }
+        }
+        for (int i = 0; i < insertedParameters.size(); i++) {
+            preparedStatement.setObject(insertPosition + i + 1, insertedParameters.get(i));
+        }
+    }
+    
     /**
      * 当使用分布式主键时，生成后会添加到 parameters，此时 parameters 数量多于 setParameterMethodInvocations，需要生成该分布式主键的 SetParameterMethodInvocation
      */
@@ -38,13 +38,13 @@ import java.util.List;
  */
 @Slf4j
 public abstract class AbstractResultSetAdapter extends AbstractUnsupportedOperationResultSet {
-
+    
     /**
      * 结果集集合
      */
     @Getter
     private final List<ResultSet> resultSets;
-
+    
     private boolean closed;
     
     public AbstractResultSetAdapter(final List<ResultSet> resultSets) {
@@ -54,7 +54,7 @@ public abstract class AbstractResultSetAdapter extends AbstractUnsupportedOperat
     
     @Override
     // TODO should return sharding statement in future
-    public final Statement getStatement() throws SQLException {
+    public Statement getStatement() throws SQLException {
         return getResultSets().get(0).getStatement();
     }
     
@@ -69,7 +69,7 @@ public abstract class AbstractResultSetAdapter extends AbstractUnsupportedOperat
     }
     
     @Override
-    public final void close() throws SQLException {
+    public void close() throws SQLException {
         closed = true;
         Collection<SQLException> exceptions = new LinkedList<>();
         for (ResultSet each : resultSets) {
@@ -46,15 +46,15 @@ public abstract class AbstractStatementAdapter extends AbstractUnsupportedOperat
     @SuppressWarnings("unchecked")
     public final void close() throws SQLException {
         closed = true;
-        getRoutedStatements().clear();
         Collection<SQLException> exceptions = new LinkedList<>();
-        for (Statement each : getRoutedStatements()) {
+        for (Statement each : getStatementsToClose()) {
             try {
                 each.close();
             } catch (final SQLException ex) {
                 exceptions.add(ex);
             }
         }
+        getRoutedStatements().clear();
         throwSQLExceptionIfNecessary(exceptions);
     }
     
@@ -219,4 +219,13 @@ public abstract class AbstractStatementAdapter extends AbstractUnsupportedOperat
      * @return 路由的静态语句对象集合
      */
     protected abstract Collection<? extends Statement> getRoutedStatements();
+    
+    /**
+     * 获取关闭时需要关闭的静态语句对象集合.
+     * 
+     * @return 关闭时需要关闭的静态语句对象集合
+     */
+    protected Collection<? extends Statement> getStatementsToClose() {
+        return getRoutedStatements();
+    }
 }
@@ -53,4 +53,23 @@ public final class SetParameterMethodInvocation extends JdbcMethodInvocation {
     public void changeValueArgument(final Object value) {
         getArguments()[1] = value;
     }
+    
+    /**
+     * 按偏移后的位置调用参数设置方法.
+     * 
+     * @param target 目标对象
+     * @param indexOffset 位置偏移量
+     */
+    public void invoke(final Object target, final int indexOffset) {
+        if (0 == indexOffset) {
+            invoke(target);
+            return;
+        }
+        getArguments()[0] = index + indexOffset;
+        try {
+            invoke(target);
+        } finally {
+            getArguments()[0] = index;
+        }
+    }
 }
@@ -17,18 +17,24 @@
 
 package com.dangdang.ddframe.rdb.sharding.jdbc.core;
 
+import com.codahale.metrics.Gauge;
 import com.dangdang.ddframe.rdb.sharding.api.rule.ShardingRule;
+import com.dangdang.ddframe.rdb.sharding.config.ShardingProperties;
+import com.dangdang.ddframe.rdb.sharding.config.ShardingPropertiesConstant;
 import com.dangdang.ddframe.rdb.sharding.constant.DatabaseType;
 import com.dangdang.ddframe.rdb.sharding.executor.ExecutorEngine;
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryBudget;
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryExhaustedPolicy;
+import com.dangdang.ddframe.rdb.sharding.metrics.ShardingMetrics;
+import com.dangdang.ddframe.rdb.sharding.parsing.cache.ParsingResultCache;
+import com.dangdang.ddframe.rdb.sharding.routing.cache.RoutingResultCache;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 
 /**
  * 数据源运行期上下文.
  * 
  * @author gaohongtao
  */
-@RequiredArgsConstructor
 @Getter
 public final class ShardingContext {
     
@@ -38,5 +44,61 @@ public final class ShardingContext {
     
     private final ExecutorEngine executorEngine;
     
+    private final ShardingMetrics shardingMetrics;
+    
     private final boolean showSQL;
+    
+    private final ParsingResultCache parsingResultCache;
+    
+    private final RoutingResultCache routingResultCache;
+    
+    private final int maxConnectionsSizePerQuery;
+    
+    private final int concurrentIteratorMergeQueueSize;
+    
+    private final long groupByMergeMemoryMaxBytes;
+    
+    private final boolean groupByPartialAggregationEnable;
+    
+    private final MergeMemoryBudget mergeMemoryBudget;
+    
+    private final int batchFlushThreshold;
+    
+    public ShardingContext(final ShardingRule shardingRule, final DatabaseType databaseType, final ExecutorEngine executorEngine, 
+                           final ShardingMetrics shardingMetrics, final ShardingProperties shardingProperties) {
+        this.shardingRule = shardingRule;
+        this.databaseType = databaseType;
+        this.executorEngine = executorEngine;
+        this.shardingMetrics = shardingMetrics;
+        showSQL = shardingProperties.getValue(ShardingPropertiesConstant.SQL_SHOW);
+        parsingResultCache = new ParsingResultCache(shardingProperties.<Integer>getValue(ShardingPropertiesConstant.PARSING_RESULT_CACHE_SIZE));
+        routingResultCache = new RoutingResultCache(shardingProperties.<Integer>getValue(ShardingPropertiesConstant.ROUTING_RESULT_CACHE_SIZE));
+        maxConnectionsSizePerQuery = shardingProperties.getValue(ShardingPropertiesConstant.MAX_CONNECTIONS_SIZE_PER_QUERY);
+        concurrentIteratorMergeQueueSize = shardingProperties.getValue(ShardingPropertiesConstant.CONCURRENT_ITERATOR_MERGE_QUEUE_SIZE);
+        groupByMergeMemoryMaxBytes = shardingProperties.getValue(ShardingPropertiesConstant.GROUP_BY_MERGE_MEMORY_MAX_BYTES);
+        groupByPartialAggregationEnable = shardingProperties.getValue(ShardingPropertiesConstant.GROUP_BY_PARTIAL_AGGREGATION_ENABLE);
+        mergeMemoryBudget = createMergeMemoryBudget(shardingProperties);
+        batchFlushThreshold = shardingProperties.getValue(ShardingPropertiesConstant.BATCH_FLUSH_THRESHOLD);
+    }
+    
+    private MergeMemoryBudget createMergeMemoryBudget(final ShardingProperties shardingProperties) {
+        long maxBytes = shardingProperties.getValue(ShardingPropertiesConstant.MERGE_MEMORY_MAX_BYTES);
+        String exhaustedPolicy = shardingProperties.getValue(ShardingPropertiesConstant.MERGE_MEMORY_EXHAUSTED_POLICY);
+        long waitMilliseconds = shardingProperties.getValue(ShardingPropertiesConstant.MERGE_MEMORY_WAIT_MILLISECONDS);
+        final MergeMemoryBudget result = new MergeMemoryBudget(maxBytes, MergeMemoryExhaustedPolicy.valueOf(exhaustedPolicy.trim().toUpperCase()), waitMilliseconds);
+        shardingMetrics.registerMergeMemoryGauges(new Gauge<Long>() {
+    
+            @Override
+            public Long getValue() {
+                return result.getUsedBytes();
+            }
+        }, new Gauge<Long>() {
+    
+            @Override
+            public Long getValue() {
+                return result.getPeakBytes();
+            }
+        });
+        return result;
+    }
 }
@@ -25,13 +25,17 @@ import com.dangdang.ddframe.rdb.sharding.jdbc.adapter.AbstractConnectionAdapter;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.statement.ShardingPreparedStatement;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.statement.ShardingStatement;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.datasource.MasterSlaveDataSource;
-import com.dangdang.ddframe.rdb.sharding.metrics.MetricsContext;
-import com.google.common.base.Joiner;
+import com.dangdang.ddframe.rdb.sharding.metrics.ShardingMetrics;
+import com.dangdang.ddframe.rdb.sharding.routing.SQLExecutionUnit;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
@@ -57,6 +61,11 @@ public final class ShardingConnection extends AbstractConnectionAdapter {
     
     private final Map<String, Connection> connectionMap = new HashMap<>();
     
+    /**
+     * 同一数据源用于并行执行的额外连接, 键为连接缓存中该数据源的连接.
+     */
+    private final Map<Connection, List<Connection>> parallelConnectionMap = new HashMap<>();
+    
     /**
      * 根据数据源名称获取全部数据库连接.
      *
@@ -65,9 +74,8 @@ public final class ShardingConnection extends AbstractConnectionAdapter {
      * @throws SQLException SQL异常
      */
     public Collection<Connection> getConnectionForDDL(final String dataSourceName) throws SQLException {
-        final Context metricsContext = MetricsContext.start(Joiner.on("-").join("ShardingConnection-getConnectionForDDL", dataSourceName));
-        DataSource dataSource = shardingContext.getShardingRule().getDataSourceRule().getDataSource(dataSourceName);
-        Preconditions.checkState(null != dataSource, "Missing the rule of %s in DataSourceRule", dataSourceName);
+        Context metricsContext = shardingContext.getShardingMetrics().startGetConnection(dataSourceName);
+        DataSource dataSource = getDataSource(dataSourceName);
         Collection<DataSource> dataSources = new LinkedList<>();
         if (dataSource instanceof MasterSlaveDataSource) {
             dataSources.add(((MasterSlaveDataSource) dataSource).getMasterDataSource());
@@ -81,7 +89,7 @@ public final class ShardingConnection extends AbstractConnectionAdapter {
             replayMethodsInvocation(connection);
             result.add(connection);
         }
-        MetricsContext.stop(metricsContext);
+        ShardingMetrics.stop(metricsContext);
         return result;
     }
     
@@ -99,26 +107,86 @@ public final class ShardingConnection extends AbstractConnectionAdapter {
         if (connection.isPresent()) {
             return connection.get();
         }
-        Context metricsContext = MetricsContext.start(Joiner.on("-").join("ShardingConnection-getConnection", dataSourceName));
-        //
-        DataSource dataSource = shardingContext.getShardingRule().getDataSourceRule().getDataSource(dataSourceName);
-        Preconditions.checkState(null != dataSource, "Missing the rule of %s in DataSourceRule", dataSourceName);
-        String realDataSourceName;
+        Connection result = createConnection(dataSourceName, sqlType);
+        // 添加到连接缓存
+        String realDataSourceName = getDataSource(dataSourceName) instanceof MasterSlaveDataSource ? MasterSlaveDataSource.getDataSourceName(dataSourceName, sqlType) : dataSourceName;
+        connectionMap.put(realDataSourceName, result);
+        return result;
+    }
+    
+    /**
+     * 为SQL执行单元分配数据库连接.
+     * 
+     * <p>
+     * 同一数据源的执行单元轮流使用该数据源的多个连接, 连接数量不超过每次查询每个数据源的最大连接数, 使同库多表的执行单元可以并行执行.
+     * 非自动提交时同一数据源只使用一个连接, 以保证事务一致.
+     * </p>
+     * 
+     * @param executionUnits SQL执行单元集合
+     * @param sqlType SQL语句类型
+     * @return 与执行单元顺序一致的数据库连接列表
+     * @throws SQLException SQL异常
+     */
+    public List<Connection> getConnections(final Collection<SQLExecutionUnit> executionUnits, final SQLType sqlType) throws SQLException {
+        Map<String, Integer> unitsCount = new HashMap<>();
+        for (SQLExecutionUnit each : executionUnits) {
+            Integer count = unitsCount.get(each.getDataSource());
+            unitsCount.put(each.getDataSource(), null == count ? 1 : count + 1);
+        }
+        Map<String, List<Connection>> dataSourceConnections = new HashMap<>(unitsCount.size(), 1);
+        for (Entry<String, Integer> entry : unitsCount.entrySet()) {
+            dataSourceConnections.put(entry.getKey(), getConnections(entry.getKey(), sqlType, Math.min(entry.getValue(), shardingContext.getMaxConnectionsSizePerQuery())));
+        }
+        List<Connection> result = new ArrayList<>(executionUnits.size());
+        Map<String, Integer> assignedCount = new HashMap<>(unitsCount.size(), 1);
+        for (SQLExecutionUnit each : executionUnits) {
+            List<Connection> connections = dataSourceConnections.get(each.getDataSource());
+            Integer count = assignedCount.get(each.getDataSource());
+            int index = null == count ? 0 : count;
+            result.add(connections.get(index % connections.size()));
+            assignedCount.put(each.getDataSource(), index + 1);
+        }
+        return result;
+    }
+    
+    private List<Connection> getConnections(final String dataSourceName, final SQLType sqlType, final int size) throws SQLException {
+        Connection connection = getConnection(dataSourceName, sqlType);
+        if (1 >= size || !getAutoCommit()) {
+            return Collections.singletonList(connection);
+        }
+        List<Connection> parallelConnections = parallelConnectionMap.get(connection);
+        if (null == parallelConnections) {
+            parallelConnections = new ArrayList<>(size - 1);
+            parallelConnectionMap.put(connection, parallelConnections);
+        }
+        while (parallelConnections.size() < size - 1) {
+            parallelConnections.add(createConnection(dataSourceName, sqlType));
+        }
+        List<Connection> result = new ArrayList<>(size);
+        result.add(connection);
+        result.addAll(parallelConnections.subList(0, size - 1));
+        return result;
+    }
+    
+    private Connection createConnection(final String dataSourceName, final SQLType sqlType) throws SQLException {
+        Context metricsContext = shardingContext.getShardingMetrics().startGetConnection(dataSourceName);
+        DataSource dataSource = getDataSource(dataSourceName);
         if (dataSource instanceof MasterSlaveDataSource) {
             dataSource = ((MasterSlaveDataSource) dataSource).getDataSource(sqlType);
-            realDataSourceName = MasterSlaveDataSource.getDataSourceName(dataSourceName, sqlType);
-        } else {
-            realDataSourceName = dataSourceName;
         }
         Connection result = dataSource.getConnection();
-        MetricsContext.stop(metricsContext);
-        // 添加到连接缓存
-        connectionMap.put(realDataSourceName, result);
+        ShardingMetrics.stop(metricsContext);
         // 回放 Connection 方法
         replayMethodsInvocation(result);
         return result;
     }
     
+    private DataSource getDataSource(final String dataSourceName) {
+        DataSource result = shardingContext.getShardingRule().getDataSourceRule().getDataSource(dataSourceName);
+        Preconditions.checkState(null != result, "Missing the rule of %s in DataSourceRule", dataSourceName);
+        return result;
+    }
+    
     private Optional<Connection> getCachedConnection(final String dataSourceName, final SQLType sqlType) {
         String key = connectionMap.containsKey(dataSourceName) ? dataSourceName : MasterSlaveDataSource.getDataSourceName(dataSourceName, sqlType);
         return Optional.fromNullable(connectionMap.get(key));
@@ -131,6 +199,9 @@ public final class ShardingConnection extends AbstractConnectionAdapter {
      */
     public void release(final Connection connection) {
         connectionMap.values().remove(connection);
+        for (List<Connection> each : parallelConnectionMap.values()) {
+            each.remove(connection);
+        }
         try {
             connection.close();
         } catch (final SQLException ignored) {
@@ -189,7 +260,14 @@ public final class ShardingConnection extends AbstractConnectionAdapter {
     
     @Override
     public Collection<Connection> getConnections() {
-        return connectionMap.values();
+        if (parallelConnectionMap.isEmpty()) {
+            return connectionMap.values();
+        }
+        Collection<Connection> result = new LinkedList<>(connectionMap.values());
+        for (List<Connection> each : parallelConnectionMap.values()) {
+            result.addAll(each);
+        }
+        return result;
     }
     
     @Override
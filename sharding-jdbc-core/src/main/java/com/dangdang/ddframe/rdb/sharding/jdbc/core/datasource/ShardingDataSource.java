@@ -17,6 +17,7 @@
 
 package com.dangdang.ddframe.rdb.sharding.jdbc.core.datasource;
 
+import com.codahale.metrics.MetricRegistry;
 import com.dangdang.ddframe.rdb.sharding.api.rule.ShardingRule;
 import com.dangdang.ddframe.rdb.sharding.config.ShardingProperties;
 import com.dangdang.ddframe.rdb.sharding.config.ShardingPropertiesConstant;
@@ -26,7 +27,8 @@ import com.dangdang.ddframe.rdb.sharding.executor.ExecutorEngine;
 import com.dangdang.ddframe.rdb.sharding.jdbc.adapter.AbstractDataSourceAdapter;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.ShardingContext;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.connection.ShardingConnection;
-import com.dangdang.ddframe.rdb.sharding.metrics.MetricsContext;
+import com.dangdang.ddframe.rdb.sharding.metrics.ShardingMetrics;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 
 import javax.sql.DataSource;
@@ -43,6 +45,8 @@ public class ShardingDataSource extends AbstractDataSourceAdapter implements Aut
     
     private final ShardingProperties shardingProperties;
     
+    private final ShardingMetrics shardingMetrics;
+    
     private final ExecutorEngine executorEngine;
     
     private final ShardingContext shardingContext;
@@ -55,14 +59,28 @@ public class ShardingDataSource extends AbstractDataSourceAdapter implements Aut
         Preconditions.checkNotNull(shardingRule);
         Preconditions.checkNotNull(props);
         shardingProperties = new ShardingProperties(props);
-        int executorSize = shardingProperties.getValue(ShardingPropertiesConstant.EXECUTOR_SIZE);
-        executorEngine = new ExecutorEngine(executorSize);
-        boolean showSQL = shardingProperties.getValue(ShardingPropertiesConstant.SQL_SHOW);
+        DatabaseType databaseType;
         try {
-            shardingContext = new ShardingContext(shardingRule, DatabaseType.valueFrom(getDatabaseProductName(shardingRule)), executorEngine, showSQL);
+            databaseType = DatabaseType.valueFrom(getDatabaseProductName(shardingRule));
         } catch (final SQLException ex) {
             throw new ShardingJdbcException(ex);
         }
+        shardingMetrics = new ShardingMetrics(shardingProperties.<Boolean>getValue(ShardingPropertiesConstant.METRICS_ENABLE), shardingRule.getDataSourceRule().getDataSourceNames());
+        int executorSize = shardingProperties.getValue(ShardingPropertiesConstant.EXECUTOR_SIZE);
+        int executorQueueSize = shardingProperties.getValue(ShardingPropertiesConstant.EXECUTOR_QUEUE_SIZE);
+        int maxUnitsPerDataSource = shardingProperties.getValue(ShardingPropertiesConstant.EXECUTOR_MAX_UNITS_PER_DATA_SOURCE);
+        executorEngine = new ExecutorEngine(executorSize, executorQueueSize, maxUnitsPerDataSource, shardingMetrics);
+        // 构建失败时关闭已启动的工作线程和度量报告器, 避免遗留无法关闭的线程
+        try {
+            shardingContext = new ShardingContext(shardingRule, databaseType, executorEngine, shardingMetrics, shardingProperties);
+            String reporters = shardingProperties.getValue(ShardingPropertiesConstant.METRICS_REPORTERS);
+            long period = shardingProperties.getValue(ShardingPropertiesConstant.METRICS_MILLISECONDS_PERIOD);
+            shardingMetrics.startReporters(reporters, period);
+        } catch (final RuntimeException ex) {
+            shardingMetrics.close();
+            executorEngine.close();
+            throw ex;
+        }
     }
     
     private String getDatabaseProductName(final ShardingRule shardingRule) throws SQLException {
@@ -84,12 +102,21 @@ public class ShardingDataSource extends AbstractDataSourceAdapter implements Aut
     
     @Override
     public ShardingConnection getConnection() throws SQLException {
-        MetricsContext.init(shardingProperties);
         return new ShardingConnection(shardingContext);
     }
     
+    /**
+     * 获取度量注册表.
+     * 
+     * @return 度量注册表, 未开启度量时为空
+     */
+    public Optional<MetricRegistry> getMetricRegistry() {
+        return shardingMetrics.getMetricRegistry();
+    }
+    
     @Override
     public void close() {
+        shardingMetrics.close();
         executorEngine.close();
     }
 }
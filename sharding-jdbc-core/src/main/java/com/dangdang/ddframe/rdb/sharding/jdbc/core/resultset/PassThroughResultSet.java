@@ -0,0 +1,339 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.jdbc.core.resultset;
+
+import com.dangdang.ddframe.rdb.sharding.jdbc.adapter.AbstractResultSetAdapter;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Collections;
+
+/**
+ * 无需归并的结果集.
+ * 
+ * <p>
+ * 仅路由至单分片时直接委托分片结果集读取, 不经过归并及类型转换, 所属语句对象为分片语句对象.
+ * </p>
+ *
+ * @author zhangliang
+ */
+public final class PassThroughResultSet extends AbstractResultSetAdapter {
+    
+    /**
+     * 分片结果集
+     */
+    private final ResultSet resultSet;
+    
+    /**
+     * 分片语句对象
+     */
+    private final Statement statement;
+    
+    public PassThroughResultSet(final ResultSet resultSet, final Statement statement) {
+        super(Collections.singletonList(resultSet));
+        this.resultSet = resultSet;
+        this.statement = statement;
+    }
+    
+    @Override
+    public Statement getStatement() throws SQLException {
+        return statement;
+    }
+    
+    @Override
+    public boolean next() throws SQLException {
+        return resultSet.next();
+    }
+    
+    @Override
+    public boolean wasNull() throws SQLException {
+        return resultSet.wasNull();
+    }
+    
+    @Override
+    public boolean getBoolean(final int columnIndex) throws SQLException {
+        return resultSet.getBoolean(columnIndex);
+    }
+    
+    @Override
+    public boolean getBoolean(final String columnLabel) throws SQLException {
+        return resultSet.getBoolean(columnLabel);
+    }
+    
+    @Override
+    public byte getByte(final int columnIndex) throws SQLException {
+        return resultSet.getByte(columnIndex);
+    }
+    
+    @Override
+    public byte getByte(final String columnLabel) throws SQLException {
+        return resultSet.getByte(columnLabel);
+    }
+    
+    @Override
+    public short getShort(final int columnIndex) throws SQLException {
+        return resultSet.getShort(columnIndex);
+    }
+    
+    @Override
+    public short getShort(final String columnLabel) throws SQLException {
+        return resultSet.getShort(columnLabel);
+    }
+    
+    @Override
+    public int getInt(final int columnIndex) throws SQLException {
+        return resultSet.getInt(columnIndex);
+    }
+    
+    @Override
+    public int getInt(final String columnLabel) throws SQLException {
+        return resultSet.getInt(columnLabel);
+    }
+    
+    @Override
+    public long getLong(final int columnIndex) throws SQLException {
+        return resultSet.getLong(columnIndex);
+    }
+    
+    @Override
+    public long getLong(final String columnLabel) throws SQLException {
+        return resultSet.getLong(columnLabel);
+    }
+    
+    @Override
+    public float getFloat(final int columnIndex) throws SQLException {
+        return resultSet.getFloat(columnIndex);
+    }
+    
+    @Override
+    public float getFloat(final String columnLabel) throws SQLException {
+        return resultSet.getFloat(columnLabel);
+    }
+    
+    @Override
+    public double getDouble(final int columnIndex) throws SQLException {
+        return resultSet.getDouble(columnIndex);
+    }
+    
+    @Override
+    public double getDouble(final String columnLabel) throws SQLException {
+        return resultSet.getDouble(columnLabel);
+    }
+    
+    @Override
+    public String getString(final int columnIndex) throws SQLException {
+        return resultSet.getString(columnIndex);
+    }
+    
+    @Override
+    public String getString(final String columnLabel) throws SQLException {
+        return resultSet.getString(columnLabel);
+    }
+    
+    @Override
+    public BigDecimal getBigDecimal(final int columnIndex) throws SQLException {
+        return resultSet.getBigDecimal(columnIndex);
+    }
+    
+    @Override
+    public BigDecimal getBigDecimal(final String columnLabel) throws SQLException {
+        return resultSet.getBigDecimal(columnLabel);
+    }
+    
+    @Override
+    public BigDecimal getBigDecimal(final int columnIndex, final int scale) throws SQLException {
+        return resultSet.getBigDecimal(columnIndex, scale);
+    }
+    
+    @Override
+    public BigDecimal getBigDecimal(final String columnLabel, final int scale) throws SQLException {
+        return resultSet.getBigDecimal(columnLabel, scale);
+    }
+    
+    @Override
+    public byte[] getBytes(final int columnIndex) throws SQLException {
+        return resultSet.getBytes(columnIndex);
+    }
+    
+    @Override
+    public byte[] getBytes(final String columnLabel) throws SQLException {
+        return resultSet.getBytes(columnLabel);
+    }
+    
+    @Override
+    public Date getDate(final int columnIndex) throws SQLException {
+        return resultSet.getDate(columnIndex);
+    }
+    
+    @Override
+    public Date getDate(final String columnLabel) throws SQLException {
+        return resultSet.getDate(columnLabel);
+    }
+    
+    @Override
+    public Date getDate(final int columnIndex, final Calendar cal) throws SQLException {
+        return resultSet.getDate(columnIndex, cal);
+    }
+    
+    @Override
+    public Date getDate(final String columnLabel, final Calendar cal) throws SQLException {
+        return resultSet.getDate(columnLabel, cal);
+    }
+    
+    @Override
+    public Time getTime(final int columnIndex) throws SQLException {
+        return resultSet.getTime(columnIndex);
+    }
+    
+    @Override
+    public Time getTime(final String columnLabel) throws SQLException {
+        return resultSet.getTime(columnLabel);
+    }
+    
+    @Override
+    public Time getTime(final int columnIndex, final Calendar cal) throws SQLException {
+        return resultSet.getTime(columnIndex, cal);
+    }
+    
+    @Override
+    public Time getTime(final String columnLabel, final Calendar cal) throws SQLException {
+        return resultSet.getTime(columnLabel, cal);
+    }
+    
+    @Override
+    public Timestamp getTimestamp(final int columnIndex) throws SQLException {
+        return resultSet.getTimestamp(columnIndex);
+    }
+    
+    @Override
+    public Timestamp getTimestamp(final String columnLabel) throws SQLException {
+        return resultSet.getTimestamp(columnLabel);
+    }
+    
+    @Override
+    public Timestamp getTimestamp(final int columnIndex, final Calendar cal) throws SQLException {
+        return resultSet.getTimestamp(columnIndex, cal);
+    }
+    
+    @Override
+    public Timestamp getTimestamp(final String columnLabel, final Calendar cal) throws SQLException {
+        return resultSet.getTimestamp(columnLabel, cal);
+    }
+    
+    @Override
+    public InputStream getAsciiStream(final int columnIndex) throws SQLException {
+        return resultSet.getAsciiStream(columnIndex);
+    }
+    
+    @Override
+    public InputStream getAsciiStream(final String columnLabel) throws SQLException {
+        return resultSet.getAsciiStream(columnLabel);
+    }
+    
+    @Override
+    public InputStream getUnicodeStream(final int columnIndex) throws SQLException {
+        return resultSet.getUnicodeStream(columnIndex);
+    }
+    
+    @Override
+    public InputStream getUnicodeStream(final String columnLabel) throws SQLException {
+        return resultSet.getUnicodeStream(columnLabel);
+    }
+    
+    @Override
+    public InputStream getBinaryStream(final int columnIndex) throws SQLException {
+        return resultSet.getBinaryStream(columnIndex);
+    }
+    
+    @Override
+    public InputStream getBinaryStream(final String columnLabel) throws SQLException {
+        return resultSet.getBinaryStream(columnLabel);
+    }
+    
+    @Override
+    public Reader getCharacterStream(final int columnIndex) throws SQLException {
+        return resultSet.getCharacterStream(columnIndex);
+    }
+    
+    @Override
+    public Reader getCharacterStream(final String columnLabel) throws SQLException {
+        return resultSet.getCharacterStream(columnLabel);
+    }
+    
+    @Override
+    public Blob getBlob(final int columnIndex) throws SQLException {
+        return resultSet.getBlob(columnIndex);
+    }
+    
+    @Override
+    public Blob getBlob(final String columnLabel) throws SQLException {
+        return resultSet.getBlob(columnLabel);
+    }
+    
+    @Override
+    public Clob getClob(final int columnIndex) throws SQLException {
+        return resultSet.getClob(columnIndex);
+    }
+    
+    @Override
+    public Clob getClob(final String columnLabel) throws SQLException {
+        return resultSet.getClob(columnLabel);
+    }
+    
+    @Override
+    public URL getURL(final int columnIndex) throws SQLException {
+        return resultSet.getURL(columnIndex);
+    }
+    
+    @Override
+    public URL getURL(final String columnLabel) throws SQLException {
+        return resultSet.getURL(columnLabel);
+    }
+    
+    @Override
+    public SQLXML getSQLXML(final int columnIndex) throws SQLException {
+        return resultSet.getSQLXML(columnIndex);
+    }
+    
+    @Override
+    public SQLXML getSQLXML(final String columnLabel) throws SQLException {
+        return resultSet.getSQLXML(columnLabel);
+    }
+    
+    @Override
+    public Object getObject(final int columnIndex) throws SQLException {
+        return resultSet.getObject(columnIndex);
+    }
+    
+    @Override
+    public Object getObject(final String columnLabel) throws SQLException {
+        return resultSet.getObject(columnLabel);
+    }
+}
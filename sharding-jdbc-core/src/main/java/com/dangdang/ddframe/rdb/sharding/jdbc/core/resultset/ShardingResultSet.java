@@ -19,7 +19,10 @@ package com.dangdang.ddframe.rdb.sharding.jdbc.core.resultset;
 
 import com.dangdang.ddframe.rdb.sharding.jdbc.adapter.AbstractResultSetAdapter;
 import com.dangdang.ddframe.rdb.sharding.merger.ResultSetMerger;
+import com.dangdang.ddframe.rdb.sharding.merger.iterator.ConcurrentIteratorResultSetMerger;
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryAccount;
 import com.dangdang.ddframe.rdb.sharding.merger.util.ResultSetUtil;
+import com.google.common.base.Optional;
 
 import java.io.InputStream;
 import java.io.Reader;
@@ -42,22 +45,61 @@ import java.util.List;
  * @author zhangliang
  */
 public final class ShardingResultSet extends AbstractResultSetAdapter {
-
+    
     /**
      * 归并结果集
      */
     private final ResultSetMerger mergeResultSet;
     
+    /**
+     * 归并内存账户
+     */
+    private final MergeMemoryAccount mergeMemoryAccount;
+    
+    /**
+     * 并发迭代归并结果集, 关闭时通知工作线程停止读取分片结果集
+     */
+    private final Optional<ConcurrentIteratorResultSetMerger> concurrentIteratorResultSetMerger;
+    
     private boolean wasNull;
     
     public ShardingResultSet(final List<ResultSet> resultSets, final ResultSetMerger mergeResultSet) {
+        this(resultSets, mergeResultSet, MergeMemoryAccount.unlimited());
+    }
+    
+    public ShardingResultSet(final List<ResultSet> resultSets, final ResultSetMerger mergeResultSet, final MergeMemoryAccount mergeMemoryAccount) {
+        this(resultSets, mergeResultSet, mergeMemoryAccount, Optional.<ConcurrentIteratorResultSetMerger>absent());
+    }
+    
+    public ShardingResultSet(final List<ResultSet> resultSets, final ResultSetMerger mergeResultSet, final MergeMemoryAccount mergeMemoryAccount, 
+                             final ConcurrentIteratorResultSetMerger concurrentIteratorResultSetMerger) {
+        this(resultSets, mergeResultSet, mergeMemoryAccount, Optional.of(concurrentIteratorResultSetMerger));
+    }
+    
+    private ShardingResultSet(final List<ResultSet> resultSets, final ResultSetMerger mergeResultSet, final MergeMemoryAccount mergeMemoryAccount, 
+                              final Optional<ConcurrentIteratorResultSetMerger> concurrentIteratorResultSetMerger) {
         super(resultSets);
         this.mergeResultSet = mergeResultSet;
+        this.mergeMemoryAccount = mergeMemoryAccount;
+        this.concurrentIteratorResultSetMerger = concurrentIteratorResultSetMerger;
     }
     
     @Override
     public boolean next() throws SQLException {
-        return mergeResultSet.next();
+        boolean result = mergeResultSet.next();
+        if (!result) {
+            mergeMemoryAccount.close();
+        }
+        return result;
+    }
+    
+    @Override
+    public void close() throws SQLException {
+        if (concurrentIteratorResultSetMerger.isPresent()) {
+            concurrentIteratorResultSetMerger.get().close();
+        }
+        mergeMemoryAccount.close();
+        super.close();
     }
     
     @Override
@@ -68,100 +110,100 @@ public final class ShardingResultSet extends AbstractResultSetAdapter {
     
     @Override
     public boolean getBoolean(final int columnIndex) throws SQLException {
-        Object result = mergeResultSet.getValue(columnIndex, boolean.class);
-        wasNull = false;
-        return (boolean) ResultSetUtil.convertValue(result, boolean.class);
+        boolean result = mergeResultSet.getBoolean(columnIndex);
+        wasNull = mergeResultSet.wasNull();
+        return result;
     }
     
     @Override
     public boolean getBoolean(final String columnLabel) throws SQLException {
-        Object result = mergeResultSet.getValue(columnLabel, boolean.class);
-        wasNull = false;
-        return (boolean) ResultSetUtil.convertValue(result, boolean.class);
+        boolean result = mergeResultSet.getBoolean(columnLabel);
+        wasNull = mergeResultSet.wasNull();
+        return result;
     }
     
     @Override
     public byte getByte(final int columnIndex) throws SQLException {
-        Object result = mergeResultSet.getValue(columnIndex, byte.class);
-        wasNull = null == result;
-        return (byte) ResultSetUtil.convertValue(result, byte.class);
+        byte result = mergeResultSet.getByte(columnIndex);
+        wasNull = mergeResultSet.wasNull();
+        return result;
     }
     
     @Override
     public byte getByte(final String columnLabel) throws SQLException {
-        Object result = mergeResultSet.getValue(columnLabel, byte.class);
-        wasNull = null == result;
-        return (byte) ResultSetUtil.convertValue(result, byte.class);
+        byte result = mergeResultSet.getByte(columnLabel);
+        wasNull = mergeResultSet.wasNull();
+        return result;
     }
     
     @Override
     public short getShort(final int columnIndex) throws SQLException {
-        Object result = mergeResultSet.getValue(columnIndex, short.class);
-        wasNull = null == result;
-        return (short) ResultSetUtil.convertValue(result, short.class);
+        short result = mergeResultSet.getShort(columnIndex);
+        wasNull = mergeResultSet.wasNull();
+        return result;
     }
     
     @Override
     public short getShort(final String columnLabel) throws SQLException {
-        Object result = mergeResultSet.getValue(columnLabel, short.class);
-        wasNull = null == result;
-        return (short) ResultSetUtil.convertValue(result, short.class);
+        short result = mergeResultSet.getShort(columnLabel);
+        wasNull = mergeResultSet.wasNull();
+        return result;
     }
     
     @Override
     public int getInt(final int columnIndex) throws SQLException {
-        Object result = mergeResultSet.getValue(columnIndex, int.class);
-        wasNull = null == result;
-        return (int) ResultSetUtil.convertValue(result, int.class);
+        int result = mergeResultSet.getInt(columnIndex);
+        wasNull = mergeResultSet.wasNull();
+        return result;
     }
     
     @Override
     public int getInt(final String columnLabel) throws SQLException {
-        Object result = mergeResultSet.getValue(columnLabel, int.class);
-        wasNull = null == result;
-        return (int) ResultSetUtil.convertValue(result, int.class);
+        int result = mergeResultSet.getInt(columnLabel);
+        wasNull = mergeResultSet.wasNull();
+        return result;
     }
     
     @Override
     public long getLong(final int columnIndex) throws SQLException {
-        Object result = mergeResultSet.getValue(columnIndex, long.class);
-        wasNull = null == result;
-        return (long) ResultSetUtil.convertValue(result, long.class);
+        long result = mergeResultSet.getLong(columnIndex);
+        wasNull = mergeResultSet.wasNull();
+        return result;
     }
     
     @Override
     public long getLong(final String columnLabel) throws SQLException {
-        Object result = mergeResultSet.getValue(columnLabel, long.class);
-        wasNull = null == result;
-        return (long) ResultSetUtil.convertValue(result, long.class);
+        long result = mergeResultSet.getLong(columnLabel);
+        wasNull = mergeResultSet.wasNull();
+        return result;
     }
     
     @Override
     public float getFloat(final int columnIndex) throws SQLException {
-        Object result = mergeResultSet.getValue(columnIndex, float.class);
-        wasNull = null == result;
-        return (float) ResultSetUtil.convertValue(result, float.class);
+        float result = mergeResultSet.getFloat(columnIndex);
+        wasNull = mergeResultSet.wasNull();
+        return result;
     }
     
     @Override
     public float getFloat(final String columnLabel) throws SQLException {
-        Object result = mergeResultSet.getValue(columnLabel, float.class);
-        wasNull = null == result;
-        return (float) ResultSetUtil.convertValue(result, float.class);
+        float result = mergeResultSet.getFloat(columnLabel);
+        wasNull = mergeResultSet.wasNull();
+        return result;
     }
     
     @Override
     public double getDouble(final int columnIndex) throws SQLException {
-        Object result = mergeResultSet.getValue(columnIndex, double.class);
-        wasNull = null == result;
-        return (double) ResultSetUtil.convertValue(result, double.class);
+        double result = mergeResultSet.getDouble(columnIndex);
+        wasNull = mergeResultSet.wasNull();
+        return result;
     }
     
     @Override
     public double getDouble(final String columnLabel) throws SQLException {
-        Object result = mergeResultSet.getValue(columnLabel, double.class);
-        wasNull = null == result;
-        return (double) ResultSetUtil.convertValue(result, double.class);
+        double result = mergeResultSet.getDouble(columnLabel);
+        wasNull = mergeResultSet.wasNull();
+        return result;
     }
     
     @Override
@@ -275,7 +317,7 @@ public final class ShardingResultSet extends AbstractResultSetAdapter {
         wasNull = null == result;
         return (Time) ResultSetUtil.convertValue(result, Time.class);
     }
-            
+    
     @Override
     public Timestamp getTimestamp(final int columnIndex) throws SQLException {
         Object result = mergeResultSet.getValue(columnIndex, Timestamp.class);
@@ -380,7 +422,7 @@ public final class ShardingResultSet extends AbstractResultSetAdapter {
         wasNull = null == result;
         return (Clob) result;
     }
-        
+    
     @Override
     public Clob getClob(final String columnLabel) throws SQLException {
         Object result = mergeResultSet.getValue(columnLabel, Clob.class);
@@ -17,33 +17,51 @@
 
 package com.dangdang.ddframe.rdb.sharding.jdbc.core.statement;
 
+import com.codahale.metrics.Timer.Context;
 import com.dangdang.ddframe.rdb.sharding.constant.SQLType;
 import com.dangdang.ddframe.rdb.sharding.executor.type.batch.BatchPreparedStatementExecutor;
 import com.dangdang.ddframe.rdb.sharding.executor.type.batch.BatchPreparedStatementUnit;
 import com.dangdang.ddframe.rdb.sharding.executor.type.prepared.PreparedStatementExecutor;
 import com.dangdang.ddframe.rdb.sharding.executor.type.prepared.PreparedStatementUnit;
 import com.dangdang.ddframe.rdb.sharding.jdbc.adapter.AbstractPreparedStatementAdapter;
+import com.dangdang.ddframe.rdb.sharding.jdbc.core.ShardingContext;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.connection.ShardingConnection;
+import com.dangdang.ddframe.rdb.sharding.jdbc.core.resultset.PassThroughResultSet;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.resultset.ShardingResultSet;
 import com.dangdang.ddframe.rdb.sharding.merger.MergeEngine;
+import com.dangdang.ddframe.rdb.sharding.merger.ResultSetMerger;
+import com.dangdang.ddframe.rdb.sharding.merger.groupby.GroupByPartialAggregator;
+import com.dangdang.ddframe.rdb.sharding.merger.iterator.ConcurrentIteratorResultSetMerger;
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryAccount;
+import com.dangdang.ddframe.rdb.sharding.metrics.MetricsType;
+import com.dangdang.ddframe.rdb.sharding.metrics.ShardingMetrics;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.GeneratedKey;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.select.SelectStatement;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.SeekConditionToken;
 import com.dangdang.ddframe.rdb.sharding.routing.PreparedStatementRoutingEngine;
 import com.dangdang.ddframe.rdb.sharding.routing.SQLExecutionUnit;
 import com.google.common.base.Optional;
-import com.google.common.base.Predicate;
-import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 
 /**
  * 支持分片的预编译语句对象.
@@ -53,11 +71,30 @@ import java.util.Objects;
  */
 public final class ShardingPreparedStatement extends AbstractPreparedStatementAdapter {
     
+    private static final int MAX_CACHED_STATEMENTS_PER_CONNECTION = 64;
+    
     private final PreparedStatementRoutingEngine routingEngine;
     
-    private final List<BatchPreparedStatementUnit> batchStatementUnits = new LinkedList<>();
+    /**
+     * 按数据源名称, 真实数据库连接和真实SQL缓存的预编译语句对象, 多次执行时复用, 关闭时统一关闭
+     * 每个连接上最多缓存 {@code MAX_CACHED_STATEMENTS_PER_CONNECTION} 个, 超出时淘汰最久未使用的
+     */
+    private final Map<String, Map<Connection, Map<String, PreparedStatement>>> cachedStatements = new HashMap<>();
+    
+    /**
+     * 未缓存的预编译语句对象, 再次路由或关闭时关闭
+     */
+    private final Collection<PreparedStatement> uncachedStatements = new LinkedList<>();
+    
+    private final Map<SQLExecutionUnit, BatchPreparedStatementUnit> batchStatementUnits = new LinkedHashMap<>();
+    
+    private final List<List<Object>> parameterSets = new ArrayList<>();
+    
+    private int[] flushedUpdateCounts = new int[0];
     
-    private final List<List<Object>> parameterSets = new LinkedList<>();
+    private int flushedBatchCount;
+    
+    private final List<Object> seekValues = new ArrayList<>();
     
     public ShardingPreparedStatement(final ShardingConnection shardingConnection, final String sql) {
         this(shardingConnection, sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT);
@@ -79,18 +116,64 @@ public final class ShardingPreparedStatement extends AbstractPreparedStatementAd
         routingEngine = new PreparedStatementRoutingEngine(sql, shardingConnection.getShardingContext());
     }
     
+    /**
+     * 设置定位分页的排序值.
+     * 
+     * <p>
+     * 之后的查询在 WHERE 子句后追加排序项大于(降序时小于)该排序值的条件, 各分片仅返回上一页末行之后的数据, 分页偏移量通常设置为0.
+     * 仅支持按列排序且不含分组, 聚合及子查询的查询.
+     * </p>
+     * 
+     * @param values 上一页末行的排序值, 与排序项一一对应且不能为空
+     */
+    public void setSeekValues(final Object... values) {
+        seekValues.clear();
+        Collections.addAll(seekValues, values);
+    }
+    
+    /**
+     * 清除定位分页的排序值.
+     */
+    public void clearSeekValues() {
+        seekValues.clear();
+    }
+    
     @Override
     public ResultSet executeQuery() throws SQLException {
         ResultSet result;
+        MergeMemoryAccount mergeMemoryAccount = getShardingConnection().getShardingContext().getMergeMemoryBudget().createAccount();
         try {
             // 路由
             Collection<PreparedStatementUnit> preparedStatementUnits = route();
-            // 执行
-            List<ResultSet> resultSets = new PreparedStatementExecutor(
-                    getShardingConnection().getShardingContext().getExecutorEngine(), getRouteResult().getSqlStatement().getType(), preparedStatementUnits, getParameters()).executeQuery();
+            PreparedStatementExecutor preparedStatementExecutor = new PreparedStatementExecutor(
+                    getShardingConnection().getShardingContext().getExecutorEngine(), getRouteResult().getSqlStatement().getType(), preparedStatementUnits, getParameters());
+            SelectStatement selectStatement = (SelectStatement) getRouteResult().getSqlStatement();
+            Optional<ConcurrentIteratorResultSetMerger> concurrentIteratorResultSetMerger = Optional.absent();
+            Optional<GroupByPartialAggregator> groupByPartialAggregator = Optional.absent();
+            List<ResultSet> resultSets;
+            if (isConcurrentIteratorMergeable(preparedStatementUnits.size(), selectStatement)) {
+                // 执行并按分片就绪的先后顺序归并
+                concurrentIteratorResultSetMerger = Optional.of(new ConcurrentIteratorResultSetMerger(getShardingConnection().getShardingContext().getConcurrentIteratorMergeQueueSize(), mergeMemoryAccount));
+                preparedStatementExecutor.executeQuery(concurrentIteratorResultSetMerger.get());
+                try {
+                    resultSets = concurrentIteratorResultSetMerger.get().awaitResultSets();
+                } catch (final SQLException | RuntimeException ex) {
+                    concurrentIteratorResultSetMerger.get().close();
+                    throw ex;
+                }
+            } else if (isGroupByPartialAggregatable(preparedStatementUnits.size(), selectStatement)) {
+                // 执行并在工作线程中部分聚合
+                groupByPartialAggregator = Optional.of(new GroupByPartialAggregator(selectStatement, mergeMemoryAccount));
+                resultSets = preparedStatementExecutor.executeQuery(groupByPartialAggregator.get());
+            } else {
+                // 执行
+                resultSets = preparedStatementExecutor.executeQuery();
+            }
             // 结果归并
-            result = new ShardingResultSet(resultSets, new MergeEngine(
-                    getShardingConnection().getShardingContext().getDatabaseType(), resultSets, (SelectStatement) getRouteResult().getSqlStatement()).merge());
+            result = createResultSet(preparedStatementUnits.size(), resultSets, selectStatement, mergeMemoryAccount, concurrentIteratorResultSetMerger, groupByPartialAggregator);
+        } catch (final SQLException | RuntimeException ex) {
+            mergeMemoryAccount.close();
+            throw ex;
         } finally {
             clearBatch();
         }
@@ -99,6 +182,180 @@ public final class ShardingPreparedStatement extends AbstractPreparedStatementAd
         return result;
     }
     
+    private boolean isConcurrentIteratorMergeable(final int executionUnitsSize, final SelectStatement selectStatement) {
+        return getShardingConnection().getShardingContext().getConcurrentIteratorMergeQueueSize() > 0 && executionUnitsSize > 1 && MergeEngine.isConcurrentIteratorMergeable(selectStatement);
+    }
+    
+    private boolean isGroupByPartialAggregatable(final int executionUnitsSize, final SelectStatement selectStatement) {
+        ShardingContext shardingContext = getShardingConnection().getShardingContext();
+        return shardingContext.isGroupByPartialAggregationEnable() && 0 == shardingContext.getGroupByMergeMemoryMaxBytes() && !shardingContext.getMergeMemoryBudget().isSpillEnabled() 
+                && executionUnitsSize > 1 && MergeEngine.isGroupByPartialAggregatable(selectStatement);
+    }
+    
+    /**
+     * 根据分片结果集创建结果集.
+     * 同步和异步查询共用, 保证同一查询的归并方式一致, 创建失败时关闭并发迭代归并结果集, 归并内存账户由调用方关闭.
+     * 
+     * @param executionUnitsSize 执行单元数量
+     * @param resultSets 分片结果集
+     * @param selectStatement Select SQL语句对象
+     * @param mergeMemoryAccount 归并内存账户
+     * @param concurrentIteratorResultSetMerger 执行时使用的并发迭代归并结果集
+     * @param groupByPartialAggregator 执行时使用的分组部分聚合器
+     * @return 结果集
+     * @throws SQLException 归并时发生异常
+     */
+    private ResultSet createResultSet(final int executionUnitsSize, final List<ResultSet> resultSets, final SelectStatement selectStatement, final MergeMemoryAccount mergeMemoryAccount, 
+                                      final Optional<ConcurrentIteratorResultSetMerger> concurrentIteratorResultSetMerger, 
+                                      final Optional<GroupByPartialAggregator> groupByPartialAggregator) throws SQLException {
+        ResultSet result;
+        try {
+            if (MergeEngine.isPassThrough(executionUnitsSize, selectStatement)) {
+                // 单分片直接返回分片结果集
+                result = new PassThroughResultSet(resultSets.get(0), this);
+                mergeMemoryAccount.close();
+            } else if (concurrentIteratorResultSetMerger.isPresent()) {
+                result = new ShardingResultSet(resultSets, createMergeEngine(resultSets, selectStatement, mergeMemoryAccount).merge(concurrentIteratorResultSetMerger.get()), 
+                        mergeMemoryAccount, concurrentIteratorResultSetMerger.get());
+            } else if (groupByPartialAggregator.isPresent()) {
+                result = new ShardingResultSet(resultSets, createMergeEngine(resultSets, selectStatement, mergeMemoryAccount).merge(groupByPartialAggregator.get()), mergeMemoryAccount);
+            } else {
+                result = new ShardingResultSet(resultSets, merge(resultSets, selectStatement, mergeMemoryAccount), mergeMemoryAccount);
+            }
+        } catch (final SQLException | RuntimeException ex) {
+            if (concurrentIteratorResultSetMerger.isPresent()) {
+                concurrentIteratorResultSetMerger.get().close();
+            }
+            throw ex;
+        }
+        return result;
+    }
+    
+    private ResultSetMerger merge(final List<ResultSet> resultSets, final SelectStatement selectStatement, final MergeMemoryAccount mergeMemoryAccount) throws SQLException {
+        Context context = getShardingConnection().getShardingContext().getShardingMetrics().start(MetricsType.MERGE);
+        try {
+            return createMergeEngine(resultSets, selectStatement, mergeMemoryAccount).merge();
+        } finally {
+            ShardingMetrics.stop(context);
+        }
+    }
+    
+    private MergeEngine createMergeEngine(final List<ResultSet> resultSets, final SelectStatement selectStatement, final MergeMemoryAccount mergeMemoryAccount) throws SQLException {
+        ShardingContext shardingContext = getShardingConnection().getShardingContext();
+        return new MergeEngine(shardingContext.getDatabaseType(), resultSets, selectStatement, shardingContext.getGroupByMergeMemoryMaxBytes(), mergeMemoryAccount);
+    }
+    
+    /**
+     * 异步执行SQL查询.
+     * 
+     * <p>
+     * 路由在调用线程完成, 所有分片提交至工作线程池执行, 调用线程不阻塞.
+     * 归并方式与{@code executeQuery}一致: 并发迭代归并在首个分片结果集就绪后完成, 其余归并在最后一个分片执行完成后进行.
+     * 并发迭代归并时异步结果在分片的工作线程中完成, 在回调中读取结果集需指定其他执行器.
+     * 取消返回的异步结果时将取消各分片上正在执行的语句, 执行超时可通过{@code setQueryTimeout}设置.
+     * </p>
+     * 
+     * @return 结果集的异步结果
+     * @throws SQLException 路由或创建语句对象时发生异常
+     */
+    public ListenableFuture<ResultSet> executeQueryAsync() throws SQLException {
+        final MergeMemoryAccount mergeMemoryAccount = getShardingConnection().getShardingContext().getMergeMemoryBudget().createAccount();
+        final Collection<PreparedStatementUnit> preparedStatementUnits;
+        final SelectStatement selectStatement;
+        final Optional<ConcurrentIteratorResultSetMerger> concurrentIteratorResultSetMerger;
+        final Optional<GroupByPartialAggregator> groupByPartialAggregator;
+        ListenableFuture<List<ResultSet>> resultSets;
+        try {
+            preparedStatementUnits = route();
+            PreparedStatementExecutor preparedStatementExecutor = new PreparedStatementExecutor(
+                    getShardingConnection().getShardingContext().getExecutorEngine(), getRouteResult().getSqlStatement().getType(), preparedStatementUnits, getParameters());
+            selectStatement = (SelectStatement) getRouteResult().getSqlStatement();
+            if (isConcurrentIteratorMergeable(preparedStatementUnits.size(), selectStatement)) {
+                concurrentIteratorResultSetMerger = Optional.of(new ConcurrentIteratorResultSetMerger(getShardingConnection().getShardingContext().getConcurrentIteratorMergeQueueSize(), mergeMemoryAccount));
+                groupByPartialAggregator = Optional.absent();
+                preparedStatementExecutor.executeQuery(concurrentIteratorResultSetMerger.get());
+                resultSets = concurrentIteratorResultSetMerger.get().awaitResultSetsAsync();
+            } else if (isGroupByPartialAggregatable(preparedStatementUnits.size(), selectStatement)) {
+                concurrentIteratorResultSetMerger = Optional.absent();
+                groupByPartialAggregator = Optional.of(new GroupByPartialAggregator(selectStatement, mergeMemoryAccount));
+                resultSets = preparedStatementExecutor.executeQueryAsync(groupByPartialAggregator.get());
+            } else {
+                concurrentIteratorResultSetMerger = Optional.absent();
+                groupByPartialAggregator = Optional.absent();
+                resultSets = preparedStatementExecutor.executeQueryAsync();
+            }
+        } catch (final SQLException | RuntimeException ex) {
+            mergeMemoryAccount.close();
+            throw ex;
+        } finally {
+            clearBatch();
+        }
+        ListenableFuture<ResultSet> result = Futures.transform(resultSets, new AsyncFunction<List<ResultSet>, ResultSet>() {
+    
+            @Override
+            public ListenableFuture<ResultSet> apply(final List<ResultSet> input) throws SQLException {
+                ResultSet result = createResultSet(preparedStatementUnits.size(), input, selectStatement, mergeMemoryAccount, concurrentIteratorResultSetMerger, groupByPartialAggregator);
+                setCurrentResultSet(result);
+                return Futures.immediateFuture(result);
+            }
+        });
+        Futures.addCallback(result, new FutureCallback<ResultSet>() {
+            
+            @Override
+            public void onSuccess(final ResultSet resultSet) {
+            }
+            
+            @Override
+            public void onFailure(final Throwable cause) {
+                if (concurrentIteratorResultSetMerger.isPresent()) {
+                    concurrentIteratorResultSetMerger.get().close();
+                }
+                mergeMemoryAccount.close();
+            }
+        });
+        return cancelOnCancellation(result, preparedStatementUnits);
+    }
+    
+    /**
+     * 异步执行SQL更新.
+     * 
+     * <p>
+     * 取消返回的异步结果时将取消各分片上正在执行的语句.
+     * </p>
+     * 
+     * @return 更新数量的异步结果
+     * @throws SQLException 路由或创建语句对象时发生异常
+     */
+    public ListenableFuture<Integer> executeUpdateAsync() throws SQLException {
+        try {
+            Collection<PreparedStatementUnit> preparedStatementUnits = route();
+            return cancelOnCancellation(new PreparedStatementExecutor(
+                    getShardingConnection().getShardingContext().getExecutorEngine(), getRouteResult().getSqlStatement().getType(), preparedStatementUnits, getParameters()).executeUpdateAsync(), 
+                    preparedStatementUnits);
+        } finally {
+            clearBatch();
+        }
+    }
+    
+    private <T> ListenableFuture<T> cancelOnCancellation(final ListenableFuture<T> future, final Collection<PreparedStatementUnit> preparedStatementUnits) {
+        future.addListener(new Runnable() {
+    
+            @Override
+            public void run() {
+                if (!future.isCancelled()) {
+                    return;
+                }
+                for (PreparedStatementUnit each : preparedStatementUnits) {
+                    try {
+                        each.getStatement().cancel();
+                    } catch (final SQLException ignored) {
+                    }
+                }
+            }
+        }, MoreExecutors.directExecutor());
+        return future;
+    }
+    
     @Override
     public int executeUpdate() throws SQLException {
         try {
@@ -122,7 +379,7 @@ public final class ShardingPreparedStatement extends AbstractPreparedStatementAd
             clearBatch();
         }
     }
-
+    
     /**
      * 分库分表路由，获得预编译语句对象执行单元集合
      *
@@ -131,48 +388,134 @@ public final class ShardingPreparedStatement extends AbstractPreparedStatementAd
      */
     private Collection<PreparedStatementUnit> route() throws SQLException {
         Collection<PreparedStatementUnit> result = new LinkedList<>();
+        clearPrevious();
         // 路由
-        setRouteResult(routingEngine.route(getParameters()));
+        setRouteResult(routingEngine.route(getParameters(), seekValues));
+        SQLType sqlType = getRouteResult().getSqlStatement().getType();
+        Optional<SeekConditionToken> seekConditionToken = getRouteResult().getSqlStatement() instanceof SelectStatement
+                ? ((SelectStatement) getRouteResult().getSqlStatement()).findSeekConditionToken() : Optional.<SeekConditionToken>absent();
+        // 分配数据库连接
+        Iterator<Connection> connections = SQLType.DDL == sqlType
+                ? Collections.<Connection>emptyIterator() : getShardingConnection().getConnections(getRouteResult().getExecutionUnits(), sqlType).iterator();
         // 遍历 SQL 执行单元
         for (SQLExecutionUnit each : getRouteResult().getExecutionUnits()) {
-            SQLType sqlType = getRouteResult().getSqlStatement().getType();
             Collection<PreparedStatement> preparedStatements;
             // 创建实际的 PreparedStatement
             if (SQLType.DDL == sqlType) {
                 preparedStatements = generatePreparedStatementForDDL(each);
             } else {
-                preparedStatements = Collections.singletonList(generatePreparedStatement(each));
+                preparedStatements = Collections.singletonList(generatePreparedStatement(each, connections.next()));
             }
             getRoutedStatements().addAll(preparedStatements);
             // 回放设置占位符参数到 PreparedStatement
             for (PreparedStatement preparedStatement : preparedStatements) {
-                replaySetParameter(preparedStatement);
+                replaySetParameter(preparedStatement, each, seekConditionToken);
                 result.add(new PreparedStatementUnit(each, preparedStatement));
             }
         }
         return result;
     }
     
+    /**
+     * 清理上次执行路由的语句对象.
+     * 缓存的预编译语句对象留待复用, 未缓存的直接关闭.
+     *
+     * @throws SQLException 当 JDBC 操作发生异常时
+     */
+    private void clearPrevious() throws SQLException {
+        getRoutedStatements().clear();
+        for (PreparedStatement each : uncachedStatements) {
+            each.close();
+        }
+        uncachedStatements.clear();
+    }
+    
+    private void replaySetParameter(final PreparedStatement preparedStatement, final SQLExecutionUnit sqlExecutionUnit, final Optional<SeekConditionToken> seekConditionToken) throws SQLException {
+        if (null != sqlExecutionUnit.getParameterIndexes()) {
+            replaySetParameter(preparedStatement, sqlExecutionUnit.getParameterIndexes(), 
+                    seekConditionToken.isPresent() ? seekConditionToken.get().getParametersIndex() : 0, seekConditionToken.isPresent() ? seekConditionToken.get().getParameters() : Collections.<Object>emptyList());
+        } else if (seekConditionToken.isPresent()) {
+            replaySetParameter(preparedStatement, seekConditionToken.get().getParametersIndex(), seekConditionToken.get().getParameters());
+        } else {
+            replaySetParameter(preparedStatement);
+        }
+    }
+    
     private Collection<PreparedStatement> generatePreparedStatementForDDL(final SQLExecutionUnit sqlExecutionUnit) throws SQLException {
         Collection<PreparedStatement> result = new LinkedList<>();
         Collection<Connection> connections = getShardingConnection().getConnectionForDDL(sqlExecutionUnit.getDataSource());
         for (Connection each : connections) {
             result.add(each.prepareStatement(sqlExecutionUnit.getSql(), getResultSetType(), getResultSetConcurrency(), getResultSetHoldability()));
         }
+        uncachedStatements.addAll(result);
         return result;
     }
-
+    
+    /**
+     * 获取 PreparedStatement
+     * 优先复用同一数据库连接上相同SQL的缓存, 同一次执行中已使用的缓存不复用
+     *
+     * @param sqlExecutionUnit SQL 执行单元
+     * @param connection 数据库连接
+     * @return PreparedStatement
+     * @throws SQLException 当 JDBC 操作发生异常时
+     */
+    private PreparedStatement generatePreparedStatement(final SQLExecutionUnit sqlExecutionUnit, final Connection connection) throws SQLException {
+        Map<String, PreparedStatement> statements = getCachedStatements(sqlExecutionUnit.getDataSource(), connection);
+        PreparedStatement result = statements.get(sqlExecutionUnit.getSql());
+        if (null != result && !result.isClosed()) {
+            if (!getRoutedStatements().contains(result)) {
+                return result;
+            }
+            result = createPreparedStatement(sqlExecutionUnit, connection);
+            uncachedStatements.add(result);
+            return result;
+        }
+        result = createPreparedStatement(sqlExecutionUnit, connection);
+        statements.put(sqlExecutionUnit.getSql(), result);
+        return result;
+    }
+    
+    /**
+     * 获取数据库连接上缓存的预编译语句对象
+     * 数据源的连接被释放或替换后会获取到新的连接, 此时清除该数据源已关闭连接上的缓存
+     *
+     * @param dataSourceName 数据源名称
+     * @param connection 数据库连接
+     * @return 以真实SQL为键的预编译语句对象
+     * @throws SQLException 当 JDBC 操作发生异常时
+     */
+    private Map<String, PreparedStatement> getCachedStatements(final String dataSourceName, final Connection connection) throws SQLException {
+        Map<Connection, Map<String, PreparedStatement>> connectionStatements = cachedStatements.get(dataSourceName);
+        if (null == connectionStatements) {
+            connectionStatements = new IdentityHashMap<>();
+            cachedStatements.put(dataSourceName, connectionStatements);
+        }
+        Map<String, PreparedStatement> result = connectionStatements.get(connection);
+        if (null != result) {
+            return result;
+        }
+        Iterator<Connection> cachedConnections = connectionStatements.keySet().iterator();
+        while (cachedConnections.hasNext()) {
+            if (cachedConnections.next().isClosed()) {
+                cachedConnections.remove();
+            }
+        }
+        result = new CachedStatements(MAX_CACHED_STATEMENTS_PER_CONNECTION, uncachedStatements);
+        connectionStatements.put(connection, result);
+        return result;
+    }
+    
     /**
      * 创建 PreparedStatement
      *
      * @param sqlExecutionUnit SQL 执行单元
+     * @param connection 数据库连接
      * @return PreparedStatement
      * @throws SQLException 当 JDBC 操作发生异常时
      */
-    private PreparedStatement generatePreparedStatement(final SQLExecutionUnit sqlExecutionUnit) throws SQLException {
+    private PreparedStatement createPreparedStatement(final SQLExecutionUnit sqlExecutionUnit, final Connection connection) throws SQLException {
         Optional<GeneratedKey> generatedKey = getGeneratedKey();
-        // 获得连接
-        Connection connection = getShardingConnection().getConnection(sqlExecutionUnit.getDataSource(), getRouteResult().getSqlStatement().getType());
         // 声明返回主键
         if (isReturnGeneratedKeys() || isReturnGeneratedKeys() && generatedKey.isPresent()) {
             return connection.prepareStatement(sqlExecutionUnit.getSql(), RETURN_GENERATED_KEYS);
@@ -186,20 +529,32 @@ public final class ShardingPreparedStatement extends AbstractPreparedStatementAd
         setCurrentResultSet(null);
         // 清理回放方法
         clearParameters();
-        // 清理批量语句
+        // 清理批量语句, 缓存的预编译语句对象复用前需清理其内部的批量语句
+        for (BatchPreparedStatementUnit each : batchStatementUnits.values()) {
+            each.getStatement().clearBatch();
+        }
         batchStatementUnits.clear();
         // 清理占位符参数
         parameterSets.clear();
+        // 清理已执行的更新数量
+        flushedUpdateCounts = new int[0];
+        flushedBatchCount = 0;
     }
     
     @Override
     public void addBatch() throws SQLException {
         try {
+            int batchFlushThreshold = getShardingConnection().getShardingContext().getBatchFlushThreshold();
+            boolean flushRequired = false;
             for (BatchPreparedStatementUnit each : routeBatch()) {
                 each.getStatement().addBatch();
                 each.mapAddBatchCount(parameterSets.size());
+                flushRequired = flushRequired || batchFlushThreshold > 0 && each.getActualCallAddBatchTimes() >= batchFlushThreshold;
             }
             parameterSets.add(getParameters());
+            if (flushRequired) {
+                flushBatch();
+            }
         } finally {
             setCurrentResultSet(null);
             clearParameters();
@@ -209,37 +564,95 @@ public final class ShardingPreparedStatement extends AbstractPreparedStatementAd
     @Override
     public int[] executeBatch() throws SQLException {
         try {
-            return new BatchPreparedStatementExecutor(
-                    getShardingConnection().getShardingContext().getExecutorEngine(), getRouteResult().getSqlStatement().getType(), batchStatementUnits, parameterSets).executeBatch();
+            flushBatch();
+            return Arrays.copyOf(flushedUpdateCounts, flushedBatchCount);
         } finally {
             clearBatch();
         }
     }
     
+    /**
+     * 执行所有分片表已累积的语句.
+     * 
+     * <p>
+     * 执行后各分片表的PreparedStatement继续用于之后的addBatch, 更新数量按addBatch的顺序追加.
+     * </p>
+     */
+    private void flushBatch() {
+        if (parameterSets.isEmpty()) {
+            return;
+        }
+        int[] updateCounts = new BatchPreparedStatementExecutor(
+                getShardingConnection().getShardingContext().getExecutorEngine(), getRouteResult().getSqlStatement().getType(), batchStatementUnits.values(), parameterSets).executeBatch();
+        if (flushedBatchCount + updateCounts.length > flushedUpdateCounts.length) {
+            flushedUpdateCounts = Arrays.copyOf(flushedUpdateCounts, Math.max(flushedUpdateCounts.length << 1, flushedBatchCount + updateCounts.length));
+        }
+        System.arraycopy(updateCounts, 0, flushedUpdateCounts, flushedBatchCount, updateCounts.length);
+        flushedBatchCount += updateCounts.length;
+        for (BatchPreparedStatementUnit each : batchStatementUnits.values()) {
+            each.clearAddBatchCount();
+        }
+        parameterSets.clear();
+    }
+    
     private List<BatchPreparedStatementUnit> routeBatch() throws SQLException {
         List<BatchPreparedStatementUnit> result = new ArrayList<>();
         setRouteResult(routingEngine.route(getParameters()));
         for (SQLExecutionUnit each : getRouteResult().getExecutionUnits()) {
             BatchPreparedStatementUnit batchStatementUnit = getPreparedBatchStatement(each);
-            replaySetParameter(batchStatementUnit.getStatement());
+            replaySetParameter(batchStatementUnit.getStatement(), each, Optional.<SeekConditionToken>absent());
             result.add(batchStatementUnit);
         }
         return result;
     }
     
     private BatchPreparedStatementUnit getPreparedBatchStatement(final SQLExecutionUnit sqlExecutionUnit) throws SQLException {
-        Optional<BatchPreparedStatementUnit> preparedBatchStatement = Iterators.tryFind(batchStatementUnits.iterator(), new Predicate<BatchPreparedStatementUnit>() {
-            
-            @Override
-            public boolean apply(final BatchPreparedStatementUnit input) {
-                return Objects.equals(input.getSqlExecutionUnit(), sqlExecutionUnit);
+        BatchPreparedStatementUnit result = batchStatementUnits.get(sqlExecutionUnit);
+        if (null != result) {
+            return result;
+        }
+        Connection connection = getShardingConnection().getConnection(sqlExecutionUnit.getDataSource(), getRouteResult().getSqlStatement().getType());
+        result = new BatchPreparedStatementUnit(sqlExecutionUnit, generatePreparedStatement(sqlExecutionUnit, connection));
+        batchStatementUnits.put(sqlExecutionUnit, result);
+        return result;
+    }
+    
+    @Override
+    protected Collection<PreparedStatement> getStatementsToClose() {
+        Collection<PreparedStatement> result = new LinkedList<>(uncachedStatements);
+        for (Map<Connection, Map<String, PreparedStatement>> each : cachedStatements.values()) {
+            for (Map<String, PreparedStatement> statements : each.values()) {
+                result.addAll(statements.values());
             }
-        });
-        if (preparedBatchStatement.isPresent()) {
-            return preparedBatchStatement.get();
         }
-        BatchPreparedStatementUnit result = new BatchPreparedStatementUnit(sqlExecutionUnit, generatePreparedStatement(sqlExecutionUnit));
-        batchStatementUnits.add(result);
         return result;
     }
+    
+    /**
+     * 单个数据库连接上按最近使用顺序缓存的预编译语句对象.
+     * 超出容量时淘汰最久未使用的语句对象, 淘汰的语句对象可能仍在本次执行中使用, 因此移入未缓存语句对象, 再次路由或关闭时关闭.
+     */
+    static final class CachedStatements extends LinkedHashMap<String, PreparedStatement> {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final int capacity;
+        
+        private final Collection<PreparedStatement> evictedStatements;
+        
+        CachedStatements(final int capacity, final Collection<PreparedStatement> evictedStatements) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictedStatements = evictedStatements;
+        }
+        
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, PreparedStatement> eldest) {
+            if (size() <= capacity) {
+                return false;
+            }
+            evictedStatements.add(eldest.getValue());
+            return true;
+        }
+    }
 }
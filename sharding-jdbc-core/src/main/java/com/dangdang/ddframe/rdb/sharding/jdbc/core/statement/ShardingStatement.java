@@ -17,14 +17,23 @@
 
 package com.dangdang.ddframe.rdb.sharding.jdbc.core.statement;
 
+import com.codahale.metrics.Timer.Context;
 import com.dangdang.ddframe.rdb.sharding.constant.SQLType;
 import com.dangdang.ddframe.rdb.sharding.executor.type.statement.StatementExecutor;
 import com.dangdang.ddframe.rdb.sharding.executor.type.statement.StatementUnit;
 import com.dangdang.ddframe.rdb.sharding.jdbc.adapter.AbstractStatementAdapter;
+import com.dangdang.ddframe.rdb.sharding.jdbc.core.ShardingContext;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.connection.ShardingConnection;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.resultset.GeneratedKeysResultSet;
+import com.dangdang.ddframe.rdb.sharding.jdbc.core.resultset.PassThroughResultSet;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.resultset.ShardingResultSet;
 import com.dangdang.ddframe.rdb.sharding.merger.MergeEngine;
+import com.dangdang.ddframe.rdb.sharding.merger.ResultSetMerger;
+import com.dangdang.ddframe.rdb.sharding.merger.groupby.GroupByPartialAggregator;
+import com.dangdang.ddframe.rdb.sharding.merger.iterator.ConcurrentIteratorResultSetMerger;
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryAccount;
+import com.dangdang.ddframe.rdb.sharding.metrics.MetricsType;
+import com.dangdang.ddframe.rdb.sharding.metrics.ShardingMetrics;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.GeneratedKey;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dml.insert.InsertStatement;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.select.SelectStatement;
@@ -43,6 +52,7 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -104,10 +114,36 @@ public class ShardingStatement extends AbstractStatementAdapter {
     @Override
     public ResultSet executeQuery(final String sql) throws SQLException {
         ResultSet result;
+        MergeMemoryAccount mergeMemoryAccount = shardingConnection.getShardingContext().getMergeMemoryBudget().createAccount();
         try {
-            List<ResultSet> resultSets = generateExecutor(sql).executeQuery();
-            result = new ShardingResultSet(
-                    resultSets, new MergeEngine(shardingConnection.getShardingContext().getDatabaseType(), resultSets, (SelectStatement) getRouteResult().getSqlStatement()).merge());
+            StatementExecutor statementExecutor = generateExecutor(sql);
+            int queueSize = shardingConnection.getShardingContext().getConcurrentIteratorMergeQueueSize();
+            SelectStatement selectStatement = (SelectStatement) routeResult.getSqlStatement();
+            if (MergeEngine.isPassThrough(routeResult.getExecutionUnits().size(), selectStatement)) {
+                // 单分片直接返回分片结果集
+                result = new PassThroughResultSet(statementExecutor.executeQuery().get(0), this);
+                mergeMemoryAccount.close();
+            } else if (queueSize > 0 && routeResult.getExecutionUnits().size() > 1 && MergeEngine.isConcurrentIteratorMergeable(selectStatement)) {
+                ConcurrentIteratorResultSetMerger resultSetMerger = new ConcurrentIteratorResultSetMerger(queueSize, mergeMemoryAccount);
+                statementExecutor.executeQuery(resultSetMerger);
+                try {
+                    List<ResultSet> resultSets = resultSetMerger.awaitResultSets();
+                    result = new ShardingResultSet(resultSets, createMergeEngine(resultSets, mergeMemoryAccount).merge(resultSetMerger), mergeMemoryAccount, resultSetMerger);
+                } catch (final SQLException | RuntimeException ex) {
+                    resultSetMerger.close();
+                    throw ex;
+                }
+            } else if (isGroupByPartialAggregatable(routeResult.getExecutionUnits().size(), selectStatement)) {
+                GroupByPartialAggregator groupByPartialAggregator = new GroupByPartialAggregator(selectStatement, mergeMemoryAccount);
+                List<ResultSet> resultSets = statementExecutor.executeQuery(groupByPartialAggregator);
+                result = new ShardingResultSet(resultSets, createMergeEngine(resultSets, mergeMemoryAccount).merge(groupByPartialAggregator), mergeMemoryAccount);
+            } else {
+                List<ResultSet> resultSets = statementExecutor.executeQuery();
+                result = new ShardingResultSet(resultSets, merge(resultSets, mergeMemoryAccount), mergeMemoryAccount);
+            }
+        } catch (final SQLException | RuntimeException ex) {
+            mergeMemoryAccount.close();
+            throw ex;
         } finally {
             setCurrentResultSet(null);
         }
@@ -205,13 +241,15 @@ public class ShardingStatement extends AbstractStatementAdapter {
         clearPrevious();
         routeResult = new StatementRoutingEngine(shardingConnection.getShardingContext()).route(sql);
         Collection<StatementUnit> statementUnits = new LinkedList<>();
+        SQLType sqlType = routeResult.getSqlStatement().getType();
+        Iterator<Connection> assignedConnections = SQLType.DDL == sqlType
+                ? Collections.<Connection>emptyIterator() : shardingConnection.getConnections(routeResult.getExecutionUnits(), sqlType).iterator();
         for (SQLExecutionUnit each : routeResult.getExecutionUnits()) {
             Collection<Connection> connections;
-            SQLType sqlType = routeResult.getSqlStatement().getType();
             if (SQLType.DDL == sqlType) {
                 connections = shardingConnection.getConnectionForDDL(each.getDataSource());
             } else {
-                connections = Collections.singletonList(shardingConnection.getConnection(each.getDataSource(), routeResult.getSqlStatement().getType()));
+                connections = Collections.singletonList(assignedConnections.next());
             }
             for (Connection connection : connections) {
                 Statement statement = connection.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability);
@@ -264,8 +302,33 @@ public class ShardingStatement extends AbstractStatementAdapter {
         for (Statement each : routedStatements) {
             resultSets.add(each.getResultSet());
         }
-        currentResultSet = new ShardingResultSet(resultSets, new MergeEngine(
-                shardingConnection.getShardingContext().getDatabaseType(), resultSets, (SelectStatement) getRouteResult().getSqlStatement()).merge());
+        MergeMemoryAccount mergeMemoryAccount = shardingConnection.getShardingContext().getMergeMemoryBudget().createAccount();
+        try {
+            currentResultSet = new ShardingResultSet(resultSets, merge(resultSets, mergeMemoryAccount), mergeMemoryAccount);
+        } catch (final SQLException | RuntimeException ex) {
+            mergeMemoryAccount.close();
+            throw ex;
+        }
         return currentResultSet;
     }
+    
+    private boolean isGroupByPartialAggregatable(final int executionUnitsSize, final SelectStatement selectStatement) {
+        ShardingContext shardingContext = shardingConnection.getShardingContext();
+        return shardingContext.isGroupByPartialAggregationEnable() && 0 == shardingContext.getGroupByMergeMemoryMaxBytes() && !shardingContext.getMergeMemoryBudget().isSpillEnabled() 
+                && executionUnitsSize > 1 && MergeEngine.isGroupByPartialAggregatable(selectStatement);
+    }
+    
+    private ResultSetMerger merge(final List<ResultSet> resultSets, final MergeMemoryAccount mergeMemoryAccount) throws SQLException {
+        Context context = shardingConnection.getShardingContext().getShardingMetrics().start(MetricsType.MERGE);
+        try {
+            return createMergeEngine(resultSets, mergeMemoryAccount).merge();
+        } finally {
+            ShardingMetrics.stop(context);
+        }
+    }
+    
+    private MergeEngine createMergeEngine(final List<ResultSet> resultSets, final MergeMemoryAccount mergeMemoryAccount) throws SQLException {
+        ShardingContext shardingContext = shardingConnection.getShardingContext();
+        return new MergeEngine(shardingContext.getDatabaseType(), resultSets, (SelectStatement) getRouteResult().getSqlStatement(), shardingContext.getGroupByMergeMemoryMaxBytes(), mergeMemoryAccount);
+    }
 }
@@ -19,19 +19,26 @@ package com.dangdang.ddframe.rdb.sharding.merger;
 
 import com.dangdang.ddframe.rdb.sharding.constant.DatabaseType;
 import com.dangdang.ddframe.rdb.sharding.constant.OrderType;
+import com.dangdang.ddframe.rdb.sharding.merger.distinct.DistinctDecoratorResultSetMerger;
 import com.dangdang.ddframe.rdb.sharding.merger.groupby.GroupByMemoryResultSetMerger;
+import com.dangdang.ddframe.rdb.sharding.merger.groupby.GroupByPartialAggregator;
 import com.dangdang.ddframe.rdb.sharding.merger.groupby.GroupByStreamResultSetMerger;
+import com.dangdang.ddframe.rdb.sharding.merger.iterator.ConcurrentIteratorResultSetMerger;
 import com.dangdang.ddframe.rdb.sharding.merger.iterator.IteratorStreamResultSetMerger;
 import com.dangdang.ddframe.rdb.sharding.merger.limit.LimitDecoratorResultSetMerger;
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryAccount;
 import com.dangdang.ddframe.rdb.sharding.merger.orderby.OrderByStreamResultSetMerger;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.OrderItem;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.select.SelectStatement;
 import com.dangdang.ddframe.rdb.sharding.util.SQLUtil;
 
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 
 /**
@@ -40,7 +47,7 @@ import java.util.TreeMap;
  * @author zhangliang
  */
 public final class MergeEngine {
-
+    
     /**
      * 数据库类型
      */
@@ -57,15 +64,34 @@ public final class MergeEngine {
      * 查询列名与位置映射
      */
     private final Map<String, Integer> columnLabelIndexMap;
+    /**
+     * 内存分组归并的最大内存字节数, 0为不限制
+     */
+    private final long groupByMergeMemoryMaxBytes;
+    /**
+     * 归并内存账户
+     */
+    private final MergeMemoryAccount mergeMemoryAccount;
     
     public MergeEngine(final DatabaseType databaseType, final List<ResultSet> resultSets, final SelectStatement selectStatement) throws SQLException {
+        this(databaseType, resultSets, selectStatement, 0L);
+    }
+    
+    public MergeEngine(final DatabaseType databaseType, final List<ResultSet> resultSets, final SelectStatement selectStatement, final long groupByMergeMemoryMaxBytes) throws SQLException {
+        this(databaseType, resultSets, selectStatement, groupByMergeMemoryMaxBytes, MergeMemoryAccount.unlimited());
+    }
+    
+    public MergeEngine(final DatabaseType databaseType, final List<ResultSet> resultSets, final SelectStatement selectStatement, 
+                       final long groupByMergeMemoryMaxBytes, final MergeMemoryAccount mergeMemoryAccount) throws SQLException {
         this.databaseType = databaseType;
         this.resultSets = resultSets;
         this.selectStatement = selectStatement;
+        this.groupByMergeMemoryMaxBytes = groupByMergeMemoryMaxBytes;
+        this.mergeMemoryAccount = mergeMemoryAccount;
         // 获得 查询列名与位置映射
         columnLabelIndexMap = getColumnLabelIndexMap(resultSets.get(0));
     }
-
+    
     /**
      * 获得 查询列名与位置映射
      *
@@ -73,7 +99,7 @@ public final class MergeEngine {
      * @return 查询列名与位置映射
      * @throws SQLException 当结果集已经关闭
      */
-    private Map<String, Integer> getColumnLabelIndexMap(final ResultSet resultSet) throws SQLException {
+    public static Map<String, Integer> getColumnLabelIndexMap(final ResultSet resultSet) throws SQLException {
         ResultSetMetaData resultSetMetaData = resultSet.getMetaData(); // 元数据（包含查询列信息）
         Map<String, Integer> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
         for (int i = 1; i <= resultSetMetaData.getColumnCount(); i++) {
@@ -93,12 +119,79 @@ public final class MergeEngine {
         return decorate(build());
     }
     
+    /**
+     * 合并并发迭代归并结果集.
+     *
+     * @param concurrentIteratorResultSetMerger 并发迭代归并结果集
+     * @return 归并完毕后的结果集
+     * @throws SQLException SQL异常
+     */
+    public ResultSetMerger merge(final ConcurrentIteratorResultSetMerger concurrentIteratorResultSetMerger) throws SQLException {
+        selectStatement.setIndexForItems(columnLabelIndexMap);
+        return decorate(concurrentIteratorResultSetMerger);
+    }
+    
+    /**
+     * 合并各分片已部分聚合的分组结果.
+     *
+     * @param groupByPartialAggregator 分组部分聚合器
+     * @return 归并完毕后的结果集
+     * @throws SQLException SQL异常
+     */
+    public ResultSetMerger merge(final GroupByPartialAggregator groupByPartialAggregator) throws SQLException {
+        selectStatement.setIndexForItems(columnLabelIndexMap);
+        return decorate(new GroupByMemoryResultSetMerger(columnLabelIndexMap, groupByPartialAggregator, selectStatement, getNullOrderType()));
+    }
+    
+    /**
+     * 判断是否可采用并发迭代归并.
+     * 
+     * <p>
+     * 无排序, 分组和聚合时各分片数据行之间无需比较, 可按分片就绪的先后顺序返回.
+     * </p>
+     *
+     * @param selectStatement Select SQL语句对象
+     * @return 是否可采用并发迭代归并
+     */
+    public static boolean isConcurrentIteratorMergeable(final SelectStatement selectStatement) {
+        return selectStatement.getGroupByItems().isEmpty() && selectStatement.getAggregationSelectItems().isEmpty() && selectStatement.getOrderByItems().isEmpty();
+    }
+    
+    /**
+     * 判断是否无需归并.
+     * 
+     * <p>
+     * 仅路由至单分片时分片SQL的分页未改写, 分片结果集即为最终结果, 可直接返回. 近似去重计数仍需在内存中分组归并.
+     * </p>
+     *
+     * @param executionUnitsSize SQL执行单元数量
+     * @param selectStatement Select SQL语句对象
+     * @return 是否无需归并
+     */
+    public static boolean isPassThrough(final int executionUnitsSize, final SelectStatement selectStatement) {
+        return 1 == executionUnitsSize && !selectStatement.isContainApproximateCountDistinct();
+    }
+    
+    /**
+     * 判断是否可在工作线程中对各分片结果集做分组部分聚合.
+     * 
+     * <p>
+     * 仅需内存分组归并的查询可部分聚合, 即含分组或聚合且分组项与排序项不一致.
+     * </p>
+     *
+     * @param selectStatement Select SQL语句对象
+     * @return 是否可做分组部分聚合
+     */
+    public static boolean isGroupByPartialAggregatable(final SelectStatement selectStatement) {
+        return (!selectStatement.getGroupByItems().isEmpty() || !selectStatement.getAggregationSelectItems().isEmpty()) && !selectStatement.isSameGroupByAndOrderByItems();
+    }
+    
     private ResultSetMerger build() throws SQLException {
         if (!selectStatement.getGroupByItems().isEmpty() || !selectStatement.getAggregationSelectItems().isEmpty()) { // 分组 或 聚合列
             if (selectStatement.isSameGroupByAndOrderByItems()) {
                 return new GroupByStreamResultSetMerger(columnLabelIndexMap, resultSets, selectStatement, getNullOrderType());
             } else {
-                return new GroupByMemoryResultSetMerger(columnLabelIndexMap, resultSets, selectStatement, getNullOrderType());
+                return new GroupByMemoryResultSetMerger(columnLabelIndexMap, resultSets, selectStatement, getNullOrderType(), groupByMergeMemoryMaxBytes, mergeMemoryAccount);
             }
         }
         if (!selectStatement.getOrderByItems().isEmpty()) {
@@ -109,12 +202,33 @@ public final class MergeEngine {
     
     private ResultSetMerger decorate(final ResultSetMerger resultSetMerger) throws SQLException {
         ResultSetMerger result = resultSetMerger;
+        if (selectStatement.isDistinct()) {
+            // 推导列追加在查询项之后, 仅按查询项去重
+            int columnCount = resultSets.get(0).getMetaData().getColumnCount() - selectStatement.getDerivedColumnCount();
+            result = new DistinctDecoratorResultSetMerger(result, columnCount, isOrderedByAllColumns(columnCount), mergeMemoryAccount);
+        }
         if (null != selectStatement.getLimit()) {
             result = new LimitDecoratorResultSetMerger(result, selectStatement.getLimit());
         }
         return result;
     }
     
+    private boolean isOrderedByAllColumns(final int columnCount) {
+        Set<Integer> orderByIndexes = new HashSet<>(selectStatement.getOrderByItems().size(), 1);
+        for (OrderItem each : selectStatement.getOrderByItems()) {
+            if (each.getIndex() > columnCount) {
+                return false;
+            }
+            orderByIndexes.add(each.getIndex());
+        }
+        for (int i = 1; i <= columnCount; i++) {
+            if (!orderByIndexes.contains(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
     private OrderType getNullOrderType() {
         if (DatabaseType.MySQL == databaseType || DatabaseType.Oracle == databaseType || DatabaseType.H2 == databaseType) {
             return OrderType.ASC;
@@ -97,4 +97,142 @@ public interface ResultSetMerger {
      * @throws SQLException SQL异常
      */
     InputStream getInputStream(final String columnLabel, final String type) throws SQLException;
+    
+    /**
+     * 获取boolean值.
+     *
+     * @param columnIndex 列索引
+     * @return 值, 为空时返回false
+     * @throws SQLException SQL异常
+     */
+    boolean getBoolean(int columnIndex) throws SQLException;
+    
+    /**
+     * 获取boolean值.
+     *
+     * @param columnLabel 列标签
+     * @return 值, 为空时返回false
+     * @throws SQLException SQL异常
+     */
+    boolean getBoolean(String columnLabel) throws SQLException;
+    
+    /**
+     * 获取byte值.
+     *
+     * @param columnIndex 列索引
+     * @return 值, 为空时返回0
+     * @throws SQLException SQL异常
+     */
+    byte getByte(int columnIndex) throws SQLException;
+    
+    /**
+     * 获取byte值.
+     *
+     * @param columnLabel 列标签
+     * @return 值, 为空时返回0
+     * @throws SQLException SQL异常
+     */
+    byte getByte(String columnLabel) throws SQLException;
+    
+    /**
+     * 获取short值.
+     *
+     * @param columnIndex 列索引
+     * @return 值, 为空时返回0
+     * @throws SQLException SQL异常
+     */
+    short getShort(int columnIndex) throws SQLException;
+    
+    /**
+     * 获取short值.
+     *
+     * @param columnLabel 列标签
+     * @return 值, 为空时返回0
+     * @throws SQLException SQL异常
+     */
+    short getShort(String columnLabel) throws SQLException;
+    
+    /**
+     * 获取int值.
+     *
+     * @param columnIndex 列索引
+     * @return 值, 为空时返回0
+     * @throws SQLException SQL异常
+     */
+    int getInt(int columnIndex) throws SQLException;
+    
+    /**
+     * 获取int值.
+     *
+     * @param columnLabel 列标签
+     * @return 值, 为空时返回0
+     * @throws SQLException SQL异常
+     */
+    int getInt(String columnLabel) throws SQLException;
+    
+    /**
+     * 获取long值.
+     *
+     * @param columnIndex 列索引
+     * @return 值, 为空时返回0
+     * @throws SQLException SQL异常
+     */
+    long getLong(int columnIndex) throws SQLException;
+    
+    /**
+     * 获取long值.
+     *
+     * @param columnLabel 列标签
+     * @return 值, 为空时返回0
+     * @throws SQLException SQL异常
+     */
+    long getLong(String columnLabel) throws SQLException;
+    
+    /**
+     * 获取float值.
+     *
+     * @param columnIndex 列索引
+     * @return 值, 为空时返回0
+     * @throws SQLException SQL异常
+     */
+    float getFloat(int columnIndex) throws SQLException;
+    
+    /**
+     * 获取float值.
+     *
+     * @param columnLabel 列标签
+     * @return 值, 为空时返回0
+     * @throws SQLException SQL异常
+     */
+    float getFloat(String columnLabel) throws SQLException;
+    
+    /**
+     * 获取double值.
+     *
+     * @param columnIndex 列索引
+     * @return 值, 为空时返回0
+     * @throws SQLException SQL异常
+     */
+    double getDouble(int columnIndex) throws SQLException;
+    
+    /**
+     * 获取double值.
+     *
+     * @param columnLabel 列标签
+     * @return 值, 为空时返回0
+     * @throws SQLException SQL异常
+     */
+    double getDouble(String columnLabel) throws SQLException;
+    
+    /**
+     * 判断最后读取的值是否为空.
+     * 
+     * <p>
+     * 原生类型取值方法不装箱, 需通过该方法判断是否为空.
+     * </p>
+     *
+     * @return 最后读取的值是否为空
+     * @throws SQLException SQL异常
+     */
+    boolean wasNull() throws SQLException;
 }
@@ -33,12 +33,12 @@ import java.util.Calendar;
 @RequiredArgsConstructor
 @Getter
 public abstract class AbstractDecoratorResultSetMerger implements ResultSetMerger {
-
+    
     /**
      * 装饰的归并对象
      */
     private final ResultSetMerger resultSetMerger;
-        
+    
     @Override
     public Object getValue(final int columnIndex, final Class<?> type) throws SQLException {
         return resultSetMerger.getValue(columnIndex, type);
@@ -68,4 +68,79 @@ public abstract class AbstractDecoratorResultSetMerger implements ResultSetMerge
     public InputStream getInputStream(final String columnLabel, final String type) throws SQLException {
         return resultSetMerger.getInputStream(columnLabel, type);
     }
+    
+    @Override
+    public boolean getBoolean(final int columnIndex) throws SQLException {
+        return resultSetMerger.getBoolean(columnIndex);
+    }
+    
+    @Override
+    public boolean getBoolean(final String columnLabel) throws SQLException {
+        return resultSetMerger.getBoolean(columnLabel);
+    }
+    
+    @Override
+    public byte getByte(final int columnIndex) throws SQLException {
+        return resultSetMerger.getByte(columnIndex);
+    }
+    
+    @Override
+    public byte getByte(final String columnLabel) throws SQLException {
+        return resultSetMerger.getByte(columnLabel);
+    }
+    
+    @Override
+    public short getShort(final int columnIndex) throws SQLException {
+        return resultSetMerger.getShort(columnIndex);
+    }
+    
+    @Override
+    public short getShort(final String columnLabel) throws SQLException {
+        return resultSetMerger.getShort(columnLabel);
+    }
+    
+    @Override
+    public int getInt(final int columnIndex) throws SQLException {
+        return resultSetMerger.getInt(columnIndex);
+    }
+    
+    @Override
+    public int getInt(final String columnLabel) throws SQLException {
+        return resultSetMerger.getInt(columnLabel);
+    }
+    
+    @Override
+    public long getLong(final int columnIndex) throws SQLException {
+        return resultSetMerger.getLong(columnIndex);
+    }
+    
+    @Override
+    public long getLong(final String columnLabel) throws SQLException {
+        return resultSetMerger.getLong(columnLabel);
+    }
+    
+    @Override
+    public float getFloat(final int columnIndex) throws SQLException {
+        return resultSetMerger.getFloat(columnIndex);
+    }
+    
+    @Override
+    public float getFloat(final String columnLabel) throws SQLException {
+        return resultSetMerger.getFloat(columnLabel);
+    }
+    
+    @Override
+    public double getDouble(final int columnIndex) throws SQLException {
+        return resultSetMerger.getDouble(columnIndex);
+    }
+    
+    @Override
+    public double getDouble(final String columnLabel) throws SQLException {
+        return resultSetMerger.getDouble(columnLabel);
+    }
+    
+    @Override
+    public boolean wasNull() throws SQLException {
+        return resultSetMerger.wasNull();
+    }
 }
@@ -45,6 +45,10 @@ public abstract class AbstractMemoryResultSetMerger implements ResultSetMerger {
      */
     @Setter
     private MemoryResultSetRow currentResultSetRow;
+    /**
+     * 最后读取的值是否为空
+     */
+    private boolean wasNull;
     
     @Override
     public Object getValue(final int columnIndex, final Class<?> type) throws SQLException {
@@ -59,7 +63,7 @@ public abstract class AbstractMemoryResultSetMerger implements ResultSetMerger {
         if (Blob.class == type || Clob.class == type || Reader.class == type || InputStream.class == type || SQLXML.class == type) {
             throw new SQLFeatureNotSupportedException();
         }
-        return currentResultSetRow.getCell(labelAndIndexMap.get(columnLabel));
+        return currentResultSetRow.getCell(getColumnIndex(columnLabel));
     }
     
     @Override
@@ -71,7 +75,7 @@ public abstract class AbstractMemoryResultSetMerger implements ResultSetMerger {
     @Override
     public Object getCalendarValue(final String columnLabel, final Class<?> type, final Calendar calendar) throws SQLException {
         // TODO 时间相关取值未实现calendar模式
-        return currentResultSetRow.getCell(labelAndIndexMap.get(columnLabel));
+        return currentResultSetRow.getCell(getColumnIndex(columnLabel));
     }
     
     @Override
@@ -83,4 +87,94 @@ public abstract class AbstractMemoryResultSetMerger implements ResultSetMerger {
     public InputStream getInputStream(final String columnLabel, final String type) throws SQLException {
         throw new SQLFeatureNotSupportedException();
     }
+    
+    @Override
+    public boolean getBoolean(final int columnIndex) throws SQLException {
+        wasNull = null == currentResultSetRow.getCell(columnIndex);
+        return currentResultSetRow.getBoolean(columnIndex);
+    }
+    
+    @Override
+    public boolean getBoolean(final String columnLabel) throws SQLException {
+        return getBoolean(getColumnIndex(columnLabel));
+    }
+    
+    @Override
+    public byte getByte(final int columnIndex) throws SQLException {
+        wasNull = null == currentResultSetRow.getCell(columnIndex);
+        return currentResultSetRow.getByte(columnIndex);
+    }
+    
+    @Override
+    public byte getByte(final String columnLabel) throws SQLException {
+        return getByte(getColumnIndex(columnLabel));
+    }
+    
+    @Override
+    public short getShort(final int columnIndex) throws SQLException {
+        wasNull = null == currentResultSetRow.getCell(columnIndex);
+        return currentResultSetRow.getShort(columnIndex);
+    }
+    
+    @Override
+    public short getShort(final String columnLabel) throws SQLException {
+        return getShort(getColumnIndex(columnLabel));
+    }
+    
+    @Override
+    public int getInt(final int columnIndex) throws SQLException {
+        wasNull = null == currentResultSetRow.getCell(columnIndex);
+        return currentResultSetRow.getInt(columnIndex);
+    }
+    
+    @Override
+    public int getInt(final String columnLabel) throws SQLException {
+        return getInt(getColumnIndex(columnLabel));
+    }
+    
+    @Override
+    public long getLong(final int columnIndex) throws SQLException {
+        wasNull = null == currentResultSetRow.getCell(columnIndex);
+        return currentResultSetRow.getLong(columnIndex);
+    }
+    
+    @Override
+    public long getLong(final String columnLabel) throws SQLException {
+        return getLong(getColumnIndex(columnLabel));
+    }
+    
+    @Override
+    public float getFloat(final int columnIndex) throws SQLException {
+        wasNull = null == currentResultSetRow.getCell(columnIndex);
+        return currentResultSetRow.getFloat(columnIndex);
+    }
+    
+    @Override
+    public float getFloat(final String columnLabel) throws SQLException {
+        return getFloat(getColumnIndex(columnLabel));
+    }
+    
+    @Override
+    public double getDouble(final int columnIndex) throws SQLException {
+        wasNull = null == currentResultSetRow.getCell(columnIndex);
+        return currentResultSetRow.getDouble(columnIndex);
+    }
+    
+    @Override
+    public double getDouble(final String columnLabel) throws SQLException {
+        return getDouble(getColumnIndex(columnLabel));
+    }
+    
+    @Override
+    public boolean wasNull() throws SQLException {
+        return wasNull;
+    }
+    
+    private int getColumnIndex(final String columnLabel) throws SQLException {
+        Integer result = labelAndIndexMap.get(columnLabel);
+        if (null == result) {
+            throw new SQLException(String.format("Can not find column label: %s", columnLabel));
+        }
+        return result;
+    }
 }
@@ -35,7 +35,7 @@ import java.util.Calendar;
 @SuppressWarnings("Duplicates")
 @Setter
 public abstract class AbstractStreamResultSetMerger implements ResultSetMerger {
-
+    
     /**
      * 当前结果集
      */
@@ -229,4 +229,79 @@ public abstract class AbstractStreamResultSetMerger implements ResultSetMerger {
         }
         throw new SQLException(String.format("Unsupported type: %s", type));
     }
+    
+    @Override
+    public boolean getBoolean(final int columnIndex) throws SQLException {
+        return getCurrentResultSet().getBoolean(columnIndex);
+    }
+    
+    @Override
+    public boolean getBoolean(final String columnLabel) throws SQLException {
+        return getCurrentResultSet().getBoolean(columnLabel);
+    }
+    
+    @Override
+    public byte getByte(final int columnIndex) throws SQLException {
+        return getCurrentResultSet().getByte(columnIndex);
+    }
+    
+    @Override
+    public byte getByte(final String columnLabel) throws SQLException {
+        return getCurrentResultSet().getByte(columnLabel);
+    }
+    
+    @Override
+    public short getShort(final int columnIndex) throws SQLException {
+        return getCurrentResultSet().getShort(columnIndex);
+    }
+    
+    @Override
+    public short getShort(final String columnLabel) throws SQLException {
+        return getCurrentResultSet().getShort(columnLabel);
+    }
+    
+    @Override
+    public int getInt(final int columnIndex) throws SQLException {
+        return getCurrentResultSet().getInt(columnIndex);
+    }
+    
+    @Override
+    public int getInt(final String columnLabel) throws SQLException {
+        return getCurrentResultSet().getInt(columnLabel);
+    }
+    
+    @Override
+    public long getLong(final int columnIndex) throws SQLException {
+        return getCurrentResultSet().getLong(columnIndex);
+    }
+    
+    @Override
+    public long getLong(final String columnLabel) throws SQLException {
+        return getCurrentResultSet().getLong(columnLabel);
+    }
+    
+    @Override
+    public float getFloat(final int columnIndex) throws SQLException {
+        return getCurrentResultSet().getFloat(columnIndex);
+    }
+    
+    @Override
+    public float getFloat(final String columnLabel) throws SQLException {
+        return getCurrentResultSet().getFloat(columnLabel);
+    }
+    
+    @Override
+    public double getDouble(final int columnIndex) throws SQLException {
+        return getCurrentResultSet().getDouble(columnIndex);
+    }
+    
+    @Override
+    public double getDouble(final String columnLabel) throws SQLException {
+        return getCurrentResultSet().getDouble(columnLabel);
+    }
+    
+    @Override
+    public boolean wasNull() throws SQLException {
+        return getCurrentResultSet().wasNull();
+    }
 }
@@ -17,8 +17,10 @@
 
 package com.dangdang.ddframe.rdb.sharding.merger.common;
 
+import com.dangdang.ddframe.rdb.sharding.merger.util.ResultSetUtil;
 import com.google.common.base.Preconditions;
 
+import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
@@ -28,7 +30,9 @@ import java.sql.SQLException;
  * @author zhangliang
  */
 public class MemoryResultSetRow {
-
+    
+    private static final long ROW_OVERHEAD_BYTES = 128L;
+    
     /**
      * 行数据
      */
@@ -37,7 +41,11 @@ public class MemoryResultSetRow {
     public MemoryResultSetRow(final ResultSet resultSet) throws SQLException {
         data = load(resultSet);
     }
-
+    
+    public MemoryResultSetRow(final Object[] data) {
+        this.data = data;
+    }
+    
     /**
      * 加载 ResultSet 当前行数据到内存
      * @param resultSet 结果集
@@ -64,6 +72,85 @@ public class MemoryResultSetRow {
         return data[columnIndex - 1];
     }
     
+    /**
+     * 获取boolean数据.
+     * 
+     * @param columnIndex 列索引
+     * @return 数据, 为空时返回false
+     */
+    public boolean getBoolean(final int columnIndex) {
+        return ResultSetUtil.convertBooleanValue(getCell(columnIndex));
+    }
+    
+    /**
+     * 获取byte数据.
+     * 
+     * @param columnIndex 列索引
+     * @return 数据, 为空时返回0
+     */
+    public byte getByte(final int columnIndex) {
+        return ResultSetUtil.convertByteValue(getCell(columnIndex));
+    }
+    
+    /**
+     * 获取short数据.
+     * 
+     * @param columnIndex 列索引
+     * @return 数据, 为空时返回0
+     */
+    public short getShort(final int columnIndex) {
+        return ResultSetUtil.convertShortValue(getCell(columnIndex));
+    }
+    
+    /**
+     * 获取int数据.
+     * 
+     * @param columnIndex 列索引
+     * @return 数据, 为空时返回0
+     */
+    public int getInt(final int columnIndex) {
+        return ResultSetUtil.convertIntValue(getCell(columnIndex));
+    }
+    
+    /**
+     * 获取long数据.
+     * 
+     * @param columnIndex 列索引
+     * @return 数据, 为空时返回0
+     */
+    public long getLong(final int columnIndex) {
+        return ResultSetUtil.convertLongValue(getCell(columnIndex));
+    }
+    
+    /**
+     * 获取float数据.
+     * 
+     * @param columnIndex 列索引
+     * @return 数据, 为空时返回0
+     */
+    public float getFloat(final int columnIndex) {
+        return ResultSetUtil.convertFloatValue(getCell(columnIndex));
+    }
+    
+    /**
+     * 获取double数据.
+     * 
+     * @param columnIndex 列索引
+     * @return 数据, 为空时返回0
+     */
+    public double getDouble(final int columnIndex) {
+        return ResultSetUtil.convertDoubleValue(getCell(columnIndex));
+    }
+    
+    /**
+     * 获取列数量.
+     * 
+     * @return 列数量
+     */
+    public int getColumnCount() {
+        return data.length;
+    }
+    
     /**
      * 设置数据.
      *
@@ -74,4 +161,33 @@ public class MemoryResultSetRow {
         Preconditions.checkArgument(columnIndex > 0 && columnIndex < data.length + 1);
         data[columnIndex - 1] = value;
     }
+    
+    /**
+     * 估算数据行占用的内存字节数.
+     * 
+     * @return 估算的字节数
+     */
+    public long estimateSize() {
+        long result = ROW_OVERHEAD_BYTES;
+        for (Object each : data) {
+            result += estimateSize(each);
+        }
+        return result;
+    }
+    
+    private long estimateSize(final Object value) {
+        if (null == value) {
+            return 8L;
+        }
+        if (value instanceof String) {
+            return 48L + 2L * ((String) value).length();
+        }
+        if (value instanceof byte[]) {
+            return 24L + ((byte[]) value).length;
+        }
+        if (value instanceof BigDecimal) {
+            return 64L;
+        }
+        return 24L;
+    }
 }
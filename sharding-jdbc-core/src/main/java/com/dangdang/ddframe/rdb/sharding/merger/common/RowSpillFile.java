@@ -0,0 +1,307 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+
+package com.dangdang.ddframe.rdb.sharding.merger.common;
+
+import com.google.common.base.Charsets;
+import lombok.Getter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Time;
+import java.sql.Timestamp;
+
+/**
+ * 数据行溢写文件.
+ * 
+ * <p>
+ * 以紧凑的二进制格式将内存数据行顺序写入本地临时文件, 写入完毕后按写入顺序读取, 开始读取或关闭时删除临时文件.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+public final class RowSpillFile implements AutoCloseable {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private static final byte NULL = 0;
+    
+    private static final byte BOOLEAN = 1;
+    
+    private static final byte BYTE = 2;
+    
+    private static final byte SHORT = 3;
+    
+    private static final byte INTEGER = 4;
+    
+    private static final byte LONG = 5;
+    
+    private static final byte FLOAT = 6;
+    
+    private static final byte DOUBLE = 7;
+    
+    private static final byte BIG_INTEGER = 8;
+    
+    private static final byte BIG_DECIMAL = 9;
+    
+    private static final byte STRING = 10;
+    
+    private static final byte BYTES = 11;
+    
+    private static final byte DATE = 12;
+    
+    private static final byte TIME = 13;
+    
+    private static final byte TIMESTAMP = 14;
+    
+    private static final byte UTIL_DATE = 15;
+    
+    private static final byte SERIALIZABLE = 16;
+    
+    private final File file;
+    
+    private DataOutputStream output;
+    
+    private DataInputStream input;
+    
+    @Getter
+    private int rowCount;
+    
+    private int readCount;
+    
+    public RowSpillFile() throws SQLException {
+        try {
+            file = File.createTempFile("sharding-jdbc-spill-", ".tmp");
+            output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+        } catch (final IOException ex) {
+            throw new SQLException(ex);
+        }
+    }
+    
+    /**
+     * 写入数据行.
+     * 
+     * @param row 内存数据行
+     * @throws SQLException 写入文件失败或数据类型不支持溢写时抛出
+     */
+    public void write(final MemoryResultSetRow row) throws SQLException {
+        try {
+            output.writeShort(row.getColumnCount());
+            for (int i = 1; i <= row.getColumnCount(); i++) {
+                writeCell(row.getCell(i));
+            }
+        } catch (final IOException ex) {
+            throw new SQLException(ex);
+        }
+        rowCount++;
+    }
+    
+    private void writeCell(final Object value) throws IOException, SQLException {
+        if (null == value) {
+            output.writeByte(NULL);
+        } else if (value instanceof Boolean) {
+            output.writeByte(BOOLEAN);
+            output.writeBoolean((Boolean) value);
+        } else if (value instanceof Byte) {
+            output.writeByte(BYTE);
+            output.writeByte((Byte) value);
+        } else if (value instanceof Short) {
+            output.writeByte(SHORT);
+            output.writeShort((Short) value);
+        } else if (value instanceof Integer) {
+            output.writeByte(INTEGER);
+            output.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            output.writeByte(LONG);
+            output.writeLong((Long) value);
+        } else if (value instanceof Float) {
+            output.writeByte(FLOAT);
+            output.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            output.writeByte(DOUBLE);
+            output.writeDouble((Double) value);
+        } else if (value instanceof BigInteger) {
+            output.writeByte(BIG_INTEGER);
+            writeBytes(((BigInteger) value).toByteArray());
+        } else if (value instanceof BigDecimal) {
+            output.writeByte(BIG_DECIMAL);
+            output.writeInt(((BigDecimal) value).scale());
+            writeBytes(((BigDecimal) value).unscaledValue().toByteArray());
+        } else if (value instanceof String) {
+            output.writeByte(STRING);
+            writeBytes(((String) value).getBytes(Charsets.UTF_8));
+        } else if (value instanceof byte[]) {
+            output.writeByte(BYTES);
+            writeBytes((byte[]) value);
+        } else if (value instanceof Date) {
+            output.writeByte(DATE);
+            output.writeLong(((Date) value).getTime());
+        } else if (value instanceof Time) {
+            output.writeByte(TIME);
+            output.writeLong(((Time) value).getTime());
+        } else if (value instanceof Timestamp) {
+            output.writeByte(TIMESTAMP);
+            output.writeLong(((Timestamp) value).getTime());
+            output.writeInt(((Timestamp) value).getNanos());
+        } else if (value instanceof java.util.Date) {
+            output.writeByte(UTIL_DATE);
+            output.writeLong(((java.util.Date) value).getTime());
+        } else if (value instanceof Serializable) {
+            output.writeByte(SERIALIZABLE);
+            writeBytes(serialize(value));
+        } else {
+            throw new SQLFeatureNotSupportedException(String.format("Can not spill value of type '%s'.", value.getClass().getName()));
+        }
+    }
+    
+    private void writeBytes(final byte[] value) throws IOException {
+        output.writeInt(value.length);
+        output.write(value);
+    }
+    
+    private byte[] serialize(final Object value) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(result)) {
+            objectOutputStream.writeObject(value);
+        }
+        return result.toByteArray();
+    }
+    
+    /**
+     * 结束写入并开始读取.
+     * 
+     * @throws SQLException 读写文件失败时抛出
+     */
+    public void finishWrite() throws SQLException {
+        try {
+            output.close();
+            output = null;
+            input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+            // 打开后即删除, 进程异常退出时也不会残留临时文件; 不支持删除已打开文件的系统在关闭时再次删除
+            file.delete();
+        } catch (final IOException ex) {
+            throw new SQLException(ex);
+        }
+    }
+    
+    /**
+     * 按写入顺序读取下一数据行.
+     * 
+     * @return 内存数据行, 全部读取完毕时返回{@code null}
+     * @throws SQLException 读取文件失败时抛出
+     */
+    public MemoryResultSetRow read() throws SQLException {
+        if (readCount >= rowCount) {
+            return null;
+        }
+        try {
+            Object[] data = new Object[input.readUnsignedShort()];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = readCell();
+            }
+            readCount++;
+            return new MemoryResultSetRow(data);
+        } catch (final IOException | ClassNotFoundException ex) {
+            throw new SQLException(ex);
+        }
+    }
+    
+    private Object readCell() throws IOException, ClassNotFoundException {
+        byte type = input.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case BOOLEAN:
+                return input.readBoolean();
+            case BYTE:
+                return input.readByte();
+            case SHORT:
+                return input.readShort();
+            case INTEGER:
+                return input.readInt();
+            case LONG:
+                return input.readLong();
+            case FLOAT:
+                return input.readFloat();
+            case DOUBLE:
+                return input.readDouble();
+            case BIG_INTEGER:
+                return new BigInteger(readBytes());
+            case BIG_DECIMAL:
+                int scale = input.readInt();
+                return new BigDecimal(new BigInteger(readBytes()), scale);
+            case STRING:
+                return new String(readBytes(), Charsets.UTF_8);
+            case BYTES:
+                return readBytes();
+            case DATE:
+                return new Date(input.readLong());
+            case TIME:
+                return new Time(input.readLong());
+            case TIMESTAMP:
+                Timestamp timestamp = new Timestamp(input.readLong());
+                timestamp.setNanos(input.readInt());
+                return timestamp;
+            case UTIL_DATE:
+                return new java.util.Date(input.readLong());
+            case SERIALIZABLE:
+                try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(readBytes()))) {
+                    return objectInputStream.readObject();
+                }
+            default:
+                throw new IOException(String.format("Unknown spilled value type '%s'.", type));
+        }
+    }
+    
+    private byte[] readBytes() throws IOException {
+        byte[] result = new byte[input.readInt()];
+        input.readFully(result);
+        return result;
+    }
+    
+    @Override
+    public void close() {
+        try {
+            if (null != output) {
+                output.close();
+            }
+            if (null != input) {
+                input.close();
+            }
+        } catch (final IOException ignored) {
+        } finally {
+            file.delete();
+        }
+    }
+}
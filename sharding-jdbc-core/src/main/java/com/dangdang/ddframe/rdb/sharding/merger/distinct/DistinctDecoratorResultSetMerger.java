@@ -0,0 +1,127 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+
+package com.dangdang.ddframe.rdb.sharding.merger.distinct;
+
+import com.dangdang.ddframe.rdb.sharding.merger.ResultSetMerger;
+import com.dangdang.ddframe.rdb.sharding.merger.common.AbstractDecoratorResultSetMerger;
+import com.dangdang.ddframe.rdb.sharding.merger.common.MemoryResultSetRow;
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryAccount;
+import com.google.common.base.Objects;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 去重结果集归并.
+ * 
+ * <p>
+ * 被装饰的归并结果按全部列排序时重复行相邻, 仅与上一行比较即可流式去重.
+ * 否则记录已返回的数据行, 内存占用与去重后的行数成正比, 并按估算字节数向归并内存预算申请.
+ * </p>
+ *
+ * @author zhangliang
+ */
+public final class DistinctDecoratorResultSetMerger extends AbstractDecoratorResultSetMerger {
+    
+    private final int columnCount;
+    
+    private final boolean sorted;
+    
+    private final MergeMemoryAccount mergeMemoryAccount;
+    
+    private final Set<List<Object>> returnedRows = new HashSet<>();
+    
+    /**
+     * 当前行各列的值, 逐行复用
+     */
+    private final Object[] currentRow;
+    
+    private final List<Object> currentRowView;
+    
+    private boolean hasPreviousRow;
+    
+    public DistinctDecoratorResultSetMerger(final ResultSetMerger resultSetMerger, final int columnCount, final boolean sorted) {
+        this(resultSetMerger, columnCount, sorted, MergeMemoryAccount.unlimited());
+    }
+    
+    public DistinctDecoratorResultSetMerger(final ResultSetMerger resultSetMerger, final int columnCount, final boolean sorted, final MergeMemoryAccount mergeMemoryAccount) {
+        super(resultSetMerger);
+        this.columnCount = columnCount;
+        this.sorted = sorted;
+        this.mergeMemoryAccount = mergeMemoryAccount;
+        currentRow = new Object[columnCount];
+        currentRowView = Arrays.asList(currentRow);
+    }
+    
+    @Override
+    public boolean next() throws SQLException {
+        while (getResultSetMerger().next()) {
+            if (sorted) {
+                if (!isSameAsPreviousRow()) {
+                    return true;
+                }
+            } else if (addReturnedRow()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 读取当前行并逐列与上一行比较.
+     * 当前行的值覆盖写入上一行的缓冲区, 无需为每行分配对象.
+     * 
+     * @return 是否与上一行相同
+     * @throws SQLException SQL异常
+     */
+    private boolean isSameAsPreviousRow() throws SQLException {
+        boolean result = hasPreviousRow;
+        for (int i = 0; i < columnCount; i++) {
+            Object value = getResultSetMerger().getValue(i + 1, Object.class);
+            if (result && !Objects.equal(value, currentRow[i])) {
+                result = false;
+            }
+            currentRow[i] = value;
+        }
+        hasPreviousRow = true;
+        return result;
+    }
+    
+    /**
+     * 读取当前行, 未返回过时复制并记录.
+     * 
+     * @return 是否未返回过
+     * @throws SQLException SQL异常
+     */
+    private boolean addReturnedRow() throws SQLException {
+        for (int i = 0; i < columnCount; i++) {
+            currentRow[i] = getResultSetMerger().getValue(i + 1, Object.class);
+        }
+        if (returnedRows.contains(currentRowView)) {
+            return false;
+        }
+        Object[] returnedRow = currentRow.clone();
+        mergeMemoryAccount.charge(new MemoryResultSetRow(returnedRow).estimateSize());
+        returnedRows.add(Arrays.asList(returnedRow));
+        return true;
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+
+package com.dangdang.ddframe.rdb.sharding.merger.groupby;
+
+import com.dangdang.ddframe.rdb.sharding.constant.OrderType;
+import com.dangdang.ddframe.rdb.sharding.merger.common.MemoryResultSetRow;
+import com.dangdang.ddframe.rdb.sharding.merger.common.RowSpillFile;
+import com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation.AggregationUnit;
+import com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation.AggregationUnitFactory;
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryAccount;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.selectitem.AggregationSelectItem;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.select.SelectStatement;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.PriorityQueue;
+
+/**
+ * 可溢写磁盘的外部分组聚合器.
+ * 
+ * <p>
+ * 内存中分组的估算大小超过预算后, 新分组的数据行按分组条件值的哈希分区溢写至本地临时文件, 已在内存中的分组继续在内存中聚合.
+ * 分区开始溢写后不再有新分组进入内存, 避免同一分组被拆分在内存和溢写文件中.
+ * 输入读取完毕后, 内存中的分组与逐个读回聚合的分区各自排序后写入有序文件, 最终多路归并输出.
+ * 分区读回后仍超出预算时以新的哈希种子再次分区.
+ * 内存中的分组同时向归并内存预算申请, 申请失败时同样溢写, 分区写入有序文件后归还.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+public final class GroupByExternalAggregator implements AutoCloseable {
+    
+    private static final int PARTITION_SIZE = 16;
+    
+    private static final int MAX_PARTITION_DEPTH = 4;
+    
+    private final SelectStatement selectStatement;
+    
+    private final GroupByRowComparator groupByRowComparator;
+    
+    private final long maxMemoryBytes;
+    
+    private final MergeMemoryAccount mergeMemoryAccount;
+    
+    private final List<RowSpillFile> spillFiles = new LinkedList<>();
+    
+    private final List<RowSpillFile> sortedFiles = new LinkedList<>();
+    
+    private final PriorityQueue<SortedFileCursor> sortedFileCursors;
+    
+    private ResultSetMetaData resultSetMetaData;
+    
+    private Iterator<MemoryResultSetRow> memoryRows = Collections.<MemoryResultSetRow>emptyList().iterator();
+    
+    public GroupByExternalAggregator(final SelectStatement selectStatement, final OrderType nullOrderType, final long maxMemoryBytes, final MergeMemoryAccount mergeMemoryAccount) {
+        Preconditions.checkArgument(maxMemoryBytes > 0, "Max memory bytes must be positive.");
+        this.selectStatement = selectStatement;
+        groupByRowComparator = new GroupByRowComparator(selectStatement, nullOrderType);
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.mergeMemoryAccount = mergeMemoryAccount;
+        sortedFileCursors = new PriorityQueue<>(PARTITION_SIZE + 1, new Comparator<SortedFileCursor>() {
+    
+            @Override
+            public int compare(final SortedFileCursor o1, final SortedFileCursor o2) {
+                return groupByRowComparator.compare(o1.getCurrentRow(), o2.getCurrentRow());
+            }
+        });
+    }
+    
+    /**
+     * 分组聚合各分片结果集.
+     * 
+     * @param resultSets 分片结果集集合
+     * @throws SQLException SQL异常
+     */
+    public void aggregate(final List<ResultSet> resultSets) throws SQLException {
+        try {
+            resultSetMetaData = resultSets.get(0).getMetaData();
+            Partition partition = new Partition(0);
+            for (ResultSet each : resultSets) {
+                while (each.next()) {
+                    partition.add(new MemoryResultSetRow(each));
+                }
+            }
+            partition.finish();
+            for (RowSpillFile each : sortedFiles) {
+                each.finishWrite();
+                SortedFileCursor cursor = new SortedFileCursor(each);
+                if (cursor.next()) {
+                    sortedFileCursors.add(cursor);
+                }
+            }
+        } catch (final SQLException ex) {
+            close();
+            throw ex;
+        }
+    }
+    
+    /**
+     * 按排序项读取下一聚合后的数据行.
+     * 
+     * @return 聚合后的数据行, 读取完毕时返回{@code null}
+     * @throws SQLException SQL异常
+     */
+    public MemoryResultSetRow next() throws SQLException {
+        if (memoryRows.hasNext()) {
+            return memoryRows.next();
+        }
+        SortedFileCursor cursor = sortedFileCursors.poll();
+        if (null == cursor) {
+            close();
+            return null;
+        }
+        MemoryResultSetRow result = cursor.getCurrentRow();
+        if (cursor.next()) {
+            sortedFileCursors.add(cursor);
+        }
+        return result;
+    }
+    
+    /**
+     * 判断是否发生溢写.
+     * 
+     * @return 是否发生溢写
+     */
+    public boolean isSpilled() {
+        return !sortedFiles.isEmpty();
+    }
+    
+    @Override
+    public void close() {
+        for (RowSpillFile each : spillFiles) {
+            each.close();
+        }
+        spillFiles.clear();
+        sortedFiles.clear();
+        sortedFileCursors.clear();
+    }
+    
+    private RowSpillFile createSpillFile() throws SQLException {
+        RowSpillFile result = new RowSpillFile();
+        spillFiles.add(result);
+        return result;
+    }
+    
+    /**
+     * 分组聚合分区.
+     */
+    private final class Partition {
+    
+        private final int depth;
+    
+        private final Map<GroupByValue, MemoryResultSetRow> dataMap = new HashMap<>(1024);
+    
+        private final Map<GroupByValue, Map<AggregationSelectItem, AggregationUnit>> aggregationMap = new HashMap<>(1024);
+    
+        private final RowSpillFile[] partitionFiles = new RowSpillFile[PARTITION_SIZE];
+    
+        private long memoryBytes;
+    
+        private boolean spilled;
+    
+        Partition(final int depth) {
+            this.depth = depth;
+        }
+    
+        void add(final MemoryResultSetRow row) throws SQLException {
+            GroupByValue groupByValue = new GroupByValue(row, selectStatement.getGroupByItems());
+            Map<AggregationSelectItem, AggregationUnit> aggregationUnits = aggregationMap.get(groupByValue);
+            if (null == aggregationUnits) {
+                long rowBytes = GroupByMemoryResultSetMerger.estimateSize(row, selectStatement);
+                if (spilled || !reserve(rowBytes)) {
+                    spill(groupByValue, row);
+                    return;
+                }
+                memoryBytes += rowBytes;
+                dataMap.put(groupByValue, row);
+                aggregationUnits = createAggregationUnits();
+                aggregationMap.put(groupByValue, aggregationUnits);
+            }
+            aggregate(row, aggregationUnits);
+        }
+    
+        private boolean reserve(final long rowBytes) {
+            if (depth >= MAX_PARTITION_DEPTH) {
+                mergeMemoryAccount.charge(rowBytes);
+                return true;
+            }
+            return memoryBytes + rowBytes <= maxMemoryBytes && mergeMemoryAccount.tryCharge(rowBytes);
+        }
+    
+        private void spill(final GroupByValue groupByValue, final MemoryResultSetRow row) throws SQLException {
+            int index = (Hashing.murmur3_32(depth).hashInt(groupByValue.hashCode()).asInt() & Integer.MAX_VALUE) % PARTITION_SIZE;
+            if (null == partitionFiles[index]) {
+                partitionFiles[index] = createSpillFile();
+            }
+            partitionFiles[index].write(row);
+            spilled = true;
+        }
+    
+        private Map<AggregationSelectItem, AggregationUnit> createAggregationUnits() throws SQLException {
+            Map<AggregationSelectItem, AggregationUnit> result = new LinkedHashMap<>(selectStatement.getAggregationSelectItems().size(), 1);
+            for (AggregationSelectItem each : selectStatement.getAggregationSelectItems()) {
+                result.put(each, AggregationUnitFactory.create(each, resultSetMetaData));
+            }
+            return result;
+        }
+    
+        private void aggregate(final MemoryResultSetRow row, final Map<AggregationSelectItem, AggregationUnit> aggregationUnits) {
+            for (Entry<AggregationSelectItem, AggregationUnit> entry : aggregationUnits.entrySet()) {
+                entry.getValue().merge(row, entry.getKey());
+            }
+        }
+    
+        void finish() throws SQLException {
+            List<MemoryResultSetRow> rows = getSortedRows();
+            if (0 == depth && !spilled) {
+                memoryRows = rows.iterator();
+                return;
+            }
+            writeSortedFile(rows);
+            dataMap.clear();
+            aggregationMap.clear();
+            mergeMemoryAccount.release(memoryBytes);
+            memoryBytes = 0L;
+            for (RowSpillFile each : partitionFiles) {
+                if (null != each) {
+                    finish(each);
+                }
+            }
+        }
+    
+        private void finish(final RowSpillFile partitionFile) throws SQLException {
+            try {
+                partitionFile.finishWrite();
+                Partition partition = new Partition(depth + 1);
+                MemoryResultSetRow row;
+                while (null != (row = partitionFile.read())) {
+                    partition.add(row);
+                }
+                partition.finish();
+            } finally {
+                partitionFile.close();
+            }
+        }
+    
+        private List<MemoryResultSetRow> getSortedRows() {
+            List<MemoryResultSetRow> result = new ArrayList<>(dataMap.size());
+            for (Entry<GroupByValue, MemoryResultSetRow> entry : dataMap.entrySet()) {
+                for (Entry<AggregationSelectItem, AggregationUnit> each : aggregationMap.get(entry.getKey()).entrySet()) {
+                    entry.getValue().setCell(each.getKey().getIndex(), each.getValue().getResult());
+                }
+                result.add(entry.getValue());
+            }
+            Collections.sort(result, groupByRowComparator);
+            return result;
+        }
+    
+        private void writeSortedFile(final List<MemoryResultSetRow> rows) throws SQLException {
+            if (rows.isEmpty()) {
+                return;
+            }
+            RowSpillFile sortedFile = createSpillFile();
+            sortedFiles.add(sortedFile);
+            for (MemoryResultSetRow each : rows) {
+                sortedFile.write(each);
+            }
+        }
+    }
+    
+    /**
+     * 有序文件游标.
+     */
+    private static final class SortedFileCursor {
+    
+        private final RowSpillFile sortedFile;
+    
+        private MemoryResultSetRow currentRow;
+    
+        SortedFileCursor(final RowSpillFile sortedFile) {
+            this.sortedFile = sortedFile;
+        }
+    
+        boolean next() throws SQLException {
+            currentRow = sortedFile.read();
+            return null != currentRow;
+        }
+    
+        MemoryResultSetRow getCurrentRow() {
+            return currentRow;
+        }
+    }
+}
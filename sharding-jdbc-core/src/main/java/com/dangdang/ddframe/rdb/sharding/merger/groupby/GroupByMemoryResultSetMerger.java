@@ -22,29 +22,44 @@ import com.dangdang.ddframe.rdb.sharding.merger.common.AbstractMemoryResultSetMe
 import com.dangdang.ddframe.rdb.sharding.merger.common.MemoryResultSetRow;
 import com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation.AggregationUnit;
 import com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation.AggregationUnitFactory;
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryAccount;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.limit.Limit;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.selectitem.AggregationSelectItem;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.select.SelectStatement;
-import com.google.common.base.Function;
-import com.google.common.base.Preconditions;
-import com.google.common.collect.Maps;
+import com.google.common.base.Optional;
 
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.Set;
 
 /**
  * 内存分组归并结果集接口.
+ * 
+ * <p>
+ * 含分页条件时仅以有界堆保留offset + rowCount条分组记录排序, 避免对全部分组排序.
+ * 每个新分组按估算字节数向归并内存预算申请.
+ * </p>
  *
  * @author zhangliang
  */
 public final class GroupByMemoryResultSetMerger extends AbstractMemoryResultSetMerger {
-
+    
+    private static final long AGGREGATION_UNIT_BYTES = 64L;
+    
+    private static final long HYPER_LOG_LOG_UNIT_BYTES = 16L * 1024 + 64L;
+    
     /**
      * Select SQL语句对象
      */
@@ -57,31 +72,88 @@ public final class GroupByMemoryResultSetMerger extends AbstractMemoryResultSetM
      * 内存结果集
      */
     private final Iterator<MemoryResultSetRow> memoryResultSetRows;
+    /**
+     * 可溢写磁盘的外部分组聚合器
+     */
+    private final Optional<GroupByExternalAggregator> externalAggregator;
+    /**
+     * 归并内存账户
+     */
+    private final MergeMemoryAccount mergeMemoryAccount;
     
     public GroupByMemoryResultSetMerger(
             final Map<String, Integer> labelAndIndexMap, final List<ResultSet> resultSets, final SelectStatement selectStatement, final OrderType nullOrderType) throws SQLException {
+        this(labelAndIndexMap, resultSets, selectStatement, nullOrderType, 0L);
+    }
+    
+    public GroupByMemoryResultSetMerger(final Map<String, Integer> labelAndIndexMap, final List<ResultSet> resultSets, 
+                                        final SelectStatement selectStatement, final OrderType nullOrderType, final long maxMemoryBytes) throws SQLException {
+        this(labelAndIndexMap, resultSets, selectStatement, nullOrderType, maxMemoryBytes, MergeMemoryAccount.unlimited());
+    }
+    
+    public GroupByMemoryResultSetMerger(final Map<String, Integer> labelAndIndexMap, final List<ResultSet> resultSets, final SelectStatement selectStatement, 
+                                        final OrderType nullOrderType, final long maxMemoryBytes, final MergeMemoryAccount mergeMemoryAccount) throws SQLException {
+        super(labelAndIndexMap);
+        this.selectStatement = selectStatement;
+        this.nullOrderType = nullOrderType;
+        this.mergeMemoryAccount = mergeMemoryAccount;
+        if (maxMemoryBytes > 0 || mergeMemoryAccount.isSpillEnabled()) {
+            GroupByExternalAggregator aggregator = new GroupByExternalAggregator(selectStatement, nullOrderType, maxMemoryBytes > 0 ? maxMemoryBytes : Long.MAX_VALUE, mergeMemoryAccount);
+            aggregator.aggregate(resultSets);
+            externalAggregator = Optional.of(aggregator);
+            memoryResultSetRows = Collections.<MemoryResultSetRow>emptyList().iterator();
+        } else {
+            externalAggregator = Optional.absent();
+            memoryResultSetRows = init(resultSets);
+        }
+    }
+    
+    public GroupByMemoryResultSetMerger(final Map<String, Integer> labelAndIndexMap, final GroupByPartialAggregator groupByPartialAggregator, 
+                                        final SelectStatement selectStatement, final OrderType nullOrderType) {
         super(labelAndIndexMap);
         this.selectStatement = selectStatement;
         this.nullOrderType = nullOrderType;
-        memoryResultSetRows = init(resultSets);
+        mergeMemoryAccount = MergeMemoryAccount.unlimited();
+        externalAggregator = Optional.absent();
+        memoryResultSetRows = sort(groupByPartialAggregator.combine());
+    }
+    
+    /**
+     * 估算分组数据行及其聚合单元占用的内存字节数.
+     * 
+     * @param row 分组数据行
+     * @param selectStatement Select SQL语句对象
+     * @return 估算的字节数
+     */
+    static long estimateSize(final MemoryResultSetRow row, final SelectStatement selectStatement) {
+        long result = row.estimateSize();
+        for (AggregationSelectItem each : selectStatement.getAggregationSelectItems()) {
+            result += each.isApproximateCountDistinct() ? HYPER_LOG_LOG_UNIT_BYTES : AGGREGATION_UNIT_BYTES;
+        }
+        return result;
     }
     
     private Iterator<MemoryResultSetRow> init(final List<ResultSet> resultSets) throws SQLException {
         Map<GroupByValue, MemoryResultSetRow> dataMap = new HashMap<>(1024); // 分组条件值与内存记录映射
         Map<GroupByValue, Map<AggregationSelectItem, AggregationUnit>> aggregationMap = new HashMap<>(1024); // 分组条件值与聚合列映射
+        ResultSetMetaData resultSetMetaData = resultSets.get(0).getMetaData(); // 按聚合列类型创建归并单元
         // 遍历结果集
         for (ResultSet each : resultSets) {
             while (each.next()) {
                 // 生成分组条件
                 GroupByValue groupByValue = new GroupByValue(each, selectStatement.getGroupByItems());
                 // 初始化分组条件到 dataMap、aggregationMap 映射
-                initForFirstGroupByValue(each, groupByValue, dataMap, aggregationMap);
+                initForFirstGroupByValue(each, resultSetMetaData, groupByValue, dataMap, aggregationMap);
                 // 归并聚合值
                 aggregate(each, groupByValue, aggregationMap);
             }
         }
         // 设置聚合列结果到内存记录
         setAggregationValueToMemoryRow(dataMap, aggregationMap);
+        return sort(dataMap);
+    }
+    
+    private Iterator<MemoryResultSetRow> sort(final Map<GroupByValue, MemoryResultSetRow> dataMap) {
         // 内存排序
         List<MemoryResultSetRow> result = getMemoryResultSetRows(dataMap);
         // 设置当前 ResultSet，这样 #getValue() 能拿到记录
@@ -91,45 +163,30 @@ public final class GroupByMemoryResultSetMerger extends AbstractMemoryResultSetM
         return result.iterator();
     }
     
-    private void initForFirstGroupByValue(final ResultSet resultSet, final GroupByValue groupByValue, final Map<GroupByValue, MemoryResultSetRow> dataMap, 
-                                          final Map<GroupByValue, Map<AggregationSelectItem, AggregationUnit>> aggregationMap) throws SQLException {
+    private void initForFirstGroupByValue(final ResultSet resultSet, final ResultSetMetaData resultSetMetaData, final GroupByValue groupByValue, 
+                                          final Map<GroupByValue, MemoryResultSetRow> dataMap, final Map<GroupByValue, Map<AggregationSelectItem, AggregationUnit>> aggregationMap) throws SQLException {
         // 初始化分组条件到 dataMap
         if (!dataMap.containsKey(groupByValue)) {
-            dataMap.put(groupByValue, new MemoryResultSetRow(resultSet));
+            MemoryResultSetRow row = new MemoryResultSetRow(resultSet);
+            mergeMemoryAccount.charge(estimateSize(row, selectStatement));
+            dataMap.put(groupByValue, row);
         }
         // 初始化分组条件到 aggregationMap
         if (!aggregationMap.containsKey(groupByValue)) {
-            Map<AggregationSelectItem, AggregationUnit> map = Maps.toMap(selectStatement.getAggregationSelectItems(), new Function<AggregationSelectItem, AggregationUnit>() {
-                
-                @Override
-                public AggregationUnit apply(final AggregationSelectItem input) {
-                    return AggregationUnitFactory.create(input.getType());
-                }
-            });
+            Map<AggregationSelectItem, AggregationUnit> map = new LinkedHashMap<>(selectStatement.getAggregationSelectItems().size(), 1);
+            for (AggregationSelectItem each : selectStatement.getAggregationSelectItems()) {
+                map.put(each, AggregationUnitFactory.create(each, resultSetMetaData));
+            }
             aggregationMap.put(groupByValue, map);
         }
     }
     
     private void aggregate(final ResultSet resultSet, final GroupByValue groupByValue, final Map<GroupByValue, Map<AggregationSelectItem, AggregationUnit>> aggregationMap) throws SQLException {
-        for (AggregationSelectItem each : selectStatement.getAggregationSelectItems()) {
-            List<Comparable<?>> values = new ArrayList<>(2);
-            if (each.getDerivedAggregationSelectItems().isEmpty()) {
-                values.add(getAggregationValue(resultSet, each));
-            } else {
-                for (AggregationSelectItem derived : each.getDerivedAggregationSelectItems()) {
-                    values.add(getAggregationValue(resultSet, derived));
-                }
-            }
-            aggregationMap.get(groupByValue).get(each).merge(values);
+        for (Entry<AggregationSelectItem, AggregationUnit> entry : aggregationMap.get(groupByValue).entrySet()) {
+            entry.getValue().merge(resultSet, entry.getKey());
         }
     }
     
-    private Comparable<?> getAggregationValue(final ResultSet resultSet, final AggregationSelectItem aggregationSelectItem) throws SQLException {
-        Object result = resultSet.getObject(aggregationSelectItem.getIndex());
-        Preconditions.checkState(null == result || result instanceof Comparable, "Aggregation value must implements Comparable");
-        return (Comparable<?>) result;
-    }
-    
     private void setAggregationValueToMemoryRow(final Map<GroupByValue, MemoryResultSetRow> dataMap, final Map<GroupByValue, Map<AggregationSelectItem, AggregationUnit>> aggregationMap) {
         for (Entry<GroupByValue, MemoryResultSetRow> entry : dataMap.entrySet()) { // 遍 历内存记录
             for (AggregationSelectItem each : selectStatement.getAggregationSelectItems()) { // 遍历 每个聚合列
@@ -139,13 +196,67 @@ public final class GroupByMemoryResultSetMerger extends AbstractMemoryResultSetM
     }
     
     private List<MemoryResultSetRow> getMemoryResultSetRows(final Map<GroupByValue, MemoryResultSetRow> dataMap) {
+        GroupByRowComparator comparator = new GroupByRowComparator(selectStatement, nullOrderType);
+        Optional<Integer> topN = getTopN();
+        if (topN.isPresent() && topN.get() < dataMap.size()) {
+            return getTopNMemoryResultSetRows(dataMap.values(), comparator, topN.get());
+        }
         List<MemoryResultSetRow> result = new ArrayList<>(dataMap.values());
-        Collections.sort(result, new GroupByRowComparator(selectStatement, nullOrderType)); // 内存排序
+        Collections.sort(result, comparator); // 内存排序
+        return result;
+    }
+    
+    private Optional<Integer> getTopN() {
+        Limit limit = selectStatement.getLimit();
+        if (null == limit || limit.getRowCountValue() < 0) {
+            return Optional.absent();
+        }
+        long result = limit.isRowCountRewriteFlag() ? (long) limit.getOffsetValue() + limit.getRowCountValue() : limit.getRowCountValue();
+        return Optional.of((int) Math.min(result, Integer.MAX_VALUE));
+    }
+    
+    /**
+     * 仅保留排序最靠前的topN条分组记录.
+     * 
+     * <p>
+     * 堆顶为已保留记录中排序最靠后的记录, 仅在新记录严格靠前时替换, 与全量稳定排序保留的记录一致.
+     * </p>
+     */
+    private List<MemoryResultSetRow> getTopNMemoryResultSetRows(final Collection<MemoryResultSetRow> rows, final GroupByRowComparator comparator, final int topN) {
+        List<MemoryResultSetRow> result = new ArrayList<>(topN);
+        if (0 == topN) {
+            return result;
+        }
+        PriorityQueue<MemoryResultSetRow> heap = new PriorityQueue<>(topN, Collections.reverseOrder(comparator));
+        for (MemoryResultSetRow each : rows) {
+            if (heap.size() < topN) {
+                heap.offer(each);
+            } else if (comparator.compare(each, heap.peek()) < 0) {
+                heap.poll();
+                heap.offer(each);
+            }
+        }
+        Set<MemoryResultSetRow> retained = Collections.newSetFromMap(new IdentityHashMap<MemoryResultSetRow, Boolean>(topN));
+        retained.addAll(heap);
+        for (MemoryResultSetRow each : rows) {
+            if (retained.contains(each)) {
+                result.add(each);
+            }
+        }
+        Collections.sort(result, comparator);
         return result;
     }
     
     @Override
     public boolean next() throws SQLException {
+        if (externalAggregator.isPresent()) {
+            MemoryResultSetRow row = externalAggregator.get().next();
+            if (null == row) {
+                return false;
+            }
+            setCurrentResultSetRow(row);
+            return true;
+        }
         if (memoryResultSetRows.hasNext()) {
             setCurrentResultSetRow(memoryResultSetRows.next());
             return true;
@@ -0,0 +1,145 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+
+package com.dangdang.ddframe.rdb.sharding.merger.groupby;
+
+import com.dangdang.ddframe.rdb.sharding.merger.MergeEngine;
+import com.dangdang.ddframe.rdb.sharding.merger.common.MemoryResultSetRow;
+import com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation.AggregationUnit;
+import com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation.AggregationUnitFactory;
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryAccount;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.selectitem.AggregationSelectItem;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.select.SelectStatement;
+import lombok.RequiredArgsConstructor;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 分组部分聚合器.
+ * 
+ * <p>
+ * 在执行分片的工作线程中读取分片结果集并按分组条件值做部分聚合, 调用线程仅需合并各分片的部分聚合结果.
+ * 各分片的分组在工作线程中向归并内存预算申请, 部分聚合结果无法溢写.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+@RequiredArgsConstructor
+public final class GroupByPartialAggregator {
+    
+    private final SelectStatement selectStatement;
+    
+    private final MergeMemoryAccount mergeMemoryAccount;
+    
+    private final Queue<PartialAggregation> partialAggregations = new ConcurrentLinkedQueue<>();
+    
+    private boolean indexed;
+    
+    public GroupByPartialAggregator(final SelectStatement selectStatement) {
+        this(selectStatement, MergeMemoryAccount.unlimited());
+    }
+    
+    /**
+     * 对分片结果集做部分聚合.
+     * 
+     * <p>
+     * 在执行分片的工作线程中调用, 调用后分片结果集的游标已遍历完毕.
+     * </p>
+     * 
+     * @param resultSet 分片结果集
+     * @throws SQLException SQL异常
+     */
+    public void aggregate(final ResultSet resultSet) throws SQLException {
+        setIndexForItems(resultSet);
+        ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
+        PartialAggregation partialAggregation = new PartialAggregation();
+        while (resultSet.next()) {
+            GroupByValue groupByValue = new GroupByValue(resultSet, selectStatement.getGroupByItems());
+            Map<AggregationSelectItem, AggregationUnit> aggregationUnitMap = partialAggregation.aggregationMap.get(groupByValue);
+            if (null == aggregationUnitMap) {
+                aggregationUnitMap = new LinkedHashMap<>(selectStatement.getAggregationSelectItems().size(), 1);
+                for (AggregationSelectItem each : selectStatement.getAggregationSelectItems()) {
+                    aggregationUnitMap.put(each, AggregationUnitFactory.create(each, resultSetMetaData));
+                }
+                MemoryResultSetRow row = new MemoryResultSetRow(resultSet);
+                mergeMemoryAccount.charge(GroupByMemoryResultSetMerger.estimateSize(row, selectStatement));
+                partialAggregation.dataMap.put(groupByValue, row);
+                partialAggregation.aggregationMap.put(groupByValue, aggregationUnitMap);
+            }
+            for (Entry<AggregationSelectItem, AggregationUnit> entry : aggregationUnitMap.entrySet()) {
+                entry.getValue().merge(resultSet, entry.getKey());
+            }
+        }
+        partialAggregations.add(partialAggregation);
+    }
+    
+    private synchronized void setIndexForItems(final ResultSet resultSet) throws SQLException {
+        if (!indexed) {
+            selectStatement.setIndexForItems(MergeEngine.getColumnLabelIndexMap(resultSet));
+            indexed = true;
+        }
+    }
+    
+    /**
+     * 合并各分片的部分聚合结果.
+     * 
+     * <p>
+     * 在所有分片部分聚合完成后由调用线程调用.
+     * </p>
+     * 
+     * @return 分组条件值与设置聚合结果后的内存记录映射
+     */
+    public Map<GroupByValue, MemoryResultSetRow> combine() {
+        Map<GroupByValue, MemoryResultSetRow> result = new HashMap<>(1024);
+        Map<GroupByValue, Map<AggregationSelectItem, AggregationUnit>> aggregationMap = new HashMap<>(1024);
+        for (PartialAggregation each : partialAggregations) {
+            for (Entry<GroupByValue, Map<AggregationSelectItem, AggregationUnit>> entry : each.aggregationMap.entrySet()) {
+                Map<AggregationSelectItem, AggregationUnit> aggregationUnitMap = aggregationMap.get(entry.getKey());
+                if (null == aggregationUnitMap) {
+                    result.put(entry.getKey(), each.dataMap.get(entry.getKey()));
+                    aggregationMap.put(entry.getKey(), entry.getValue());
+                    continue;
+                }
+                for (Entry<AggregationSelectItem, AggregationUnit> unitEntry : aggregationUnitMap.entrySet()) {
+                    unitEntry.getValue().combine(entry.getValue().get(unitEntry.getKey()));
+                }
+            }
+        }
+        for (Entry<GroupByValue, MemoryResultSetRow> entry : result.entrySet()) {
+            for (AggregationSelectItem each : selectStatement.getAggregationSelectItems()) {
+                entry.getValue().setCell(each.getIndex(), aggregationMap.get(entry.getKey()).get(each).getResult());
+            }
+        }
+        return result;
+    }
+    
+    private static final class PartialAggregation {
+    
+        private final Map<GroupByValue, MemoryResultSetRow> dataMap = new HashMap<>(1024);
+    
+        private final Map<GroupByValue, Map<AggregationSelectItem, AggregationUnit>> aggregationMap = new HashMap<>(1024);
+    }
+}
@@ -21,17 +21,18 @@ import com.dangdang.ddframe.rdb.sharding.constant.OrderType;
 import com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation.AggregationUnit;
 import com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation.AggregationUnitFactory;
 import com.dangdang.ddframe.rdb.sharding.merger.orderby.OrderByStreamResultSetMerger;
+import com.dangdang.ddframe.rdb.sharding.merger.util.ResultSetUtil;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.selectitem.AggregationSelectItem;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.select.SelectStatement;
-import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Maps;
 
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -42,7 +43,7 @@ import java.util.Map.Entry;
  * @author zhangliang
  */
 public final class GroupByStreamResultSetMerger extends OrderByStreamResultSetMerger {
-
+    
     /**
      * 查询列名与位置映射
      */
@@ -59,6 +60,14 @@ public final class GroupByStreamResultSetMerger extends OrderByStreamResultSetMe
      * 下一条结果记录 GROUP BY 条件
      */
     private List<?> currentGroupByValues;
+    /**
+     * 结果集元数据, 用于按聚合列类型创建归并单元
+     */
+    private final ResultSetMetaData resultSetMetaData;
+    /**
+     * 最后读取的值是否为空
+     */
+    private boolean wasNull;
     
     public GroupByStreamResultSetMerger(
             final Map<String, Integer> labelAndIndexMap, final List<ResultSet> resultSets, final SelectStatement selectStatement, final OrderType nullOrderType) throws SQLException {
@@ -66,15 +75,16 @@ public final class GroupByStreamResultSetMerger extends OrderByStreamResultSetMe
         this.labelAndIndexMap = labelAndIndexMap;
         this.selectStatement = selectStatement;
         currentRow = new ArrayList<>(labelAndIndexMap.size());
+        resultSetMetaData = resultSets.get(0).getMetaData();
         // 初始化下一条结果记录 GROUP BY 条件
-        currentGroupByValues = getOrderByValuesQueue().isEmpty() ? Collections.emptyList() : new GroupByValue(getCurrentResultSet(), selectStatement.getGroupByItems()).getGroupValues();
+        currentGroupByValues = getOrderByValueLoserTree().isEmpty() ? Collections.emptyList() : new GroupByValue(getCurrentResultSet(), selectStatement.getGroupByItems()).getGroupValues();
     }
     
     @Override
     public boolean next() throws SQLException {
         // 清除当前结果记录
         currentRow.clear();
-        if (getOrderByValuesQueue().isEmpty()) {
+        if (getOrderByValueLoserTree().isEmpty()) {
             return false;
         }
         //
@@ -92,13 +102,10 @@ public final class GroupByStreamResultSetMerger extends OrderByStreamResultSetMe
     private boolean aggregateCurrentGroupByRowAndNext() throws SQLException {
         boolean result = false;
         // 生成计算单元
-        Map<AggregationSelectItem, AggregationUnit> aggregationUnitMap = Maps.toMap(selectStatement.getAggregationSelectItems(), new Function<AggregationSelectItem, AggregationUnit>() {
-            
-            @Override
-            public AggregationUnit apply(final AggregationSelectItem input) {
-                return AggregationUnitFactory.create(input.getType());
-            }
-        });
+        Map<AggregationSelectItem, AggregationUnit> aggregationUnitMap = new LinkedHashMap<>(selectStatement.getAggregationSelectItems().size(), 1);
+        for (AggregationSelectItem each : selectStatement.getAggregationSelectItems()) {
+            aggregationUnitMap.put(each, AggregationUnitFactory.create(each, resultSetMetaData));
+        }
         // 循环顺序合并下面相同分组条件的记录
         while (currentGroupByValues.equals(new GroupByValue(getCurrentResultSet(), selectStatement.getGroupByItems()).getGroupValues())) {
             // 归并聚合值
@@ -118,15 +125,7 @@ public final class GroupByStreamResultSetMerger extends OrderByStreamResultSetMe
     
     private void aggregate(final Map<AggregationSelectItem, AggregationUnit> aggregationUnitMap) throws SQLException {
         for (Entry<AggregationSelectItem, AggregationUnit> entry : aggregationUnitMap.entrySet()) {
-            List<Comparable<?>> values = new ArrayList<>(2);
-            if (entry.getKey().getDerivedAggregationSelectItems().isEmpty()) { // SUM/COUNT/MAX/MIN 聚合列
-                values.add(getAggregationValue(entry.getKey()));
-            } else {
-                for (AggregationSelectItem each : entry.getKey().getDerivedAggregationSelectItems()) { // AVG 聚合列
-                    values.add(getAggregationValue(each));
-                }
-            }
-            entry.getValue().merge(values);
+            entry.getValue().merge(getCurrentResultSet(), entry.getKey());
         }
     }
     
@@ -136,12 +135,6 @@ public final class GroupByStreamResultSetMerger extends OrderByStreamResultSetMe
         }
     }
     
-    private Comparable<?> getAggregationValue(final AggregationSelectItem aggregationSelectItem) throws SQLException {
-        Object result = getCurrentResultSet().getObject(aggregationSelectItem.getIndex());
-        Preconditions.checkState(null == result || result instanceof Comparable, "Aggregation value must implements Comparable");
-        return (Comparable<?>) result;
-    }
-    
     private void setAggregationValueToCurrentRow(final Map<AggregationSelectItem, AggregationUnit> aggregationUnitMap) {
         for (Entry<AggregationSelectItem, AggregationUnit> entry : aggregationUnitMap.entrySet()) {
             currentRow.set(entry.getKey().getIndex() - 1, entry.getValue().getResult()); // 获取计算结果
@@ -169,4 +162,100 @@ public final class GroupByStreamResultSetMerger extends OrderByStreamResultSetMe
         Preconditions.checkState(labelAndIndexMap.containsKey(columnLabel), String.format("Can't find columnLabel: %s", columnLabel));
         return currentRow.get(labelAndIndexMap.get(columnLabel) - 1);
     }
+    
+    @Override
+    public boolean getBoolean(final int columnIndex) throws SQLException {
+        Object result = currentRow.get(columnIndex - 1);
+        wasNull = null == result;
+        return ResultSetUtil.convertBooleanValue(result);
+    }
+    
+    @Override
+    public boolean getBoolean(final String columnLabel) throws SQLException {
+        Preconditions.checkState(labelAndIndexMap.containsKey(columnLabel), String.format("Can't find columnLabel: %s", columnLabel));
+        return getBoolean(labelAndIndexMap.get(columnLabel));
+    }
+    
+    @Override
+    public byte getByte(final int columnIndex) throws SQLException {
+        Object result = currentRow.get(columnIndex - 1);
+        wasNull = null == result;
+        return ResultSetUtil.convertByteValue(result);
+    }
+    
+    @Override
+    public byte getByte(final String columnLabel) throws SQLException {
+        Preconditions.checkState(labelAndIndexMap.containsKey(columnLabel), String.format("Can't find columnLabel: %s", columnLabel));
+        return getByte(labelAndIndexMap.get(columnLabel));
+    }
+    
+    @Override
+    public short getShort(final int columnIndex) throws SQLException {
+        Object result = currentRow.get(columnIndex - 1);
+        wasNull = null == result;
+        return ResultSetUtil.convertShortValue(result);
+    }
+    
+    @Override
+    public short getShort(final String columnLabel) throws SQLException {
+        Preconditions.checkState(labelAndIndexMap.containsKey(columnLabel), String.format("Can't find columnLabel: %s", columnLabel));
+        return getShort(labelAndIndexMap.get(columnLabel));
+    }
+    
+    @Override
+    public int getInt(final int columnIndex) throws SQLException {
+        Object result = currentRow.get(columnIndex - 1);
+        wasNull = null == result;
+        return ResultSetUtil.convertIntValue(result);
+    }
+    
+    @Override
+    public int getInt(final String columnLabel) throws SQLException {
+        Preconditions.checkState(labelAndIndexMap.containsKey(columnLabel), String.format("Can't find columnLabel: %s", columnLabel));
+        return getInt(labelAndIndexMap.get(columnLabel));
+    }
+    
+    @Override
+    public long getLong(final int columnIndex) throws SQLException {
+        Object result = currentRow.get(columnIndex - 1);
+        wasNull = null == result;
+        return ResultSetUtil.convertLongValue(result);
+    }
+    
+    @Override
+    public long getLong(final String columnLabel) throws SQLException {
+        Preconditions.checkState(labelAndIndexMap.containsKey(columnLabel), String.format("Can't find columnLabel: %s", columnLabel));
+        return getLong(labelAndIndexMap.get(columnLabel));
+    }
+    
+    @Override
+    public float getFloat(final int columnIndex) throws SQLException {
+        Object result = currentRow.get(columnIndex - 1);
+        wasNull = null == result;
+        return ResultSetUtil.convertFloatValue(result);
+    }
+    
+    @Override
+    public float getFloat(final String columnLabel) throws SQLException {
+        Preconditions.checkState(labelAndIndexMap.containsKey(columnLabel), String.format("Can't find columnLabel: %s", columnLabel));
+        return getFloat(labelAndIndexMap.get(columnLabel));
+    }
+    
+    @Override
+    public double getDouble(final int columnIndex) throws SQLException {
+        Object result = currentRow.get(columnIndex - 1);
+        wasNull = null == result;
+        return ResultSetUtil.convertDoubleValue(result);
+    }
+    
+    @Override
+    public double getDouble(final String columnLabel) throws SQLException {
+        Preconditions.checkState(labelAndIndexMap.containsKey(columnLabel), String.format("Can't find columnLabel: %s", columnLabel));
+        return getDouble(labelAndIndexMap.get(columnLabel));
+    }
+    
+    @Override
+    public boolean wasNull() throws SQLException {
+        return wasNull;
+    }
 }
@@ -17,6 +17,7 @@
 
 package com.dangdang.ddframe.rdb.sharding.merger.groupby;
 
+import com.dangdang.ddframe.rdb.sharding.merger.common.MemoryResultSetRow;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.OrderItem;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -43,6 +44,14 @@ public final class GroupByValue {
     public GroupByValue(final ResultSet resultSet, final List<OrderItem> groupByItems) throws SQLException {
         groupValues = getGroupByValues(resultSet, groupByItems);
     }
+    
+    public GroupByValue(final MemoryResultSetRow row, final List<OrderItem> groupByItems) {
+        List<Object> groupValues = new ArrayList<>(groupByItems.size());
+        for (OrderItem each : groupByItems) {
+            groupValues.add(row.getCell(each.getIndex()));
+        }
+        this.groupValues = groupValues;
+    }
 
     /**
      * 获得分组条件值数组
@@ -17,10 +17,15 @@
 
 package com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation;
 
+import com.dangdang.ddframe.rdb.sharding.merger.common.MemoryResultSetRow;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.selectitem.AggregationSelectItem;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -39,11 +44,36 @@ public final class AccumulationAggregationUnit implements AggregationUnit {
         if (null == values || null == values.get(0)) {
             return;
         }
+        merge(values.get(0));
+    }
+    
+    @Override
+    public void merge(final ResultSet resultSet, final AggregationSelectItem aggregationSelectItem) throws SQLException {
+        Object value = resultSet.getObject(aggregationSelectItem.getIndex());
+        if (null != value) {
+            merge(value);
+        }
+    }
+    
+    @Override
+    public void merge(final MemoryResultSetRow row, final AggregationSelectItem aggregationSelectItem) {
+        Object value = row.getCell(aggregationSelectItem.getIndex());
+        if (null != value) {
+            merge(value);
+        }
+    }
+    
+    private void merge(final Object value) {
         if (null == result) {
             result = new BigDecimal("0");
         }
-        result = result.add(new BigDecimal(values.get(0).toString()));
-        log.trace("Accumulation result: {}", result.toString());
+        result = result.add(value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString()));
+        log.trace("Accumulation result: {}", result);
+    }
+    
+    @Override
+    public void combine(final AggregationUnit aggregationUnit) {
+        merge(Collections.<Comparable<?>>singletonList(aggregationUnit.getResult()));
     }
     
     @Override
@@ -17,6 +17,11 @@
 
 package com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation;
 
+import com.dangdang.ddframe.rdb.sharding.merger.common.MemoryResultSetRow;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.selectitem.AggregationSelectItem;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.List;
 
 /**
@@ -33,6 +38,30 @@ public interface AggregationUnit {
      */
     void merge(List<Comparable<?>> values);
     
+    /**
+     * 归并结果集当前行的聚合值.
+     * 
+     * @param resultSet 结果集
+     * @param aggregationSelectItem 聚合选择项
+     * @throws SQLException SQL异常
+     */
+    void merge(ResultSet resultSet, AggregationSelectItem aggregationSelectItem) throws SQLException;
+    
+    /**
+     * 归并内存数据行的聚合值.
+     * 
+     * @param row 内存数据行
+     * @param aggregationSelectItem 聚合选择项
+     */
+    void merge(MemoryResultSetRow row, AggregationSelectItem aggregationSelectItem);
+    
+    /**
+     * 合并同一聚合列的其他归并单元的部分聚合结果.
+     * 
+     * @param aggregationUnit 同一聚合列的其他归并单元
+     */
+    void combine(AggregationUnit aggregationUnit);
+    
     /**
      * 获取计算结果.
      * 
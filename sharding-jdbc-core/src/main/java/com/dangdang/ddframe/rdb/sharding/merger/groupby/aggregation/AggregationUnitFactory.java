@@ -18,9 +18,14 @@
 package com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation;
 
 import com.dangdang.ddframe.rdb.sharding.constant.AggregationType;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.selectitem.AggregationSelectItem;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+
 /**
  * 聚合函数结果集归并单元工厂.
  * 
@@ -44,4 +49,43 @@ public final class AggregationUnitFactory {
                 throw new UnsupportedOperationException(type.name());
         }
     }
+    
+    /**
+     * 根据结果集元数据中聚合列的类型创建归并单元.
+     * 
+     * <p>
+     * 整数类型的SUM, COUNT和AVG以long累加, 其余类型以BigDecimal累加.
+     * 近似去重计数以HyperLogLog估算.
+     * </p>
+     * 
+     * @param aggregationSelectItem 聚合选择项
+     * @param resultSetMetaData 结果集元数据
+     * @return 归并单元
+     * @throws SQLException SQL异常
+     */
+    public static AggregationUnit create(final AggregationSelectItem aggregationSelectItem, final ResultSetMetaData resultSetMetaData) throws SQLException {
+        if (aggregationSelectItem.isApproximateCountDistinct()) {
+            return new HyperLogLogAggregationUnit();
+        }
+        switch (aggregationSelectItem.getType()) {
+            case SUM:
+            case COUNT:
+                return createAccumulationAggregationUnit(AggregationValueType.valueFrom(resultSetMetaData, aggregationSelectItem.getIndex()));
+            case AVG:
+                List<AggregationSelectItem> derivedAggregationSelectItems = aggregationSelectItem.getDerivedAggregationSelectItems();
+                return new AverageAggregationUnit(createAccumulationAggregationUnit(AggregationValueType.valueFrom(resultSetMetaData, derivedAggregationSelectItems.get(0).getIndex())), 
+                        createAccumulationAggregationUnit(AggregationValueType.valueFrom(resultSetMetaData, derivedAggregationSelectItems.get(1).getIndex())));
+            default:
+                return create(aggregationSelectItem.getType());
+        }
+    }
+    
+    private static AggregationUnit createAccumulationAggregationUnit(final AggregationValueType valueType) {
+        switch (valueType) {
+            case LONG:
+                return new LongAccumulationAggregationUnit();
+            default:
+                return new AccumulationAggregationUnit();
+        }
+    }
 }
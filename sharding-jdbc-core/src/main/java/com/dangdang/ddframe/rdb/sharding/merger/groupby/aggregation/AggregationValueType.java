@@ -0,0 +1,59 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+
+package com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * 聚合值类型.
+ * 
+ * @author zhangliang
+ */
+public enum AggregationValueType {
+    
+    LONG, DECIMAL;
+    
+    /**
+     * 根据结果集元数据获取聚合列的值类型.
+     * 
+     * <p>
+     * 无符号的BIGINT可能超出long的范围, 按DECIMAL处理.
+     * 浮点数类型以double累加会损失精度, 同样按DECIMAL处理.
+     * </p>
+     * 
+     * @param resultSetMetaData 结果集元数据
+     * @param columnIndex 聚合列位置
+     * @return 聚合值类型
+     * @throws SQLException SQL异常
+     */
+    public static AggregationValueType valueFrom(final ResultSetMetaData resultSetMetaData, final int columnIndex) throws SQLException {
+        switch (resultSetMetaData.getColumnType(columnIndex)) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return LONG;
+            case Types.BIGINT:
+                return resultSetMetaData.isSigned(columnIndex) ? LONG : DECIMAL;
+            default:
+                return DECIMAL;
+        }
+    }
+}
@@ -15,12 +15,17 @@
  * </p>
  */
 
+
 package com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation;
 
+import com.dangdang.ddframe.rdb.sharding.merger.common.MemoryResultSetRow;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.selectitem.AggregationSelectItem;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.List;
 
 /**
@@ -32,28 +37,50 @@ import java.util.List;
 @Slf4j
 public final class AverageAggregationUnit implements AggregationUnit {
     
-    private BigDecimal count;
+    private final AggregationUnit countAggregationUnit;
+    
+    private final AggregationUnit sumAggregationUnit;
     
-    private BigDecimal sum;
+    public AverageAggregationUnit() {
+        this(new AccumulationAggregationUnit(), new AccumulationAggregationUnit());
+    }
     
     @Override
     public void merge(final List<Comparable<?>> values) {
         if (null == values || null == values.get(0) || null == values.get(1)) {
             return;
         }
-        if (null == count) {
-            count = new BigDecimal("0");
-        }
-        if (null == sum) {
-            sum = new BigDecimal("0");
-        }
-        count = count.add(new BigDecimal(values.get(0).toString()));
-        sum = sum.add(new BigDecimal(values.get(1).toString()));
-        log.trace("AVG result COUNT: {} SUM: {}", count, sum);
+        countAggregationUnit.merge(values.subList(0, 1));
+        sumAggregationUnit.merge(values.subList(1, 2));
+        log.trace("AVG result COUNT: {} SUM: {}", countAggregationUnit.getResult(), sumAggregationUnit.getResult());
+    }
+    
+    @Override
+    public void merge(final ResultSet resultSet, final AggregationSelectItem aggregationSelectItem) throws SQLException {
+        countAggregationUnit.merge(resultSet, aggregationSelectItem.getDerivedAggregationSelectItems().get(0));
+        sumAggregationUnit.merge(resultSet, aggregationSelectItem.getDerivedAggregationSelectItems().get(1));
+    }
+    
+    @Override
+    public void merge(final MemoryResultSetRow row, final AggregationSelectItem aggregationSelectItem) {
+        countAggregationUnit.merge(row, aggregationSelectItem.getDerivedAggregationSelectItems().get(0));
+        sumAggregationUnit.merge(row, aggregationSelectItem.getDerivedAggregationSelectItems().get(1));
+    }
+    
+    @Override
+    public void combine(final AggregationUnit aggregationUnit) {
+        AverageAggregationUnit other = (AverageAggregationUnit) aggregationUnit;
+        countAggregationUnit.combine(other.countAggregationUnit);
+        sumAggregationUnit.combine(other.sumAggregationUnit);
     }
     
     @Override
     public Comparable<?> getResult() {
+        BigDecimal sum = (BigDecimal) sumAggregationUnit.getResult();
+        if (null == sum) {
+            return null;
+        }
+        BigDecimal count = (BigDecimal) countAggregationUnit.getResult();
         if (null == count || BigDecimal.ZERO.equals(count)) {
             return count;
         }
@@ -17,9 +17,15 @@
 
 package com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation;
 
+import com.dangdang.ddframe.rdb.sharding.merger.common.MemoryResultSetRow;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.selectitem.AggregationSelectItem;
+import com.google.common.base.Preconditions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -35,24 +41,53 @@ public final class ComparableAggregationUnit implements AggregationUnit {
     
     private Comparable<?> result;
     
-    @SuppressWarnings("unchecked")
     @Override
     public void merge(final List<Comparable<?>> values) {
         if (null == values || null == values.get(0)) {
             return;
         }
+        merge(values.get(0));
+    }
+    
+    @Override
+    public void merge(final ResultSet resultSet, final AggregationSelectItem aggregationSelectItem) throws SQLException {
+        Object value = resultSet.getObject(aggregationSelectItem.getIndex());
+        if (null == value) {
+            return;
+        }
+        Preconditions.checkState(value instanceof Comparable, "Aggregation value must implements Comparable");
+        merge((Comparable<?>) value);
+    }
+    
+    @Override
+    public void merge(final MemoryResultSetRow row, final AggregationSelectItem aggregationSelectItem) {
+        Object value = row.getCell(aggregationSelectItem.getIndex());
+        if (null == value) {
+            return;
+        }
+        Preconditions.checkState(value instanceof Comparable, "Aggregation value must implements Comparable");
+        merge((Comparable<?>) value);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void merge(final Comparable<?> value) {
         if (null == result) {
-            result = values.get(0);
+            result = value;
             log.trace("Comparable result: {}", result);
             return;
         }
-        int comparedValue = ((Comparable) values.get(0)).compareTo(result);
+        int comparedValue = ((Comparable) value).compareTo(result);
         if (asc && comparedValue < 0 || !asc && comparedValue > 0) {
-            result = values.get(0);
+            result = value;
             log.trace("Comparable result: {}", result);
         }
     }
     
+    @Override
+    public void combine(final AggregationUnit aggregationUnit) {
+        merge(Collections.<Comparable<?>>singletonList(aggregationUnit.getResult()));
+    }
+    
     @Override
     public Comparable<?> getResult() {
         return result;
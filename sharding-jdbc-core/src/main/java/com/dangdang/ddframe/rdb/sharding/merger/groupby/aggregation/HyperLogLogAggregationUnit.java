@@ -0,0 +1,115 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+
+package com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation;
+
+import com.dangdang.ddframe.rdb.sharding.merger.common.MemoryResultSetRow;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.selectitem.AggregationSelectItem;
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * HyperLogLog近似去重计数聚合单元.
+ * 
+ * <p>
+ * 将去重列的值以64位哈希归并至2^14个寄存器, 内存固定为16KB, 估算值的标准误差约为0.81%.
+ * 合并其他归并单元时逐个寄存器取最大值, 与归并全部原始值的结果一致.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+public final class HyperLogLogAggregationUnit implements AggregationUnit {
+    
+    private static final int PRECISION = 14;
+    
+    private static final int REGISTER_SIZE = 1 << PRECISION;
+    
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTER_SIZE);
+    
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+    
+    private final byte[] registers = new byte[REGISTER_SIZE];
+    
+    @Override
+    public void merge(final List<Comparable<?>> values) {
+        if (null == values || null == values.get(0)) {
+            return;
+        }
+        add(values.get(0));
+    }
+    
+    @Override
+    public void merge(final ResultSet resultSet, final AggregationSelectItem aggregationSelectItem) throws SQLException {
+        Object value = resultSet.getObject(aggregationSelectItem.getApproximateDistinctIndex());
+        if (null != value) {
+            add(value);
+        }
+    }
+    
+    @Override
+    public void merge(final MemoryResultSetRow row, final AggregationSelectItem aggregationSelectItem) {
+        Object value = row.getCell(aggregationSelectItem.getApproximateDistinctIndex());
+        if (null != value) {
+            add(value);
+        }
+    }
+    
+    private void add(final Object value) {
+        long hash = value instanceof byte[] ? HASH_FUNCTION.hashBytes((byte[]) value).asLong() : HASH_FUNCTION.hashString(value.toString(), Charsets.UTF_8).asLong();
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        byte rank = (byte) (Long.numberOfLeadingZeros(hash << PRECISION | 1L << (PRECISION - 1)) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+    
+    @Override
+    public void combine(final AggregationUnit aggregationUnit) {
+        Preconditions.checkArgument(aggregationUnit instanceof HyperLogLogAggregationUnit, "Cannot combine HyperLogLog with '%s'", aggregationUnit.getClass().getName());
+        byte[] otherRegisters = ((HyperLogLogAggregationUnit) aggregationUnit).registers;
+        for (int i = 0; i < REGISTER_SIZE; i++) {
+            if (otherRegisters[i] > registers[i]) {
+                registers[i] = otherRegisters[i];
+            }
+        }
+    }
+    
+    @Override
+    public Comparable<?> getResult() {
+        double sum = 0;
+        int zeroRegisters = 0;
+        for (byte each : registers) {
+            sum += 1.0 / (1L << each);
+            if (0 == each) {
+                zeroRegisters++;
+            }
+        }
+        double estimate = ALPHA * REGISTER_SIZE * REGISTER_SIZE / sum;
+        if (estimate <= 2.5 * REGISTER_SIZE && zeroRegisters > 0) {
+            estimate = REGISTER_SIZE * Math.log((double) REGISTER_SIZE / zeroRegisters);
+        }
+        return BigDecimal.valueOf(Math.round(estimate));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+
+package com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation;
+
+import com.dangdang.ddframe.rdb.sharding.merger.common.MemoryResultSetRow;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.selectitem.AggregationSelectItem;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 整数累加聚合单元.
+ * 
+ * <p>
+ * 以long累加整数类型的聚合值, 溢出时转为BigDecimal累加.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+public final class LongAccumulationAggregationUnit implements AggregationUnit {
+    
+    private boolean merged;
+    
+    private long result;
+    
+    private BigDecimal overflowResult;
+    
+    @Override
+    public void merge(final List<Comparable<?>> values) {
+        if (null == values || null == values.get(0)) {
+            return;
+        }
+        merge(values.get(0));
+    }
+    
+    @Override
+    public void merge(final ResultSet resultSet, final AggregationSelectItem aggregationSelectItem) throws SQLException {
+        long value = resultSet.getLong(aggregationSelectItem.getIndex());
+        if (!resultSet.wasNull()) {
+            merge(value);
+        }
+    }
+    
+    @Override
+    public void merge(final MemoryResultSetRow row, final AggregationSelectItem aggregationSelectItem) {
+        Object value = row.getCell(aggregationSelectItem.getIndex());
+        if (null != value) {
+            merge(value);
+        }
+    }
+    
+    private void merge(final Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            merge(((Number) value).longValue());
+        } else {
+            merge(value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString()));
+        }
+    }
+    
+    @Override
+    public void combine(final AggregationUnit aggregationUnit) {
+        if (!(aggregationUnit instanceof LongAccumulationAggregationUnit)) {
+            merge(Collections.<Comparable<?>>singletonList(aggregationUnit.getResult()));
+            return;
+        }
+        LongAccumulationAggregationUnit other = (LongAccumulationAggregationUnit) aggregationUnit;
+        if (!other.merged) {
+            return;
+        }
+        if (null == other.overflowResult) {
+            merge(other.result);
+        } else {
+            merge(other.overflowResult);
+        }
+    }
+    
+    private void merge(final long value) {
+        merged = true;
+        if (null != overflowResult) {
+            overflowResult = overflowResult.add(BigDecimal.valueOf(value));
+            return;
+        }
+        long sum = result + value;
+        if (((result ^ sum) & (value ^ sum)) < 0) {
+            overflowResult = BigDecimal.valueOf(result).add(BigDecimal.valueOf(value));
+            return;
+        }
+        result = sum;
+    }
+    
+    private void merge(final BigDecimal value) {
+        merged = true;
+        overflowResult = (null == overflowResult ? BigDecimal.valueOf(result) : overflowResult).add(value);
+    }
+    
+    @Override
+    public Comparable<?> getResult() {
+        if (!merged) {
+            return null;
+        }
+        return null == overflowResult ? BigDecimal.valueOf(result) : overflowResult;
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+
+package com.dangdang.ddframe.rdb.sharding.merger.iterator;
+
+import com.dangdang.ddframe.rdb.sharding.merger.common.AbstractMemoryResultSetMerger;
+import com.dangdang.ddframe.rdb.sharding.merger.common.MemoryResultSetRow;
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryAccount;
+import com.dangdang.ddframe.rdb.sharding.util.SQLUtil;
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 并发迭代归并结果集.
+ * 
+ * <p>
+ * 适用于无排序, 分组和聚合的查询.
+ * 各分片在工作线程中执行查询后将数据行放入有界队列, 调用线程按分片就绪的先后顺序读取, 首行返回时间取决于最快的分片.
+ * 队列已满时工作线程等待调用线程读取, 结果集关闭或任一分片执行失败后工作线程停止读取分片结果集.
+ * 队列中的数据行计入归并内存账户, 调用线程读取后归还.
+ * </p>
+ *
+ * @author zhangliang
+ */
+public final class ConcurrentIteratorResultSetMerger extends AbstractMemoryResultSetMerger {
+    
+    private static final long POLL_MILLISECONDS = 100L;
+    
+    private final Map<String, Integer> labelAndIndexMap;
+    
+    private final BlockingQueue<Optional<MemoryResultSetRow>> rows;
+    
+    private final List<ResultSet> resultSets = new CopyOnWriteArrayList<>();
+    
+    private final SettableFuture<Boolean> firstResultSetReady = SettableFuture.create();
+    
+    private final MergeMemoryAccount mergeMemoryAccount;
+    
+    private volatile boolean closed;
+    
+    private volatile boolean finished;
+    
+    private volatile Throwable failure;
+    
+    private boolean ended;
+    
+    public ConcurrentIteratorResultSetMerger(final int queueSize) {
+        this(queueSize, MergeMemoryAccount.unlimited());
+    }
+    
+    public ConcurrentIteratorResultSetMerger(final int queueSize, final MergeMemoryAccount mergeMemoryAccount) {
+        this(new TreeMap<String, Integer>(String.CASE_INSENSITIVE_ORDER), queueSize, mergeMemoryAccount);
+    }
+    
+    private ConcurrentIteratorResultSetMerger(final Map<String, Integer> labelAndIndexMap, final int queueSize, final MergeMemoryAccount mergeMemoryAccount) {
+        super(labelAndIndexMap);
+        this.labelAndIndexMap = labelAndIndexMap;
+        rows = new LinkedBlockingQueue<>(queueSize);
+        this.mergeMemoryAccount = mergeMemoryAccount;
+    }
+    
+    /**
+     * 读取分片结果集的全部数据行并放入队列.
+     * 
+     * <p>
+     * 在工作线程中调用, 队列已满时阻塞, 直至调用线程读取, 关闭归并结果集或任一分片执行失败.
+     * </p>
+     * 
+     * @param resultSet 分片结果集
+     * @throws SQLException 读取结果集时发生异常
+     */
+    public void produce(final ResultSet resultSet) throws SQLException {
+        resultSets.add(resultSet);
+        firstResultSetReady.set(true);
+        while (!isStopped() && resultSet.next()) {
+            MemoryResultSetRow row = new MemoryResultSetRow(resultSet);
+            long size = row.estimateSize();
+            mergeMemoryAccount.charge(size);
+            if (!offer(Optional.of(row))) {
+                mergeMemoryAccount.release(size);
+                return;
+            }
+        }
+        // 放入队列时可能恰好关闭, 再次丢弃队列中的数据行
+        if (closed) {
+            close();
+        }
+    }
+    
+    private boolean offer(final Optional<MemoryResultSetRow> row) throws SQLException {
+        try {
+            while (!rows.offer(row, POLL_MILLISECONDS, TimeUnit.MILLISECONDS)) {
+                if (isStopped()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(ex);
+        }
+    }
+    
+    private boolean isStopped() {
+        return closed || null != failure;
+    }
+    
+    /**
+     * 关闭归并结果集.
+     * 
+     * <p>
+     * 工作线程在下次读取分片结果集或等待队列时停止, 已放入队列的数据行被丢弃并归还内存.
+     * </p>
+     */
+    public void close() {
+        closed = true;
+        Optional<MemoryResultSetRow> each;
+        while (null != (each = rows.poll())) {
+            if (each.isPresent()) {
+                mergeMemoryAccount.release(each.get().estimateSize());
+            }
+        }
+    }
+    
+    /**
+     * 绑定各分片执行的异步结果.
+     * 
+     * <p>
+     * 所有分片执行完毕或任一分片失败后结束归并, 失败时其余分片的工作线程随即停止读取.
+     * </p>
+     * 
+     * @param future 各分片执行的异步结果
+     */
+    public void bind(final ListenableFuture<?> future) {
+        future.addListener(new Runnable() {
+            
+            @Override
+            public void run() {
+                try {
+                    future.get();
+                } catch (final ExecutionException ex) {
+                    failure = ex.getCause();
+                    //CHECKSTYLE:OFF
+                } catch (final Exception ex) {
+                    //CHECKSTYLE:ON
+                    failure = ex;
+                }
+                finished = true;
+                firstResultSetReady.set(true);
+                rows.offer(Optional.<MemoryResultSetRow>absent());
+            }
+        }, MoreExecutors.directExecutor());
+    }
+    
+    /**
+     * 等待首个分片结果集就绪.
+     * 
+     * @return 已就绪的分片结果集列表, 后续就绪的分片结果集将追加至该列表
+     * @throws SQLException 所有分片均未返回结果集时抛出
+     */
+    public List<ResultSet> awaitResultSets() throws SQLException {
+        try {
+            firstResultSetReady.get();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(ex);
+        } catch (final ExecutionException ex) {
+            throw new SQLException(ex.getCause());
+        }
+        return getReadyResultSets();
+    }
+    
+    /**
+     * 异步等待首个分片结果集就绪.
+     * 
+     * @return 已就绪的分片结果集列表的异步结果, 后续就绪的分片结果集将追加至该列表
+     */
+    public ListenableFuture<List<ResultSet>> awaitResultSetsAsync() {
+        return Futures.transform(firstResultSetReady, new AsyncFunction<Boolean, List<ResultSet>>() {
+            
+            @Override
+            public ListenableFuture<List<ResultSet>> apply(final Boolean input) throws SQLException {
+                return Futures.immediateFuture(getReadyResultSets());
+            }
+        });
+    }
+    
+    private List<ResultSet> getReadyResultSets() throws SQLException {
+        if (resultSets.isEmpty()) {
+            throw null == failure ? new SQLException("No result set returned from data sources.") : new SQLException(failure);
+        }
+        ResultSetMetaData resultSetMetaData = resultSets.get(0).getMetaData();
+        for (int i = 1; i <= resultSetMetaData.getColumnCount(); i++) {
+            labelAndIndexMap.put(SQLUtil.getExactlyValue(resultSetMetaData.getColumnLabel(i)), i);
+        }
+        return resultSets;
+    }
+    
+    @Override
+    public boolean next() throws SQLException {
+        while (!ended) {
+            Optional<MemoryResultSetRow> row = finished ? rows.poll() : poll();
+            if (null == row) {
+                ended = finished;
+            } else if (row.isPresent()) {
+                mergeMemoryAccount.release(row.get().estimateSize());
+                setCurrentResultSetRow(row.get());
+                return true;
+            } else {
+                ended = true;
+            }
+        }
+        if (null != failure) {
+            throw new SQLException(failure);
+        }
+        return false;
+    }
+    
+    private Optional<MemoryResultSetRow> poll() throws SQLException {
+        try {
+            return rows.poll(POLL_MILLISECONDS, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(ex);
+        }
+    }
+}
@@ -34,10 +34,14 @@ public final class LimitDecoratorResultSetMerger extends AbstractDecoratorResult
      * 分页条件
      */
     private final Limit limit;
+    /**
+     * 是否已跳过 offset 记录, 首次读取时跳过, 避免创建时读取分片数据
+     */
+    private boolean skipped;
     /**
      * 是否全部记录都跳过了，即无符合条件记录
      */
-    private final boolean skipAll;
+    private boolean skipAll;
     /**
      * 当前已返回行数
      */
@@ -46,7 +50,6 @@ public final class LimitDecoratorResultSetMerger extends AbstractDecoratorResult
     public LimitDecoratorResultSetMerger(final ResultSetMerger resultSetMerger, final Limit limit) throws SQLException {
         super(resultSetMerger);
         this.limit = limit;
-        skipAll = skipOffset();
     }
     
     private boolean skipOffset() throws SQLException {
@@ -63,6 +66,10 @@ public final class LimitDecoratorResultSetMerger extends AbstractDecoratorResult
     
     @Override
     public boolean next() throws SQLException {
+        if (!skipped) {
+            skipped = true;
+            skipAll = skipOffset();
+        }
         if (skipAll) {
             return false;
         }
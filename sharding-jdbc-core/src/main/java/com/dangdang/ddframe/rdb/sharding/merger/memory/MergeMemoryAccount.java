@@ -0,0 +1,125 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+
+package com.dangdang.ddframe.rdb.sharding.merger.memory;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 归并内存账户.
+ * 
+ * <p>
+ * 每次查询持有一个实例, 记录该查询的归并向预算申请的字节数, 关闭时一次性归还. 可由多个工作线程同时申请.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+@RequiredArgsConstructor
+public final class MergeMemoryAccount implements AutoCloseable {
+    
+    private final MergeMemoryBudget mergeMemoryBudget;
+    
+    private final AtomicLong chargedBytes = new AtomicLong();
+    
+    /**
+     * 创建不限制且不统计的内存账户.
+     * 
+     * @return 内存账户
+     */
+    public static MergeMemoryAccount unlimited() {
+        return new MergeMemoryAccount(new MergeMemoryBudget());
+    }
+    
+    /**
+     * 申请无法溢写的内存.
+     * 
+     * @param bytes 申请的字节数
+     */
+    public void charge(final long bytes) {
+        charge(bytes, false);
+    }
+    
+    /**
+     * 申请可溢写的内存.
+     * 
+     * @param bytes 申请的字节数
+     * @return 是否申请成功, 预算耗尽且策略为溢写时返回{@code false}, 调用方需溢写
+     */
+    public boolean tryCharge(final long bytes) {
+        return charge(bytes, true);
+    }
+    
+    private boolean charge(final long bytes, final boolean spillable) {
+        if (!mergeMemoryBudget.acquire(bytes, chargedBytes.get(), spillable)) {
+            return false;
+        }
+        chargedBytes.addAndGet(bytes);
+        return true;
+    }
+    
+    /**
+     * 归还部分内存.
+     * 
+     * <p>
+     * 最多归还已申请的字节数, 账户关闭后归还不再重复计入预算.
+     * </p>
+     * 
+     * @param bytes 归还的字节数
+     */
+    public void release(final long bytes) {
+        while (bytes > 0L) {
+            long current = chargedBytes.get();
+            long released = Math.min(bytes, current);
+            if (released <= 0L) {
+                return;
+            }
+            if (chargedBytes.compareAndSet(current, current - released)) {
+                mergeMemoryBudget.release(released);
+                return;
+            }
+        }
+    }
+    
+    /**
+     * 判断预算耗尽时是否溢写.
+     * 
+     * @return 预算耗尽时是否溢写
+     */
+    public boolean isSpillEnabled() {
+        return mergeMemoryBudget.isSpillEnabled();
+    }
+    
+    /**
+     * 获取已申请的字节数.
+     * 
+     * @return 已申请的字节数
+     */
+    public long getChargedBytes() {
+        return chargedBytes.get();
+    }
+    
+    @Override
+    public void close() {
+        long bytes = chargedBytes.getAndSet(0L);
+        if (bytes > 0L) {
+            mergeMemoryBudget.release(bytes);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+
+package com.dangdang.ddframe.rdb.sharding.merger.memory;
+
+import com.dangdang.ddframe.rdb.sharding.exception.ShardingJdbcException;
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 归并内存预算.
+ * 
+ * <p>
+ * 每个ShardingDataSource持有一个实例, 需将数据行保留在内存中的归并按估算字节数向预算申请, 结果集读取完毕或关闭时归还.
+ * 最大字节数为0时不限制, 仅统计当前占用.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+public final class MergeMemoryBudget {
+    
+    @Getter
+    private final long maxBytes;
+    
+    @Getter
+    private final MergeMemoryExhaustedPolicy exhaustedPolicy;
+    
+    private final long waitMilliseconds;
+    
+    private long usedBytes;
+    
+    private long peakBytes;
+    
+    /**
+     * 创建不限制的归并内存预算.
+     */
+    public MergeMemoryBudget() {
+        this(0L, MergeMemoryExhaustedPolicy.FAIL_FAST, 0L);
+    }
+    
+    public MergeMemoryBudget(final long maxBytes, final MergeMemoryExhaustedPolicy exhaustedPolicy, final long waitMilliseconds) {
+        Preconditions.checkArgument(maxBytes >= 0L, "Max bytes can not be negative.");
+        Preconditions.checkArgument(waitMilliseconds >= 0L, "Wait milliseconds can not be negative.");
+        this.maxBytes = maxBytes;
+        this.exhaustedPolicy = Preconditions.checkNotNull(exhaustedPolicy);
+        this.waitMilliseconds = waitMilliseconds;
+    }
+    
+    /**
+     * 为一次查询创建内存账户.
+     * 
+     * @return 内存账户
+     */
+    public MergeMemoryAccount createAccount() {
+        return new MergeMemoryAccount(this);
+    }
+    
+    /**
+     * 判断预算耗尽时是否溢写.
+     * 
+     * @return 预算耗尽时是否溢写
+     */
+    public boolean isSpillEnabled() {
+        return maxBytes > 0L && MergeMemoryExhaustedPolicy.SPILL == exhaustedPolicy;
+    }
+    
+    /**
+     * 获取归并当前占用的字节数.
+     * 
+     * @return 当前占用的字节数
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+    
+    /**
+     * 获取归并占用字节数的峰值.
+     * 
+     * @return 占用字节数的峰值
+     */
+    public synchronized long getPeakBytes() {
+        return peakBytes;
+    }
+    
+    synchronized boolean acquire(final long bytes, final long accountBytes, final boolean spillable) {
+        if (isAvailable(bytes)) {
+            allocate(bytes);
+            return true;
+        }
+        if (MergeMemoryExhaustedPolicy.SPILL == exhaustedPolicy && spillable) {
+            return false;
+        }
+        // 当前查询自身已占用的内存无法通过等待释放
+        if (MergeMemoryExhaustedPolicy.WAIT == exhaustedPolicy && accountBytes + bytes <= maxBytes && await(bytes)) {
+            allocate(bytes);
+            return true;
+        }
+        throw new ShardingJdbcException("Merge memory budget exhausted: %s bytes requested, %s bytes used, limit is %s bytes.", bytes, usedBytes, maxBytes);
+    }
+    
+    private boolean isAvailable(final long bytes) {
+        return 0L == maxBytes || usedBytes + bytes <= maxBytes;
+    }
+    
+    private void allocate(final long bytes) {
+        usedBytes += bytes;
+        peakBytes = Math.max(peakBytes, usedBytes);
+    }
+    
+    private boolean await(final long bytes) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMilliseconds);
+        long remainingNanos = deadline - System.nanoTime();
+        while (!isAvailable(bytes)) {
+            if (remainingNanos <= 0L) {
+                return false;
+            }
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new ShardingJdbcException(ex);
+            }
+            remainingNanos = deadline - System.nanoTime();
+        }
+        return true;
+    }
+    
+    synchronized void release(final long bytes) {
+        usedBytes -= bytes;
+        notifyAll();
+    }
+}
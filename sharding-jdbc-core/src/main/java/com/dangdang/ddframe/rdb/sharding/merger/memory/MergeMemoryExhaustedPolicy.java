@@ -0,0 +1,46 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+
+package com.dangdang.ddframe.rdb.sharding.merger.memory;
+
+/**
+ * 归并内存预算耗尽时的处理策略.
+ * 
+ * @author zhangliang
+ */
+public enum MergeMemoryExhaustedPolicy {
+    
+    /**
+     * 立即失败.
+     */
+    FAIL_FAST,
+    
+    /**
+     * 溢写至本地临时文件.
+     * 
+     * <p>
+     * 仅内存分组归并可溢写, 其他需占用内存的归并按立即失败处理.
+     * </p>
+     */
+    SPILL,
+    
+    /**
+     * 等待其他查询释放内存, 超时后失败.
+     */
+    WAIT
+}
@@ -24,13 +24,17 @@ import lombok.AccessLevel;
 import lombok.Getter;
 
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.PriorityQueue;
-import java.util.Queue;
 
 /**
  * 排序归并结果集接口.
+ * 
+ * <p>
+ * 使用败者树多路归并各分片的已排序结果集.
+ * </p>
  *
  * @author zhangliang
  */
@@ -43,9 +47,9 @@ public class OrderByStreamResultSetMerger extends AbstractStreamResultSetMerger
     @Getter(AccessLevel.NONE)
     private final List<OrderItem> orderByItems;
     /**
-     * 排序值对象队列
+     * 排序值对象败者树
      */
-    private final Queue<OrderByValue> orderByValuesQueue;
+    private final OrderByValueLoserTree orderByValueLoserTree;
     /**
      * 默认排序类型
      */
@@ -57,43 +61,48 @@ public class OrderByStreamResultSetMerger extends AbstractStreamResultSetMerger
     
     public OrderByStreamResultSetMerger(final List<ResultSet> resultSets, final List<OrderItem> orderByItems, final OrderType nullOrderType) throws SQLException {
         this.orderByItems = orderByItems;
-        this.orderByValuesQueue = new PriorityQueue<>(resultSets.size());
         this.nullOrderType = nullOrderType;
-        orderResultSetsToQueue(resultSets);
+        orderByValueLoserTree = new OrderByValueLoserTree(getFirstOrderByValues(resultSets));
+        // 设置当前 ResultSet，这样 #getValue() 能拿到记录
+        setCurrentResultSet(orderByValueLoserTree.isEmpty() ? resultSets.get(0) : orderByValueLoserTree.getWinner().getResultSet());
         isFirstNext = true;
     }
     
-    private void orderResultSetsToQueue(final List<ResultSet> resultSets) throws SQLException {
+    private List<OrderByValue> getFirstOrderByValues(final List<ResultSet> resultSets) throws SQLException {
+        List<OrderValueType> orderValueTypes = getOrderValueTypes(resultSets.get(0).getMetaData());
+        List<OrderByValue> result = new ArrayList<>(resultSets.size());
         for (ResultSet each : resultSets) {
-            OrderByValue orderByValue = new OrderByValue(each, orderByItems, nullOrderType);
+            OrderByValue orderByValue = new OrderByValue(each, orderByItems, nullOrderType, orderValueTypes);
             if (orderByValue.next()) {
-                orderByValuesQueue.offer(orderByValue);
+                result.add(orderByValue);
             }
         }
-        // 设置当前 ResultSet，这样 #getValue() 能拿到记录
-        setCurrentResultSet(orderByValuesQueue.isEmpty() ? resultSets.get(0) : orderByValuesQueue.peek().getResultSet());
+        return result;
+    }
+    
+    private List<OrderValueType> getOrderValueTypes(final ResultSetMetaData resultSetMetaData) throws SQLException {
+        List<OrderValueType> result = new ArrayList<>(orderByItems.size());
+        for (OrderItem each : orderByItems) {
+            result.add(OrderValueType.valueFrom(resultSetMetaData, each.getIndex()));
+        }
+        return result;
     }
     
     @Override
     public boolean next() throws SQLException {
-        if (orderByValuesQueue.isEmpty()) {
+        if (orderByValueLoserTree.isEmpty()) {
             return false;
         }
         if (isFirstNext) {
             isFirstNext = false;
             return true;
         }
-        // 移除上一次获得的 ResultSet
-        OrderByValue firstOrderByValue = orderByValuesQueue.poll();
-        // 如果上一次获得的 ResultSet还有下一条记录，继续添加到 排序值对象队列
-        if (firstOrderByValue.next()) {
-            orderByValuesQueue.offer(firstOrderByValue);
-        }
-        if (orderByValuesQueue.isEmpty()) {
+        // 上一次获得的 ResultSet 游标下移后重赛
+        if (!orderByValueLoserTree.next()) {
             return false;
         }
         // 设置当前 ResultSet
-        setCurrentResultSet(orderByValuesQueue.peek().getResultSet());
+        setCurrentResultSet(orderByValueLoserTree.getWinner().getResultSet());
         return true;
     }
 }
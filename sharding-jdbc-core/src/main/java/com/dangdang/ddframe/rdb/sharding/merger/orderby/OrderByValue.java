@@ -15,27 +15,30 @@
  * </p>
  */
 
+
 package com.dangdang.ddframe.rdb.sharding.merger.orderby;
 
 import com.dangdang.ddframe.rdb.sharding.constant.OrderType;
-import com.dangdang.ddframe.rdb.sharding.merger.util.ResultSetUtil;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.OrderItem;
 import com.google.common.base.Preconditions;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 
+import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
+import java.sql.Timestamp;
 import java.util.Collections;
 import java.util.List;
 
 /**
  * 排序值对象.
  * 
+ * <p>
+ * 排序值按排序列类型读取至复用的缓冲区, 整数和浮点数以原生类型保存和比较.
+ * </p>
+ * 
  * @author zhangliang
  */
-@RequiredArgsConstructor
 public final class OrderByValue implements Comparable<OrderByValue> {
 
     /**
@@ -51,11 +54,43 @@ public final class OrderByValue implements Comparable<OrderByValue> {
      * 默认排序类型
      */
     private final OrderType nullOrderType;
+    /**
+     * 排序列对应的值类型
+     */
+    private final OrderValueType[] orderValueTypes;
     /**
      * 排序列对应的值数组
      * 因为一条记录可能有多个排序列，所以是数组
      */
-    private List<Comparable<?>> orderValues;
+    private final Comparable<?>[] orderValues;
+    /**
+     * 整数类型排序列对应的值数组
+     */
+    private final long[] longOrderValues;
+    /**
+     * 浮点数类型排序列对应的值数组
+     */
+    private final double[] doubleOrderValues;
+    /**
+     * 排序列对应的值是否为空
+     */
+    private final boolean[] nullOrderValues;
+    
+    public OrderByValue(final ResultSet resultSet, final List<OrderItem> orderByItems, final OrderType nullOrderType) {
+        this(resultSet, orderByItems, nullOrderType, Collections.nCopies(orderByItems.size(), OrderValueType.OBJECT));
+    }
+    
+    public OrderByValue(final ResultSet resultSet, final List<OrderItem> orderByItems, final OrderType nullOrderType, final List<OrderValueType> orderValueTypes) {
+        Preconditions.checkArgument(orderByItems.size() == orderValueTypes.size());
+        this.resultSet = resultSet;
+        this.orderByItems = orderByItems;
+        this.nullOrderType = nullOrderType;
+        this.orderValueTypes = orderValueTypes.toArray(new OrderValueType[orderValueTypes.size()]);
+        orderValues = new Comparable<?>[orderByItems.size()];
+        longOrderValues = new long[orderByItems.size()];
+        doubleOrderValues = new double[orderByItems.size()];
+        nullOrderValues = new boolean[orderByItems.size()];
+    }
     
     /**
      * 遍历下一个结果集游标.
@@ -65,24 +100,44 @@ public final class OrderByValue implements Comparable<OrderByValue> {
      */
     public boolean next() throws SQLException {
         boolean result = resultSet.next();
-        orderValues = result ? getOrderValues() : Collections.<Comparable<?>>emptyList();
+        if (result) {
+            loadOrderValues();
+        }
         return result;
     }
-
-    /**
-     * 获得 排序列对应的值数组
-     *
-     * @return 排序列对应的值数组
-     * @throws SQLException 当结果集关闭时
-     */
-    private List<Comparable<?>> getOrderValues() throws SQLException {
-        List<Comparable<?>> result = new ArrayList<>(orderByItems.size());
-        for (OrderItem each : orderByItems) {
-            Object value = resultSet.getObject(each.getIndex());
-            Preconditions.checkState(null == value || value instanceof Comparable, "Order by value must implements Comparable");
-            result.add((Comparable<?>) value);
+    
+    private void loadOrderValues() throws SQLException {
+        for (int i = 0; i < orderValueTypes.length; i++) {
+            int columnIndex = orderByItems.get(i).getIndex();
+            switch (orderValueTypes[i]) {
+                case LONG:
+                    longOrderValues[i] = resultSet.getLong(columnIndex);
+                    nullOrderValues[i] = resultSet.wasNull();
+                    break;
+                case DOUBLE:
+                    doubleOrderValues[i] = resultSet.getDouble(columnIndex);
+                    nullOrderValues[i] = resultSet.wasNull();
+                    break;
+                case STRING:
+                    setOrderValue(i, resultSet.getString(columnIndex));
+                    break;
+                case TIMESTAMP:
+                    setOrderValue(i, resultSet.getTimestamp(columnIndex));
+                    break;
+                case DECIMAL:
+                    setOrderValue(i, resultSet.getBigDecimal(columnIndex));
+                    break;
+                default:
+                    Object value = resultSet.getObject(columnIndex);
+                    Preconditions.checkState(null == value || value instanceof Comparable, "Order by value must implements Comparable");
+                    setOrderValue(i, (Comparable<?>) value);
+            }
         }
-        return result;
+    }
+    
+    private void setOrderValue(final int index, final Comparable<?> value) {
+        orderValues[index] = value;
+        nullOrderValues[index] = null == value;
     }
 
     /**
@@ -93,13 +148,44 @@ public final class OrderByValue implements Comparable<OrderByValue> {
      */
     @Override
     public int compareTo(final OrderByValue o) {
-        for (int i = 0; i < orderByItems.size(); i++) {
-            OrderItem thisOrderBy = orderByItems.get(i);
-            int result = ResultSetUtil.compareTo(orderValues.get(i), o.orderValues.get(i), thisOrderBy.getType(), nullOrderType);
+        for (int i = 0; i < orderValueTypes.length; i++) {
+            int result = compareTo(o, i);
             if (0 != result) {
                 return result;
             }
         }
         return 0;
     }
+    
+    @SuppressWarnings("unchecked")
+    private int compareTo(final OrderByValue o, final int index) {
+        OrderType orderType = orderByItems.get(index).getType();
+        if (nullOrderValues[index] || o.nullOrderValues[index]) {
+            if (nullOrderValues[index] && o.nullOrderValues[index]) {
+                return 0;
+            }
+            return nullOrderValues[index] == (orderType == nullOrderType) ? -1 : 1;
+        }
+        int result;
+        switch (orderValueTypes[index]) {
+            case LONG:
+                result = Long.compare(longOrderValues[index], o.longOrderValues[index]);
+                break;
+            case DOUBLE:
+                result = Double.compare(doubleOrderValues[index], o.doubleOrderValues[index]);
+                break;
+            case STRING:
+                result = ((String) orderValues[index]).compareTo((String) o.orderValues[index]);
+                break;
+            case TIMESTAMP:
+                result = ((Timestamp) orderValues[index]).compareTo((Timestamp) o.orderValues[index]);
+                break;
+            case DECIMAL:
+                result = ((BigDecimal) orderValues[index]).compareTo((BigDecimal) o.orderValues[index]);
+                break;
+            default:
+                result = ((Comparable) orderValues[index]).compareTo(o.orderValues[index]);
+        }
+        return OrderType.ASC == orderType ? result : -result;
+    }
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+
+package com.dangdang.ddframe.rdb.sharding.merger.orderby;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 排序值对象败者树.
+ * 
+ * <p>
+ * 内部节点保存比较失败的叶子位置, 根节点之上保存胜者位置.
+ * 胜者游标下移后仅需沿其到根节点的路径重赛一次, 每行比较次数为log(k).
+ * 游标遍历完毕的叶子视为无穷大, 永远比较失败.
+ * 排序值相同时已等待的叶子胜出, 构建时位置靠前的叶子胜出.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+public final class OrderByValueLoserTree {
+    
+    private final OrderByValue[] leaves;
+    
+    private final boolean[] exhausted;
+    
+    private final int[] losers;
+    
+    private int winner;
+    
+    /**
+     * 构建败者树.
+     * 
+     * @param orderByValues 已读取首行记录的排序值对象集合
+     */
+    public OrderByValueLoserTree(final List<OrderByValue> orderByValues) {
+        leaves = orderByValues.toArray(new OrderByValue[orderByValues.size()]);
+        exhausted = new boolean[leaves.length];
+        losers = new int[leaves.length];
+        winner = leaves.length > 0 ? build(1) : -1;
+    }
+    
+    private int build(final int node) {
+        if (node >= leaves.length) {
+            return node - leaves.length;
+        }
+        int leftWinner = build(2 * node);
+        int rightWinner = build(2 * node + 1);
+        if (!beats(rightWinner, leftWinner)) {
+            losers[node] = rightWinner;
+            return leftWinner;
+        }
+        losers[node] = leftWinner;
+        return rightWinner;
+    }
+    
+    /**
+     * 判断败者树是否已无记录.
+     * 
+     * @return 败者树是否已无记录
+     */
+    public boolean isEmpty() {
+        return -1 == winner || exhausted[winner];
+    }
+    
+    /**
+     * 获取胜者, 即当前排序最靠前的排序值对象.
+     * 
+     * @return 胜者排序值对象
+     */
+    public OrderByValue getWinner() {
+        return leaves[winner];
+    }
+    
+    /**
+     * 胜者游标下移并重赛.
+     * 
+     * @return 败者树是否仍有记录
+     * @throws SQLException SQL异常
+     */
+    public boolean next() throws SQLException {
+        if (isEmpty()) {
+            return false;
+        }
+        exhausted[winner] = !leaves[winner].next();
+        int candidate = winner;
+        for (int node = (winner + leaves.length) / 2; node > 0; node /= 2) {
+            if (!beats(candidate, losers[node])) {
+                int loser = candidate;
+                candidate = losers[node];
+                losers[node] = loser;
+            }
+        }
+        winner = candidate;
+        return !isEmpty();
+    }
+    
+    private boolean beats(final int leaf, final int otherLeaf) {
+        if (exhausted[leaf] || exhausted[otherLeaf]) {
+            return !exhausted[leaf];
+        }
+        return leaves[leaf].compareTo(leaves[otherLeaf]) < 0;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+
+package com.dangdang.ddframe.rdb.sharding.merger.orderby;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * 排序值类型.
+ * 
+ * <p>
+ * 根据排序列的类型选择读取方式和比较方式, 无法识别的类型按{@code Comparable}读取和比较.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+public enum OrderValueType {
+    
+    LONG, DOUBLE, STRING, TIMESTAMP, DECIMAL, OBJECT;
+    
+    /**
+     * 根据结果集元数据获取排序列的值类型.
+     * 
+     * @param resultSetMetaData 结果集元数据
+     * @param columnIndex 排序列位置
+     * @return 排序值类型
+     * @throws SQLException SQL异常
+     */
+    public static OrderValueType valueFrom(final ResultSetMetaData resultSetMetaData, final int columnIndex) throws SQLException {
+        switch (resultSetMetaData.getColumnType(columnIndex)) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return LONG;
+            case Types.BIGINT:
+                return resultSetMetaData.isSigned(columnIndex) ? LONG : DECIMAL;
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return DOUBLE;
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return DECIMAL;
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+                return STRING;
+            case Types.TIMESTAMP:
+                return TIMESTAMP;
+            default:
+                return OBJECT;
+        }
+    }
+}
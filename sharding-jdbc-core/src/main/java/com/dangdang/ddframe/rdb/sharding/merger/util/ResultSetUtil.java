@@ -30,6 +30,10 @@ import java.util.Date;
 /**
  * 结果集工具类.
  * 
+ * <p>
+ * 转换为原生类型的方法对数值类型的结果直接取原生类型值, 不装箱.
+ * </p>
+ * 
  * @author gaohongtao
  */
 @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
@@ -62,6 +66,76 @@ public final class ResultSetUtil {
         }
     }
     
+    /**
+     * 将结果转换为boolean类型.
+     * 
+     * @param value 原始结果
+     * @return boolean类型的结果
+     */
+    public static boolean convertBooleanValue(final Object value) {
+        return value instanceof Boolean ? (Boolean) value : (boolean) convertValue(value, boolean.class);
+    }
+    
+    /**
+     * 将结果转换为byte类型.
+     * 
+     * @param value 原始结果
+     * @return byte类型的结果
+     */
+    public static byte convertByteValue(final Object value) {
+        return value instanceof Number ? ((Number) value).byteValue() : (byte) convertValue(value, byte.class);
+    }
+    
+    /**
+     * 将结果转换为short类型.
+     * 
+     * @param value 原始结果
+     * @return short类型的结果
+     */
+    public static short convertShortValue(final Object value) {
+        return value instanceof Number ? ((Number) value).shortValue() : (short) convertValue(value, short.class);
+    }
+    
+    /**
+     * 将结果转换为int类型.
+     * 
+     * @param value 原始结果
+     * @return int类型的结果
+     */
+    public static int convertIntValue(final Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : (int) convertValue(value, int.class);
+    }
+    
+    /**
+     * 将结果转换为long类型.
+     * 
+     * @param value 原始结果
+     * @return long类型的结果
+     */
+    public static long convertLongValue(final Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : (long) convertValue(value, long.class);
+    }
+    
+    /**
+     * 将结果转换为float类型.
+     * 
+     * @param value 原始结果
+     * @return float类型的结果
+     */
+    public static float convertFloatValue(final Object value) {
+        return value instanceof Number ? ((Number) value).floatValue() : (float) convertValue(value, float.class);
+    }
+    
+    /**
+     * 将结果转换为double类型.
+     * 
+     * @param value 原始结果
+     * @return double类型的结果
+     */
+    public static double convertDoubleValue(final Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : (double) convertValue(value, double.class);
+    }
+    
     private static Object convertNullValue(final Class<?> convertType) {
         switch (convertType.getName()) {
             case "boolean":
@@ -0,0 +1,58 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 度量类型.
+ * 
+ * @author zhangliang
+ */
+@RequiredArgsConstructor
+@Getter
+public enum MetricsType {
+    
+    /**
+     * SQL解析.
+     */
+    PARSE("sharding-jdbc.parse"),
+    
+    /**
+     * SQL路由.
+     */
+    ROUTE("sharding-jdbc.route"),
+    
+    /**
+     * SQL改写.
+     */
+    REWRITE("sharding-jdbc.rewrite"),
+    
+    /**
+     * SQL执行, 包含全部执行单元.
+     */
+    EXECUTE("sharding-jdbc.execute"),
+    
+    /**
+     * 结果归并.
+     */
+    MERGE("sharding-jdbc.merge");
+    
+    private final String name;
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.metrics;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.JmxReporter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Slf4jReporter;
+import com.codahale.metrics.Timer;
+import com.google.common.base.Optional;
+import com.google.common.base.Splitter;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 数据源度量注册表.
+ * 
+ * <p>
+ * 每个ShardingDataSource持有一个实例, 由所有线程共享, 因此执行线程池中的计时也会被记录.
+ * 计时器在创建时注册并缓存, 计时时不再拼接度量名称. 未开启度量时计时方法均返回{@code null}.
+ * </p>
+ * 
+ * @author gaohongtao
+ * @author zhangliang
+ */
+public final class ShardingMetrics implements AutoCloseable {
+    
+    private static final String LOGGER_NAME = "Sharding-JDBC-Metrics";
+    
+    private static final String JMX_DOMAIN = "sharding-jdbc";
+    
+    private static final String SLF4J_REPORTER = "slf4j";
+    
+    private static final String JMX_REPORTER = "jmx";
+    
+    private static final String EXECUTION_UNITS_NAME = "sharding-jdbc.route.execution-units";
+    
+    private static final String DATA_SOURCE_EXECUTE_PREFIX = "sharding-jdbc.execute.data-source";
+    
+    private static final String GET_CONNECTION_PREFIX = "sharding-jdbc.get-connection.data-source";
+    
+    private static final String EXECUTOR_PREFIX = "sharding-jdbc.executor.data-source";
+    
+    private static final String MERGE_MEMORY_PREFIX = "sharding-jdbc.merge.memory";
+    
+    private final MetricRegistry metricRegistry;
+    
+    private final Map<MetricsType, Timer> timers = new EnumMap<>(MetricsType.class);
+    
+    private final Histogram executionUnitsHistogram;
+    
+    private final ConcurrentMap<String, Timer> dataSourceExecuteTimers = new ConcurrentHashMap<>();
+    
+    private final ConcurrentMap<String, Timer> getConnectionTimers = new ConcurrentHashMap<>();
+    
+    private final Collection<Closeable> reporters = new LinkedList<>();
+    
+    /**
+     * 创建未开启的度量注册表.
+     */
+    public ShardingMetrics() {
+        this(false, Collections.<String>emptyList());
+    }
+    
+    public ShardingMetrics(final boolean enabled, final Collection<String> dataSourceNames) {
+        if (!enabled) {
+            metricRegistry = null;
+            executionUnitsHistogram = null;
+            return;
+        }
+        metricRegistry = new MetricRegistry();
+        for (MetricsType each : MetricsType.values()) {
+            timers.put(each, metricRegistry.timer(each.getName()));
+        }
+        executionUnitsHistogram = metricRegistry.histogram(EXECUTION_UNITS_NAME);
+        for (String each : dataSourceNames) {
+            getTimer(dataSourceExecuteTimers, DATA_SOURCE_EXECUTE_PREFIX, each);
+            getTimer(getConnectionTimers, GET_CONNECTION_PREFIX, each);
+        }
+    }
+    
+    /**
+     * 启动度量输出.
+     * 
+     * @param reporterNames 输出方式, 多个以逗号分隔
+     * @param periodMilliseconds 定时输出周期, 单位: 毫秒
+     */
+    public void startReporters(final String reporterNames, final long periodMilliseconds) {
+        if (null == metricRegistry) {
+            return;
+        }
+        for (String each : Splitter.on(',').trimResults().omitEmptyStrings().split(reporterNames)) {
+            if (SLF4J_REPORTER.equalsIgnoreCase(each)) {
+                Slf4jReporter reporter = Slf4jReporter.forRegistry(metricRegistry)
+                        .outputTo(LoggerFactory.getLogger(LOGGER_NAME))
+                        .convertRatesTo(TimeUnit.SECONDS)
+                        .convertDurationsTo(TimeUnit.MILLISECONDS)
+                        .withLoggingLevel(Slf4jReporter.LoggingLevel.DEBUG)
+                        .build();
+                reporter.start(periodMilliseconds, TimeUnit.MILLISECONDS);
+                reporters.add(reporter);
+            } else if (JMX_REPORTER.equalsIgnoreCase(each)) {
+                JmxReporter reporter = JmxReporter.forRegistry(metricRegistry).inDomain(JMX_DOMAIN)
+                        .convertRatesTo(TimeUnit.SECONDS).convertDurationsTo(TimeUnit.MILLISECONDS).build();
+                reporter.start();
+                reporters.add(reporter);
+            } else {
+                throw new IllegalArgumentException(String.format("Unsupported metrics reporter '%s'.", each));
+            }
+        }
+    }
+    
+    /**
+     * 获取度量注册表, 用于拉取度量数据或挂载自定义输出.
+     * 
+     * @return 度量注册表, 未开启度量时为空
+     */
+    public Optional<MetricRegistry> getMetricRegistry() {
+        return Optional.fromNullable(metricRegistry);
+    }
+    
+    /**
+     * 开始计时.
+     * 
+     * @param metricsType 度量类型
+     * @return 计时上下文, 未开启度量时为{@code null}
+     */
+    public Timer.Context start(final MetricsType metricsType) {
+        return null == metricRegistry ? null : timers.get(metricsType).time();
+    }
+    
+    /**
+     * 开始数据源执行计时.
+     * 
+     * @param dataSourceName 数据源名称
+     * @return 计时上下文, 未开启度量时为{@code null}
+     */
+    public Timer.Context startExecute(final String dataSourceName) {
+        return null == metricRegistry ? null : getTimer(dataSourceExecuteTimers, DATA_SOURCE_EXECUTE_PREFIX, dataSourceName).time();
+    }
+    
+    /**
+     * 开始获取数据库连接计时.
+     * 
+     * @param dataSourceName 数据源名称
+     * @return 计时上下文, 未开启度量时为{@code null}
+     */
+    public Timer.Context startGetConnection(final String dataSourceName) {
+        return null == metricRegistry ? null : getTimer(getConnectionTimers, GET_CONNECTION_PREFIX, dataSourceName).time();
+    }
+    
+    /**
+     * 记录路由生成的执行单元数量.
+     * 
+     * @param executionUnitsSize 执行单元数量
+     */
+    public void updateExecutionUnits(final int executionUnitsSize) {
+        if (null != executionUnitsHistogram) {
+            executionUnitsHistogram.update(executionUnitsSize);
+        }
+    }
+    
+    /**
+     * 注册数据源执行单元的活跃数量和排队数量度量.
+     * 
+     * @param dataSourceName 数据源名称
+     * @param activeCountGauge 正在执行的执行单元数量
+     * @param queueDepthGauge 排队等待执行的执行单元数量
+     */
+    public void registerExecutorGauges(final String dataSourceName, final Gauge<Integer> activeCountGauge, final Gauge<Integer> queueDepthGauge) {
+        if (null == metricRegistry) {
+            return;
+        }
+        metricRegistry.register(MetricRegistry.name(EXECUTOR_PREFIX, dataSourceName, "active-count"), activeCountGauge);
+        metricRegistry.register(MetricRegistry.name(EXECUTOR_PREFIX, dataSourceName, "queue-depth"), queueDepthGauge);
+    }
+    
+    /**
+     * 注册归并内存的当前占用和峰值度量.
+     * 
+     * @param usedBytesGauge 归并当前占用的字节数
+     * @param peakBytesGauge 归并占用字节数的峰值
+     */
+    public void registerMergeMemoryGauges(final Gauge<Long> usedBytesGauge, final Gauge<Long> peakBytesGauge) {
+        if (null == metricRegistry) {
+            return;
+        }
+        metricRegistry.register(MetricRegistry.name(MERGE_MEMORY_PREFIX, "used-bytes"), usedBytesGauge);
+        metricRegistry.register(MetricRegistry.name(MERGE_MEMORY_PREFIX, "peak-bytes"), peakBytesGauge);
+    }
+    
+    private Timer getTimer(final ConcurrentMap<String, Timer> cachedTimers, final String prefix, final String dataSourceName) {
+        Timer result = cachedTimers.get(dataSourceName);
+        if (null == result) {
+            result = metricRegistry.timer(MetricRegistry.name(prefix, dataSourceName));
+            cachedTimers.putIfAbsent(dataSourceName, result);
+        }
+        return result;
+    }
+    
+    /**
+     * 停止计时.
+     *
+     * @param context 计时上下文
+     */
+    public static void stop(final Timer.Context context) {
+        if (null != context) {
+            context.stop();
+        }
+    }
+    
+    @Override
+    public void close() {
+        for (Closeable each : reporters) {
+            try {
+                each.close();
+            } catch (final IOException ignored) {
+            }
+        }
+        reporters.clear();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.parsing.cache;
+
+import com.dangdang.ddframe.rdb.sharding.constant.DatabaseType;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.SQLStatement;
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * SQL解析结果缓存.
+ * 
+ * <p>
+ * 以逻辑SQL和数据库类型为键缓存SQL语句对象模板, 超过容量时按最近最少使用淘汰.
+ * 缓存中的模板不会对外暴露, 每次获取均返回复制的SQL语句对象, 以保证路由和归并时的修改不会影响并发的其他使用者.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+public final class ParsingResultCache {
+    
+    private final Cache<CacheKey, SQLStatement> cache;
+    
+    public ParsingResultCache(final int maximumSize) {
+        cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+    }
+    
+    /**
+     * 获取SQL语句对象.
+     * 
+     * @param databaseType 数据库类型
+     * @param logicSQL 逻辑SQL
+     * @return 复制自缓存模板的SQL语句对象, 未命中时返回空
+     */
+    public Optional<SQLStatement> get(final DatabaseType databaseType, final String logicSQL) {
+        SQLStatement template = cache.getIfPresent(new CacheKey(databaseType, logicSQL));
+        return null == template ? Optional.<SQLStatement>absent() : Optional.of(template.copy());
+    }
+    
+    /**
+     * 缓存SQL语句对象.
+     * 
+     * <p>
+     * 缓存的是SQL语句对象的复制, 调用方可继续修改传入的对象.
+     * </p>
+     * 
+     * @param databaseType 数据库类型
+     * @param logicSQL 逻辑SQL
+     * @param sqlStatement 刚解析完成的SQL语句对象
+     */
+    public void put(final DatabaseType databaseType, final String logicSQL, final SQLStatement sqlStatement) {
+        SQLStatement template = sqlStatement.copy();
+        // 子类未覆盖复制方法时无法得到同类型的副本, 不缓存而直接走解析
+        if (template.getClass() != sqlStatement.getClass()) {
+            return;
+        }
+        cache.put(new CacheKey(databaseType, logicSQL), template);
+    }
+    
+    /**
+     * 获取缓存条目数.
+     * 
+     * @return 缓存条目数
+     */
+    public long size() {
+        return cache.size();
+    }
+    
+    /**
+     * 获取命中次数.
+     * 
+     * @return 命中次数
+     */
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+    
+    /**
+     * 获取未命中次数.
+     * 
+     * @return 未命中次数
+     */
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+    
+    /**
+     * 清空缓存.
+     */
+    public void clear() {
+        cache.invalidateAll();
+    }
+    
+    @RequiredArgsConstructor
+    @EqualsAndHashCode
+    private static final class CacheKey {
+        
+        private final DatabaseType databaseType;
+        
+        private final String logicSQL;
+    }
+}
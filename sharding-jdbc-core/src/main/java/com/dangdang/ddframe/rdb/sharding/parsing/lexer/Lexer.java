@@ -23,14 +23,12 @@ import com.dangdang.ddframe.rdb.sharding.parsing.lexer.analyzer.Tokenizer;
 import com.dangdang.ddframe.rdb.sharding.parsing.lexer.token.Assist;
 import com.dangdang.ddframe.rdb.sharding.parsing.lexer.token.Token;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 
 /**
  * 词法解析器.
  *
  * @author zhangliang
  */
-@RequiredArgsConstructor
 public class Lexer {
 
     /**
@@ -40,9 +38,10 @@ public class Lexer {
     @Getter
     private final String input;
     /**
-     * 词法标记字典
+     * 词法标记器
+     * 每个词法解析器复用同一个词法标记器, 避免每个词法标记都创建新对象
      */
-    private final Dictionary dictionary;
+    private final Tokenizer tokenizer;
     /**
      * 解析到 SQL 的 offset
      */
@@ -52,6 +51,11 @@ public class Lexer {
      */
     @Getter
     private Token currentToken;
+    
+    public Lexer(final String input, final Dictionary dictionary) {
+        this.input = input;
+        tokenizer = new Tokenizer(input, dictionary, 0);
+    }
 
     /**
      * 分析下一个词法标记.
@@ -62,28 +66,30 @@ public class Lexer {
     public final void nextToken() {
         skipIgnoredToken();
         if (isVariableBegin()) { // 变量
-            currentToken = new Tokenizer(input, dictionary, offset).scanVariable();
+            currentToken = tokenizerAt(offset).scanVariable();
         } else if (isNCharBegin()) { // N\
-            currentToken = new Tokenizer(input, dictionary, ++offset).scanChars();
+            currentToken = tokenizerAt(++offset).scanChars();
         } else if (isIdentifierBegin()) { // Keyword + Literals.IDENTIFIER
-            currentToken = new Tokenizer(input, dictionary, offset).scanIdentifier();
+            currentToken = tokenizerAt(offset).scanIdentifier();
         } else if (isHexDecimalBegin()) { // 十六进制
-            currentToken = new Tokenizer(input, dictionary, offset).scanHexDecimal();
+            currentToken = tokenizerAt(offset).scanHexDecimal();
         } else if (isNumberBegin()) { // 数字（整数+浮点数）
-            currentToken = new Tokenizer(input, dictionary, offset).scanNumber();
+            currentToken = tokenizerAt(offset).scanNumber();
         } else if (isSymbolBegin()) { // 符号
-            currentToken = new Tokenizer(input, dictionary, offset).scanSymbol();
+            currentToken = tokenizerAt(offset).scanSymbol();
         } else if (isCharsBegin()) { // 字符串，例如："abc"
-            currentToken = new Tokenizer(input, dictionary, offset).scanChars();
+            currentToken = tokenizerAt(offset).scanChars();
         } else if (isEnd()) { // 结束
             currentToken = new Token(Assist.END, "", offset);
         } else { // 分析错误，无符合条件的词法标记
             currentToken = new Token(Assist.ERROR, "", offset);
         }
         offset = currentToken.getEndPosition();
-        System.out.println("| " + currentToken.getLiterals() + " | "
-                +  currentToken.getType().getClass().getSimpleName() + " | " + currentToken.getType() + " | "
-                + currentToken.getEndPosition() + " |");
+    }
+    
+    private Tokenizer tokenizerAt(final int offset) {
+        tokenizer.setOffset(offset);
+        return tokenizer;
     }
 
     /**
@@ -94,16 +100,16 @@ public class Lexer {
      */
     private void skipIgnoredToken() {
         // 空格
-        offset = new Tokenizer(input, dictionary, offset).skipWhitespace();
+        offset = tokenizerAt(offset).skipWhitespace();
         // SQL Hint
         while (isHintBegin()) {
-            offset = new Tokenizer(input, dictionary, offset).skipHint();
-            offset = new Tokenizer(input, dictionary, offset).skipWhitespace();
+            offset = tokenizerAt(offset).skipHint();
+            offset = tokenizerAt(offset).skipWhitespace();
         }
         // SQL 注释
         while (isCommentBegin()) {
-            offset = new Tokenizer(input, dictionary, offset).skipComment();
-            offset = new Tokenizer(input, dictionary, offset).skipWhitespace();
+            offset = tokenizerAt(offset).skipComment();
+            offset = tokenizerAt(offset).skipWhitespace();
         }
     }
 
@@ -23,30 +23,55 @@ import com.dangdang.ddframe.rdb.sharding.parsing.lexer.token.TokenType;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Map.Entry;
 
 /**
  * 词法标记字典.
+ * 
+ * <p>
+ * 使用开放寻址的散列表存储关键词, 按忽略大小写的方式计算散列值和比较, 查找时无需转换大小写, 不创建新对象.
+ * </p>
  *
  * @author zhangliang
  */
 public final class Dictionary {
-
+    
     /**
-     * 词法关键词Map
+     * 词法关键词名称散列表
      */
-    private final Map<String, Keyword> tokens = new HashMap<>(1024);
+    private final String[] keywordNames;
+    /**
+     * 词法关键词散列表, 与名称散列表一一对应
+     */
+    private final Keyword[] keywords;
+    
+    private final int mask;
     
     public Dictionary(final Keyword... dialectKeywords) {
-        fill(dialectKeywords);
+        Map<String, Keyword> tokens = new HashMap<>(1024);
+        fill(tokens, dialectKeywords);
+        int capacity = Integer.highestOneBit(tokens.size() * 2) << 1;
+        keywordNames = new String[capacity];
+        keywords = new Keyword[capacity];
+        mask = capacity - 1;
+        for (Entry<String, Keyword> entry : tokens.entrySet()) {
+            int index = hash(entry.getKey()) & mask;
+            while (null != keywordNames[index]) {
+                index = (index + 1) & mask;
+            }
+            keywordNames[index] = entry.getKey();
+            keywords[index] = entry.getValue();
+        }
     }
 
     /**
      * 装上默认词法关键词 + 方言词法关键词
      * 不同的数据库有相同的默认词法关键词，有有不同的方言关键词
      *
+     * @param tokens 词法关键词Map
      * @param dialectKeywords 方言词法关键词
      */
-    private void fill(final Keyword... dialectKeywords) {
+    private void fill(final Map<String, Keyword> tokens, final Keyword... dialectKeywords) {
         for (DefaultKeyword each : DefaultKeyword.values()) {
             tokens.put(each.name(), each);
         }
@@ -64,8 +89,8 @@ public final class Dictionary {
      * @return 词法字面量标记
      */
     TokenType findTokenType(final String literals, final TokenType defaultTokenType) {
-        String key = null == literals ? null : literals.toUpperCase();
-        return tokens.containsKey(key) ? tokens.get(key) : defaultTokenType; // TODO 直接get，然后判断是否为空
+        Keyword result = find(literals);
+        return null == result ? defaultTokenType : result;
     }
 
     /**
@@ -76,10 +101,33 @@ public final class Dictionary {
      * @return 词法字面量标记
      */
     TokenType findTokenType(final String literals) {
-        String key = null == literals ? null : literals.toUpperCase();
-        if (tokens.containsKey(key)) {
-            return tokens.get(key);
+        Keyword result = find(literals);
+        if (null == result) {
+            throw new IllegalArgumentException();
+        }
+        return result;
+    }
+    
+    private Keyword find(final String literals) {
+        if (null == literals) {
+            return null;
+        }
+        int index = hash(literals) & mask;
+        while (null != keywordNames[index]) {
+            if (keywordNames[index].length() == literals.length() && keywordNames[index].regionMatches(true, 0, literals, 0, literals.length())) {
+                return keywords[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+    
+    private static int hash(final String literals) {
+        int result = 0;
+        for (int i = 0; i < literals.length(); i++) {
+            char ch = literals.charAt(i);
+            result = 31 * result + (ch >= 'a' && ch <= 'z' ? ch - ('a' - 'A') : ch);
         }
-        throw new IllegalArgumentException();
+        return result ^ (result >>> 16);
     }
 }
@@ -22,14 +22,15 @@ import com.dangdang.ddframe.rdb.sharding.parsing.lexer.token.Literals;
 import com.dangdang.ddframe.rdb.sharding.parsing.lexer.token.Symbol;
 import com.dangdang.ddframe.rdb.sharding.parsing.lexer.token.Token;
 import com.dangdang.ddframe.rdb.sharding.parsing.lexer.token.TokenType;
-import lombok.RequiredArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Setter;
 
 /**
  * 词法标记器.
  *
  * @author zhangliang
  */
-@RequiredArgsConstructor
+@AllArgsConstructor
 public final class Tokenizer {
 
     private static final int MYSQL_SPECIAL_COMMENT_BEGIN_SYMBOL_LENGTH = 1;
@@ -52,8 +53,10 @@ public final class Tokenizer {
     private final Dictionary dictionary;
     /**
      * 输出字符串的开始分词位置
+     * 词法解析器复用同一词法标记器时, 每次分词前重新设置
      */
-    private final int offset;
+    @Setter
+    private int offset;
 
     /**
      * 跳过空格.
@@ -235,12 +238,16 @@ public final class Tokenizer {
         while (CharType.isWhitespace(charAt(offset + i))) {
             i++;
         }
-        if (DefaultKeyword.BY.name().equalsIgnoreCase(String.valueOf(new char[] {charAt(offset + i), charAt(offset + i + 1)}))) {
+        if (isBy(charAt(offset + i), charAt(offset + i + 1))) {
             return dictionary.findTokenType(literals);
         }
         return Literals.IDENTIFIER;
     }
 
+    private boolean isBy(final char ch, final char next) {
+        return ('B' == ch || 'b' == ch) && ('Y' == next || 'y' == next);
+    }
+    
     /**
      * 扫描十六进制数.
      *
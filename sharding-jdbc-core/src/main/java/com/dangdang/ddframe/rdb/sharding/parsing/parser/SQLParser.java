@@ -32,6 +32,7 @@ import com.dangdang.ddframe.rdb.sharding.parsing.parser.exception.SQLParsingUnsu
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.expression.*;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.SQLStatement;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.select.SelectStatement;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.InValuesToken;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.OffsetToken;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.RowCountToken;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.TableToken;
@@ -40,6 +41,7 @@ import com.dangdang.ddframe.rdb.sharding.util.SQLUtil;
 import com.google.common.base.Optional;
 import lombok.Getter;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -66,38 +68,11 @@ public class SQLParser extends AbstractParser {
      * @return 表达式
      */
     public final SQLExpression parseExpression(final SQLStatement sqlStatement) {
-        // 【调试代码】
-        StackTraceElement stack[] = (new Throwable()).getStackTrace();
-        System.out.println();
-        System.out.println(stack[1].getMethodName()); // 调用方法
-        System.out.println("begin：" + getLexer().getCurrentToken().getLiterals());
-
         int beginPosition = getLexer().getCurrentToken().getEndPosition();
         SQLExpression result = parseExpression();
         if (result instanceof SQLPropertyExpression) {
             setTableToken(sqlStatement, beginPosition, (SQLPropertyExpression) result);
         }
-
-        // 【调试代码】
-        System.out.print("end：");
-        if (result instanceof SQLIdentifierExpression) {
-            SQLIdentifierExpression exp = (SQLIdentifierExpression) result;
-            System.out.println(exp.getClass().getSimpleName() + "：" + exp.getName());
-        } else if (result instanceof SQLIgnoreExpression) {
-            SQLIgnoreExpression exp = (SQLIgnoreExpression) result;
-            System.out.println(exp.getClass().getSimpleName() + "：");
-        } else if (result instanceof SQLNumberExpression) {
-            SQLNumberExpression exp = (SQLNumberExpression) result;
-            System.out.println(exp.getClass().getSimpleName() + "：" + exp.getNumber());
-        } else if (result instanceof SQLPropertyExpression) {
-            SQLPropertyExpression exp = (SQLPropertyExpression) result;
-            System.out.println(exp.getClass().getSimpleName() + "：" + exp.getOwner().getName() + "\t" + exp.getName());
-        } else if (result instanceof SQLTextExpression) {
-            SQLTextExpression exp = (SQLTextExpression) result;
-            System.out.println(exp.getClass().getSimpleName() + "：" + exp.getText());
-        }
-        System.out.println();
-        System.out.println();
         return result;
     }
     
@@ -287,12 +262,15 @@ public class SQLParser extends AbstractParser {
      * 解析查询条件.
      *
      * @param sqlStatement SQL语句对象
+     * @return 是否包含WHERE子句
      */
-    public final void parseWhere(final SQLStatement sqlStatement) {
+    public final boolean parseWhere(final SQLStatement sqlStatement) {
         parseAlias();
         if (skipIfEqual(DefaultKeyword.WHERE)) {
             parseConditions(sqlStatement);
+            return true;
         }
+        return false;
     }
 
     /**
@@ -384,20 +362,47 @@ public class SQLParser extends AbstractParser {
         getLexer().nextToken();
         accept(Symbol.LEFT_PAREN);
         List<SQLExpression> rights = new LinkedList<>();
+        List<String> values = new LinkedList<>();
+        int valueBeginPosition = getLexer().getCurrentToken().getEndPosition() - getLexer().getCurrentToken().getLiterals().length();
+        int beginPosition = valueBeginPosition;
         do {
             if (equalAny(Symbol.COMMA)) {
                 getLexer().nextToken();
+                valueBeginPosition = getLexer().getCurrentToken().getEndPosition() - getLexer().getCurrentToken().getLiterals().length();
             }
             rights.add(parseExpression(sqlStatement));
+            // 条件值字面量为至下一个逗号或右括号之前的字符串
+            values.add(getLexer().getInput().substring(valueBeginPosition, getLexer().getCurrentToken().getEndPosition() - getLexer().getCurrentToken().getLiterals().length()).trim());
         } while (!equalAny(Symbol.RIGHT_PAREN));
         // 添加列
         Optional<Column> column = find(sqlStatement.getTables(), left);
         if (column.isPresent()) {
             sqlStatement.getConditions().add(new Condition(column.get(), rights), shardingRule);
+            if (shardingRule.isShardingColumn(column.get()) && isValueExpressions(rights)) {
+                int endPosition = getLexer().getCurrentToken().getEndPosition() - getLexer().getCurrentToken().getLiterals().length();
+                sqlStatement.getSqlTokens().add(new InValuesToken(beginPosition, getLexer().getInput().substring(beginPosition, endPosition), column.get(), new ArrayList<>(values), getParameterIndexes(rights)));
+            }
         }
         // 解析下一个 TOKEN
         getLexer().nextToken();
     }
+    
+    private boolean isValueExpressions(final List<SQLExpression> sqlExpressions) {
+        for (SQLExpression each : sqlExpressions) {
+            if (!(each instanceof SQLNumberExpression || each instanceof SQLTextExpression || each instanceof SQLPlaceholderExpression)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private List<Integer> getParameterIndexes(final List<SQLExpression> sqlExpressions) {
+        List<Integer> result = new ArrayList<>(sqlExpressions.size());
+        for (SQLExpression each : sqlExpressions) {
+            result.add(each instanceof SQLPlaceholderExpression ? ((SQLPlaceholderExpression) each).getIndex() : -1);
+        }
+        return result;
+    }
 
     /**
      * 解析 BETWEEN 条件
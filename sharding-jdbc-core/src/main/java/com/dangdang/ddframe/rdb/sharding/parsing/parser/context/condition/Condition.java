@@ -94,7 +94,14 @@ public final class Condition {
         }
     }
     
-    private List<Comparable<?>> getValues(final List<Object> parameters) {
+    /**
+     * 获取条件值.
+     * 占位符对应的值从参数列表中获取.
+     *
+     * @param parameters 参数列表
+     * @return 条件值
+     */
+    public List<Comparable<?>> getValues(final List<Object> parameters) {
         List<Comparable<?>> result = new LinkedList<>(positionValueMap.values());
         for (Entry<Integer, Integer> entry : positionIndexMap.entrySet()) {
             Object parameter = parameters.get(entry.getValue());
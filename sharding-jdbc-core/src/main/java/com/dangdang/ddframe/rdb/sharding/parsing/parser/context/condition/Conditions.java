@@ -5,6 +5,7 @@ import com.google.common.base.Optional;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -19,6 +20,10 @@ public final class Conditions {
     
     private final Map<Column, Condition> conditions = new LinkedHashMap<>();
     
+    public Conditions(final Conditions conditions) {
+        this.conditions.putAll(conditions.conditions);
+    }
+    
     /**
      * 添加条件对象.
      *
@@ -38,6 +43,15 @@ public final class Conditions {
         conditions.put(condition.getColumn(), condition);
     }
     
+    /**
+     * 获取全部条件对象.
+     *
+     * @return 条件对象集合
+     */
+    public Collection<Condition> getConditions() {
+        return conditions.values();
+    }
+    
     /**
      * 判断条件对象是否为空.
      * 
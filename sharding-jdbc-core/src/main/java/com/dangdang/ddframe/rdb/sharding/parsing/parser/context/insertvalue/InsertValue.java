@@ -0,0 +1,58 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.parsing.parser.context.insertvalue;
+
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.GeneratedKey;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.condition.Conditions;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 插入值对象.
+ * 
+ * <p>
+ * 多值插入时每个插入值分别路由, 并按路由表单元重新组合.
+ * </p>
+ *
+ * @author zhangliang
+ */
+@RequiredArgsConstructor
+@Getter
+@ToString
+public final class InsertValue {
+    
+    /**
+     * 插入值字面量, 包含左右括号
+     */
+    private final String expression;
+    /**
+     * 插入值中各占位符依次对应的参数索引
+     */
+    private final List<Integer> parameterIndexes;
+    /**
+     * 插入值的条件对象
+     */
+    private final Conditions conditions;
+    /**
+     * 自动生成键, 表未配置自动生成键列时为 null
+     */
+    private final GeneratedKey generatedKey;
+}
@@ -58,14 +58,33 @@ public final class AggregationSelectItem implements SelectItem {
      */
     private final List<AggregationSelectItem> derivedAggregationSelectItems = new ArrayList<>(2);
     
+    /**
+     * 近似去重计数推导列的别名
+     * 近似聚合模式下 COUNT(DISTINCT) 改为查询去重列并按其分组，内存中以 HyperLogLog 估算去重数。
+     */
+    @Setter
+    private Optional<String> approximateDistinctAlias = Optional.absent();
+    
     @Setter
     private int index = -1;
     
+    @Setter
+    private int approximateDistinctIndex = -1;
+    
     @Override
     public String getExpression() {
         return SQLUtil.getExactlyValue(type.name() + innerExpression);
     }
     
+    /**
+     * 判断是否近似去重计数.
+     * 
+     * @return 是否近似去重计数
+     */
+    public boolean isApproximateCountDistinct() {
+        return approximateDistinctAlias.isPresent();
+    }
+    
     /**
      * 获取列标签.
      * 
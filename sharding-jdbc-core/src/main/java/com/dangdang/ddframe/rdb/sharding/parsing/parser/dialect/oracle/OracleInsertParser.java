@@ -42,4 +42,9 @@ public final class OracleInsertParser extends AbstractInsertParser {
     protected Set<TokenType> getUnsupportedKeywords() {
         return Sets.<TokenType>newHashSet(DefaultKeyword.ALL, OracleKeyword.FIRST);
     }
+    
+    @Override
+    protected boolean isMultipleValuesSupported() {
+        return false;
+    }
 }
@@ -20,9 +20,10 @@ package com.dangdang.ddframe.rdb.sharding.parsing.parser.statement;
 import com.dangdang.ddframe.rdb.sharding.constant.SQLType;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.condition.Conditions;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.table.Tables;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.InValuesToken;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.SQLToken;
+import com.google.common.base.Optional;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 
 import java.util.LinkedList;
@@ -33,7 +34,6 @@ import java.util.List;
  *
  * @author zhangliang
  */
-@RequiredArgsConstructor
 @Getter
 @ToString
 public abstract class AbstractSQLStatement implements SQLStatement {
@@ -45,19 +45,53 @@ public abstract class AbstractSQLStatement implements SQLStatement {
     /**
      * 表
      */
-    private final Tables tables = new Tables();
+    private final Tables tables;
     /**
      * 过滤条件。
      * 只有对路由结果有影响的条件，才添加进数组
      */
-    private final Conditions conditions = new Conditions();
+    private final Conditions conditions;
     /**
      * SQL标记对象
      */
-    private final List<SQLToken> sqlTokens = new LinkedList<>();
+    private final List<SQLToken> sqlTokens;
+    
+    public AbstractSQLStatement(final SQLType type) {
+        this.type = type;
+        tables = new Tables();
+        conditions = new Conditions();
+        sqlTokens = new LinkedList<>();
+    }
+    
+    /**
+     * 根据SQL语句对象模板复制.
+     * 表解析对象在解析完成后不再变化, 因此共享; 条件对象和SQL标记对象在路由期仍可能追加, 因此复制.
+     * 
+     * @param template SQL语句对象模板
+     */
+    protected AbstractSQLStatement(final AbstractSQLStatement template) {
+        type = template.type;
+        tables = template.tables;
+        conditions = new Conditions(template.conditions);
+        sqlTokens = new LinkedList<>(template.sqlTokens);
+    }
     
     @Override
     public final SQLType getType() {
         return type;
     }
+    
+    @Override
+    public final Optional<InValuesToken> findInValuesToken() {
+        Optional<InValuesToken> result = Optional.absent();
+        for (SQLToken each : sqlTokens) {
+            if (each instanceof InValuesToken) {
+                if (result.isPresent()) {
+                    return Optional.absent();
+                }
+                result = Optional.of((InValuesToken) each);
+            }
+        }
+        return result;
+    }
 }
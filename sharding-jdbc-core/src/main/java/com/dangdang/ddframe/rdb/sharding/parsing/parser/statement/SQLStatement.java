@@ -20,7 +20,9 @@ package com.dangdang.ddframe.rdb.sharding.parsing.parser.statement;
 import com.dangdang.ddframe.rdb.sharding.constant.SQLType;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.condition.Conditions;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.table.Tables;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.InValuesToken;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.SQLToken;
+import com.google.common.base.Optional;
 
 import java.util.List;
 
@@ -58,4 +60,20 @@ public interface SQLStatement {
      * @return SQL标记集合
      */
     List<SQLToken> getSqlTokens();
+    
+    /**
+     * 查找唯一的分片键 IN 条件值标记.
+     * 
+     * @return 分片键 IN 条件值标记, 不存在或存在多个时为空
+     */
+    Optional<InValuesToken> findInValuesToken();
+    
+    /**
+     * 复制SQL语句对象.
+     * 
+     * <p>复制后的对象与原对象互不影响, 用于缓存的解析结果在改写和路由时不被修改.</p>
+     * 
+     * @return 复制的SQL语句对象
+     */
+    SQLStatement copy();
 }
@@ -36,4 +36,13 @@ public class DDLStatement extends AbstractSQLStatement {
     public DDLStatement() {
         super(SQLType.DDL);
     }
+    
+    public DDLStatement(final DDLStatement template) {
+        super(template);
+    }
+    
+    @Override
+    public DDLStatement copy() {
+        return new DDLStatement(this);
+    }
 }
@@ -36,4 +36,13 @@ public class DMLStatement extends AbstractSQLStatement {
     public DMLStatement() {
         super(SQLType.DML);
     }
+    
+    public DMLStatement(final DMLStatement template) {
+        super(template);
+    }
+    
+    @Override
+    public DMLStatement copy() {
+        return new DMLStatement(this);
+    }
 }
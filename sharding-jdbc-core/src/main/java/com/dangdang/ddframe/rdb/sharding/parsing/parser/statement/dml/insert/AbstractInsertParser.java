@@ -27,6 +27,8 @@ import com.dangdang.ddframe.rdb.sharding.parsing.parser.SQLParser;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.GeneratedKey;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.condition.Column;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.condition.Condition;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.condition.Conditions;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.insertvalue.InsertValue;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.exception.SQLParsingUnsupportedException;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.expression.SQLExpression;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.expression.SQLNumberExpression;
@@ -35,6 +37,7 @@ import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.SQLStatementPa
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dml.DMLStatement;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dml.DMLStatement;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.GeneratedKeyToken;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.InsertValuesToken;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.ItemsToken;
 import com.dangdang.ddframe.rdb.sharding.util.SQLUtil;
 import com.google.common.base.Optional;
@@ -42,6 +45,7 @@ import com.google.common.collect.Sets;
 import lombok.AccessLevel;
 import lombok.Getter;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
@@ -194,14 +198,19 @@ public abstract class AbstractInsertParser implements SQLStatementParser {
 
     /**
      * 解析值字段
+     * 多值插入时记录每个插入值的条件和自动生成键, 语句的条件和自动生成键取第一个插入值
      */
     private void parseValues() {
         boolean parsed = false;
+        int valuesBeginPosition = 0;
+        int valuesEndPosition;
         do {
-            if (parsed) { // 只允许INSERT INTO 一条
+            if (parsed && !isMultipleValuesSupported()) { // 不支持多值插入时只允许INSERT INTO 一条
                 throw new UnsupportedOperationException("Cannot support multiple insert");
             }
             sqlParser.getLexer().nextToken();
+            int beginPosition = sqlParser.getLexer().getCurrentToken().getEndPosition() - sqlParser.getLexer().getCurrentToken().getLiterals().length();
+            int parametersIndex = sqlParser.getParametersIndex();
             sqlParser.accept(Symbol.LEFT_PAREN);
             // 解析表达式
             List<SQLExpression> sqlExpressions = new LinkedList<>();
@@ -209,21 +218,57 @@ public abstract class AbstractInsertParser implements SQLStatementParser {
                 sqlExpressions.add(sqlParser.parseExpression());
             } while (sqlParser.skipIfEqual(Symbol.COMMA));
             //
-            insertStatement.setValuesListLastPosition(sqlParser.getLexer().getCurrentToken().getEndPosition() - sqlParser.getLexer().getCurrentToken().getLiterals().length());
+            if (!parsed) {
+                valuesBeginPosition = beginPosition;
+                insertStatement.setValuesListLastPosition(sqlParser.getLexer().getCurrentToken().getEndPosition() - sqlParser.getLexer().getCurrentToken().getLiterals().length());
+            }
+            valuesEndPosition = sqlParser.getLexer().getCurrentToken().getEndPosition();
             // 解析值字段
+            Conditions conditions = new Conditions();
+            GeneratedKey generatedKey = null;
             int count = 0;
             for (Column each : insertStatement.getColumns()) {
                 SQLExpression sqlExpression = sqlExpressions.get(count);
-                insertStatement.getConditions().add(new Condition(each, sqlExpression), shardingRule);
+                conditions.add(new Condition(each, sqlExpression), shardingRule);
                 if (generateKeyColumnIndex == count) { // 自动生成键
-                    insertStatement.setGeneratedKey(createGeneratedKey(each, sqlExpression));
+                    generatedKey = createGeneratedKey(each, sqlExpression);
                 }
                 count++;
             }
             sqlParser.accept(Symbol.RIGHT_PAREN);
+            insertStatement.getInsertValues().add(new InsertValue(
+                    sqlParser.getLexer().getInput().substring(beginPosition, valuesEndPosition), getParameterIndexes(parametersIndex, sqlParser.getParametersIndex()), conditions, generatedKey));
             parsed = true;
         }
         while (sqlParser.equalAny(Symbol.COMMA)); // 字段以 "," 分隔
+        InsertValue firstInsertValue = insertStatement.getInsertValues().get(0);
+        for (Condition each : firstInsertValue.getConditions().getConditions()) {
+            insertStatement.getConditions().add(each, shardingRule);
+        }
+        insertStatement.setGeneratedKey(firstInsertValue.getGeneratedKey());
+        if (insertStatement.getInsertValues().size() > 1) {
+            appendInsertValuesToken(valuesBeginPosition, valuesEndPosition);
+        }
+    }
+    
+    protected boolean isMultipleValuesSupported() {
+        return true;
+    }
+    
+    private List<Integer> getParameterIndexes(final int beginParametersIndex, final int endParametersIndex) {
+        List<Integer> result = new ArrayList<>(endParametersIndex - beginParametersIndex);
+        for (int i = beginParametersIndex; i < endParametersIndex; i++) {
+            result.add(i);
+        }
+        return result;
+    }
+    
+    private void appendInsertValuesToken(final int beginPosition, final int endPosition) {
+        List<String> values = new ArrayList<>(insertStatement.getInsertValues().size());
+        for (InsertValue each : insertStatement.getInsertValues()) {
+            values.add(each.getExpression());
+        }
+        insertStatement.getSqlTokens().add(new InsertValuesToken(beginPosition, sqlParser.getLexer().getInput().substring(beginPosition, endPosition), values));
     }
 
     /**
@@ -266,7 +311,9 @@ public abstract class AbstractInsertParser implements SQLStatementParser {
         ItemsToken columnsToken = new ItemsToken(insertStatement.getColumnsListLastPosition());
         columnsToken.getItems().add(generateKeyColumn.get());
         insertStatement.getSqlTokens().add(columnsToken);
-        // GeneratedKeyToken
-        insertStatement.getSqlTokens().add(new GeneratedKeyToken(insertStatement.getValuesListLastPosition()));
+        // GeneratedKeyToken, 多值插入时在 InsertValuesToken 的各插入值中追加
+        if (insertStatement.getInsertValues().size() <= 1) {
+            insertStatement.getSqlTokens().add(new GeneratedKeyToken(insertStatement.getValuesListLastPosition()));
+        }
     }
 }
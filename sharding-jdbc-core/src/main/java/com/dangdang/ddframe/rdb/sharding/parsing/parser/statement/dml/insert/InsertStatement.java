@@ -22,10 +22,13 @@ import com.dangdang.ddframe.rdb.sharding.api.rule.TableRule;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.GeneratedKey;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.condition.Column;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.condition.Condition;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.condition.Conditions;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.insertvalue.InsertValue;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.expression.SQLNumberExpression;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.expression.SQLPlaceholderExpression;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dml.DMLStatement;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.GeneratedKeyToken;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.InsertValuesToken;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.ItemsToken;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.SQLToken;
 import com.google.common.base.Optional;
@@ -33,8 +36,10 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
 
 /**
  * Insert SQL语句对象.
@@ -47,6 +52,10 @@ import java.util.LinkedList;
 public final class InsertStatement extends DMLStatement {
     
     private final Collection<Column> columns = new LinkedList<>();
+    /**
+     * 插入值集合
+     */
+    private final List<InsertValue> insertValues = new ArrayList<>();
     /**
      * 自动生成键
      */
@@ -59,6 +68,23 @@ public final class InsertStatement extends DMLStatement {
      * 值字段 下一个Token 开始位置
      */
     private int valuesListLastPosition;
+    
+    public InsertStatement() {
+    }
+    
+    public InsertStatement(final InsertStatement template) {
+        super(template);
+        columns.addAll(template.columns);
+        insertValues.addAll(template.insertValues);
+        generatedKey = template.generatedKey;
+        columnsListLastPosition = template.columnsListLastPosition;
+        valuesListLastPosition = template.valuesListLastPosition;
+    }
+    
+    @Override
+    public InsertStatement copy() {
+        return new InsertStatement(this);
+    }
 
     /**
      * 追加自增主键标记对象.
@@ -76,6 +102,14 @@ public final class InsertStatement extends DMLStatement {
         if (!tableRule.isPresent()) {
             return;
         }
+        // 多值插入
+        if (insertValues.size() > 1) {
+            Optional<InsertValuesToken> insertValuesToken = findInsertValuesToken();
+            if (insertValuesToken.isPresent() && null != tableRule.get().getGenerateKeyColumn()) {
+                appendGenerateKeyToken(shardingRule, tableRule.get(), insertValuesToken.get(), parametersSize);
+            }
+            return;
+        }
         // GeneratedKeyToken 存在
         Optional<GeneratedKeyToken> generatedKeysToken = findGeneratedKeyToken();
         if (!generatedKeysToken.isPresent()) {
@@ -114,6 +148,61 @@ public final class InsertStatement extends DMLStatement {
         generatedKey = new GeneratedKey(tableRule.getGenerateKeyColumn(), parametersSize, null);
     }
     
+    /**
+     * 在多值插入的各插入值中追加自动生成键.
+     * 插入值及其标记对象与解析结果缓存的模板共享, 因此替换而非修改.
+     *
+     * @param shardingRule 分片规则
+     * @param tableRule 表规则
+     * @param insertValuesToken 插入值标记对象
+     * @param parametersSize 参数个数
+     */
+    private void appendGenerateKeyToken(final ShardingRule shardingRule, final TableRule tableRule, final InsertValuesToken insertValuesToken, final int parametersSize) {
+        Column column = new Column(tableRule.getGenerateKeyColumn(), tableRule.getLogicTable());
+        List<String> values = new ArrayList<>(insertValues.size());
+        for (int i = 0; i < insertValues.size(); i++) {
+            InsertValue insertValue = insertValues.get(i);
+            List<Integer> parameterIndexes = new ArrayList<>(insertValue.getParameterIndexes());
+            Conditions conditions = new Conditions(insertValue.getConditions());
+            GeneratedKey insertValueGeneratedKey;
+            String item;
+            if (0 == parametersSize) {
+                // 生成分布式主键
+                Number key = shardingRule.generateKey(tableRule.getLogicTable());
+                item = key.toString();
+                conditions.add(new Condition(column, new SQLNumberExpression(key)), shardingRule);
+                insertValueGeneratedKey = new GeneratedKey(column.getName(), -1, key);
+            } else {
+                // 生成占位符, 参数在路由时追加至参数列表末尾
+                item = "?";
+                parameterIndexes.add(parametersSize + i);
+                conditions.add(new Condition(column, new SQLPlaceholderExpression(parametersSize + i)), shardingRule);
+                insertValueGeneratedKey = new GeneratedKey(column.getName(), parametersSize + i, null);
+            }
+            // 在右括号前追加
+            String expression = insertValue.getExpression().substring(0, insertValue.getExpression().length() - 1) + ", " + item + ")";
+            insertValues.set(i, new InsertValue(expression, parameterIndexes, conditions, insertValueGeneratedKey));
+            values.add(expression);
+        }
+        // 语句的条件和自动生成键取第一个插入值
+        Optional<Condition> firstCondition = insertValues.get(0).getConditions().find(column);
+        if (firstCondition.isPresent()) {
+            getConditions().add(firstCondition.get(), shardingRule);
+        }
+        generatedKey = insertValues.get(0).getGeneratedKey();
+        getSqlTokens().remove(insertValuesToken);
+        getSqlTokens().add(new InsertValuesToken(insertValuesToken.getBeginPosition(), insertValuesToken.getOriginalLiterals(), values));
+    }
+    
+    private Optional<InsertValuesToken> findInsertValuesToken() {
+        for (SQLToken each : getSqlTokens()) {
+            if (each instanceof InsertValuesToken) {
+                return Optional.of((InsertValuesToken) each);
+            }
+        }
+        return Optional.absent();
+    }
+    
     private Optional<GeneratedKeyToken> findGeneratedKeyToken() {
         for (SQLToken each : getSqlTokens()) {
             if (each instanceof GeneratedKeyToken) {
@@ -36,4 +36,13 @@ public class DQLStatement extends AbstractSQLStatement {
     public DQLStatement() {
         super(SQLType.DQL);
     }
+    
+    public DQLStatement(final DQLStatement template) {
+        super(template);
+    }
+    
+    @Override
+    public DQLStatement copy() {
+        return new DQLStatement(this);
+    }
 }
@@ -43,6 +43,9 @@ import lombok.Setter;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
 
 @Getter(AccessLevel.PROTECTED)
 public abstract class AbstractSelectParser implements SQLStatementParser {
@@ -55,6 +58,8 @@ public abstract class AbstractSelectParser implements SQLStatementParser {
     
     private static final String GROUP_BY_DERIVED_ALIAS = "GROUP_BY_DERIVED_%s";
     
+    private static final Pattern COLUMN_PATTERN = Pattern.compile("[\\w$]+(\\.[\\w$]+)?");
+    
     private final SQLParser sqlParser;
     
     private final SelectStatement selectStatement;
@@ -215,12 +220,24 @@ public abstract class AbstractSelectParser implements SQLStatementParser {
         if (selectStatement.getTables().isEmpty()) {
             return;
         }
-        sqlParser.parseWhere(selectStatement);
+        sqlParser.parseAlias();
+        // 记录 WHERE 关键字的结束位置, 用于追加定位分页条件时将原条件括起
+        if (sqlParser.equalAny(DefaultKeyword.WHERE)) {
+            selectStatement.setWhereBeginPosition(sqlParser.getLexer().getCurrentToken().getEndPosition());
+        }
+        selectStatement.setContainWhere(sqlParser.parseWhere(selectStatement));
         parametersIndex = sqlParser.getParametersIndex();
+        // 记录 WHERE 子句之后 Token 的开始位置及之前的占位符数量, 用于追加定位分页条件
+        selectStatement.setWhereLastPosition(sqlParser.getLexer().getCurrentToken().getEndPosition() - sqlParser.getLexer().getCurrentToken().getLiterals().length());
+        selectStatement.setWhereParametersIndex(parametersIndex);
     }
     
     protected final void parseOrderBy() {
         if (!sqlParser.skipIfEqual(DefaultKeyword.ORDER)) {
+            // 记录首次解析处, 之后的解析位于分页条件之后
+            if (0 == selectStatement.getOrderByPosition()) {
+                selectStatement.setOrderByPosition(sqlParser.getLexer().getCurrentToken().getEndPosition() - sqlParser.getLexer().getCurrentToken().getLiterals().length());
+            }
             return;
         }
         List<OrderItem> result = new LinkedList<>();
@@ -290,9 +307,11 @@ public abstract class AbstractSelectParser implements SQLStatementParser {
             if (sqlParser.skipIfEqual(DefaultKeyword.HAVING)) {
                 throw new UnsupportedOperationException("Cannot support Having");
             }
-            selectStatement.setGroupByLastPosition(sqlParser.getLexer().getCurrentToken().getEndPosition());
+            selectStatement.setGroupByLastPosition(sqlParser.getLexer().getCurrentToken().getEndPosition() - sqlParser.getLexer().getCurrentToken().getLiterals().length());
         } else if (sqlParser.skipIfEqual(DefaultKeyword.HAVING)) {
             throw new UnsupportedOperationException("Cannot support Having");
+        } else {
+            selectStatement.setGroupByLastPosition(sqlParser.getLexer().getCurrentToken().getEndPosition() - sqlParser.getLexer().getCurrentToken().getLiterals().length());
         }
     }
 
@@ -540,11 +559,50 @@ public abstract class AbstractSelectParser implements SQLStatementParser {
 
     /**
      * 当无 Order By 条件时，使用 Group By 作为排序条件（数据库本身规则）
+     * 无 Group By 的 DISTINCT 查询使用 DISTINCT 列作为排序条件，使重复行在归并时相邻，可流式去重
      */
     private void appendDerivedOrderBy() {
         if (!getSelectStatement().getGroupByItems().isEmpty() && getSelectStatement().getOrderByItems().isEmpty()) {
             getSelectStatement().getOrderByItems().addAll(getSelectStatement().getGroupByItems());
             getSelectStatement().getSqlTokens().add(new OrderByToken(getSelectStatement().getGroupByLastPosition()));
+        } else if (isDistinctOrderable()) {
+            for (SelectItem each : getSelectStatement().getItems()) {
+                getSelectStatement().getOrderByItems().add(createDistinctOrderItem((CommonSelectItem) each));
+            }
+            getSelectStatement().getSqlTokens().add(new OrderByToken(getSelectStatement().getOrderByPosition()));
+        }
+    }
+    
+    /**
+     * DISTINCT 列是否可以作为排序条件
+     * 仅当全部查询项均为列且列标签不重复时可以，例如 SELECT DISTINCT user_id, o.status s FROM t_order o
+     *
+     * @return 是否
+     */
+    private boolean isDistinctOrderable() {
+        if (!selectStatement.isDistinct() || selectStatement.isContainStar() || selectStatement.isContainSubQuery() 
+                || !selectStatement.getGroupByItems().isEmpty() || !selectStatement.getOrderByItems().isEmpty() || 0 == selectStatement.getOrderByPosition()) {
+            return false;
+        }
+        Set<String> columnLabels = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (SelectItem each : selectStatement.getItems()) {
+            if (!(each instanceof CommonSelectItem) || !COLUMN_PATTERN.matcher(each.getExpression()).matches()) {
+                return false;
+            }
+            String columnLabel = each.getAlias().isPresent() ? each.getAlias().get() : each.getExpression().substring(each.getExpression().lastIndexOf(Symbol.DOT.getLiterals()) + 1);
+            if (!columnLabels.add(SQLUtil.getExactlyValue(columnLabel))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private OrderItem createDistinctOrderItem(final CommonSelectItem selectItem) {
+        String expression = selectItem.getExpression();
+        int dotPosition = expression.lastIndexOf(Symbol.DOT.getLiterals());
+        if (-1 == dotPosition) {
+            return new OrderItem(expression, OrderType.ASC, selectItem.getAlias());
         }
+        return new OrderItem(expression.substring(0, dotPosition), expression.substring(dotPosition + 1), OrderType.ASC, selectItem.getAlias());
     }
 }
@@ -17,19 +17,30 @@
 
 package com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.select;
 
+import com.dangdang.ddframe.rdb.sharding.constant.AggregationType;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.OrderItem;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.limit.Limit;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.limit.LimitValue;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.selectitem.AggregationSelectItem;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.selectitem.SelectItem;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.DQLStatement;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.GroupByToken;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.ItemsToken;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.SQLToken;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.SeekConditionToken;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.WhereBeginToken;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Select SQL语句对象.
@@ -40,6 +51,10 @@ import java.util.Map;
 @Setter
 @ToString(callSuper = true)
 public final class SelectStatement extends DQLStatement {
+    
+    private static final Pattern COUNT_DISTINCT_PATTERN = Pattern.compile("\\(\\s*DISTINCT\\s+([\\w$`]+(\\.[\\w$`]+)?)\\s*\\)", Pattern.CASE_INSENSITIVE);
+    
+    private static final String COUNT_DISTINCT_DERIVED_ALIAS = "COUNT_DISTINCT_DERIVED_%s";
 
     /**
      * 是否行 DISTINCT / DISTINCTROW / UNION
@@ -54,6 +69,10 @@ public final class SelectStatement extends DQLStatement {
      * TODO 待研究
      */
     private boolean containSubQuery;
+    /**
+     * 是否包含 WHERE 子句
+     */
+    private boolean containWhere;
     /**
      * 最后一个查询项下一个 Token 的开始位置
      *
@@ -61,9 +80,25 @@ public final class SelectStatement extends DQLStatement {
      */
     private int selectListLastPosition;
     /**
-     * 最后一个分组项下一个 Token 的开始位置
+     * 最后一个分组项下一个 Token 的开始位置, 无分组项时为分组项所在处 Token 的开始位置
      */
     private int groupByLastPosition;
+    /**
+     * 无排序项时推导排序项的插入位置, 即排序项所在处 Token 的开始位置
+     */
+    private int orderByPosition;
+    /**
+     * WHERE 关键字的结束位置, 无 WHERE 子句时为0
+     */
+    private int whereBeginPosition;
+    /**
+     * WHERE 子句之后 Token 的开始位置, 无 WHERE 子句时为表名及别名之后 Token 的开始位置
+     */
+    private int whereLastPosition;
+    /**
+     * WHERE 子句之后 Token 之前的占位符数量
+     */
+    private int whereParametersIndex;
     /**
      * 查询项
      */
@@ -80,6 +115,86 @@ public final class SelectStatement extends DQLStatement {
      * 分页
      */
     private Limit limit;
+    
+    public SelectStatement() {
+    }
+    
+    /**
+     * 根据Select SQL语句对象模板复制.
+     * 聚合选择项, 排序项, 分组项与分页对象在归并和路由时会被写入索引及分页值, 因此逐个复制, 并保持分组项与排序项之间的共享关系.
+     * 
+     * @param template Select SQL语句对象模板
+     */
+    public SelectStatement(final SelectStatement template) {
+        super(template);
+        distinct = template.distinct;
+        containStar = template.containStar;
+        containSubQuery = template.containSubQuery;
+        containWhere = template.containWhere;
+        selectListLastPosition = template.selectListLastPosition;
+        groupByLastPosition = template.groupByLastPosition;
+        orderByPosition = template.orderByPosition;
+        whereBeginPosition = template.whereBeginPosition;
+        whereLastPosition = template.whereLastPosition;
+        whereParametersIndex = template.whereParametersIndex;
+        for (SelectItem each : template.items) {
+            items.add(each instanceof AggregationSelectItem ? copyAggregationSelectItem((AggregationSelectItem) each) : each);
+        }
+        Map<OrderItem, OrderItem> copiedOrderItems = new IdentityHashMap<>();
+        for (OrderItem each : template.groupByItems) {
+            groupByItems.add(copyOrderItem(each, copiedOrderItems));
+        }
+        for (OrderItem each : template.orderByItems) {
+            orderByItems.add(copyOrderItem(each, copiedOrderItems));
+        }
+        if (null != template.limit) {
+            limit = copyLimit(template.limit);
+        }
+    }
+    
+    @Override
+    public SelectStatement copy() {
+        return new SelectStatement(this);
+    }
+    
+    private AggregationSelectItem copyAggregationSelectItem(final AggregationSelectItem aggregationSelectItem) {
+        AggregationSelectItem result = new AggregationSelectItem(aggregationSelectItem.getType(), aggregationSelectItem.getInnerExpression(), aggregationSelectItem.getAlias());
+        result.setIndex(aggregationSelectItem.getIndex());
+        result.setApproximateDistinctAlias(aggregationSelectItem.getApproximateDistinctAlias());
+        result.setApproximateDistinctIndex(aggregationSelectItem.getApproximateDistinctIndex());
+        for (AggregationSelectItem each : aggregationSelectItem.getDerivedAggregationSelectItems()) {
+            result.getDerivedAggregationSelectItems().add(copyAggregationSelectItem(each));
+        }
+        return result;
+    }
+    
+    private OrderItem copyOrderItem(final OrderItem orderItem, final Map<OrderItem, OrderItem> copiedOrderItems) {
+        if (copiedOrderItems.containsKey(orderItem)) {
+            return copiedOrderItems.get(orderItem);
+        }
+        OrderItem result;
+        if (!orderItem.getName().isPresent()) {
+            result = new OrderItem(orderItem.getIndex(), orderItem.getType());
+        } else if (orderItem.getOwner().isPresent()) {
+            result = new OrderItem(orderItem.getOwner().get(), orderItem.getName().get(), orderItem.getType(), orderItem.getAlias());
+        } else {
+            result = new OrderItem(orderItem.getName().get(), orderItem.getType(), orderItem.getAlias());
+        }
+        result.setIndex(orderItem.getIndex());
+        copiedOrderItems.put(orderItem, result);
+        return result;
+    }
+    
+    private Limit copyLimit(final Limit limit) {
+        Limit result = new Limit(limit.isRowCountRewriteFlag());
+        if (null != limit.getOffset()) {
+            result.setOffset(new LimitValue(limit.getOffset().getValue(), limit.getOffset().getIndex()));
+        }
+        if (null != limit.getRowCount()) {
+            result.setRowCount(new LimitValue(limit.getRowCount().getValue(), limit.getRowCount().getIndex()));
+        }
+        return result;
+    }
 
     /**
      * 获取聚合选择项集合.
@@ -100,11 +215,131 @@ public final class SelectStatement extends DQLStatement {
     
     /**
      * 判断是否分组和排序项一致.
+     * 近似去重计数时分片按去重列细分分组, 分片结果行与分组不再一一对应, 视为不一致, 需全部加载并在内存中分组归并.
      *
      * @return 是否分组和排序项一致
      */
     public boolean isSameGroupByAndOrderByItems() {
-        return !getGroupByItems().isEmpty() && getGroupByItems().equals(getOrderByItems());
+        return !getGroupByItems().isEmpty() && getGroupByItems().equals(getOrderByItems()) && !isContainApproximateCountDistinct();
+    }
+    
+    /**
+     * 判断分页时是否需要全部加载各分片的数据行.
+     * 
+     * <p>
+     * 跨分片分组或聚合且分组和排序项不一致时需在内存中计算.
+     * 去重且含推导列时分片仅按含推导列的整行去重, 各分片的前 N 行按查询项去重后可能不足 N 行.
+     * </p>
+     *
+     * @return 是否需要全部加载各分片的数据行
+     */
+    public boolean isNeedFetchAll() {
+        if (distinct && getDerivedColumnCount() > 0) {
+            return true;
+        }
+        return (!getGroupByItems().isEmpty() || !getAggregationSelectItems().isEmpty()) && !isSameGroupByAndOrderByItems();
+    }
+    
+    /**
+     * 获取推导列数量.
+     * 推导列追加在查询项之后, 用于内存中分组, 排序和计算聚合值.
+     *
+     * @return 推导列数量
+     */
+    public int getDerivedColumnCount() {
+        int result = 0;
+        for (SQLToken each : getSqlTokens()) {
+            if (each instanceof ItemsToken) {
+                result += ((ItemsToken) each).getItems().size();
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 判断是否包含近似去重计数的聚合选择项.
+     *
+     * @return 是否包含近似去重计数的聚合选择项
+     */
+    public boolean isContainApproximateCountDistinct() {
+        for (AggregationSelectItem each : getAggregationSelectItems()) {
+            if (each.isApproximateCountDistinct()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 将 COUNT(DISTINCT 列) 改为以 HyperLogLog 近似估算.
+     * 分片查询增加去重列作为推导查询项和分组项, 分片返回的每行对应一个去重值, 其余聚合在细分分组上的结果仍可按原分组归并.
+     * 含子查询或无法确定分组位置时不改写.
+     */
+    public void appendApproximateCountDistinctTokens() {
+        if (containSubQuery || 0 == groupByLastPosition) {
+            return;
+        }
+        ItemsToken itemsToken = new ItemsToken(selectListLastPosition);
+        GroupByToken groupByToken = new GroupByToken(groupByLastPosition);
+        int derivedColumnOffset = 0;
+        for (SelectItem each : items) {
+            if (!(each instanceof AggregationSelectItem) || AggregationType.COUNT != ((AggregationSelectItem) each).getType()) {
+                continue;
+            }
+            Matcher matcher = COUNT_DISTINCT_PATTERN.matcher(((AggregationSelectItem) each).getInnerExpression());
+            if (!matcher.matches()) {
+                continue;
+            }
+            String alias = String.format(COUNT_DISTINCT_DERIVED_ALIAS, derivedColumnOffset++);
+            ((AggregationSelectItem) each).setApproximateDistinctAlias(Optional.of(alias));
+            itemsToken.getItems().add(matcher.group(1) + " AS " + alias + " ");
+            groupByToken.getColumnNames().add(matcher.group(1));
+        }
+        if (groupByToken.getColumnNames().isEmpty()) {
+            return;
+        }
+        getSqlTokens().add(itemsToken);
+        getSqlTokens().add(groupByToken);
+    }
+    
+    /**
+     * 追加定位分页条件.
+     * 以上一页末行的排序值定位, 各分片仅需查询排序值之后的数据, 无需为跨分片分页拉取偏移量之前的全部数据.
+     * 原 WHERE 条件以括号括起, 与定位分页条件以 AND 连接.
+     * 仅支持按列排序且不含分组, 聚合及子查询的查询, 排序值不能为空.
+     * 
+     * @param seekValues 上一页末行的排序值, 与排序项一一对应
+     */
+    public void appendSeekConditionToken(final List<Object> seekValues) {
+        Preconditions.checkState(!containSubQuery && 0 != whereLastPosition && getGroupByItems().isEmpty() && getAggregationSelectItems().isEmpty() && !getOrderByItems().isEmpty(), 
+                "Seek pagination only supports ORDER BY columns without GROUP BY, aggregation or subquery.");
+        Preconditions.checkArgument(seekValues.size() == getOrderByItems().size(), "Seek values size should be %s, but is %s.", getOrderByItems().size(), seekValues.size());
+        for (OrderItem each : getOrderByItems()) {
+            Preconditions.checkState(each.getName().isPresent(), "Seek pagination can not support ORDER BY index: %s.", each.getIndex());
+        }
+        SeekConditionToken seekConditionToken = new SeekConditionToken(whereLastPosition, whereParametersIndex);
+        for (int i = 0; i < seekValues.size(); i++) {
+            Preconditions.checkArgument(null != seekValues.get(i), "Seek value can not be null.");
+            seekConditionToken.getParameters().addAll(seekValues.subList(0, i + 1));
+        }
+        if (containWhere) {
+            getSqlTokens().add(new WhereBeginToken(whereBeginPosition));
+        }
+        getSqlTokens().add(seekConditionToken);
+    }
+    
+    /**
+     * 查找定位分页条件标记对象.
+     * 
+     * @return 定位分页条件标记对象
+     */
+    public Optional<SeekConditionToken> findSeekConditionToken() {
+        for (SQLToken each : getSqlTokens()) {
+            if (each instanceof SeekConditionToken) {
+                return Optional.of((SeekConditionToken) each);
+            }
+        }
+        return Optional.absent();
     }
     
     /**
@@ -122,6 +357,10 @@ public final class SelectStatement extends DQLStatement {
         for (AggregationSelectItem each : getAggregationSelectItems()) {
             Preconditions.checkState(columnLabelIndexMap.containsKey(each.getColumnLabel()), String.format("Can't find index: %s, please add alias for aggregate selections", each));
             each.setIndex(columnLabelIndexMap.get(each.getColumnLabel()));
+            if (each.isApproximateCountDistinct()) {
+                Preconditions.checkState(columnLabelIndexMap.containsKey(each.getApproximateDistinctAlias().get()), String.format("Can't find index: %s", each.getApproximateDistinctAlias().get()));
+                each.setApproximateDistinctIndex(columnLabelIndexMap.get(each.getApproximateDistinctAlias().get()));
+            }
             for (AggregationSelectItem derived : each.getDerivedAggregationSelectItems()) {
                 Preconditions.checkState(columnLabelIndexMap.containsKey(derived.getColumnLabel()), String.format("Can't find index: %s", derived));
                 derived.setIndex(columnLabelIndexMap.get(derived.getColumnLabel()));
@@ -0,0 +1,61 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.parsing.parser.token;
+
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.condition.Column;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 分片键 IN 条件值标记对象.
+ * 
+ * <p>
+ * 改写时各路由表单元仅保留路由至该表单元的条件值及其占位符.
+ * </p>
+ *
+ * @author zhangliang
+ */
+@RequiredArgsConstructor
+@Getter
+@ToString
+public final class InValuesToken implements SQLToken {
+    
+    /**
+     * SQL 开始位置, 即第一个条件值的开始位置
+     */
+    private final int beginPosition;
+    /**
+     * 原始字面量, 即括号内的全部条件值
+     */
+    private final String originalLiterals;
+    /**
+     * 分片列
+     */
+    private final Column column;
+    /**
+     * 条件值字面量集合
+     */
+    private final List<String> values;
+    /**
+     * 条件值对应的占位符索引集合, 非占位符的条件值为 -1
+     */
+    private final List<Integer> parameterIndexes;
+}
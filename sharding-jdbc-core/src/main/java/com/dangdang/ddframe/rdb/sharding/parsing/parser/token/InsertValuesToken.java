@@ -0,0 +1,52 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.parsing.parser.token;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 多值插入的插入值标记对象.
+ * 
+ * <p>
+ * 改写时各路由表单元仅保留路由至该表单元的插入值.
+ * </p>
+ *
+ * @author zhangliang
+ */
+@RequiredArgsConstructor
+@Getter
+@ToString
+public final class InsertValuesToken implements SQLToken {
+    
+    /**
+     * SQL 开始位置, 即第一个插入值左括号的位置
+     */
+    private final int beginPosition;
+    /**
+     * 原始字面量, 即第一个插入值左括号至最后一个插入值右括号
+     */
+    private final String originalLiterals;
+    /**
+     * 插入值字面量集合
+     */
+    private final List<String> values;
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.parsing.parser.token;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * 定位分页条件标记对象.
+ * 
+ * <p>
+ * 在 WHERE 子句之后追加排序项大于(降序时小于)上一页末行排序值的条件, 条件中的占位符插入在 WHERE 子句的占位符之后.
+ * </p>
+ *
+ * @author zhangliang
+ */
+@RequiredArgsConstructor
+@Getter
+@ToString
+public final class SeekConditionToken implements SQLToken {
+    
+    /**
+     * SQL 开始位置
+     */
+    private final int beginPosition;
+    /**
+     * 条件占位符插入位置之前的占位符数量
+     */
+    private final int parametersIndex;
+    /**
+     * 条件占位符对应的参数
+     */
+    private final List<Object> parameters = new LinkedList<>();
+}
@@ -17,35 +17,44 @@
 
 package com.dangdang.ddframe.rdb.sharding.rewrite;
 
-import lombok.AccessLevel;
-import lombok.RequiredArgsConstructor;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.InValuesToken;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.InsertValuesToken;
+import com.google.common.base.Joiner;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
 /**
  * SQL构建器.
  * 
+ * <p>
+ * 改写结果编译为字面量段与占位符交替的扁平结构, 字面量段数量总是比占位符多一个. 占位符为表名, 分片键 IN 条件值或多值插入的插入值.
+ * 每个路由表单元仅需一次预分配容量的拼接即可生成SQL.
+ * </p>
+ * 
  * @author gaohongtao
  * @author zhangliang
  */
-@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
 public final class SQLBuilder {
-
+    
     /**
-     * 段集合
+     * 字面量段集合
      */
-    private final List<Object> segments;
+    private final List<StringBuilder> literalSegments = new ArrayList<>();
+    /**
+     * 占位符集合, 第i个占位符位于第i个与第i+1个字面量段之间
+     */
+    private final List<Object> placeholders = new ArrayList<>();
     /**
      * 当前段
      */
     private StringBuilder currentSegment;
     
     public SQLBuilder() {
-        segments = new LinkedList<>();
         currentSegment = new StringBuilder();
-        segments.add(currentSegment);
+        literalSegments.add(currentSegment);
     }
     
     /**
@@ -57,6 +66,17 @@ public final class SQLBuilder {
         currentSegment.append(literals);
     }
     
+    /**
+     * 追加字面量片段.
+     *
+     * @param literals 字面量
+     * @param beginPosition 开始位置(包含)
+     * @param endPosition 结束位置(不包含)
+     */
+    public void appendLiterals(final String literals, final int beginPosition, final int endPosition) {
+        currentSegment.append(literals, beginPosition, endPosition);
+    }
+    
     /**
      * 追加表占位符.
      *
@@ -64,10 +84,32 @@ public final class SQLBuilder {
      */
     public void appendTable(final String tableName) {
         // 添加 TableToken
-        segments.add(new TableToken(tableName));
+        appendPlaceholder(tableName);
+    }
+    
+    /**
+     * 追加分片键 IN 条件值占位符.
+     *
+     * @param inValuesToken 分片键 IN 条件值标记对象
+     */
+    public void appendInValues(final InValuesToken inValuesToken) {
+        appendPlaceholder(inValuesToken);
+    }
+    
+    /**
+     * 追加多值插入的插入值占位符.
+     *
+     * @param insertValuesToken 插入值标记对象
+     */
+    public void appendInsertValues(final InsertValuesToken insertValuesToken) {
+        appendPlaceholder(insertValuesToken);
+    }
+    
+    private void appendPlaceholder(final Object placeholder) {
+        placeholders.add(placeholder);
         // 新建当前段
         currentSegment = new StringBuilder();
-        segments.add(currentSegment);
+        literalSegments.add(currentSegment);
     }
     
     /**
@@ -77,28 +119,50 @@ public final class SQLBuilder {
      * @return SQL语句
      */
     public String toSQL(final Map<String, String> tableTokens) {
-        StringBuilder result = new StringBuilder();
-        for (Object each : segments) {
-            if (each instanceof TableToken && tableTokens.containsKey(((TableToken) each).tableName)) {
-                result.append(tableTokens.get(((TableToken) each).tableName));
+        return toSQL(tableTokens, null);
+    }
+    
+    /**
+     * 生成SQL语句.
+     *
+     * @param tableTokens 占位符集合（逻辑表与真实表映射）
+     * @param valuePositions 保留的分片键 IN 条件值或插入值位置集合, 为 null 时保留全部条件值或插入值
+     * @return SQL语句
+     */
+    public String toSQL(final Map<String, String> tableTokens, final Collection<Integer> valuePositions) {
+        String[] actualPlaceholders = new String[placeholders.size()];
+        int length = 0;
+        for (int i = 0; i < actualPlaceholders.length; i++) {
+            Object placeholder = placeholders.get(i);
+            if (placeholder instanceof InValuesToken) {
+                actualPlaceholders[i] = getValues(((InValuesToken) placeholder).getOriginalLiterals(), ((InValuesToken) placeholder).getValues(), valuePositions);
+            } else if (placeholder instanceof InsertValuesToken) {
+                actualPlaceholders[i] = getValues(((InsertValuesToken) placeholder).getOriginalLiterals(), ((InsertValuesToken) placeholder).getValues(), valuePositions);
             } else {
-                result.append(each);
+                String actualTableName = tableTokens.get(placeholder);
+                actualPlaceholders[i] = null == actualTableName ? (String) placeholder : actualTableName;
             }
+            length += actualPlaceholders[i].length();
+        }
+        for (StringBuilder each : literalSegments) {
+            length += each.length();
+        }
+        StringBuilder result = new StringBuilder(length);
+        result.append(literalSegments.get(0));
+        for (int i = 0; i < actualPlaceholders.length; i++) {
+            result.append(actualPlaceholders[i]).append(literalSegments.get(i + 1));
         }
         return result.toString();
     }
     
-    @RequiredArgsConstructor
-    private class TableToken {
-
-        /**
-         * 表名
-         */
-        private final String tableName;
-        
-        @Override
-        public String toString() {
-            return tableName;
+    private String getValues(final String originalLiterals, final List<String> values, final Collection<Integer> valuePositions) {
+        if (null == valuePositions) {
+            return originalLiterals;
+        }
+        List<String> result = new ArrayList<>(valuePositions.size());
+        for (int each : valuePositions) {
+            result.add(values.get(each));
         }
+        return Joiner.on(", ").join(result);
     }
 }
@@ -20,24 +20,32 @@ package com.dangdang.ddframe.rdb.sharding.rewrite;
 
 import com.dangdang.ddframe.rdb.sharding.api.rule.BindingTableRule;
 import com.dangdang.ddframe.rdb.sharding.api.rule.ShardingRule;
+import com.dangdang.ddframe.rdb.sharding.constant.OrderType;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.OrderItem;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.limit.Limit;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.SQLStatement;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.select.SelectStatement;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.GroupByToken;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.InValuesToken;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.InsertValuesToken;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.ItemsToken;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.OffsetToken;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.OrderByToken;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.RowCountToken;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.SQLToken;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.SeekConditionToken;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.WhereBeginToken;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.TableToken;
 import com.dangdang.ddframe.rdb.sharding.routing.type.TableUnit;
 import com.dangdang.ddframe.rdb.sharding.routing.type.complex.CartesianTableReference;
+import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -54,19 +62,25 @@ public final class SQLRewriteEngine {
      */
     private final String originalSQL;
     /**
-     * SQL标记对象
+     * SQL标记对象, 按照 beginPosition 递增排序
      */
-    private final List<SQLToken> sqlTokens = new LinkedList<>();
+    private final List<SQLToken> sqlTokens;
     /**
      * SQL 语句解析结果对象
      */
     private final SQLStatement sqlStatement;
+    /**
+     * SQL 语句中的逻辑表名称集合
+     */
+    private final Collection<String> tableNames;
     
     public SQLRewriteEngine(final ShardingRule shardingRule, final String originalSQL, final SQLStatement sqlStatement) {
         this.shardingRule = shardingRule;
         this.originalSQL = originalSQL;
         this.sqlStatement = sqlStatement;
-        sqlTokens.addAll(sqlStatement.getSqlTokens());
+        sqlTokens = new ArrayList<>(sqlStatement.getSqlTokens());
+        sortByBeginPosition();
+        tableNames = sqlStatement.getTables().getTableNames();
     }
     
     /**
@@ -81,26 +95,33 @@ public final class SQLRewriteEngine {
             result.appendLiterals(originalSQL);
             return result;
         }
-        int count = 0;
-        // 排序SQLToken，按照 beginPosition 递增
-        sortByBeginPosition();
-        for (SQLToken each : sqlTokens) {
-            if (0 == count) { // 拼接第一个 SQLToken 前的字符串
-                result.appendLiterals(originalSQL.substring(0, each.getBeginPosition()));
-            }
+        // 拼接第一个 SQLToken 前的字符串
+        result.appendLiterals(originalSQL, 0, sqlTokens.get(0).getBeginPosition());
+        for (int count = 0; count < sqlTokens.size(); count++) {
+            SQLToken each = sqlTokens.get(count);
+            int endPosition = sqlTokens.size() - 1 == count ? originalSQL.length() : sqlTokens.get(count + 1).getBeginPosition();
             // 拼接每个SQLToken
             if (each instanceof TableToken) {
-                appendTableToken(result, (TableToken) each, count, sqlTokens);
+                appendTableToken(result, (TableToken) each, endPosition);
             } else if (each instanceof ItemsToken) {
-                appendItemsToken(result, (ItemsToken) each, count, sqlTokens);
+                appendItemsToken(result, (ItemsToken) each, endPosition);
             } else if (each instanceof RowCountToken) {
-                appendLimitRowCount(result, (RowCountToken) each, count, sqlTokens, isRewriteLimit);
+                appendLimitRowCount(result, (RowCountToken) each, endPosition, isRewriteLimit);
             } else if (each instanceof OffsetToken) {
-                appendLimitOffsetToken(result, (OffsetToken) each, count, sqlTokens, isRewriteLimit);
+                appendLimitOffsetToken(result, (OffsetToken) each, endPosition, isRewriteLimit);
             } else if (each instanceof OrderByToken) {
-                appendOrderByToken(result);
+                appendOrderByToken(result, (OrderByToken) each, endPosition);
+            } else if (each instanceof GroupByToken) {
+                appendGroupByToken(result, (GroupByToken) each, endPosition);
+            } else if (each instanceof WhereBeginToken) {
+                appendWhereBeginToken(result, (WhereBeginToken) each, endPosition);
+            } else if (each instanceof SeekConditionToken) {
+                appendSeekConditionToken(result, (SeekConditionToken) each, endPosition);
+            } else if (each instanceof InValuesToken) {
+                appendInValuesToken(result, (InValuesToken) each, endPosition);
+            } else if (each instanceof InsertValuesToken) {
+                appendInsertValuesToken(result, (InsertValuesToken) each, endPosition);
             }
-            count++;
         }
         return result;
     }
@@ -110,7 +131,12 @@ public final class SQLRewriteEngine {
             
             @Override
             public int compare(final SQLToken o1, final SQLToken o2) {
-                return o1.getBeginPosition() - o2.getBeginPosition();
+                int result = o1.getBeginPosition() - o2.getBeginPosition();
+                if (0 != result) {
+                    return result;
+                }
+                // 同一位置追加的分组项需在推导的排序项之前
+                return (o1 instanceof GroupByToken ? 0 : 1) - (o2 instanceof GroupByToken ? 0 : 1);
             }
         });
     }
@@ -120,17 +146,15 @@ public final class SQLRewriteEngine {
      *
      * @param sqlBuilder SQL构建器
      * @param tableToken tableToken
-     * @param count tableToken 在 sqlTokens 的顺序
-     * @param sqlTokens sqlTokens
+     * @param endPosition 下一个 SQLToken 的开始位置
      */
-    private void appendTableToken(final SQLBuilder sqlBuilder, final TableToken tableToken, final int count, final List<SQLToken> sqlTokens) {
+    private void appendTableToken(final SQLBuilder sqlBuilder, final TableToken tableToken, final int endPosition) {
         // 拼接 TableToken
-        String tableName = sqlStatement.getTables().getTableNames().contains(tableToken.getTableName()) ? tableToken.getTableName() : tableToken.getOriginalLiterals();
+        String tableName = tableNames.contains(tableToken.getTableName()) ? tableToken.getTableName() : tableToken.getOriginalLiterals();
         sqlBuilder.appendTable(tableName);
         // SQLToken 后面的字符串
         int beginPosition = tableToken.getBeginPosition() + tableToken.getOriginalLiterals().length();
-        int endPosition = sqlTokens.size() - 1 == count ? originalSQL.length() : sqlTokens.get(count + 1).getBeginPosition();
-        sqlBuilder.appendLiterals(originalSQL.substring(beginPosition, endPosition));
+        sqlBuilder.appendLiterals(originalSQL, beginPosition, endPosition);
     }
 
     /**
@@ -138,10 +162,9 @@ public final class SQLRewriteEngine {
      *
      * @param sqlBuilder SQL构建器
      * @param itemsToken itemsToken
-     * @param count itemsToken 在 sqlTokens 的顺序
-     * @param sqlTokens sqlTokens
+     * @param endPosition 下一个 SQLToken 的开始位置
      */
-    private void appendItemsToken(final SQLBuilder sqlBuilder, final ItemsToken itemsToken, final int count, final List<SQLToken> sqlTokens) {
+    private void appendItemsToken(final SQLBuilder sqlBuilder, final ItemsToken itemsToken, final int endPosition) {
         // 拼接 ItemsToken
         for (String item : itemsToken.getItems()) {
             sqlBuilder.appendLiterals(", ");
@@ -149,8 +172,7 @@ public final class SQLRewriteEngine {
         }
         // SQLToken 后面的字符串
         int beginPosition = itemsToken.getBeginPosition();
-        int endPosition = sqlTokens.size() - 1 == count ? originalSQL.length() : sqlTokens.get(count + 1).getBeginPosition();
-        sqlBuilder.appendLiterals(originalSQL.substring(beginPosition, endPosition));
+        sqlBuilder.appendLiterals(originalSQL, beginPosition, endPosition);
     }
 
     /**
@@ -158,26 +180,22 @@ public final class SQLRewriteEngine {
      *
      * @param sqlBuilder SQL构建器
      * @param rowCountToken rowCountToken
-     * @param count count 在 sqlTokens 的顺序
-     * @param sqlTokens sqlTokens
+     * @param endPosition 下一个 SQLToken 的开始位置
      * @param isRewrite 是否重写。当路由结果为单分片时无需重写
      */
-    private void appendLimitRowCount(final SQLBuilder sqlBuilder, final RowCountToken rowCountToken, final int count, final List<SQLToken> sqlTokens, final boolean isRewrite) {
+    private void appendLimitRowCount(final SQLBuilder sqlBuilder, final RowCountToken rowCountToken, final int endPosition, final boolean isRewrite) {
         SelectStatement selectStatement = (SelectStatement) sqlStatement;
         Limit limit = selectStatement.getLimit();
         if (!isRewrite) { // 路由结果为单分片
             sqlBuilder.appendLiterals(String.valueOf(rowCountToken.getRowCount()));
-        } else if ((!selectStatement.getGroupByItems().isEmpty() || // [1.1] 跨分片分组需要在内存计算，可能需要全部加载
-                !selectStatement.getAggregationSelectItems().isEmpty()) // [1.2] 跨分片聚合列需要在内存计算，可能需要全部加载
-                && !selectStatement.isSameGroupByAndOrderByItems()) { // [2] 如果排序一致，即各分片已经排序好结果，就不需要全部加载
+        } else if (selectStatement.isNeedFetchAll()) { // 跨分片分组、聚合或去重需要在内存计算，需要全部加载
             sqlBuilder.appendLiterals(String.valueOf(Integer.MAX_VALUE));
         } else { // 路由结果为多分片
             sqlBuilder.appendLiterals(String.valueOf(limit.isRowCountRewriteFlag() ? rowCountToken.getRowCount() + limit.getOffsetValue() : rowCountToken.getRowCount()));
         }
         // SQLToken 后面的字符串
         int beginPosition = rowCountToken.getBeginPosition() + String.valueOf(rowCountToken.getRowCount()).length();
-        int endPosition = sqlTokens.size() - 1 == count ? originalSQL.length() : sqlTokens.get(count + 1).getBeginPosition();
-        sqlBuilder.appendLiterals(originalSQL.substring(beginPosition, endPosition));
+        sqlBuilder.appendLiterals(originalSQL, beginPosition, endPosition);
     }
 
     /**
@@ -185,25 +203,25 @@ public final class SQLRewriteEngine {
      *
      * @param sqlBuilder SQL构建器
      * @param offsetToken offsetToken
-     * @param count offsetToken 在 sqlTokens 的顺序
-     * @param sqlTokens sqlTokens
+     * @param endPosition 下一个 SQLToken 的开始位置
      * @param isRewrite 是否重写。当路由结果为单分片时无需重写
      */
-    private void appendLimitOffsetToken(final SQLBuilder sqlBuilder, final OffsetToken offsetToken, final int count, final List<SQLToken> sqlTokens, final boolean isRewrite) {
+    private void appendLimitOffsetToken(final SQLBuilder sqlBuilder, final OffsetToken offsetToken, final int endPosition, final boolean isRewrite) {
         // 拼接 OffsetToken
         sqlBuilder.appendLiterals(isRewrite ? "0" : String.valueOf(offsetToken.getOffset()));
         // SQLToken 后面的字符串
         int beginPosition = offsetToken.getBeginPosition() + String.valueOf(offsetToken.getOffset()).length();
-        int endPosition = sqlTokens.size() - 1 == count ? originalSQL.length() : sqlTokens.get(count + 1).getBeginPosition();
-        sqlBuilder.appendLiterals(originalSQL.substring(beginPosition, endPosition));
+        sqlBuilder.appendLiterals(originalSQL, beginPosition, endPosition);
     }
 
     /**
      * 拼接 OrderByToken
      *
      * @param sqlBuilder SQL构建器
+     * @param orderByToken 排序标记对象
+     * @param endPosition 下一个 SQLToken 的开始位置
      */
-    private void appendOrderByToken(final SQLBuilder sqlBuilder) {
+    private void appendOrderByToken(final SQLBuilder sqlBuilder, final OrderByToken orderByToken, final int endPosition) {
         SelectStatement selectStatement = (SelectStatement) sqlStatement;
         // 拼接 OrderByToken
         StringBuilder orderByLiterals = new StringBuilder(" ORDER BY ");
@@ -218,6 +236,108 @@ public final class SQLRewriteEngine {
         }
         orderByLiterals.append(" ");
         sqlBuilder.appendLiterals(orderByLiterals.toString());
+        // 拼接 OrderByToken 后，下一个 SQLToken 前的字符串
+        sqlBuilder.appendLiterals(originalSQL, orderByToken.getBeginPosition(), endPosition);
+    }
+    
+    /**
+     * 拼接 GroupByToken
+     *
+     * @param sqlBuilder SQL构建器
+     * @param groupByToken 分组标记对象
+     * @param endPosition 下一个 SQLToken 的开始位置
+     */
+    private void appendGroupByToken(final SQLBuilder sqlBuilder, final GroupByToken groupByToken, final int endPosition) {
+        // 已有 GROUP BY 时追加分组列，否则增加 GROUP BY
+        StringBuilder groupByLiterals = new StringBuilder(((SelectStatement) sqlStatement).getGroupByItems().isEmpty() ? " GROUP BY " : ", ");
+        groupByLiterals.append(Joiner.on(", ").join(groupByToken.getColumnNames())).append(" ");
+        sqlBuilder.appendLiterals(groupByLiterals.toString());
+        // 拼接 GroupByToken 后，下一个 SQLToken 前的字符串
+        sqlBuilder.appendLiterals(originalSQL, groupByToken.getBeginPosition(), endPosition);
+    }
+    
+    /**
+     * 拼接 WhereBeginToken
+     *
+     * @param sqlBuilder SQL构建器
+     * @param whereBeginToken WHERE 条件开始标记对象
+     * @param endPosition 下一个 SQLToken 的开始位置
+     */
+    private void appendWhereBeginToken(final SQLBuilder sqlBuilder, final WhereBeginToken whereBeginToken, final int endPosition) {
+        sqlBuilder.appendLiterals(" (");
+        // 拼接 WhereBeginToken 后，下一个 SQLToken 前的字符串
+        sqlBuilder.appendLiterals(originalSQL, whereBeginToken.getBeginPosition(), endPosition);
+    }
+    
+    /**
+     * 拼接 SeekConditionToken
+     * 条件为 (k1 > ?) OR (k1 = ? AND k2 > ?) ..., 降序排序项使用 <
+     * 有 WHERE 子句时原条件已由 WhereBeginToken 括起, 拼接为 (原条件) AND (定位分页条件)
+     *
+     * @param sqlBuilder SQL构建器
+     * @param seekConditionToken 定位分页条件标记对象
+     * @param endPosition 下一个 SQLToken 的开始位置
+     */
+    private void appendSeekConditionToken(final SQLBuilder sqlBuilder, final SeekConditionToken seekConditionToken, final int endPosition) {
+        SelectStatement selectStatement = (SelectStatement) sqlStatement;
+        List<OrderItem> orderItems = selectStatement.getOrderByItems();
+        int beginPosition = seekConditionToken.getBeginPosition();
+        if (0 == beginPosition || !Character.isWhitespace(originalSQL.charAt(beginPosition - 1))) {
+            sqlBuilder.appendLiterals(" ");
+        }
+        sqlBuilder.appendLiterals(selectStatement.isContainWhere() ? ") AND (" : "WHERE (");
+        for (int i = 0; i < orderItems.size(); i++) {
+            sqlBuilder.appendLiterals(0 == i ? "(" : " OR (");
+            for (int j = 0; j < i; j++) {
+                appendSeekColumn(sqlBuilder, orderItems.get(j));
+                sqlBuilder.appendLiterals(" = ? AND ");
+            }
+            appendSeekColumn(sqlBuilder, orderItems.get(i));
+            sqlBuilder.appendLiterals(OrderType.DESC == orderItems.get(i).getType() ? " < ?)" : " > ?)");
+        }
+        sqlBuilder.appendLiterals(") ");
+        // 拼接 SeekConditionToken 后，下一个 SQLToken 前的字符串
+        sqlBuilder.appendLiterals(originalSQL, beginPosition, endPosition);
+    }
+    
+    /**
+     * 拼接 InValuesToken
+     *
+     * @param sqlBuilder SQL构建器
+     * @param inValuesToken 分片键 IN 条件值标记对象
+     * @param endPosition 下一个 SQLToken 的开始位置
+     */
+    private void appendInValuesToken(final SQLBuilder sqlBuilder, final InValuesToken inValuesToken, final int endPosition) {
+        sqlBuilder.appendInValues(inValuesToken);
+        // SQLToken 后面的字符串
+        int beginPosition = inValuesToken.getBeginPosition() + inValuesToken.getOriginalLiterals().length();
+        sqlBuilder.appendLiterals(originalSQL, beginPosition, endPosition);
+    }
+    
+    /**
+     * 拼接 InsertValuesToken
+     *
+     * @param sqlBuilder SQL构建器
+     * @param insertValuesToken 插入值标记对象
+     * @param endPosition 下一个 SQLToken 的开始位置
+     */
+    private void appendInsertValuesToken(final SQLBuilder sqlBuilder, final InsertValuesToken insertValuesToken, final int endPosition) {
+        sqlBuilder.appendInsertValues(insertValuesToken);
+        // SQLToken 后面的字符串
+        int beginPosition = insertValuesToken.getBeginPosition() + insertValuesToken.getOriginalLiterals().length();
+        sqlBuilder.appendLiterals(originalSQL, beginPosition, endPosition);
+    }
+    
+    private void appendSeekColumn(final SQLBuilder sqlBuilder, final OrderItem orderItem) {
+        if (orderItem.getOwner().isPresent()) {
+            if (tableNames.contains(orderItem.getOwner().get())) {
+                sqlBuilder.appendTable(orderItem.getOwner().get());
+            } else {
+                sqlBuilder.appendLiterals(orderItem.getOwner().get());
+            }
+            sqlBuilder.appendLiterals(".");
+        }
+        sqlBuilder.appendLiterals(orderItem.getName().get());
     }
     
     /**
@@ -231,6 +351,18 @@ public final class SQLRewriteEngine {
         return sqlBuilder.toSQL(getTableTokens(tableUnit));
     }
     
+    /**
+     * 生成SQL语句.
+     * 
+     * @param tableUnit 路由表单元
+     * @param sqlBuilder SQL构建器
+     * @param valuePositions 路由至该表单元的分片键 IN 条件值或插入值位置集合
+     * @return SQL语句
+     */
+    public String generateSQL(final TableUnit tableUnit, final SQLBuilder sqlBuilder, final Collection<Integer> valuePositions) {
+        return sqlBuilder.toSQL(getTableTokens(tableUnit), valuePositions);
+    }
+    
     /**
      * 生成SQL语句.
      *
@@ -287,7 +419,7 @@ public final class SQLRewriteEngine {
      */
     private Map<String, String> getBindingTableTokens(final TableUnit tableUnit, final BindingTableRule bindingTableRule) {
         Map<String, String> result = new HashMap<>();
-        for (String eachTable : sqlStatement.getTables().getTableNames()) {
+        for (String eachTable : tableNames) {
             if (!eachTable.equalsIgnoreCase(tableUnit.getLogicTableName()) && bindingTableRule.hasLogicTable(eachTable)) {
                 result.put(eachTable, bindingTableRule.getBindingActualTable(tableUnit.getDataSourceName(), eachTable, tableUnit.getActualTableName()));
             }
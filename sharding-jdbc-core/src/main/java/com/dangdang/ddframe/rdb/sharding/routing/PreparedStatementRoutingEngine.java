@@ -19,8 +19,10 @@ package com.dangdang.ddframe.rdb.sharding.routing;
 
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.ShardingContext;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.SQLStatement;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.select.SelectStatement;
 import com.dangdang.ddframe.rdb.sharding.routing.router.SQLRouter;
 import com.dangdang.ddframe.rdb.sharding.routing.router.SQLRouterFactory;
+import com.google.common.base.Preconditions;
 
 import java.util.List;
 
@@ -55,4 +57,25 @@ public final class PreparedStatementRoutingEngine {
         }
         return sqlRouter.route(logicSQL, parameters, sqlStatement);
     }
+    
+    /**
+     * 定位分页的SQL路由.
+     * 在复用的解析结果的复制上追加定位分页条件, 定位分页条件的参数不参与路由.
+     * 
+     * @param parameters SQL中的参数
+     * @param seekValues 上一页末行的排序值, 为空时不追加定位分页条件
+     * @return 路由结果
+     */
+    public SQLRouteResult route(final List<Object> parameters, final List<Object> seekValues) {
+        if (seekValues.isEmpty()) {
+            return route(parameters);
+        }
+        if (null == sqlStatement) {
+            sqlStatement = sqlRouter.parse(logicSQL, parameters.size());
+        }
+        Preconditions.checkState(sqlStatement instanceof SelectStatement, "Seek pagination only supports SELECT statement.");
+        SelectStatement seekStatement = new SelectStatement((SelectStatement) sqlStatement);
+        seekStatement.appendSeekConditionToken(seekValues);
+        return sqlRouter.route(logicSQL, parameters, seekStatement);
+    }
 }
@@ -22,6 +22,8 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 
+import java.util.List;
+
 /**
  * SQL最小执行单元.
  * 
@@ -29,7 +31,7 @@ import lombok.ToString;
  */
 @RequiredArgsConstructor
 @Getter
-@EqualsAndHashCode
+@EqualsAndHashCode(exclude = "parameterIndexes")
 @ToString
 public final class SQLExecutionUnit {
 
@@ -41,5 +43,12 @@ public final class SQLExecutionUnit {
      * 执行 SQL
      */
     private final String sql;
+    /**
+     * 执行 SQL 中各占位符依次对应的逻辑SQL参数索引, 为 null 时与逻辑SQL参数一一对应
+     */
+    private final List<Integer> parameterIndexes;
 
+    public SQLExecutionUnit(final String dataSource, final String sql) {
+        this(dataSource, sql, null);
+    }
 }
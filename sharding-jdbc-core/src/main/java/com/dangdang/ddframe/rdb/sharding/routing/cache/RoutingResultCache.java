@@ -0,0 +1,154 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.routing.cache;
+
+import com.dangdang.ddframe.rdb.sharding.constant.SQLType;
+import com.dangdang.ddframe.rdb.sharding.constant.ShardingOperator;
+import com.dangdang.ddframe.rdb.sharding.hint.HintManagerHolder;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.condition.Condition;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.limit.Limit;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.limit.LimitValue;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.SQLStatement;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dml.insert.InsertStatement;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.select.SelectStatement;
+import com.dangdang.ddframe.rdb.sharding.routing.SQLExecutionUnit;
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 路由结果缓存.
+ * 
+ * <p>
+ * 当分片条件全部为{@code =}或{@code IN}时, 路由及改写结果仅由逻辑SQL, 分片值和分页值决定, 可直接复用之前计算的SQL最小执行单元.
+ * 缓存随{@link com.dangdang.ddframe.rdb.sharding.jdbc.core.ShardingContext}创建, 与分片规则的生命周期一致, 分片规则变化时需调用{@link #clear()}.
+ * </p>
+ * 
+ * @author zhangliang
+ */
+public final class RoutingResultCache {
+    
+    private final int maximumSize;
+    
+    private final Cache<RoutingResultCacheKey, CachedRoutingResult> cache;
+    
+    public RoutingResultCache(final int maximumSize) {
+        this.maximumSize = maximumSize;
+        cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+    }
+    
+    /**
+     * 创建缓存键.
+     * 
+     * <p>
+     * 需在分页参数被改写前调用. 
+     * 未开启缓存, 使用分片提示或近似去重计数, INSERT或DDL语句, 定位分页查询, 以及存在非{@code =}和{@code IN}的分片条件时, 路由结果不可缓存, 返回空.
+     * </p>
+     * 
+     * @param logicSQL 逻辑SQL
+     * @param sqlStatement SQL语句对象
+     * @param parameters 参数列表
+     * @return 缓存键
+     */
+    public Optional<RoutingResultCacheKey> createKey(final String logicSQL, final SQLStatement sqlStatement, final List<Object> parameters) {
+        if (0 == maximumSize || sqlStatement instanceof InsertStatement || SQLType.DDL == sqlStatement.getType() || HintManagerHolder.isUseShardingHint() || HintManagerHolder.isApproximateCountDistinct()
+                || sqlStatement instanceof SelectStatement && ((SelectStatement) sqlStatement).findSeekConditionToken().isPresent()) {
+            return Optional.absent();
+        }
+        List<Object> values = new ArrayList<>();
+        for (Condition each : sqlStatement.getConditions().getConditions()) {
+            if (ShardingOperator.EQUAL != each.getOperator() && ShardingOperator.IN != each.getOperator()) {
+                return Optional.absent();
+            }
+            values.add(each.getValues(parameters));
+        }
+        if (sqlStatement instanceof SelectStatement && null != ((SelectStatement) sqlStatement).getLimit()) {
+            Limit limit = ((SelectStatement) sqlStatement).getLimit();
+            values.add(getLimitValue(limit.getOffset(), parameters));
+            values.add(getLimitValue(limit.getRowCount(), parameters));
+        }
+        return Optional.of(new RoutingResultCacheKey(logicSQL, values));
+    }
+    
+    private Object getLimitValue(final LimitValue limitValue, final List<Object> parameters) {
+        if (null == limitValue) {
+            return null;
+        }
+        return -1 == limitValue.getIndex() ? limitValue.getValue() : parameters.get(limitValue.getIndex());
+    }
+    
+    /**
+     * 获取缓存的路由结果.
+     * 
+     * @param key 缓存键
+     * @return 缓存的路由结果
+     */
+    public Optional<CachedRoutingResult> get(final RoutingResultCacheKey key) {
+        return Optional.fromNullable(cache.getIfPresent(key));
+    }
+    
+    /**
+     * 缓存路由结果.
+     * 
+     * @param key 缓存键
+     * @param isSingleRouting 是否单库表路由
+     * @param executionUnits SQL最小执行单元集合
+     */
+    public void put(final RoutingResultCacheKey key, final boolean isSingleRouting, final Collection<SQLExecutionUnit> executionUnits) {
+        cache.put(key, new CachedRoutingResult(isSingleRouting, Collections.unmodifiableList(new ArrayList<>(executionUnits))));
+    }
+    
+    /**
+     * 获取缓存条目数.
+     * 
+     * @return 缓存条目数
+     */
+    public long size() {
+        return cache.size();
+    }
+    
+    /**
+     * 获取命中次数.
+     * 
+     * @return 命中次数
+     */
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+    
+    /**
+     * 获取未命中次数.
+     * 
+     * @return 未命中次数
+     */
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+    
+    /**
+     * 清空缓存.
+     */
+    public void clear() {
+        cache.invalidateAll();
+    }
+}
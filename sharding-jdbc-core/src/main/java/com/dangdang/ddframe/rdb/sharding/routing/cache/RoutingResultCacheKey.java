@@ -0,0 +1,44 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.routing.cache;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 路由结果缓存键.
+ * 
+ * @author zhangliang
+ */
+@RequiredArgsConstructor
+@EqualsAndHashCode
+@ToString
+public final class RoutingResultCacheKey {
+    
+    /**
+     * 逻辑SQL
+     */
+    private final String logicSQL;
+    /**
+     * 影响路由和改写结果的值, 依次为各分片条件的值和分页值
+     */
+    private final List<Object> values;
+}
@@ -20,7 +20,8 @@ package com.dangdang.ddframe.rdb.sharding.routing.router;
 import com.codahale.metrics.Timer.Context;
 import com.dangdang.ddframe.rdb.sharding.api.rule.ShardingRule;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.ShardingContext;
-import com.dangdang.ddframe.rdb.sharding.metrics.MetricsContext;
+import com.dangdang.ddframe.rdb.sharding.metrics.MetricsType;
+import com.dangdang.ddframe.rdb.sharding.metrics.ShardingMetrics;
 import com.dangdang.ddframe.rdb.sharding.parsing.SQLJudgeEngine;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.SQLStatement;
 import com.dangdang.ddframe.rdb.sharding.routing.SQLExecutionUnit;
@@ -46,9 +47,12 @@ public final class DatabaseHintSQLRouter implements SQLRouter {
     
     private final boolean showSQL;
     
+    private final ShardingMetrics shardingMetrics;
+    
     public DatabaseHintSQLRouter(final ShardingContext shardingContext) {
         shardingRule = shardingContext.getShardingRule();
         showSQL = shardingContext.isShowSQL();
+        shardingMetrics = shardingContext.getShardingMetrics();
     }
     
     @Override
@@ -59,7 +63,7 @@ public final class DatabaseHintSQLRouter implements SQLRouter {
     @Override
     // TODO insert的SQL仍然需要解析自增主键
     public SQLRouteResult route(final String logicSQL, final List<Object> parameters, final SQLStatement sqlStatement) {
-        Context context = MetricsContext.start("Route SQL");
+        Context context = shardingMetrics.start(MetricsType.ROUTE);
         SQLRouteResult result = new SQLRouteResult(sqlStatement);
         // 路由
         RoutingResult routingResult = new DatabaseHintRoutingEngine(shardingRule.getDataSourceRule(), shardingRule.getDatabaseShardingStrategy())
@@ -68,7 +72,8 @@ public final class DatabaseHintSQLRouter implements SQLRouter {
         for (TableUnit each : routingResult.getTableUnits().getTableUnits()) {
             result.getExecutionUnits().add(new SQLExecutionUnit(each.getDataSourceName(), logicSQL));
         }
-        MetricsContext.stop(context);
+        ShardingMetrics.stop(context);
+        shardingMetrics.updateExecutionUnits(result.getExecutionUnits().size());
         if (showSQL) {
             SQLLogger.logSQL(logicSQL, sqlStatement, result.getExecutionUnits(), parameters);
         }
@@ -20,11 +20,16 @@ package com.dangdang.ddframe.rdb.sharding.routing.router;
 import com.codahale.metrics.Timer.Context;
 import com.dangdang.ddframe.rdb.sharding.api.rule.ShardingRule;
 import com.dangdang.ddframe.rdb.sharding.constant.DatabaseType;
+import com.dangdang.ddframe.rdb.sharding.hint.HintManagerHolder;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.ShardingContext;
-import com.dangdang.ddframe.rdb.sharding.metrics.MetricsContext;
+import com.dangdang.ddframe.rdb.sharding.metrics.MetricsType;
+import com.dangdang.ddframe.rdb.sharding.metrics.ShardingMetrics;
 import com.dangdang.ddframe.rdb.sharding.parsing.SQLParsingEngine;
+import com.dangdang.ddframe.rdb.sharding.parsing.cache.ParsingResultCache;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.GeneratedKey;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.insertvalue.InsertValue;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.SQLStatement;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.InValuesToken;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.RowCountToken;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dml.insert.InsertStatement;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.select.SelectStatement;
@@ -32,6 +37,9 @@ import com.dangdang.ddframe.rdb.sharding.rewrite.SQLBuilder;
 import com.dangdang.ddframe.rdb.sharding.rewrite.SQLRewriteEngine;
 import com.dangdang.ddframe.rdb.sharding.routing.SQLExecutionUnit;
 import com.dangdang.ddframe.rdb.sharding.routing.SQLRouteResult;
+import com.dangdang.ddframe.rdb.sharding.routing.cache.CachedRoutingResult;
+import com.dangdang.ddframe.rdb.sharding.routing.cache.RoutingResultCache;
+import com.dangdang.ddframe.rdb.sharding.routing.cache.RoutingResultCacheKey;
 import com.dangdang.ddframe.rdb.sharding.routing.type.RoutingEngine;
 import com.dangdang.ddframe.rdb.sharding.routing.type.RoutingResult;
 import com.dangdang.ddframe.rdb.sharding.routing.type.TableUnit;
@@ -41,10 +49,15 @@ import com.dangdang.ddframe.rdb.sharding.routing.type.complex.CartesianTableRefe
 import com.dangdang.ddframe.rdb.sharding.routing.type.complex.ComplexRoutingEngine;
 import com.dangdang.ddframe.rdb.sharding.routing.type.simple.SimpleRoutingEngine;
 import com.dangdang.ddframe.rdb.sharding.util.SQLLogger;
+import com.google.common.base.Optional;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * 需要解析的SQL路由器.
@@ -59,38 +72,82 @@ public final class ParsingSQLRouter implements SQLRouter {
     
     private final boolean showSQL;
     
+    private final ParsingResultCache parsingResultCache;
+    
+    private final RoutingResultCache routingResultCache;
+    
+    private final ShardingMetrics shardingMetrics;
+    
     private final List<Number> generatedKeys;
     
     public ParsingSQLRouter(final ShardingContext shardingContext) {
         shardingRule = shardingContext.getShardingRule();
         databaseType = shardingContext.getDatabaseType();
         showSQL = shardingContext.isShowSQL();
+        parsingResultCache = shardingContext.getParsingResultCache();
+        routingResultCache = shardingContext.getRoutingResultCache();
+        shardingMetrics = shardingContext.getShardingMetrics();
         generatedKeys = new LinkedList<>();
     }
     
     @Override
     public SQLStatement parse(final String logicSQL, final int parametersSize) {
-        SQLParsingEngine parsingEngine = new SQLParsingEngine(databaseType, logicSQL, shardingRule);
-        Context context = MetricsContext.start("Parse SQL");
-        SQLStatement result = parsingEngine.parse();
+        Context context = shardingMetrics.start(MetricsType.PARSE);
+        SQLStatement result = getSQLStatement(logicSQL);
         if (result instanceof InsertStatement) { // 处理 GenerateKeyToken
             ((InsertStatement) result).appendGenerateKeyToken(shardingRule, parametersSize);
         }
-        MetricsContext.stop(context);
+        if (result instanceof SelectStatement && HintManagerHolder.isApproximateCountDistinct()) { // 处理近似去重计数的推导列和分组项
+            ((SelectStatement) result).appendApproximateCountDistinctTokens();
+        }
+        ShardingMetrics.stop(context);
+        return result;
+    }
+    
+    /**
+     * 获取SQL语句对象.
+     * 优先复制解析结果缓存中的模板, 未命中时解析SQL并将解析结果的复制作为模板放入缓存.
+     * 自增主键标记在复制后的对象上处理, 因此缓存的模板不包含生成的主键.
+     *
+     * @param logicSQL 逻辑SQL
+     * @return SQL语句对象
+     */
+    private SQLStatement getSQLStatement(final String logicSQL) {
+        Optional<SQLStatement> cached = parsingResultCache.get(databaseType, logicSQL);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        SQLStatement result = new SQLParsingEngine(databaseType, logicSQL, shardingRule).parse();
+        parsingResultCache.put(databaseType, logicSQL, result);
         return result;
     }
     
     @Override
     public SQLRouteResult route(final String logicSQL, final List<Object> parameters, final SQLStatement sqlStatement) {
-        final Context context = MetricsContext.start("Route SQL");
+        Context context = shardingMetrics.start(MetricsType.ROUTE);
         SQLRouteResult result = new SQLRouteResult(sqlStatement);
         // 处理 插入SQL 主键字段
         if (sqlStatement instanceof InsertStatement && null != ((InsertStatement) sqlStatement).getGeneratedKey()) {
             processGeneratedKey(parameters, (InsertStatement) sqlStatement, result);
         }
+        // 路由结果缓存
+        Optional<RoutingResultCacheKey> routingResultCacheKey = routingResultCache.createKey(logicSQL, sqlStatement, parameters);
+        if (routingResultCacheKey.isPresent()) {
+            Optional<CachedRoutingResult> cachedRoutingResult = routingResultCache.get(routingResultCacheKey.get());
+            if (cachedRoutingResult.isPresent()) {
+                routeFromCache(parameters, sqlStatement, cachedRoutingResult.get(), result);
+                ShardingMetrics.stop(context);
+                shardingMetrics.updateExecutionUnits(result.getExecutionUnits().size());
+                if (showSQL) {
+                    SQLLogger.logSQL(logicSQL, sqlStatement, result.getExecutionUnits(), parameters);
+                }
+                return result;
+            }
+        }
         // 路由
         RoutingResult routingResult = route(parameters, sqlStatement);
         // SQL重写引擎
+        Context rewriteContext = shardingMetrics.start(MetricsType.REWRITE);
         SQLRewriteEngine rewriteEngine = new SQLRewriteEngine(shardingRule, logicSQL, sqlStatement);
         boolean isSingleRouting = routingResult.isSingleRouting();
         // 处理分页
@@ -98,7 +155,7 @@ public final class ParsingSQLRouter implements SQLRouter {
             processLimit(parameters, (SelectStatement) sqlStatement, isSingleRouting);
         }
         // SQL 重写
-        SQLBuilder sqlBuilder = rewriteEngine.rewrite(!isSingleRouting);
+        SQLBuilder sqlBuilder = rewriteEngine.rewrite(isRewriteLimit(sqlStatement, isSingleRouting));
         // 生成 ExecutionUnit
         if (routingResult instanceof CartesianRoutingResult) {
             for (CartesianDataSource cartesianDataSource : ((CartesianRoutingResult) routingResult).getRoutingDataSources()) {
@@ -106,12 +163,33 @@ public final class ParsingSQLRouter implements SQLRouter {
                     result.getExecutionUnits().add(new SQLExecutionUnit(cartesianDataSource.getDataSource(), rewriteEngine.generateSQL(cartesianTableReference, sqlBuilder))); // 生成 SQL
                 }
             }
-        } else {
+        } else if (!routingResult.getInsertValuePositions().isEmpty()) {
+            // 各路由表单元仅保留路由至该表单元的插入值
+            List<InsertValue> insertValues = ((InsertStatement) sqlStatement).getInsertValues();
+            for (TableUnit each : routingResult.getTableUnits().getTableUnits()) {
+                List<Integer> insertValuePositions = routingResult.getInsertValuePositions().get(each);
+                result.getExecutionUnits().add(new SQLExecutionUnit(
+                        each.getDataSourceName(), rewriteEngine.generateSQL(each, sqlBuilder, insertValuePositions), getParameterIndexes(parameters, insertValues, insertValuePositions)));
+            }
+        } else if (routingResult.getInValuePositions().isEmpty()) {
             for (TableUnit each : routingResult.getTableUnits().getTableUnits()) {
                 result.getExecutionUnits().add(new SQLExecutionUnit(each.getDataSourceName(), rewriteEngine.generateSQL(each, sqlBuilder))); // 生成 SQL
             }
+        } else {
+            // 各路由表单元仅保留路由至该表单元的分片键 IN 条件值
+            InValuesToken inValuesToken = sqlStatement.findInValuesToken().get();
+            for (TableUnit each : routingResult.getTableUnits().getTableUnits()) {
+                List<Integer> inValuePositions = routingResult.getInValuePositions().get(each);
+                result.getExecutionUnits().add(new SQLExecutionUnit(
+                        each.getDataSourceName(), rewriteEngine.generateSQL(each, sqlBuilder, inValuePositions), getParameterIndexes(parameters, inValuesToken, inValuePositions)));
+            }
+        }
+        ShardingMetrics.stop(rewriteContext);
+        if (routingResultCacheKey.isPresent()) {
+            routingResultCache.put(routingResultCacheKey.get(), isSingleRouting, result.getExecutionUnits());
         }
-        MetricsContext.stop(context);
+        ShardingMetrics.stop(context);
+        shardingMetrics.updateExecutionUnits(result.getExecutionUnits().size());
         // 打印 SQL
         if (showSQL) {
             SQLLogger.logSQL(logicSQL, sqlStatement, result.getExecutionUnits(), parameters);
@@ -119,6 +197,22 @@ public final class ParsingSQLRouter implements SQLRouter {
         return result;
     }
 
+    /**
+     * 使用缓存的路由结果
+     * 改写后的SQL直接复用, 分页参数仍需按本次参数处理
+     *
+     * @param parameters 占位符参数
+     * @param sqlStatement SQL语句对象
+     * @param cachedRoutingResult 缓存的路由结果
+     * @param sqlRouteResult SQL路由结果
+     */
+    private void routeFromCache(final List<Object> parameters, final SQLStatement sqlStatement, final CachedRoutingResult cachedRoutingResult, final SQLRouteResult sqlRouteResult) {
+        if (sqlStatement instanceof SelectStatement && null != ((SelectStatement) sqlStatement).getLimit()) {
+            processLimit(parameters, (SelectStatement) sqlStatement, cachedRoutingResult.isSingleRouting());
+        }
+        sqlRouteResult.getExecutionUnits().addAll(cachedRoutingResult.getExecutionUnits());
+    }
+    
     /**
      * 根据表情况使用 SimpleRoutingEngine 或 CartesianRoutingEngine
      *
@@ -137,6 +231,50 @@ public final class ParsingSQLRouter implements SQLRouter {
         }
         return routingEngine.route();
     }
+    
+    private List<Integer> getParameterIndexes(final List<Object> parameters, final InValuesToken inValuesToken, final Collection<Integer> inValuePositions) {
+        Set<Integer> excludedParameterIndexes = new HashSet<>(inValuesToken.getParameterIndexes());
+        for (int each : inValuePositions) {
+            excludedParameterIndexes.remove(inValuesToken.getParameterIndexes().get(each));
+        }
+        List<Integer> result = new ArrayList<>(parameters.size());
+        for (int i = 0; i < parameters.size(); i++) {
+            if (!excludedParameterIndexes.contains(i)) {
+                result.add(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获得多值插入的执行SQL中各占位符依次对应的参数索引
+     * 依次为插入值之前的参数, 路由至该表单元的插入值参数 和 插入值之后的参数
+     *
+     * @param parameters 占位符参数
+     * @param insertValues 插入值集合
+     * @param insertValuePositions 路由至该表单元的插入值位置集合
+     * @return 参数索引集合
+     */
+    private List<Integer> getParameterIndexes(final List<Object> parameters, final List<InsertValue> insertValues, final Collection<Integer> insertValuePositions) {
+        Set<Integer> insertValueParameterIndexes = new HashSet<>();
+        for (InsertValue each : insertValues) {
+            insertValueParameterIndexes.addAll(each.getParameterIndexes());
+        }
+        int insertValuesParametersIndex = insertValueParameterIndexes.isEmpty() ? parameters.size() : Collections.min(insertValueParameterIndexes);
+        List<Integer> result = new ArrayList<>(parameters.size());
+        for (int i = 0; i < insertValuesParametersIndex; i++) {
+            result.add(i);
+        }
+        for (int each : insertValuePositions) {
+            result.addAll(insertValues.get(each).getParameterIndexes());
+        }
+        for (int i = insertValuesParametersIndex; i < parameters.size(); i++) {
+            if (!insertValueParameterIndexes.contains(i)) {
+                result.add(i);
+            }
+        }
+        return result;
+    }
 
     /**
      * 处理 插入SQL 主键字段
@@ -147,6 +285,12 @@ public final class ParsingSQLRouter implements SQLRouter {
      * @param sqlRouteResult SQL路由结果
      */
     private void processGeneratedKey(final List<Object> parameters, final InsertStatement insertStatement, final SQLRouteResult sqlRouteResult) {
+        if (insertStatement.getInsertValues().size() > 1) {
+            for (InsertValue each : insertStatement.getInsertValues()) {
+                processGeneratedKey(parameters, insertStatement, each.getGeneratedKey(), sqlRouteResult);
+            }
+            return;
+        }
         GeneratedKey generatedKey = insertStatement.getGeneratedKey();
         if (parameters.isEmpty()) { // 已有主键，无占位符，INSERT INTO t_order(order_id, user_id) VALUES (1, 100);
             sqlRouteResult.getGeneratedKeys().add(generatedKey.getValue());
@@ -159,6 +303,27 @@ public final class ParsingSQLRouter implements SQLRouter {
         }
     }
 
+    /**
+     * 处理 多值插入SQL 各插入值的主键字段
+     * 自动生成的主键编号按插入值顺序追加到参数末尾
+     *
+     * @param parameters 占位符参数
+     * @param insertStatement Insert SQL语句对象
+     * @param generatedKey 插入值的自动生成键
+     * @param sqlRouteResult SQL路由结果
+     */
+    private void processGeneratedKey(final List<Object> parameters, final InsertStatement insertStatement, final GeneratedKey generatedKey, final SQLRouteResult sqlRouteResult) {
+        if (-1 == generatedKey.getIndex()) { // 主键为数字或已生成, INSERT INTO t_order(order_id, user_id) VALUES (1, 100), (2, 100);
+            setGeneratedKeys(sqlRouteResult, generatedKey.getValue());
+        } else if (parameters.size() == generatedKey.getIndex()) { // 主键字段不存在, INSERT INTO t_order(user_id) VALUES (?), (?);
+            Number key = shardingRule.generateKey(insertStatement.getTables().getSingleTableName());
+            parameters.add(key);
+            setGeneratedKeys(sqlRouteResult, key);
+        } else { // 主键字段存在, INSERT INTO t_order(order_id, user_id) VALUES (?, ?), (?, ?);
+            setGeneratedKeys(sqlRouteResult, (Number) parameters.get(generatedKey.getIndex()));
+        }
+    }
+
     /**
      * 设置 主键编号 到 SQL路由结果
      *
@@ -174,16 +339,25 @@ public final class ParsingSQLRouter implements SQLRouter {
     /**
      * 处理分页条件
      *
-     * @see SQLRewriteEngine#appendLimitRowCount(SQLBuilder, RowCountToken, int, List, boolean)
+     * @see SQLRewriteEngine#appendLimitRowCount(SQLBuilder, RowCountToken, int, boolean)
      * @param parameters 占位符对应参数列表
      * @param selectStatement Select SQL语句对象
      * @param isSingleRouting 是否单表路由
      */
     private void processLimit(final List<Object> parameters, final SelectStatement selectStatement, final boolean isSingleRouting) {
-        boolean isNeedFetchAll = (!selectStatement.getGroupByItems().isEmpty() // // [1.1] 跨分片分组需要在内存计算，可能需要全部加载
-                                    || !selectStatement.getAggregationSelectItems().isEmpty()) // [1.2] 跨分片聚合列需要在内存计算，可能需要全部加载
-                                && !selectStatement.isSameGroupByAndOrderByItems(); // [2] 如果排序一致，即各分片已经排序好结果，就不需要全部加载
-        selectStatement.getLimit().processParameters(parameters, !isSingleRouting, isNeedFetchAll);
+        selectStatement.getLimit().processParameters(parameters, isRewriteLimit(selectStatement, isSingleRouting), selectStatement.isNeedFetchAll());
+    }
+    
+    /**
+     * 判断是否重写分页条件
+     * 单分片路由时无需重写, 但近似去重计数的分片结果行与分组不一致, 仍需全部加载后在内存中分页
+     *
+     * @param sqlStatement SQL语句对象
+     * @param isSingleRouting 是否单表路由
+     * @return 是否重写分页条件
+     */
+    private boolean isRewriteLimit(final SQLStatement sqlStatement, final boolean isSingleRouting) {
+        return !isSingleRouting || sqlStatement instanceof SelectStatement && ((SelectStatement) sqlStatement).isContainApproximateCountDistinct();
     }
 
 }
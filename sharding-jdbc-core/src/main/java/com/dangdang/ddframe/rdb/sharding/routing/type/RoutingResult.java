@@ -19,6 +19,10 @@ package com.dangdang.ddframe.rdb.sharding.routing.type;
 
 import lombok.Getter;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 路由结果.
  * 
@@ -32,6 +36,16 @@ public class RoutingResult {
      */
     private final TableUnits tableUnits = new TableUnits();
     
+    /**
+     * 路由表单元与路由至该表单元的分片键 IN 条件值位置映射, 为空时各路由表单元保留全部条件值
+     */
+    private final Map<TableUnit, List<Integer>> inValuePositions = new HashMap<>();
+    
+    /**
+     * 路由表单元与路由至该表单元的插入值位置映射, 仅多值插入时不为空
+     */
+    private final Map<TableUnit, List<Integer>> insertValuePositions = new HashMap<>();
+    
     /**
      * 判断是否为单库表路由.
      *
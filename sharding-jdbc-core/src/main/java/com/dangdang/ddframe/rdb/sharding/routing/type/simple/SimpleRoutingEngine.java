@@ -23,11 +23,16 @@ import com.dangdang.ddframe.rdb.sharding.api.rule.ShardingRule;
 import com.dangdang.ddframe.rdb.sharding.api.rule.TableRule;
 import com.dangdang.ddframe.rdb.sharding.api.strategy.database.DatabaseShardingStrategy;
 import com.dangdang.ddframe.rdb.sharding.api.strategy.table.TableShardingStrategy;
+import com.dangdang.ddframe.rdb.sharding.constant.ShardingOperator;
 import com.dangdang.ddframe.rdb.sharding.hint.HintManagerHolder;
 import com.dangdang.ddframe.rdb.sharding.hint.ShardingKey;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.condition.Column;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.condition.Condition;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.condition.Conditions;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.insertvalue.InsertValue;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.SQLStatement;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dml.insert.InsertStatement;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.InValuesToken;
 import com.dangdang.ddframe.rdb.sharding.routing.type.RoutingEngine;
 import com.dangdang.ddframe.rdb.sharding.routing.type.RoutingResult;
 import com.dangdang.ddframe.rdb.sharding.routing.type.TableUnit;
@@ -37,10 +42,14 @@ import lombok.RequiredArgsConstructor;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 /**
  * 简单路由引擎.
@@ -61,29 +70,122 @@ public final class SimpleRoutingEngine implements RoutingEngine {
     @Override
     public RoutingResult route() {
         TableRule tableRule = shardingRule.getTableRule(logicTableName);
-        Collection<String> routedDataSources = routeDataSources(tableRule);
+        if (!HintManagerHolder.isUseShardingHint() && sqlStatement instanceof InsertStatement && ((InsertStatement) sqlStatement).getInsertValues().size() > 1) {
+            return routeInsertValues(tableRule, ((InsertStatement) sqlStatement).getInsertValues());
+        }
+        Optional<ShardingValue<?>> inValue = Optional.absent();
+        Collection<String> routedDataSources = routeDataSources(tableRule, sqlStatement.getConditions(), inValue);
+        Preconditions.checkState(!routedDataSources.isEmpty(), "no database route info");
         Map<String, Collection<String>> routedMap = new LinkedHashMap<>(routedDataSources.size());
         for (String each : routedDataSources) {
-            routedMap.put(each, routeTables(tableRule, each));
+            Collection<String> routedTables = routeTables(tableRule, each, sqlStatement.getConditions(), inValue);
+            Preconditions.checkState(!routedTables.isEmpty(), "no table route info");
+            routedMap.put(each, routedTables);
+        }
+        RoutingResult result = generateRoutingResult(tableRule, routedMap);
+        Optional<Condition> inCondition = findInCondition();
+        if (!result.isSingleRouting() && inCondition.isPresent()) {
+            result.getInValuePositions().putAll(routeInValues(tableRule, result.getTableUnits().getTableUnits(), inCondition.get()));
+            // 未分配到条件值的表单元无需执行
+            if (!result.getInValuePositions().isEmpty()) {
+                result.getTableUnits().getTableUnits().retainAll(result.getInValuePositions().keySet());
+            }
         }
-        return generateRoutingResult(tableRule, routedMap);
+        return result;
     }
     
-    private Collection<String> routeDataSources(final TableRule tableRule) {
+    private Collection<String> routeDataSources(final TableRule tableRule, final Conditions conditions, final Optional<ShardingValue<?>> inValue) {
         DatabaseShardingStrategy strategy = shardingRule.getDatabaseShardingStrategy(tableRule);
         List<ShardingValue<?>> shardingValues = HintManagerHolder.isUseShardingHint() ? getDatabaseShardingValuesFromHint(strategy.getShardingColumns())
-                : getShardingValues(strategy.getShardingColumns());
-        Collection<String> result = strategy.doStaticSharding(tableRule.getActualDatasourceNames(), shardingValues);
-        Preconditions.checkState(!result.isEmpty(), "no database route info");
-        return result;
+                : getShardingValues(strategy.getShardingColumns(), conditions, inValue);
+        return strategy.doStaticSharding(tableRule.getActualDatasourceNames(), shardingValues);
     }
     
-    private Collection<String> routeTables(final TableRule tableRule, final String routedDataSource) {
+    private Collection<String> routeTables(final TableRule tableRule, final String routedDataSource, final Conditions conditions, final Optional<ShardingValue<?>> inValue) {
         TableShardingStrategy strategy = shardingRule.getTableShardingStrategy(tableRule);
         List<ShardingValue<?>> shardingValues = HintManagerHolder.isUseShardingHint() ? getTableShardingValuesFromHint(strategy.getShardingColumns())
-                : getShardingValues(strategy.getShardingColumns());
-        Collection<String> result = tableRule.isDynamic() ? strategy.doDynamicSharding(shardingValues) : strategy.doStaticSharding(tableRule.getActualTableNames(routedDataSource), shardingValues);
-        Preconditions.checkState(!result.isEmpty(), "no table route info");
+                : getShardingValues(strategy.getShardingColumns(), conditions, inValue);
+        return tableRule.isDynamic() ? strategy.doDynamicSharding(shardingValues) : strategy.doStaticSharding(tableRule.getActualTableNames(routedDataSource), shardingValues);
+    }
+    
+    /**
+     * 查找可按条件值拆分的分片键 IN 条件.
+     * 仅当语句中有唯一的分片键 IN 条件且为本逻辑表的路由条件时可拆分.
+     *
+     * @return 分片键 IN 条件
+     */
+    private Optional<Condition> findInCondition() {
+        Optional<InValuesToken> inValuesToken = sqlStatement.findInValuesToken();
+        if (HintManagerHolder.isUseShardingHint() || !inValuesToken.isPresent() || !logicTableName.equalsIgnoreCase(inValuesToken.get().getColumn().getTableName())) {
+            return Optional.absent();
+        }
+        Optional<Condition> result = sqlStatement.getConditions().find(inValuesToken.get().getColumn());
+        if (!result.isPresent() || ShardingOperator.IN != result.get().getOperator() || inValuesToken.get().getValues().size() != result.get().getValues(parameters).size()) {
+            return Optional.absent();
+        }
+        return result;
+    }
+    
+    /**
+     * 按分片键 IN 条件的每个条件值分别路由, 获得各路由表单元对应的条件值位置.
+     * 条件值路由至 IN 条件路由结果之外的表单元时, 视为分片算法的等值与 IN 分片不一致, 不拆分条件值.
+     *
+     * @param tableRule 表规则
+     * @param tableUnits IN 条件的路由表单元集合
+     * @param inCondition 分片键 IN 条件
+     * @return 路由表单元与条件值位置映射
+     */
+    private Map<TableUnit, List<Integer>> routeInValues(final TableRule tableRule, final Collection<TableUnit> tableUnits, final Condition inCondition) {
+        Set<TableUnit> routedTableUnits = new HashSet<>(tableUnits);
+        Map<TableUnit, List<Integer>> result = new HashMap<>(tableUnits.size(), 1);
+        List<Comparable<?>> values = inCondition.getValues(parameters);
+        for (int i = 0; i < values.size(); i++) {
+            Optional<ShardingValue<?>> inValue = Optional.<ShardingValue<?>>of(
+                    new ShardingValue<Comparable<?>>(inCondition.getColumn().getTableName(), inCondition.getColumn().getName(), values.get(i)));
+            for (String dataSource : routeDataSources(tableRule, sqlStatement.getConditions(), inValue)) {
+                for (DataNode each : tableRule.getActualDataNodes(dataSource, routeTables(tableRule, dataSource, sqlStatement.getConditions(), inValue))) {
+                    TableUnit tableUnit = new TableUnit(each.getDataSourceName(), logicTableName, each.getTableName());
+                    if (!routedTableUnits.contains(tableUnit)) {
+                        return Collections.emptyMap();
+                    }
+                    if (!result.containsKey(tableUnit)) {
+                        result.put(tableUnit, new ArrayList<Integer>());
+                    }
+                    result.get(tableUnit).add(i);
+                }
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 按多值插入的每个插入值分别路由, 获得各路由表单元对应的插入值位置.
+     * 路由表单元按首个路由至该表单元的插入值排序.
+     *
+     * @param tableRule 表规则
+     * @param insertValues 插入值集合
+     * @return 路由结果
+     */
+    private RoutingResult routeInsertValues(final TableRule tableRule, final List<InsertValue> insertValues) {
+        RoutingResult result = new RoutingResult();
+        Optional<ShardingValue<?>> inValue = Optional.absent();
+        for (int i = 0; i < insertValues.size(); i++) {
+            Conditions conditions = insertValues.get(i).getConditions();
+            Collection<String> routedDataSources = routeDataSources(tableRule, conditions, inValue);
+            Preconditions.checkState(!routedDataSources.isEmpty(), "no database route info");
+            for (String dataSource : routedDataSources) {
+                Collection<String> routedTables = routeTables(tableRule, dataSource, conditions, inValue);
+                Preconditions.checkState(!routedTables.isEmpty(), "no table route info");
+                for (DataNode each : tableRule.getActualDataNodes(dataSource, routedTables)) {
+                    TableUnit tableUnit = new TableUnit(each.getDataSourceName(), logicTableName, each.getTableName());
+                    if (!result.getInsertValuePositions().containsKey(tableUnit)) {
+                        result.getTableUnits().getTableUnits().add(tableUnit);
+                        result.getInsertValuePositions().put(tableUnit, new ArrayList<Integer>());
+                    }
+                    result.getInsertValuePositions().get(tableUnit).add(i);
+                }
+            }
+        }
         return result;
     }
     
@@ -109,10 +211,14 @@ public final class SimpleRoutingEngine implements RoutingEngine {
         return result;
     }
     
-    private List<ShardingValue<?>> getShardingValues(final Collection<String> shardingColumns) {
+    private List<ShardingValue<?>> getShardingValues(final Collection<String> shardingColumns, final Conditions conditions, final Optional<ShardingValue<?>> inValue) {
         List<ShardingValue<?>> result = new ArrayList<>(shardingColumns.size());
         for (String each : shardingColumns) {
-            Optional<Condition> condition = sqlStatement.getConditions().find(new Column(each, logicTableName));
+            if (inValue.isPresent() && each.equalsIgnoreCase(inValue.get().getColumnName())) {
+                result.add(inValue.get());
+                continue;
+            }
+            Optional<Condition> condition = conditions.find(new Column(each, logicTableName));
             if (condition.isPresent()) {
                 result.add(condition.get().getShardingValue(parameters));
             }
@@ -21,6 +21,10 @@ import com.google.common.eventbus.EventBus;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
 /**
  * 事件总线.
  * 
@@ -29,7 +33,33 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class EventBusInstance {
     
-    private static final EventBus INSTANCE = new EventBus();
+    /**
+     * 已注册的监听器, 注册或注销成功后更新, 同一监听器重复注册仅记录一次
+     */
+    private static final Set<Object> REGISTERED_LISTENERS = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    
+    private static volatile boolean registered;
+    
+    private static final EventBus INSTANCE = new EventBus() {
+    
+        @Override
+        public void register(final Object object) {
+            synchronized (REGISTERED_LISTENERS) {
+                super.register(object);
+                REGISTERED_LISTENERS.add(object);
+                registered = true;
+            }
+        }
+    
+        @Override
+        public void unregister(final Object object) {
+            synchronized (REGISTERED_LISTENERS) {
+                super.unregister(object);
+                REGISTERED_LISTENERS.remove(object);
+                registered = !REGISTERED_LISTENERS.isEmpty();
+            }
+        }
+    };
     
     /**
      * 获取事件总线实例.
@@ -39,4 +69,14 @@ public final class EventBusInstance {
     public static EventBus getInstance() {
         return INSTANCE;
     }
+    
+    /**
+     * 判断事件总线是否注册了监听器.
+     * 未注册监听器时无需创建和发布事件.
+     * 
+     * @return 是否注册了监听器
+     */
+    public static boolean hasRegistered() {
+        return registered;
+    }
 }
@@ -35,6 +35,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 
 public abstract class AbstractShardingJDBCDatabaseAndTableTest extends AbstractSQLTest {
     
@@ -54,6 +55,12 @@ public abstract class AbstractShardingJDBCDatabaseAndTableTest extends AbstractS
             return shardingDataSources;
         }
         isShutdown = false;
+        shardingDataSources.putAll(createShardingDataSources(new Properties()));
+        return shardingDataSources;
+    }
+    
+    protected final Map<DatabaseType, ShardingDataSource> createShardingDataSources(final Properties props) {
+        Map<DatabaseType, ShardingDataSource> result = new HashMap<>();
         Map<DatabaseType, Map<String, DataSource>> dataSourceMap = createDataSourceMap();
         for (Map.Entry<DatabaseType, Map<String, DataSource>> each : dataSourceMap.entrySet()) {
             DataSourceRule dataSourceRule = new DataSourceRule(each.getValue());
@@ -68,9 +75,9 @@ public abstract class AbstractShardingJDBCDatabaseAndTableTest extends AbstractS
                     .bindingTableRules(Collections.singletonList(new BindingTableRule(Arrays.asList(orderTableRule, orderItemTableRule))))
                     .databaseShardingStrategy(new DatabaseShardingStrategy("user_id", new OrderShardingAlgorithm()))
                     .tableShardingStrategy(new TableShardingStrategy("order_id", new OrderShardingAlgorithm())).build();
-            shardingDataSources.put(each.getKey(), new ShardingDataSource(shardingRule));
+            result.put(each.getKey(), new ShardingDataSource(shardingRule, props));
         }
-        return shardingDataSources;
+        return result;
     }
     
     @AfterClass
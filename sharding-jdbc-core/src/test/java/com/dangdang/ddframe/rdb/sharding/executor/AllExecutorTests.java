@@ -27,6 +27,8 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
         ExecutorExceptionHandlerTest.class, 
+        DataSourceBulkheadTest.class, 
+        ExecutorEngineTest.class, 
         StatementExecutorTest.class, 
         PreparedStatementExecutorTest.class,
         BatchPreparedStatementExecutorTest.class
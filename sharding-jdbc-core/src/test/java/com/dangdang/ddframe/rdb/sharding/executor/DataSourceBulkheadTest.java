@@ -0,0 +1,58 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.executor;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public final class DataSourceBulkheadTest {
+    
+    @Test
+    public void assertTryAcquireWithoutLimit() {
+        DataSourceBulkhead actual = new DataSourceBulkhead("ds_0", 0);
+        assertTrue(actual.tryAcquire(1000));
+        assertThat(actual.getQueueDepth(), is(1000));
+    }
+    
+    @Test
+    public void assertTryAcquireWithLimit() {
+        DataSourceBulkhead actual = new DataSourceBulkhead("ds_0", 2);
+        assertTrue(actual.tryAcquire(2));
+        assertFalse(actual.tryAcquire(1));
+        actual.release(1);
+        assertTrue(actual.tryAcquire(1));
+        assertFalse(actual.tryAcquire(1));
+    }
+    
+    @Test
+    public void assertActiveCountAndQueueDepth() {
+        DataSourceBulkhead actual = new DataSourceBulkhead("ds_0", 4);
+        assertTrue(actual.tryAcquire(3));
+        actual.activate();
+        assertThat(actual.getActiveCount(), is(1));
+        assertThat(actual.getQueueDepth(), is(2));
+        actual.deactivate();
+        actual.release(1);
+        assertThat(actual.getActiveCount(), is(0));
+        assertThat(actual.getQueueDepth(), is(2));
+    }
+}
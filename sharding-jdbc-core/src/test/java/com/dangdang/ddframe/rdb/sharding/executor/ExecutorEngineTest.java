@@ -0,0 +1,250 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.executor;
+
+import com.dangdang.ddframe.rdb.sharding.constant.SQLType;
+import com.dangdang.ddframe.rdb.sharding.exception.ShardingJdbcException;
+import com.dangdang.ddframe.rdb.sharding.executor.type.prepared.PreparedStatementUnit;
+import com.dangdang.ddframe.rdb.sharding.executor.type.statement.StatementUnit;
+import com.dangdang.ddframe.rdb.sharding.metrics.ShardingMetrics;
+import com.dangdang.ddframe.rdb.sharding.routing.SQLExecutionUnit;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public final class ExecutorEngineTest {
+    
+    private static final String SQL = "SELECT * FROM table_x";
+    
+    private ShardingMetrics shardingMetrics;
+    
+    private ExecutorEngine executorEngine;
+    
+    private Statement statement;
+    
+    @Before
+    public void setUp() throws SQLException {
+        shardingMetrics = new ShardingMetrics(true, Collections.<String>emptyList());
+        executorEngine = new ExecutorEngine(2, 16, 1, shardingMetrics);
+        statement = mock(Statement.class);
+        when(statement.getConnection()).thenReturn(mock(Connection.class));
+    }
+    
+    @After
+    public void tearDown() {
+        executorEngine.close();
+    }
+    
+    @Test
+    public void assertExecuteWithinBulkhead() throws SQLException {
+        assertThat(executeQuery(createStatementUnit("ds_0"), createStatementUnit("ds_1")).size(), is(2));
+        assertThat(executeQuery(createStatementUnit("ds_0")).size(), is(1));
+        assertThat(shardingMetrics.getMetricRegistry().get().getGauges().get("sharding-jdbc.executor.data-source.ds_0.queue-depth").getValue(), is((Object) 0));
+        assertThat(shardingMetrics.getMetricRegistry().get().getGauges().get("sharding-jdbc.executor.data-source.ds_0.active-count").getValue(), is((Object) 0));
+    }
+    
+    @Test
+    public void assertExecuteRejectedWhenExceedBulkhead() throws SQLException {
+        try {
+            executeQuery(createStatementUnit("ds_0"), createStatementUnit("ds_1"), createStatementUnit("ds_1"));
+            fail("Expected ShardingJdbcException.");
+        } catch (final ShardingJdbcException ex) {
+            assertThat(ex.getMessage(), is("Execution of data source 'ds_1' rejected: 2 units requested, 0 queued, 0 active, limit is 1."));
+        }
+        verify(statement, never()).executeQuery(anyString());
+        assertThat(executeQuery(createStatementUnit("ds_0")).size(), is(1));
+    }
+    
+    @Test
+    public void assertExecuteRejectedWhenExceedQueueSize() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        ExecutorEngine boundedExecutorEngine = new ExecutorEngine(1, 1, 0, shardingMetrics);
+        try {
+            ListenableFuture<List<ResultSet>> blocked = boundedExecutorEngine.executeStatementAsync(SQLType.DQL, Arrays.asList(
+                    new StatementUnit(new SQLExecutionUnit("ds_0", SQL), createStatement(mock(Connection.class))), 
+                    new StatementUnit(new SQLExecutionUnit("ds_0", SQL), createStatement(mock(Connection.class)))), new ExecuteCallback<ResultSet>() {
+                    
+                    @Override
+                    public ResultSet execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                        latch.await();
+                        return baseStatementUnit.getStatement().executeQuery(baseStatementUnit.getSqlExecutionUnit().getSql());
+                    }
+                });
+            try {
+                boundedExecutorEngine.executeStatement(SQLType.DQL, Arrays.asList(new StatementUnit(new SQLExecutionUnit("ds_1", SQL), createStatement(mock(Connection.class))), 
+                        new StatementUnit(new SQLExecutionUnit("ds_1", SQL), createStatement(mock(Connection.class)))), new ExecuteCallback<ResultSet>() {
+                        
+                        @Override
+                        public ResultSet execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                            return baseStatementUnit.getStatement().executeQuery(baseStatementUnit.getSqlExecutionUnit().getSql());
+                        }
+                    });
+                fail("Expected ShardingJdbcException.");
+            } catch (final ShardingJdbcException ex) {
+                assertThat(ex.getCause(), instanceOf(RejectedExecutionException.class));
+            }
+            assertThat(shardingMetrics.getMetricRegistry().get().getGauges().get("sharding-jdbc.executor.data-source.ds_1.queue-depth").getValue(), is((Object) 0));
+            latch.countDown();
+            assertThat(blocked.get().size(), is(2));
+            assertThat(shardingMetrics.getMetricRegistry().get().getGauges().get("sharding-jdbc.executor.data-source.ds_0.queue-depth").getValue(), is((Object) 0));
+        } finally {
+            latch.countDown();
+            boundedExecutorEngine.close();
+        }
+    }
+    
+    @Test
+    public void assertReleaseBulkheadWhenQueuedExecutionCancelled() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        ExecutorEngine saturatedExecutorEngine = new ExecutorEngine(1, 4, 1, shardingMetrics);
+        try {
+            ListenableFuture<List<ResultSet>> blocked = saturatedExecutorEngine.executeStatementAsync(SQLType.DQL, 
+                    Collections.singletonList(new StatementUnit(new SQLExecutionUnit("ds_0", SQL), createStatement(mock(Connection.class)))), new ExecuteCallback<ResultSet>() {
+                    
+                    @Override
+                    public ResultSet execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                        latch.await();
+                        return baseStatementUnit.getStatement().executeQuery(baseStatementUnit.getSqlExecutionUnit().getSql());
+                    }
+                });
+            ListenableFuture<List<ResultSet>> queued = saturatedExecutorEngine.executeStatementAsync(SQLType.DQL, 
+                    Collections.singletonList(new StatementUnit(new SQLExecutionUnit("ds_1", SQL), createStatement(mock(Connection.class)))), new ExecuteCallback<ResultSet>() {
+                    
+                    @Override
+                    public ResultSet execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                        return baseStatementUnit.getStatement().executeQuery(baseStatementUnit.getSqlExecutionUnit().getSql());
+                    }
+                });
+            assertThat(shardingMetrics.getMetricRegistry().get().getGauges().get("sharding-jdbc.executor.data-source.ds_1.queue-depth").getValue(), is((Object) 1));
+            assertTrue(queued.cancel(true));
+            assertThat(shardingMetrics.getMetricRegistry().get().getGauges().get("sharding-jdbc.executor.data-source.ds_1.queue-depth").getValue(), is((Object) 0));
+            latch.countDown();
+            assertThat(blocked.get().size(), is(1));
+            assertThat(saturatedExecutorEngine.executeStatementAsync(SQLType.DQL, 
+                    Collections.singletonList(new StatementUnit(new SQLExecutionUnit("ds_1", SQL), createStatement(mock(Connection.class)))), new ExecuteCallback<ResultSet>() {
+                    
+                    @Override
+                    public ResultSet execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                        return baseStatementUnit.getStatement().executeQuery(baseStatementUnit.getSqlExecutionUnit().getSql());
+                    }
+                }).get().size(), is(1));
+        } finally {
+            latch.countDown();
+            saturatedExecutorEngine.close();
+        }
+    }
+    
+    @Test
+    public void assertExecuteGroupedByConnection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement0 = createStatement(connection);
+        Statement statement1 = createStatement(mock(Connection.class));
+        Statement statement2 = createStatement(connection);
+        final Map<Statement, Thread> executeThreads = new ConcurrentHashMap<>(3, 1);
+        ExecutorEngine unlimitedExecutorEngine = new ExecutorEngine(2);
+        try {
+            List<ResultSet> actual = unlimitedExecutorEngine.executeStatement(SQLType.DQL, Arrays.asList(new StatementUnit(new SQLExecutionUnit("ds_0", SQL), statement0), 
+                    new StatementUnit(new SQLExecutionUnit("ds_0", SQL), statement1), new StatementUnit(new SQLExecutionUnit("ds_0", SQL), statement2)), new ExecuteCallback<ResultSet>() {
+                    
+                    @Override
+                    public ResultSet execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                        executeThreads.put(baseStatementUnit.getStatement(), Thread.currentThread());
+                        return baseStatementUnit.getStatement().executeQuery(baseStatementUnit.getSqlExecutionUnit().getSql());
+                    }
+                });
+            assertThat(actual, is(Arrays.asList(statement0.executeQuery(SQL), statement1.executeQuery(SQL), statement2.executeQuery(SQL))));
+            assertThat(executeThreads.get(statement0), is(executeThreads.get(statement2)));
+        } finally {
+            unlimitedExecutorEngine.close();
+        }
+    }
+    
+    @Test
+    public void assertExecutePreparedStatementAsync() throws Exception {
+        Connection connection = mock(Connection.class);
+        PreparedStatement preparedStatement0 = createPreparedStatement(connection);
+        PreparedStatement preparedStatement1 = createPreparedStatement(mock(Connection.class));
+        PreparedStatement preparedStatement2 = createPreparedStatement(connection);
+        ListenableFuture<List<ResultSet>> actual = executorEngine.executePreparedStatementAsync(SQLType.DQL, Arrays.asList(
+                new PreparedStatementUnit(new SQLExecutionUnit("ds_0", SQL), preparedStatement0), new PreparedStatementUnit(new SQLExecutionUnit("ds_1", SQL), preparedStatement1), 
+                new PreparedStatementUnit(new SQLExecutionUnit("ds_2", SQL), preparedStatement2)), Collections.emptyList(), new ExecuteCallback<ResultSet>() {
+                
+                @Override
+                public ResultSet execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                    return ((PreparedStatement) baseStatementUnit.getStatement()).executeQuery();
+                }
+            });
+        assertThat(actual.get(), is(Arrays.asList(preparedStatement0.executeQuery(), preparedStatement1.executeQuery(), preparedStatement2.executeQuery())));
+        assertThat(executeQuery(createStatementUnit("ds_0")).size(), is(1));
+    }
+    
+    private PreparedStatement createPreparedStatement(final Connection connection) throws SQLException {
+        PreparedStatement result = mock(PreparedStatement.class);
+        when(result.getConnection()).thenReturn(connection);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(result.executeQuery()).thenReturn(resultSet);
+        return result;
+    }
+    
+    private Statement createStatement(final Connection connection) throws SQLException {
+        Statement result = mock(Statement.class);
+        when(result.getConnection()).thenReturn(connection);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(result.executeQuery(SQL)).thenReturn(resultSet);
+        return result;
+    }
+    
+    private List<ResultSet> executeQuery(final StatementUnit... statementUnits) {
+        return executorEngine.executeStatement(SQLType.DQL, Arrays.asList(statementUnits), new ExecuteCallback<ResultSet>() {
+            
+            @Override
+            public ResultSet execute(final BaseStatementUnit baseStatementUnit) throws Exception {
+                return baseStatementUnit.getStatement().executeQuery(baseStatementUnit.getSqlExecutionUnit().getSql());
+            }
+        });
+    }
+    
+    private StatementUnit createStatementUnit(final String dataSource) {
+        return new StatementUnit(new SQLExecutionUnit(dataSource, SQL), statement);
+    }
+}
@@ -83,6 +83,14 @@ public final class HintManagerHolderTest {
         assertFalse(HintManagerHolder.isUseShardingHint());
     }
     
+    @Test
+    public void assertIsApproximateCountDistinct() {
+        assertFalse(HintManagerHolder.isApproximateCountDistinct());
+        hintManager.setApproximateCountDistinct();
+        assertTrue(HintManagerHolder.isApproximateCountDistinct());
+        assertFalse(HintManagerHolder.isUseShardingHint());
+    }
+    
     @Test
     public void assertClear() {
         hintManager.addDatabaseShardingValue("logicTable", "shardingColumn", 1);
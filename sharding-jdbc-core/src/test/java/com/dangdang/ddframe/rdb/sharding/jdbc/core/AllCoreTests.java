@@ -22,6 +22,7 @@ import com.dangdang.ddframe.rdb.sharding.jdbc.core.datasource.MasterSlaveDataSou
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.datasource.ShardingDataSourceTest;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.resultset.GeneratedKeysResultSetMetaDataTest;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.resultset.GeneratedKeysResultSetTest;
+import com.dangdang.ddframe.rdb.sharding.jdbc.core.resultset.PassThroughResultSetTest;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.resultset.ShardingResultSetTest;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.statement.ShardingPreparedStatementTest;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.statement.ShardingStatementTest;
@@ -36,6 +37,7 @@ import org.junit.runners.Suite;
         ShardingStatementTest.class, 
         ShardingPreparedStatementTest.class, 
         ShardingResultSetTest.class, 
+        PassThroughResultSetTest.class, 
         GeneratedKeysResultSetTest.class, 
         GeneratedKeysResultSetMetaDataTest.class 
     })
@@ -20,24 +20,34 @@ package com.dangdang.ddframe.rdb.sharding.jdbc.core.connection;
 import com.dangdang.ddframe.rdb.sharding.api.rule.DataSourceRule;
 import com.dangdang.ddframe.rdb.sharding.api.rule.ShardingRule;
 import com.dangdang.ddframe.rdb.sharding.api.rule.TableRule;
+import com.dangdang.ddframe.rdb.sharding.config.ShardingProperties;
+import com.dangdang.ddframe.rdb.sharding.config.ShardingPropertiesConstant;
 import com.dangdang.ddframe.rdb.sharding.constant.SQLType;
 import com.dangdang.ddframe.rdb.sharding.fixture.TestDataSource;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.ShardingContext;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.datasource.MasterSlaveDataSource;
+import com.dangdang.ddframe.rdb.sharding.metrics.ShardingMetrics;
+import com.dangdang.ddframe.rdb.sharding.routing.SQLExecutionUnit;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
 
+import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
 
 public final class ShardingConnectionTest {
     
@@ -58,13 +68,21 @@ public final class ShardingConnectionTest {
     
     @Before
     public void setUp() {
+        connection = createShardingConnection(1);
+    }
+    
+    private ShardingConnection createShardingConnection(final int maxConnectionsSizePerQuery) {
         Map<String, DataSource> dataSourceMap = new HashMap<>(1);
         dataSourceMap.put(DS_NAME, MASTER_SLAVE_DATA_SOURCE);
         DataSourceRule dataSourceRule = new DataSourceRule(dataSourceMap);
         ShardingRule rule = new ShardingRule.ShardingRuleBuilder().dataSourceRule(dataSourceRule)
                 .tableRules(Collections.singleton(new  TableRule.TableRuleBuilder("test").dataSourceRule(dataSourceRule).build())).build();
-        ShardingContext shardingContext = new ShardingContext(rule, null, null, false);
-        connection = new ShardingConnection(shardingContext);
+        Properties props = new Properties();
+        props.setProperty(ShardingPropertiesConstant.SQL_SHOW.getKey(), Boolean.FALSE.toString());
+        props.setProperty(ShardingPropertiesConstant.PARSING_RESULT_CACHE_SIZE.getKey(), "0");
+        props.setProperty(ShardingPropertiesConstant.MAX_CONNECTIONS_SIZE_PER_QUERY.getKey(), String.valueOf(maxConnectionsSizePerQuery));
+        ShardingContext shardingContext = new ShardingContext(rule, null, null, new ShardingMetrics(), new ShardingProperties(props));
+        return new ShardingConnection(shardingContext);
     }
     
     @After
@@ -112,4 +130,43 @@ public final class ShardingConnectionTest {
         connection.release(conn);
         assertNotSame(conn, connection.getConnection(DS_NAME, SQLType.DML));
     }
+    
+    @Test
+    public void assertGetConnectionsWithSingleConnectionPerQuery() throws Exception {
+        List<Connection> actual = connection.getConnections(createExecutionUnits(3), SQLType.DML);
+        assertThat(actual.size(), is(3));
+        assertSame(actual.get(0), connection.getConnection(DS_NAME, SQLType.DML));
+        assertSame(actual.get(0), actual.get(1));
+        assertSame(actual.get(0), actual.get(2));
+    }
+    
+    @Test
+    public void assertGetConnectionsWithMultipleConnectionsPerQuery() throws Exception {
+        try (ShardingConnection shardingConnection = createShardingConnection(2)) {
+            List<Connection> actual = shardingConnection.getConnections(createExecutionUnits(3), SQLType.DML);
+            assertSame(actual.get(0), shardingConnection.getConnection(DS_NAME, SQLType.DML));
+            assertNotSame(actual.get(0), actual.get(1));
+            assertSame(actual.get(0), actual.get(2));
+            assertThat(shardingConnection.getConnections().size(), is(2));
+            assertThat(shardingConnection.getConnections(createExecutionUnits(2), SQLType.DML), is(actual.subList(0, 2)));
+        }
+    }
+    
+    @Test
+    public void assertGetConnectionsWithMultipleConnectionsPerQueryWhenNotAutoCommit() throws Exception {
+        try (ShardingConnection shardingConnection = createShardingConnection(2)) {
+            shardingConnection.setAutoCommit(false);
+            List<Connection> actual = shardingConnection.getConnections(createExecutionUnits(2), SQLType.DML);
+            assertSame(actual.get(0), actual.get(1));
+            assertThat(shardingConnection.getConnections().size(), is(1));
+        }
+    }
+    
+    private Collection<SQLExecutionUnit> createExecutionUnits(final int size) {
+        Collection<SQLExecutionUnit> result = new LinkedList<>();
+        for (int i = 0; i < size; i++) {
+            result.add(new SQLExecutionUnit(DS_NAME, "UPDATE test_" + i + " SET status = 'init'"));
+        }
+        return result;
+    }
 }
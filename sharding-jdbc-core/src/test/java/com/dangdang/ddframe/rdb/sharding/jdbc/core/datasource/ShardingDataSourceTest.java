@@ -20,6 +20,7 @@ package com.dangdang.ddframe.rdb.sharding.jdbc.core.datasource;
 import com.dangdang.ddframe.rdb.sharding.api.rule.DataSourceRule;
 import com.dangdang.ddframe.rdb.sharding.api.rule.ShardingRule;
 import com.dangdang.ddframe.rdb.sharding.api.rule.TableRule;
+import com.dangdang.ddframe.rdb.sharding.config.ShardingPropertiesConstant;
 import com.dangdang.ddframe.rdb.sharding.constant.SQLType;
 import org.junit.Test;
 
@@ -31,9 +32,11 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -47,6 +50,33 @@ public final class ShardingDataSourceTest {
         assertThat(createShardingDataSource(dataSource).getConnection().getConnection("ds", SQLType.DQL), is(connection));
     }
     
+    @Test
+    public void assertStopReportersWhenStartReporterFailure() throws SQLException {
+        Connection connection = mockConnection();
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        Properties props = new Properties();
+        props.setProperty(ShardingPropertiesConstant.METRICS_ENABLE.getKey(), Boolean.TRUE.toString());
+        props.setProperty(ShardingPropertiesConstant.METRICS_REPORTERS.getKey(), "slf4j, console");
+        int reporterThreadsCount = countReporterThreads();
+        try {
+            createShardingDataSource(dataSource, props);
+            fail("Expected IllegalArgumentException");
+        } catch (final IllegalArgumentException ex) {
+            assertThat(countReporterThreads(), is(reporterThreadsCount));
+        }
+    }
+    
+    private int countReporterThreads() {
+        int result = 0;
+        for (Thread each : Thread.getAllStackTraces().keySet()) {
+            if (each.isAlive() && each.getName().startsWith("slf4j-reporter")) {
+                result++;
+            }
+        }
+        return result;
+    }
+    
     private Connection mockConnection() throws SQLException {
         Connection result = mock(Connection.class);
         DatabaseMetaData databaseMetaData = mock(DatabaseMetaData.class);
@@ -56,11 +86,15 @@ public final class ShardingDataSourceTest {
     }
     
     private ShardingDataSource createShardingDataSource(final DataSource dataSource) {
+        return createShardingDataSource(dataSource, new Properties());
+    }
+    
+    private ShardingDataSource createShardingDataSource(final DataSource dataSource, final Properties props) {
         Map<String, DataSource> dataSourceMap = new HashMap<>(1);
         dataSourceMap.put("ds", dataSource);
         DataSourceRule dataSourceRule = new DataSourceRule(dataSourceMap);
         TableRule tableRule = TableRule.builder("logicTable").actualTables(Arrays.asList("table_0", "table_1", "table_2")).dataSourceRule(dataSourceRule).build();
         return new ShardingDataSource(ShardingRule.builder()
-                .dataSourceRule(dataSourceRule).tableRules(Collections.singletonList(tableRule)).build());
+                .dataSourceRule(dataSourceRule).tableRules(Collections.singletonList(tableRule)).build(), props);
     }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.jdbc.core.resultset;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public final class PassThroughResultSetTest {
+    
+    @Mock
+    private ResultSet resultSet;
+    
+    @Mock
+    private Statement statement;
+    
+    private PassThroughResultSet passThroughResultSet;
+    
+    @Before
+    public void setUp() {
+        passThroughResultSet = new PassThroughResultSet(resultSet, statement);
+    }
+    
+    @Test
+    public void assertGetStatement() throws SQLException {
+        assertThat(passThroughResultSet.getStatement(), is(statement));
+    }
+    
+    @Test
+    public void assertNext() throws SQLException {
+        when(resultSet.next()).thenReturn(true);
+        assertTrue(passThroughResultSet.next());
+    }
+    
+    @Test
+    public void assertGetValue() throws SQLException {
+        when(resultSet.getLong(1)).thenReturn(1L);
+        when(resultSet.getString("label")).thenReturn("value");
+        when(resultSet.wasNull()).thenReturn(true);
+        assertThat(passThroughResultSet.getLong(1), is(1L));
+        assertThat(passThroughResultSet.getString("label"), is("value"));
+        assertTrue(passThroughResultSet.wasNull());
+    }
+    
+    @Test
+    public void assertClose() throws SQLException {
+        passThroughResultSet.close();
+        assertTrue(passThroughResultSet.isClosed());
+        verify(resultSet).close();
+    }
+}
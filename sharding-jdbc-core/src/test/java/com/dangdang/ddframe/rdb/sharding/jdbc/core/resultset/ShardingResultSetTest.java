@@ -18,6 +18,8 @@
 package com.dangdang.ddframe.rdb.sharding.jdbc.core.resultset;
 
 import com.dangdang.ddframe.rdb.sharding.merger.ResultSetMerger;
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryAccount;
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryBudget;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -66,92 +68,124 @@ public final class ShardingResultSetTest {
         assertTrue(shardingResultSet.next());
     }
     
+    @Test
+    public void assertNextToEndReleaseMergeMemory() throws SQLException {
+        MergeMemoryBudget mergeMemoryBudget = new MergeMemoryBudget();
+        MergeMemoryAccount mergeMemoryAccount = mergeMemoryBudget.createAccount();
+        mergeMemoryAccount.charge(100L);
+        shardingResultSet = new ShardingResultSet(Collections.singletonList(mock(ResultSet.class)), mergeResultSet, mergeMemoryAccount);
+        when(mergeResultSet.next()).thenReturn(true, false);
+        assertTrue(shardingResultSet.next());
+        assertThat(mergeMemoryBudget.getUsedBytes(), is(100L));
+        assertFalse(shardingResultSet.next());
+        assertThat(mergeMemoryBudget.getUsedBytes(), is(0L));
+    }
+    
+    @Test
+    public void assertCloseReleaseMergeMemory() throws SQLException {
+        MergeMemoryBudget mergeMemoryBudget = new MergeMemoryBudget();
+        MergeMemoryAccount mergeMemoryAccount = mergeMemoryBudget.createAccount();
+        mergeMemoryAccount.charge(100L);
+        shardingResultSet = new ShardingResultSet(Collections.singletonList(mock(ResultSet.class)), mergeResultSet, mergeMemoryAccount);
+        shardingResultSet.close();
+        assertTrue(shardingResultSet.isClosed());
+        assertThat(mergeMemoryBudget.getUsedBytes(), is(0L));
+    }
+    
     @Test
     public void assertWasNull() throws SQLException {
         assertFalse(shardingResultSet.wasNull());
     }
     
+    @Test
+    public void assertWasNullWithPrimitiveValue() throws SQLException {
+        when(mergeResultSet.getInt(1)).thenReturn(0);
+        when(mergeResultSet.wasNull()).thenReturn(true);
+        assertThat(shardingResultSet.getInt(1), is(0));
+        assertTrue(shardingResultSet.wasNull());
+    }
+    
     @Test
     public void assertGetBooleanWithColumnIndex() throws SQLException {
-        when(mergeResultSet.getValue(1, boolean.class)).thenReturn(true);
+        when(mergeResultSet.getBoolean(1)).thenReturn(true);
         assertTrue(shardingResultSet.getBoolean(1));
     }
     
     @Test
     public void assertGetBooleanWithColumnLabel() throws SQLException {
-        when(mergeResultSet.getValue("label", boolean.class)).thenReturn(true);
+        when(mergeResultSet.getBoolean("label")).thenReturn(true);
         assertTrue(shardingResultSet.getBoolean("label"));
     }
     
     @Test
     public void assertGetByteWithColumnIndex() throws SQLException {
-        when(mergeResultSet.getValue(1, byte.class)).thenReturn((byte) 1);
+        when(mergeResultSet.getByte(1)).thenReturn((byte) 1);
         assertThat(shardingResultSet.getByte(1), is((byte) 1));
     }
     
     @Test
     public void assertGetByteWithColumnLabel() throws SQLException {
-        when(mergeResultSet.getValue("label", byte.class)).thenReturn((byte) 1);
+        when(mergeResultSet.getByte("label")).thenReturn((byte) 1);
         assertThat(shardingResultSet.getByte("label"), is((byte) 1));
     }
     
     @Test
     public void assertGetShortWithColumnIndex() throws SQLException {
-        when(mergeResultSet.getValue(1, short.class)).thenReturn((short) 1);
+        when(mergeResultSet.getShort(1)).thenReturn((short) 1);
         assertThat(shardingResultSet.getShort(1), is((short) 1));
     }
     
     @Test
     public void assertGetShortWithColumnLabel() throws SQLException {
-        when(mergeResultSet.getValue("label", short.class)).thenReturn((short) 1);
+        when(mergeResultSet.getShort("label")).thenReturn((short) 1);
         assertThat(shardingResultSet.getShort("label"), is((short) 1));
     }
     
     @Test
     public void assertGetIntWithColumnIndex() throws SQLException {
-        when(mergeResultSet.getValue(1, int.class)).thenReturn(1);
+        when(mergeResultSet.getInt(1)).thenReturn(1);
         assertThat(shardingResultSet.getInt(1), is(1));
     }
     
     @Test
     public void assertGetIntWithColumnLabel() throws SQLException {
-        when(mergeResultSet.getValue("label", int.class)).thenReturn((short) 1);
+        when(mergeResultSet.getInt("label")).thenReturn(1);
         assertThat(shardingResultSet.getInt("label"), is(1));
     }
     
     @Test
     public void assertGetLongWithColumnIndex() throws SQLException {
-        when(mergeResultSet.getValue(1, long.class)).thenReturn(1L);
+        when(mergeResultSet.getLong(1)).thenReturn(1L);
         assertThat(shardingResultSet.getLong(1), is(1L));
     }
     
     @Test
     public void assertGetLongWithColumnLabel() throws SQLException {
-        when(mergeResultSet.getValue("label", long.class)).thenReturn(1L);
+        when(mergeResultSet.getLong("label")).thenReturn(1L);
         assertThat(shardingResultSet.getLong("label"), is(1L));
     }
     
     @Test
     public void assertGetFloatWithColumnIndex() throws SQLException {
-        when(mergeResultSet.getValue(1, float.class)).thenReturn(1F);
+        when(mergeResultSet.getFloat(1)).thenReturn(1F);
         assertThat(shardingResultSet.getFloat(1), is(1F));
     }
     
     @Test
     public void assertGetFloatWithColumnLabel() throws SQLException {
-        when(mergeResultSet.getValue("label", float.class)).thenReturn(1F);
+        when(mergeResultSet.getFloat("label")).thenReturn(1F);
         assertThat(shardingResultSet.getFloat("label"), is(1F));
     }
     
     @Test
     public void assertGetDoubleWithColumnIndex() throws SQLException {
-        when(mergeResultSet.getValue(1, double.class)).thenReturn(1D);
+        when(mergeResultSet.getDouble(1)).thenReturn(1D);
         assertThat(shardingResultSet.getDouble(1), is(1D));
     }
     
     @Test
     public void assertGetDoubleWithColumnLabel() throws SQLException {
-        when(mergeResultSet.getValue("label", double.class)).thenReturn(1D);
+        when(mergeResultSet.getDouble("label")).thenReturn(1D);
         assertThat(shardingResultSet.getDouble("label"), is(1D));
     }
     
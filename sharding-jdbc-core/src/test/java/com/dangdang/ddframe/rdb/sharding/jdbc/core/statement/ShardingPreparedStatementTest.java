@@ -19,10 +19,13 @@ package com.dangdang.ddframe.rdb.sharding.jdbc.core.statement;
 
 import com.dangdang.ddframe.rdb.common.base.AbstractShardingJDBCDatabaseAndTableTest;
 import com.dangdang.ddframe.rdb.integrate.sql.DatabaseTestSQL;
+import com.dangdang.ddframe.rdb.sharding.config.ShardingPropertiesConstant;
 import com.dangdang.ddframe.rdb.sharding.constant.DatabaseType;
 import com.dangdang.ddframe.rdb.sharding.executor.event.DMLExecutionEvent;
 import com.dangdang.ddframe.rdb.sharding.executor.event.EventExecutionType;
+import com.dangdang.ddframe.rdb.sharding.jdbc.core.connection.ShardingConnection;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.datasource.ShardingDataSource;
+import com.dangdang.ddframe.rdb.sharding.jdbc.core.resultset.PassThroughResultSet;
 import com.dangdang.ddframe.rdb.sharding.jdbc.util.JDBCTestSQL;
 import com.dangdang.ddframe.rdb.sharding.util.EventBusInstance;
 import com.google.common.eventbus.Subscribe;
@@ -35,8 +38,11 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 
 import static com.dangdang.ddframe.rdb.common.util.SqlPlaceholderUtil.replacePreparedStatement;
 import static org.hamcrest.CoreMatchers.hasItem;
@@ -44,6 +50,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
 
 public final class ShardingPreparedStatementTest extends AbstractShardingJDBCDatabaseAndTableTest {
     
@@ -97,6 +104,254 @@ public final class ShardingPreparedStatementTest extends AbstractShardingJDBCDat
     }
     
     
+    @Test
+    public void assertExecuteQueryWithConcurrentIteratorMerge() throws SQLException {
+        Properties props = new Properties();
+        props.setProperty(ShardingPropertiesConstant.CONCURRENT_ITERATOR_MERGE_QUEUE_SIZE.getKey(), "1");
+        for (ShardingDataSource each : createShardingDataSources(props).values()) {
+            try (
+                    Connection connection = each.getConnection();
+                    PreparedStatement preparedStatement = connection.prepareStatement("SELECT order_id FROM t_order WHERE status = ? LIMIT 1, 2")) {
+                preparedStatement.setString(1, "init");
+                ResultSet resultSet = preparedStatement.executeQuery();
+                assertTrue(resultSet.next());
+                assertTrue(resultSet.next());
+                assertFalse(resultSet.next());
+                preparedStatement.setString(1, "null");
+                assertFalse(preparedStatement.executeQuery().next());
+            } finally {
+                each.close();
+            }
+        }
+    }
+    
+    @Test
+    public void assertExecuteQueryReusePreparedStatements() throws SQLException {
+        for (ShardingDataSource each : shardingDataSources.values()) {
+            List<Statement> routedStatements;
+            try (
+                    Connection connection = each.getConnection();
+                    ShardingPreparedStatement preparedStatement = (ShardingPreparedStatement) connection.prepareStatement("SELECT order_id FROM t_order WHERE status = ?")) {
+                preparedStatement.setString(1, "init");
+                preparedStatement.executeQuery().close();
+                routedStatements = new ArrayList<>(preparedStatement.getRoutedStatements());
+                preparedStatement.setString(1, "null");
+                assertFalse(preparedStatement.executeQuery().next());
+                assertThat(preparedStatement.getRoutedStatements().size(), is(routedStatements.size()));
+                int index = 0;
+                for (Statement routedStatement : preparedStatement.getRoutedStatements()) {
+                    assertTrue(routedStatement == routedStatements.get(index++));
+                }
+            }
+            for (Statement routedStatement : routedStatements) {
+                assertTrue(routedStatement.isClosed());
+            }
+        }
+    }
+    
+    @Test
+    public void assertExecuteQueryEvictCachedStatementsOfReleasedConnection() throws SQLException {
+        for (ShardingDataSource each : shardingDataSources.values()) {
+            try (
+                    ShardingConnection connection = each.getConnection();
+                    ShardingPreparedStatement preparedStatement = (ShardingPreparedStatement) connection.prepareStatement("SELECT order_id FROM t_order WHERE status = ?")) {
+                preparedStatement.setString(1, "init");
+                preparedStatement.executeQuery().close();
+                int cachedSize = preparedStatement.getStatementsToClose().size();
+                Statement releasedStatement = preparedStatement.getRoutedStatements().iterator().next();
+                connection.release(releasedStatement.getConnection());
+                preparedStatement.setString(1, "init");
+                preparedStatement.executeQuery().close();
+                assertThat(preparedStatement.getStatementsToClose().size(), is(cachedSize));
+                assertFalse(preparedStatement.getStatementsToClose().contains(releasedStatement));
+            }
+        }
+    }
+    
+    @Test
+    public void assertCachedStatementsEvictLeastRecentlyUsed() {
+        Collection<PreparedStatement> evictedStatements = new LinkedList<>();
+        Map<String, PreparedStatement> cachedStatements = new ShardingPreparedStatement.CachedStatements(2, evictedStatements);
+        PreparedStatement statement0 = mock(PreparedStatement.class);
+        PreparedStatement statement1 = mock(PreparedStatement.class);
+        PreparedStatement statement2 = mock(PreparedStatement.class);
+        cachedStatements.put("SELECT 0", statement0);
+        cachedStatements.put("SELECT 1", statement1);
+        cachedStatements.get("SELECT 0");
+        cachedStatements.put("SELECT 2", statement2);
+        assertThat(cachedStatements.size(), is(2));
+        assertTrue(cachedStatements.containsKey("SELECT 0"));
+        assertTrue(cachedStatements.containsKey("SELECT 2"));
+        assertThat(evictedStatements.size(), is(1));
+        assertTrue(evictedStatements.contains(statement1));
+    }
+    
+    @Test
+    public void assertExecuteQueryForSingleShardWithOffset() throws SQLException {
+        for (ShardingDataSource each : shardingDataSources.values()) {
+            try (
+                    Connection connection = each.getConnection();
+                    PreparedStatement preparedStatement = connection.prepareStatement("SELECT item_id FROM t_order_item WHERE user_id = ? AND order_id = ? ORDER BY item_id LIMIT 1, 5")) {
+                preparedStatement.setInt(1, 10);
+                preparedStatement.setInt(2, 1000);
+                ResultSet resultSet = preparedStatement.executeQuery();
+                assertTrue(resultSet instanceof PassThroughResultSet);
+                assertThat(resultSet.getStatement(), is((Statement) preparedStatement));
+                assertTrue(resultSet.next());
+                assertThat(resultSet.getInt(1), is(100001));
+                assertFalse(resultSet.next());
+                assertThat(preparedStatement.getResultSet(), is(resultSet));
+            }
+        }
+    }
+    
+    @Test
+    public void assertExecuteQueryWithShardingInValues() throws SQLException {
+        for (ShardingDataSource each : shardingDataSources.values()) {
+            try (
+                    Connection connection = each.getConnection();
+                    PreparedStatement preparedStatement = connection.prepareStatement("SELECT order_id FROM t_order WHERE order_id IN (?, ?, ?, ?) AND status = ? ORDER BY order_id")) {
+                preparedStatement.setInt(1, 1101);
+                preparedStatement.setInt(2, 1000);
+                preparedStatement.setInt(3, 1100);
+                preparedStatement.setInt(4, 9999);
+                preparedStatement.setString(5, "init");
+                assertOrderIds(preparedStatement.executeQuery(), 1000, 1100, 1101);
+            }
+        }
+    }
+    
+    @Test
+    public void assertExecuteQueryWithSeekValues() throws SQLException {
+        for (ShardingDataSource each : shardingDataSources.values()) {
+            try (
+                    Connection connection = each.getConnection();
+                    ShardingPreparedStatement preparedStatement = (ShardingPreparedStatement) connection.prepareStatement("SELECT order_id FROM t_order WHERE status = ? ORDER BY order_id LIMIT ?")) {
+                assertOrderIds(executeQueryForPage(preparedStatement, "init", 2), 1000, 1001);
+                preparedStatement.setSeekValues(1001);
+                assertOrderIds(executeQueryForPage(preparedStatement, "init", 2), 1100, 1101);
+                preparedStatement.setSeekValues(1101);
+                assertOrderIds(executeQueryForPage(preparedStatement, "init", 2));
+                preparedStatement.clearSeekValues();
+                assertOrderIds(executeQueryForPage(preparedStatement, "init", 2), 1000, 1001);
+            }
+        }
+    }
+    
+    @Test
+    public void assertExecuteQueryWithDescSeekValues() throws SQLException {
+        for (ShardingDataSource each : shardingDataSources.values()) {
+            try (
+                    Connection connection = each.getConnection();
+                    ShardingPreparedStatement preparedStatement = (ShardingPreparedStatement) connection.prepareStatement(
+                            "SELECT order_id, user_id FROM t_order WHERE status = ? ORDER BY user_id DESC, order_id DESC LIMIT ?")) {
+                preparedStatement.setSeekValues(11, 1101);
+                assertOrderIds(executeQueryForPage(preparedStatement, "init", 3), 1100, 1001, 1000);
+            }
+        }
+    }
+    
+    private ResultSet executeQueryForPage(final PreparedStatement preparedStatement, final String status, final int rowCount) throws SQLException {
+        preparedStatement.setString(1, status);
+        preparedStatement.setInt(2, rowCount);
+        return preparedStatement.executeQuery();
+    }
+    
+    private void assertOrderIds(final ResultSet resultSet, final int... expectedOrderIds) throws SQLException {
+        for (int each : expectedOrderIds) {
+            assertTrue(resultSet.next());
+            assertThat(resultSet.getInt(1), is(each));
+        }
+        assertFalse(resultSet.next());
+    }
+    
+    @Test
+    public void assertExecuteQueryAsyncWithParameter() throws Exception {
+        for (ShardingDataSource each : shardingDataSources.values()) {
+            try (
+                    Connection connection = each.getConnection();
+                    ShardingPreparedStatement preparedStatement = (ShardingPreparedStatement) connection.prepareStatement(DatabaseTestSQL.SELECT_COUNT_AS_ORDERS_COUNT_SQL)) {
+                preparedStatement.setString(1, "init");
+                ResultSet resultSet = preparedStatement.executeQueryAsync().get();
+                assertTrue(resultSet.next());
+                assertThat(resultSet.getLong(1), is(4L));
+                assertThat(preparedStatement.getResultSet(), is(resultSet));
+            }
+        }
+    }
+    
+    @Test
+    public void assertExecuteQueryAsyncWithConcurrentIteratorMerge() throws Exception {
+        Properties props = new Properties();
+        props.setProperty(ShardingPropertiesConstant.CONCURRENT_ITERATOR_MERGE_QUEUE_SIZE.getKey(), "1");
+        for (ShardingDataSource each : createShardingDataSources(props).values()) {
+            try (
+                    Connection connection = each.getConnection();
+                    ShardingPreparedStatement preparedStatement = (ShardingPreparedStatement) connection.prepareStatement("SELECT order_id FROM t_order WHERE status = ? LIMIT 1, 2")) {
+                preparedStatement.setString(1, "init");
+                ResultSet resultSet = preparedStatement.executeQueryAsync().get();
+                assertTrue(resultSet.next());
+                assertTrue(resultSet.next());
+                assertFalse(resultSet.next());
+                assertThat(preparedStatement.getResultSet(), is(resultSet));
+            } finally {
+                each.close();
+            }
+        }
+    }
+    
+    @Test
+    public void assertExecuteQueryAsyncWithGroupByPartialAggregation() throws Exception {
+        Properties props = new Properties();
+        props.setProperty(ShardingPropertiesConstant.GROUP_BY_PARTIAL_AGGREGATION_ENABLE.getKey(), Boolean.TRUE.toString());
+        for (ShardingDataSource each : createShardingDataSources(props).values()) {
+            try (
+                    Connection connection = each.getConnection();
+                    ShardingPreparedStatement preparedStatement = (ShardingPreparedStatement) connection.prepareStatement(DatabaseTestSQL.SELECT_COUNT_AS_ORDERS_COUNT_SQL)) {
+                preparedStatement.setString(1, "init");
+                ResultSet resultSet = preparedStatement.executeQueryAsync().get();
+                assertTrue(resultSet.next());
+                assertThat(resultSet.getLong(1), is(4L));
+                assertFalse(resultSet.next());
+            } finally {
+                each.close();
+            }
+        }
+    }
+    
+    @Test
+    public void assertExecuteQueryAsyncForSingleShard() throws Exception {
+        for (ShardingDataSource each : shardingDataSources.values()) {
+            try (
+                    Connection connection = each.getConnection();
+                    ShardingPreparedStatement preparedStatement = (ShardingPreparedStatement) connection.prepareStatement("SELECT item_id FROM t_order_item WHERE user_id = ? AND order_id = ? ORDER BY item_id")) {
+                preparedStatement.setInt(1, 10);
+                preparedStatement.setInt(2, 1000);
+                ResultSet resultSet = preparedStatement.executeQueryAsync().get();
+                assertTrue(resultSet instanceof PassThroughResultSet);
+                assertThat(resultSet.getStatement(), is((Statement) preparedStatement));
+                assertTrue(resultSet.next());
+                assertThat(resultSet.getInt(1), is(100000));
+                assertThat(preparedStatement.getResultSet(), is(resultSet));
+            }
+        }
+    }
+    
+    @Test
+    public void assertExecuteUpdateAsyncWithParameter() throws Exception {
+        for (ShardingDataSource each : shardingDataSources.values()) {
+            try (
+                    Connection connection = each.getConnection();
+                    ShardingPreparedStatement preparedStatement = (ShardingPreparedStatement) connection.prepareStatement(
+                            replacePreparedStatement(DatabaseTestSQL.DELETE_WITHOUT_SHARDING_VALUE_SQL))) {
+                preparedStatement.setString(1, "init");
+                assertThat(preparedStatement.executeUpdateAsync().get(), is(4));
+                preparedStatement.setString(1, "init");
+                assertThat(preparedStatement.executeUpdateAsync().get(), is(0));
+            }
+        }
+    }
+    
     @Test
     public void assertExecuteUpdateWithParameter() throws SQLException {
         for (ShardingDataSource each : shardingDataSources.values()) {
@@ -127,6 +382,40 @@ public final class ShardingPreparedStatementTest extends AbstractShardingJDBCDat
         }
     }
     
+    @Test
+    public void assertExecuteUpdateWithMultipleInsertValues() throws SQLException {
+        for (ShardingDataSource each : createShardingDataSources(new Properties()).values()) {
+            try (
+                    Connection connection = each.getConnection();
+                    PreparedStatement preparedStatement = connection.prepareStatement(
+                            "INSERT INTO t_order_item (order_id, user_id, status) VALUES (?, ?, ?), (?, ?, ?), (?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+                    Statement queryStatement = connection.createStatement()) {
+                preparedStatement.setInt(1, 11);
+                preparedStatement.setInt(2, 11);
+                preparedStatement.setString(3, "MULTI");
+                preparedStatement.setInt(4, 12);
+                preparedStatement.setInt(5, 12);
+                preparedStatement.setString(6, "MULTI");
+                preparedStatement.setInt(7, 21);
+                preparedStatement.setInt(8, 21);
+                preparedStatement.setString(9, "MULTI");
+                assertThat(preparedStatement.executeUpdate(), is(3));
+                ResultSet generateKeyResultSet = preparedStatement.getGeneratedKeys();
+                for (int id : new int[] {11, 12, 21}) {
+                    assertTrue(generateKeyResultSet.next());
+                    try (ResultSet rs = queryStatement.executeQuery(String.format("SELECT item_id FROM t_order_item WHERE user_id = %d AND order_id = %d AND status = 'MULTI'", id, id))) {
+                        assertTrue(rs.next());
+                        assertThat(rs.getLong(1), is(generateKeyResultSet.getLong(1)));
+                        assertFalse(rs.next());
+                    }
+                }
+                assertFalse(generateKeyResultSet.next());
+            } finally {
+                each.close();
+            }
+        }
+    }
+    
     @Test
     public void assertExecuteWithParameter() throws SQLException {
         for (ShardingDataSource each : shardingDataSources.values()) {
@@ -434,6 +723,35 @@ public final class ShardingPreparedStatementTest extends AbstractShardingJDBCDat
         }
     }
     
+    @Test
+    public void assertUpdateBatchWithFlushThreshold() throws SQLException {
+        String sql = replacePreparedStatement(DatabaseTestSQL.UPDATE_WITHOUT_SHARDING_VALUE_SQL);
+        Properties props = new Properties();
+        props.setProperty(ShardingPropertiesConstant.BATCH_FLUSH_THRESHOLD.getKey(), "2");
+        for (ShardingDataSource each : createShardingDataSources(props).values()) {
+            try (
+                    Connection connection = each.getConnection();
+                    PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+                preparedStatement.setString(1, "batch");
+                preparedStatement.setString(2, "init");
+                preparedStatement.addBatch();
+                preparedStatement.setString(1, "batch");
+                preparedStatement.setString(2, "init");
+                preparedStatement.addBatch();
+                preparedStatement.setString(1, "init");
+                preparedStatement.setString(2, "batch");
+                preparedStatement.addBatch();
+                int[] result = preparedStatement.executeBatch();
+                assertThat(result.length, is(3));
+                assertThat(result[0], is(4));
+                assertThat(result[1], is(0));
+                assertThat(result[2], is(4));
+            } finally {
+                each.close();
+            }
+        }
+    }
+    
     @Test
     public void assertClearBatch() throws SQLException {
         for (ShardingDataSource each : shardingDataSources.values()) {
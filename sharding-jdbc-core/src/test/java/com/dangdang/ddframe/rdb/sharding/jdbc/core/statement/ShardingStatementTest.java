@@ -18,8 +18,10 @@
 package com.dangdang.ddframe.rdb.sharding.jdbc.core.statement;
 
 import com.dangdang.ddframe.rdb.common.base.AbstractShardingJDBCDatabaseAndTableTest;
+import com.dangdang.ddframe.rdb.sharding.config.ShardingPropertiesConstant;
 import com.dangdang.ddframe.rdb.sharding.constant.DatabaseType;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.datasource.ShardingDataSource;
+import com.dangdang.ddframe.rdb.sharding.jdbc.core.resultset.PassThroughResultSet;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -27,7 +29,10 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
 
 import static junit.framework.TestCase.assertFalse;
 import static org.hamcrest.CoreMatchers.is;
@@ -62,6 +67,42 @@ public final class ShardingStatementTest extends AbstractShardingJDBCDatabaseAnd
         }
     }
     
+    @Test
+    public void assertExecuteQueryForSingleShard() throws SQLException {
+        for (ShardingDataSource each : shardingDataSources.values()) {
+            try (
+                    Connection connection = each.getConnection();
+                    Statement stmt = connection.createStatement();
+                    ResultSet resultSet = stmt.executeQuery("SELECT item_id FROM t_order_item WHERE user_id = 10 AND order_id = 1000 ORDER BY item_id")) {
+                assertTrue(resultSet instanceof PassThroughResultSet);
+                assertThat(resultSet.getStatement(), is(stmt));
+                assertTrue(resultSet.next());
+                assertThat(resultSet.getInt(1), is(100000));
+                assertThat(stmt.getResultSet(), is(resultSet));
+            }
+        }
+    }
+    
+    @Test
+    public void assertExecuteQueryWithConcurrentIteratorMerge() throws SQLException {
+        Properties props = new Properties();
+        props.setProperty(ShardingPropertiesConstant.CONCURRENT_ITERATOR_MERGE_QUEUE_SIZE.getKey(), "1");
+        for (ShardingDataSource each : createShardingDataSources(props).values()) {
+            try (
+                    Connection connection = each.getConnection();
+                    Statement stmt = connection.createStatement();
+                    ResultSet resultSet = stmt.executeQuery("SELECT order_id FROM t_order WHERE status = 'init'")) {
+                Set<Integer> actual = new HashSet<>();
+                while (resultSet.next()) {
+                    actual.add(resultSet.getInt("order_id"));
+                }
+                assertThat(actual.size(), is(4));
+            } finally {
+                each.close();
+            }
+        }
+    }
+    
     @Test
     public void assertExecuteUpdate() throws SQLException {
         for (ShardingDataSource each : shardingDataSources.values()) {
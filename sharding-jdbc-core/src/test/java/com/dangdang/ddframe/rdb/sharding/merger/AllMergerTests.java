@@ -20,15 +20,21 @@ package com.dangdang.ddframe.rdb.sharding.merger;
 import com.dangdang.ddframe.rdb.sharding.merger.common.DecoratorResultSetMergerTest;
 import com.dangdang.ddframe.rdb.sharding.merger.common.MemoryResultSetMergerTest;
 import com.dangdang.ddframe.rdb.sharding.merger.common.MemoryResultSetRowTest;
+import com.dangdang.ddframe.rdb.sharding.merger.common.RowSpillFileTest;
 import com.dangdang.ddframe.rdb.sharding.merger.common.StreamResultSetMergerTest;
+import com.dangdang.ddframe.rdb.sharding.merger.distinct.DistinctDecoratorResultSetMergerTest;
 import com.dangdang.ddframe.rdb.sharding.merger.groupby.GroupByMemoryResultSetMergerTest;
+import com.dangdang.ddframe.rdb.sharding.merger.groupby.GroupByPartialAggregatorTest;
 import com.dangdang.ddframe.rdb.sharding.merger.groupby.GroupByRowComparatorTest;
 import com.dangdang.ddframe.rdb.sharding.merger.groupby.GroupByStreamResultSetMergerTest;
 import com.dangdang.ddframe.rdb.sharding.merger.groupby.GroupByValueTest;
 import com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation.AllAggregationTests;
+import com.dangdang.ddframe.rdb.sharding.merger.iterator.ConcurrentIteratorResultSetMergerTest;
 import com.dangdang.ddframe.rdb.sharding.merger.iterator.IteratorStreamResultSetMergerTest;
 import com.dangdang.ddframe.rdb.sharding.merger.limit.LimitDecoratorResultSetMergerTest;
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryBudgetTest;
 import com.dangdang.ddframe.rdb.sharding.merger.orderby.OrderByStreamResultSetMergerTest;
+import com.dangdang.ddframe.rdb.sharding.merger.orderby.OrderByValueLoserTreeTest;
 import com.dangdang.ddframe.rdb.sharding.merger.orderby.OrderByValueTest;
 import com.dangdang.ddframe.rdb.sharding.merger.util.ResultSetUtilTest;
 import org.junit.runner.RunWith;
@@ -41,15 +47,21 @@ import org.junit.runners.Suite;
         MemoryResultSetMergerTest.class, 
         DecoratorResultSetMergerTest.class, 
         MemoryResultSetRowTest.class, 
+        RowSpillFileTest.class, 
         IteratorStreamResultSetMergerTest.class, 
+        ConcurrentIteratorResultSetMergerTest.class, 
         OrderByValueTest.class, 
+        OrderByValueLoserTreeTest.class, 
         OrderByStreamResultSetMergerTest.class, 
         GroupByValueTest.class, 
         GroupByRowComparatorTest.class, 
         GroupByStreamResultSetMergerTest.class, 
         GroupByMemoryResultSetMergerTest.class, 
+        GroupByPartialAggregatorTest.class, 
         AllAggregationTests.class, 
+        DistinctDecoratorResultSetMergerTest.class, 
         LimitDecoratorResultSetMergerTest.class, 
+        MergeMemoryBudgetTest.class, 
         ResultSetUtilTest.class
     })
 public class AllMergerTests {
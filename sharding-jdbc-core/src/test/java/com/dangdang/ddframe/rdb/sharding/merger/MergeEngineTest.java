@@ -22,6 +22,7 @@ import com.dangdang.ddframe.rdb.sharding.constant.DatabaseType;
 import com.dangdang.ddframe.rdb.sharding.constant.OrderType;
 import com.dangdang.ddframe.rdb.sharding.merger.groupby.GroupByMemoryResultSetMerger;
 import com.dangdang.ddframe.rdb.sharding.merger.groupby.GroupByStreamResultSetMerger;
+import com.dangdang.ddframe.rdb.sharding.merger.iterator.ConcurrentIteratorResultSetMerger;
 import com.dangdang.ddframe.rdb.sharding.merger.iterator.IteratorStreamResultSetMerger;
 import com.dangdang.ddframe.rdb.sharding.merger.limit.LimitDecoratorResultSetMerger;
 import com.dangdang.ddframe.rdb.sharding.merger.orderby.OrderByStreamResultSetMerger;
@@ -40,7 +41,9 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -79,6 +82,22 @@ public final class MergeEngineTest {
         assertThat(((LimitDecoratorResultSetMerger) actual).getResultSetMerger(), instanceOf(IteratorStreamResultSetMerger.class));
     }
     
+    @Test
+    public void assertMergeConcurrentIteratorResultSetMergerWithLimit() throws SQLException {
+        selectStatement.setLimit(new Limit(true));
+        mergeEngine = new MergeEngine(DatabaseType.MySQL, resultSets, selectStatement);
+        ResultSetMerger actual = mergeEngine.merge(new ConcurrentIteratorResultSetMerger(1));
+        assertThat(actual, instanceOf(LimitDecoratorResultSetMerger.class));
+        assertThat(((LimitDecoratorResultSetMerger) actual).getResultSetMerger(), instanceOf(ConcurrentIteratorResultSetMerger.class));
+    }
+    
+    @Test
+    public void assertIsConcurrentIteratorMergeable() {
+        assertTrue(MergeEngine.isConcurrentIteratorMergeable(selectStatement));
+        selectStatement.getOrderByItems().add(new OrderItem(1, OrderType.DESC));
+        assertFalse(MergeEngine.isConcurrentIteratorMergeable(selectStatement));
+    }
+    
     @Test
     public void assertBuildOrderByStreamResultSetMerger() throws SQLException {
         selectStatement.getOrderByItems().add(new OrderItem(1, OrderType.DESC));
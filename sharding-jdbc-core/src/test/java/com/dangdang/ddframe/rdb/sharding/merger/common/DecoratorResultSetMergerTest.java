@@ -30,8 +30,10 @@ import java.util.Calendar;
 import java.util.Date;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -59,6 +61,22 @@ public final class DecoratorResultSetMergerTest {
         assertThat(decoratorResultSetMerger.getValue("label", Object.class).toString(), is("1"));
     }
     
+    @Test
+    public void assertGetIntWithColumnIndex() throws SQLException {
+        when(resultSetMerger.getInt(1)).thenReturn(1);
+        when(resultSetMerger.wasNull()).thenReturn(false);
+        assertThat(decoratorResultSetMerger.getInt(1), is(1));
+        assertFalse(decoratorResultSetMerger.wasNull());
+    }
+    
+    @Test
+    public void assertGetLongWithColumnLabel() throws SQLException {
+        when(resultSetMerger.getLong("label")).thenReturn(0L);
+        when(resultSetMerger.wasNull()).thenReturn(true);
+        assertThat(decoratorResultSetMerger.getLong("label"), is(0L));
+        assertTrue(decoratorResultSetMerger.wasNull());
+    }
+    
     @Test
     public void assertGetCalenderValueWithColumnIndex() throws SQLException {
         Calendar calendar = Calendar.getInstance();
@@ -37,7 +37,9 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -62,6 +64,32 @@ public final class MemoryResultSetMergerTest {
         assertThat(memoryResultSetMerger.getValue(1, Object.class).toString(), is("1"));
     }
     
+    @Test
+    public void assertGetIntWithColumnIndex() throws SQLException {
+        when(memoryResultSetRow.getCell(1)).thenReturn(1);
+        when(memoryResultSetRow.getInt(1)).thenReturn(1);
+        assertThat(memoryResultSetMerger.getInt(1), is(1));
+        assertFalse(memoryResultSetMerger.wasNull());
+    }
+    
+    @Test
+    public void assertGetLongWithColumnLabelForNull() throws SQLException {
+        when(memoryResultSetRow.getCell(1)).thenReturn(null);
+        when(memoryResultSetRow.getLong(1)).thenReturn(0L);
+        assertThat(memoryResultSetMerger.getLong("label"), is(0L));
+        assertTrue(memoryResultSetMerger.wasNull());
+    }
+    
+    @Test(expected = SQLException.class)
+    public void assertGetIntWithUnknownColumnLabel() throws SQLException {
+        memoryResultSetMerger.getInt("unknown_label");
+    }
+    
+    @Test(expected = SQLException.class)
+    public void assertGetValueWithUnknownColumnLabel() throws SQLException {
+        memoryResultSetMerger.getValue("unknown_label", Object.class);
+    }
+    
     @Test(expected = SQLFeatureNotSupportedException.class)
     public void assertGetValueWithColumnIndexForBlob() throws SQLException {
         memoryResultSetMerger.getValue(1, Blob.class);
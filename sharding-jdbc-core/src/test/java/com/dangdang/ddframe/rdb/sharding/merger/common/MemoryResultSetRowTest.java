@@ -64,6 +64,20 @@ public final class MemoryResultSetRowTest {
         memoryResultSetRow.getCell(2);
     }
     
+    @Test
+    public void assertGetPrimitiveValue() {
+        MemoryResultSetRow memoryResultSetRow = new MemoryResultSetRow(new Object[] {true, 1, 2L, null});
+        assertThat(memoryResultSetRow.getBoolean(1), is(true));
+        assertThat(memoryResultSetRow.getByte(2), is((byte) 1));
+        assertThat(memoryResultSetRow.getShort(2), is((short) 1));
+        assertThat(memoryResultSetRow.getInt(3), is(2));
+        assertThat(memoryResultSetRow.getLong(2), is(1L));
+        assertThat(memoryResultSetRow.getFloat(3), is(2F));
+        assertThat(memoryResultSetRow.getDouble(3), is(2D));
+        assertThat(memoryResultSetRow.getInt(4), is(0));
+        assertThat(memoryResultSetRow.getBoolean(4), is(false));
+    }
+    
     @Test
     public void assertSetCell() {
         memoryResultSetRow.setCell(1, "new");
@@ -0,0 +1,75 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+
+package com.dangdang.ddframe.rdb.sharding.merger.common;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public final class RowSpillFileTest {
+    
+    @Test
+    public void assertWriteAndRead() throws SQLException {
+        Timestamp timestamp = new Timestamp(1000L);
+        timestamp.setNanos(123456789);
+        Object[] values = new Object[] {null, true, (byte) 1, (short) 2, 3, 4L, 5.5F, 6.5D, new BigInteger("123456789012345678901234567890"), new BigDecimal("-12.345"), 
+            "中文value", new Date(1000L), new Time(2000L), timestamp, new java.util.Date(3000L), Arrays.asList(1, 2)};
+        try (RowSpillFile actual = new RowSpillFile()) {
+            actual.write(new MemoryResultSetRow(values.clone()));
+            actual.write(new MemoryResultSetRow(new Object[] {"second"}));
+            actual.finishWrite();
+            assertThat(actual.getRowCount(), is(2));
+            MemoryResultSetRow firstRow = actual.read();
+            assertThat(firstRow.getColumnCount(), is(values.length));
+            for (int i = 0; i < values.length; i++) {
+                assertThat(firstRow.getCell(i + 1), is(values[i]));
+            }
+            assertThat(actual.read().getCell(1), is((Object) "second"));
+            assertNull(actual.read());
+        }
+    }
+    
+    @Test
+    public void assertWriteAndReadBytes() throws SQLException {
+        try (RowSpillFile actual = new RowSpillFile()) {
+            actual.write(new MemoryResultSetRow(new Object[] {new byte[] {1, 2, 3}}));
+            actual.finishWrite();
+            assertTrue(Arrays.equals((byte[]) actual.read().getCell(1), new byte[] {1, 2, 3}));
+        }
+    }
+    
+    @Test(expected = SQLFeatureNotSupportedException.class)
+    public void assertWriteWithUnsupportedType() throws SQLException {
+        try (RowSpillFile actual = new RowSpillFile()) {
+            actual.write(new MemoryResultSetRow(new Object[] {new Object()}));
+        }
+    }
+}
@@ -41,6 +41,7 @@ import java.util.Calendar;
 import java.util.Collection;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -72,6 +73,21 @@ public final class StreamResultSetMergerTest {
         assertThat(streamResultSetMerger.getValue(1, Object.class).toString(), is("1"));
     }
     
+    @Test
+    public void assertGetIntWithColumnIndex() throws SQLException {
+        when(resultSet.getInt(1)).thenReturn(1);
+        assertThat(streamResultSetMerger.getInt(1), is(1));
+        assertFalse(streamResultSetMerger.wasNull());
+    }
+    
+    @Test
+    public void assertGetLongWithColumnLabelForNull() throws SQLException {
+        when(resultSet.getLong("label")).thenReturn(0L);
+        when(resultSet.wasNull()).thenReturn(true);
+        assertThat(streamResultSetMerger.getLong("label"), is(0L));
+        assertTrue(streamResultSetMerger.wasNull());
+    }
+    
     @Test
     public void assertGetValueWithColumnIndexWithBoolean() throws SQLException {
         when(resultSet.getBoolean(1)).thenReturn(true);
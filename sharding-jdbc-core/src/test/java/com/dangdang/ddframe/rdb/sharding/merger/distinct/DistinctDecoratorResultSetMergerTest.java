@@ -0,0 +1,178 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+
+package com.dangdang.ddframe.rdb.sharding.merger.distinct;
+
+import com.dangdang.ddframe.rdb.sharding.constant.DatabaseType;
+import com.dangdang.ddframe.rdb.sharding.constant.OrderType;
+import com.dangdang.ddframe.rdb.sharding.exception.ShardingJdbcException;
+import com.dangdang.ddframe.rdb.sharding.merger.MergeEngine;
+import com.dangdang.ddframe.rdb.sharding.merger.ResultSetMerger;
+import com.dangdang.ddframe.rdb.sharding.merger.common.MemoryResultSetRow;
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryAccount;
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryBudget;
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryExhaustedPolicy;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.OrderItem;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.limit.Limit;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.limit.LimitValue;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.select.SelectStatement;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.ItemsToken;
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public final class DistinctDecoratorResultSetMergerTest {
+    
+    private SelectStatement selectStatement;
+    
+    @Before
+    public void setUp() {
+        selectStatement = new SelectStatement();
+        selectStatement.setDistinct(true);
+    }
+    
+    @Test
+    public void assertNextForOrderedByAllColumns() throws SQLException {
+        selectStatement.getOrderByItems().add(new OrderItem(1, OrderType.ASC));
+        List<ResultSet> resultSets = Lists.newArrayList(mockResultSet(1, 2, 2, 3), mockResultSet(2, 3, 5), mockResultSet());
+        ResultSetMerger actual = new MergeEngine(DatabaseType.MySQL, resultSets, selectStatement).merge();
+        assertNext(actual, 1, 2, 3, 5);
+    }
+    
+    @Test
+    public void assertNextForUnordered() throws SQLException {
+        List<ResultSet> resultSets = Lists.newArrayList(mockResultSet(1, 2, 1), mockResultSet(2, 3));
+        ResultSetMerger actual = new MergeEngine(DatabaseType.MySQL, resultSets, selectStatement).merge();
+        assertNext(actual, 1, 2, 3);
+    }
+    
+    @Test
+    public void assertNextForUnorderedWithMergeMemoryCharged() throws SQLException {
+        List<ResultSet> resultSets = Lists.newArrayList(mockResultSet(1, 2, 1), mockResultSet(2, 3));
+        MergeMemoryAccount mergeMemoryAccount = new MergeMemoryBudget().createAccount();
+        ResultSetMerger actual = new MergeEngine(DatabaseType.MySQL, resultSets, selectStatement, 0L, mergeMemoryAccount).merge();
+        assertNext(actual, 1, 2, 3);
+        assertThat(mergeMemoryAccount.getChargedBytes(), is(3 * new MemoryResultSetRow(new Object[] {1}).estimateSize()));
+    }
+    
+    @Test(expected = ShardingJdbcException.class)
+    public void assertNextForUnorderedWithMergeMemoryExhausted() throws SQLException {
+        List<ResultSet> resultSets = Lists.newArrayList(mockResultSet(1, 2, 1), mockResultSet(2, 3));
+        long maxBytes = 2 * new MemoryResultSetRow(new Object[] {1}).estimateSize();
+        MergeMemoryAccount mergeMemoryAccount = new MergeMemoryBudget(maxBytes, MergeMemoryExhaustedPolicy.FAIL_FAST, 0L).createAccount();
+        ResultSetMerger actual = new MergeEngine(DatabaseType.MySQL, resultSets, selectStatement, 0L, mergeMemoryAccount).merge();
+        assertNext(actual, 1, 2, 3);
+    }
+    
+    @Test
+    public void assertNextForDerivedOrderByColumn() throws SQLException {
+        selectStatement.getOrderByItems().add(new OrderItem(2, OrderType.ASC));
+        ItemsToken itemsToken = new ItemsToken(22);
+        itemsToken.getItems().add("id AS ORDER_BY_DERIVED_0 ");
+        selectStatement.getSqlTokens().add(itemsToken);
+        List<ResultSet> resultSets = Lists.newArrayList(
+                mockResultSetWithDerivedColumn(new Object[] {1, 1}, new Object[] {2, 2}, new Object[] {1, 3}), mockResultSetWithDerivedColumn(new Object[] {2, 1}, new Object[] {3, 4}));
+        ResultSetMerger actual = new MergeEngine(DatabaseType.MySQL, resultSets, selectStatement).merge();
+        assertNext(actual, 1, 2, 3);
+    }
+    
+    @Test
+    public void assertNextWithLimit() throws SQLException {
+        selectStatement.getOrderByItems().add(new OrderItem(1, OrderType.ASC));
+        Limit limit = new Limit(true);
+        limit.setOffset(new LimitValue(1, -1));
+        limit.setRowCount(new LimitValue(2, -1));
+        selectStatement.setLimit(limit);
+        List<ResultSet> resultSets = Lists.newArrayList(mockResultSet(1, 2, 2, 3), mockResultSet(1, 2, 3));
+        ResultSetMerger actual = new MergeEngine(DatabaseType.MySQL, resultSets, selectStatement).merge();
+        assertNext(actual, 2, 3);
+    }
+    
+    private void assertNext(final ResultSetMerger actual, final int... expectedValues) throws SQLException {
+        for (int each : expectedValues) {
+            assertTrue(actual.next());
+            assertThat((Integer) actual.getValue(1, Object.class), is(each));
+        }
+        assertFalse(actual.next());
+    }
+    
+    private ResultSet mockResultSet(final int... values) throws SQLException {
+        final AtomicInteger cursor = new AtomicInteger(-1);
+        ResultSet result = mock(ResultSet.class);
+        ResultSetMetaData resultSetMetaData = mock(ResultSetMetaData.class);
+        when(result.getMetaData()).thenReturn(resultSetMetaData);
+        when(resultSetMetaData.getColumnCount()).thenReturn(1);
+        when(resultSetMetaData.getColumnLabel(1)).thenReturn("id");
+        when(result.next()).thenAnswer(new Answer<Boolean>() {
+    
+            @Override
+            public Boolean answer(final InvocationOnMock invocation) {
+                return cursor.incrementAndGet() < values.length;
+            }
+        });
+        when(result.getObject(1)).thenAnswer(new Answer<Integer>() {
+    
+            @Override
+            public Integer answer(final InvocationOnMock invocation) {
+                return values[cursor.get()];
+            }
+        });
+        return result;
+    }
+    
+    private ResultSet mockResultSetWithDerivedColumn(final Object[]... rows) throws SQLException {
+        final AtomicInteger cursor = new AtomicInteger(-1);
+        ResultSet result = mock(ResultSet.class);
+        ResultSetMetaData resultSetMetaData = mock(ResultSetMetaData.class);
+        when(result.getMetaData()).thenReturn(resultSetMetaData);
+        when(resultSetMetaData.getColumnCount()).thenReturn(2);
+        when(resultSetMetaData.getColumnLabel(1)).thenReturn("name");
+        when(resultSetMetaData.getColumnLabel(2)).thenReturn("ORDER_BY_DERIVED_0");
+        when(result.next()).thenAnswer(new Answer<Boolean>() {
+    
+            @Override
+            public Boolean answer(final InvocationOnMock invocation) {
+                return cursor.incrementAndGet() < rows.length;
+            }
+        });
+        when(result.getObject(anyInt())).thenAnswer(new Answer<Object>() {
+    
+            @Override
+            public Object answer(final InvocationOnMock invocation) {
+                return rows[cursor.get()][(Integer) invocation.getArguments()[0] - 1];
+            }
+        });
+        return result;
+    }
+}
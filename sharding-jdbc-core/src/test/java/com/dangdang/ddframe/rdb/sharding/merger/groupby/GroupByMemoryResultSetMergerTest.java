@@ -20,26 +20,37 @@ package com.dangdang.ddframe.rdb.sharding.merger.groupby;
 import com.dangdang.ddframe.rdb.sharding.constant.AggregationType;
 import com.dangdang.ddframe.rdb.sharding.constant.DatabaseType;
 import com.dangdang.ddframe.rdb.sharding.constant.OrderType;
+import com.dangdang.ddframe.rdb.sharding.exception.ShardingJdbcException;
 import com.dangdang.ddframe.rdb.sharding.merger.MergeEngine;
 import com.dangdang.ddframe.rdb.sharding.merger.ResultSetMerger;
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryAccount;
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryBudget;
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryExhaustedPolicy;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.OrderItem;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.limit.Limit;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.limit.LimitValue;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.selectitem.AggregationSelectItem;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.select.SelectStatement;
 import com.google.common.base.Optional;
+import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -121,4 +132,156 @@ public final class GroupByMemoryResultSetMergerTest {
         assertThat((BigDecimal) actual.getValue(5, Object.class), is(new BigDecimal(40)));
         assertFalse(actual.next());
     }
+    
+    @Test
+    public void assertNextForManyGroupsWithMemoryBudgetExceeded() throws SQLException {
+        assertNextForManyGroups(4096L);
+    }
+    
+    @Test
+    public void assertNextForManyGroupsWithMemoryBudgetNotExceeded() throws SQLException {
+        assertNextForManyGroups(Long.MAX_VALUE);
+    }
+    
+    @Test
+    public void assertNextForManyGroupsWithMergeMemoryBudgetSpilled() throws SQLException {
+        MergeMemoryBudget mergeMemoryBudget = new MergeMemoryBudget(4096L, MergeMemoryExhaustedPolicy.SPILL, 0L);
+        try (MergeMemoryAccount mergeMemoryAccount = mergeMemoryBudget.createAccount()) {
+            assertNextForManyGroups(0L, mergeMemoryAccount);
+            assertTrue(mergeMemoryBudget.getPeakBytes() <= 4096L);
+        }
+        assertThat(mergeMemoryBudget.getUsedBytes(), is(0L));
+    }
+    
+    @Test
+    public void assertNextForManyGroupsWithMergeMemoryBudgetCharged() throws SQLException {
+        MergeMemoryBudget mergeMemoryBudget = new MergeMemoryBudget();
+        try (MergeMemoryAccount mergeMemoryAccount = mergeMemoryBudget.createAccount()) {
+            assertNextForManyGroups(Long.MAX_VALUE, mergeMemoryAccount);
+            assertTrue(mergeMemoryBudget.getUsedBytes() > 0L);
+            assertThat(mergeMemoryBudget.getUsedBytes(), is(mergeMemoryAccount.getChargedBytes()));
+        }
+        assertThat(mergeMemoryBudget.getUsedBytes(), is(0L));
+    }
+    
+    @Test(expected = ShardingJdbcException.class)
+    public void assertNextForManyGroupsWithMergeMemoryBudgetExhausted() throws SQLException {
+        mockGroups(resultSets.get(0), 0, 300);
+        new MergeEngine(DatabaseType.MySQL, resultSets, selectStatement, 0L, new MergeMemoryBudget(4096L, MergeMemoryExhaustedPolicy.FAIL_FAST, 0L).createAccount()).merge();
+    }
+    
+    @Test
+    public void assertNextForMixedRowSizesWithMemoryBudgetExceeded() throws SQLException {
+        when(resultSets.get(0).next()).thenReturn(true, true, true, false);
+        when(resultSets.get(0).getObject(1)).thenReturn(1);
+        when(resultSets.get(0).getObject(2)).thenReturn(Strings.repeat("x", 4096), 0);
+        when(resultSets.get(0).getObject(3)).thenReturn(1, 1, 2);
+        when(resultSets.get(0).getObject(4)).thenReturn(1);
+        when(resultSets.get(0).getObject(5)).thenReturn(1, 1, 2);
+        ResultSetMerger actual = new MergeEngine(DatabaseType.MySQL, resultSets, selectStatement, 1024L, MergeMemoryAccount.unlimited()).merge();
+        assertTrue(actual.next());
+        assertThat((Integer) actual.getValue(3, Object.class), is(2));
+        assertThat((BigDecimal) actual.getValue(1, Object.class), is(new BigDecimal(1)));
+        assertTrue(actual.next());
+        assertThat((Integer) actual.getValue(3, Object.class), is(1));
+        assertThat((BigDecimal) actual.getValue(1, Object.class), is(new BigDecimal(2)));
+        assertThat((BigDecimal) actual.getValue(5, Object.class), is(new BigDecimal(2)));
+        assertFalse(actual.next());
+    }
+    
+    private void assertNextForManyGroups(final long groupByMergeMemoryMaxBytes) throws SQLException {
+        assertNextForManyGroups(groupByMergeMemoryMaxBytes, MergeMemoryAccount.unlimited());
+    }
+    
+    private void assertNextForManyGroups(final long groupByMergeMemoryMaxBytes, final MergeMemoryAccount mergeMemoryAccount) throws SQLException {
+        mockGroups(resultSets.get(0), 0, 300);
+        mockGroups(resultSets.get(1), 100, 400);
+        ResultSetMerger actual = new MergeEngine(DatabaseType.MySQL, resultSets, selectStatement, groupByMergeMemoryMaxBytes, mergeMemoryAccount).merge();
+        for (int i = 399; i >= 0; i--) {
+            int count = i >= 100 && i < 300 ? 2 : 1;
+            assertTrue(actual.next());
+            assertThat((Integer) actual.getValue(3, Object.class), is(i));
+            assertThat((BigDecimal) actual.getValue(1, Object.class), is(new BigDecimal(count)));
+            assertThat((BigDecimal) actual.getValue(5, Object.class), is(new BigDecimal(count * i)));
+        }
+        assertFalse(actual.next());
+    }
+    
+    @Test
+    public void assertNextForManyGroupsWithLimit() throws SQLException {
+        mockRows(resultSets.get(0), 0, 300);
+        mockRows(resultSets.get(1), 100, 400);
+        Limit limit = new Limit(true);
+        limit.setOffset(new LimitValue(10, -1));
+        limit.setRowCount(new LimitValue(20, -1));
+        selectStatement.setLimit(limit);
+        ResultSetMerger actual = new MergeEngine(DatabaseType.MySQL, resultSets, selectStatement).merge();
+        for (int i = 389; i >= 370; i--) {
+            assertTrue(actual.next());
+            assertThat((Integer) actual.getValue(3, Object.class), is(i));
+            assertThat((BigDecimal) actual.getValue(1, Object.class), is(new BigDecimal(1)));
+            assertThat((BigDecimal) actual.getValue(5, Object.class), is(new BigDecimal(i)));
+        }
+        assertFalse(actual.next());
+    }
+    
+    @Test
+    public void assertNextForLimitLargerThanGroups() throws SQLException {
+        mockRows(resultSets.get(0), 0, 5);
+        Limit limit = new Limit(true);
+        limit.setOffset(new LimitValue(2, -1));
+        limit.setRowCount(new LimitValue(10, -1));
+        selectStatement.setLimit(limit);
+        ResultSetMerger actual = new MergeEngine(DatabaseType.MySQL, resultSets, selectStatement).merge();
+        for (int i = 2; i >= 0; i--) {
+            assertTrue(actual.next());
+            assertThat((Integer) actual.getValue(3, Object.class), is(i));
+        }
+        assertFalse(actual.next());
+    }
+    
+    private void mockGroups(final ResultSet resultSet, final int startId, final int endId) throws SQLException {
+        Boolean[] nextValues = new Boolean[endId - startId];
+        Object[] countValues = new Object[endId - startId - 1];
+        Object[] idValues = new Object[endId - startId - 1];
+        for (int i = 0; i < endId - startId; i++) {
+            nextValues[i] = i < endId - startId - 1;
+        }
+        for (int i = 0; i < endId - startId - 1; i++) {
+            countValues[i] = 1;
+            idValues[i] = startId + i + 1;
+        }
+        when(resultSet.next()).thenReturn(true, nextValues);
+        when(resultSet.getObject(1)).thenReturn(1, countValues);
+        when(resultSet.getObject(2)).thenReturn(0);
+        when(resultSet.getObject(3)).thenReturn(startId, idValues);
+        when(resultSet.getObject(4)).thenReturn(1, countValues);
+        when(resultSet.getObject(5)).thenReturn(startId, idValues);
+    }
+    
+    private void mockRows(final ResultSet resultSet, final int startId, final int endId) throws SQLException {
+        final AtomicInteger cursor = new AtomicInteger(startId - 1);
+        when(resultSet.next()).thenAnswer(new Answer<Boolean>() {
+    
+            @Override
+            public Boolean answer(final InvocationOnMock invocation) {
+                return cursor.incrementAndGet() < endId;
+            }
+        });
+        when(resultSet.getObject(anyInt())).thenAnswer(new Answer<Object>() {
+    
+            @Override
+            public Object answer(final InvocationOnMock invocation) {
+                switch ((Integer) invocation.getArguments()[0]) {
+                    case 2:
+                        return 0;
+                    case 3:
+                    case 5:
+                        return cursor.get();
+                    default:
+                        return 1;
+                }
+            }
+        });
+    }
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+
+package com.dangdang.ddframe.rdb.sharding.merger.groupby;
+
+import com.dangdang.ddframe.rdb.sharding.constant.AggregationType;
+import com.dangdang.ddframe.rdb.sharding.constant.DatabaseType;
+import com.dangdang.ddframe.rdb.sharding.constant.OrderType;
+import com.dangdang.ddframe.rdb.sharding.merger.MergeEngine;
+import com.dangdang.ddframe.rdb.sharding.merger.ResultSetMerger;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.OrderItem;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.selectitem.AggregationSelectItem;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.select.SelectStatement;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public final class GroupByPartialAggregatorTest {
+    
+    private SelectStatement selectStatement;
+    
+    @Before
+    public void setUp() {
+        selectStatement = new SelectStatement();
+        AggregationSelectItem countSelectItem = new AggregationSelectItem(AggregationType.COUNT, "(*)", Optional.of("c"));
+        AggregationSelectItem avgSelectItem = new AggregationSelectItem(AggregationType.AVG, "(num)", Optional.of("a"));
+        avgSelectItem.getDerivedAggregationSelectItems().add(new AggregationSelectItem(AggregationType.COUNT, "(num)", Optional.of("AVG_DERIVED_COUNT_0")));
+        avgSelectItem.getDerivedAggregationSelectItems().add(new AggregationSelectItem(AggregationType.SUM, "(num)", Optional.of("AVG_DERIVED_SUM_0")));
+        selectStatement.getItems().add(countSelectItem);
+        selectStatement.getItems().add(avgSelectItem);
+        selectStatement.getGroupByItems().add(new OrderItem(3, OrderType.ASC));
+        selectStatement.getOrderByItems().add(new OrderItem(1, OrderType.DESC));
+    }
+    
+    @Test
+    public void assertMergeWithPartialAggregation() throws SQLException {
+        List<ResultSet> resultSets = Lists.newArrayList(mockResultSet(new long[][] {{1, 1, 10}, {2, 2, 20}, {1, 3, 30}}), mockResultSet(new long[][] {{3, 2, 30}, {1, 3, 40}}), mockResultSet(new long[][] {}));
+        GroupByPartialAggregator groupByPartialAggregator = new GroupByPartialAggregator(selectStatement);
+        for (ResultSet each : resultSets) {
+            groupByPartialAggregator.aggregate(each);
+        }
+        ResultSetMerger actual = new MergeEngine(DatabaseType.MySQL, resultSets, selectStatement).merge(groupByPartialAggregator);
+        assertTrue(actual.next());
+        assertThat((Long) actual.getValue(3, Object.class), is(2L));
+        assertThat((BigDecimal) actual.getValue(1, Object.class), is(new BigDecimal(5)));
+        assertThat((BigDecimal) actual.getValue(2, Object.class), is(new BigDecimal("10.0000")));
+        assertThat((BigDecimal) actual.getValue(4, Object.class), is(new BigDecimal(5)));
+        assertThat((BigDecimal) actual.getValue(5, Object.class), is(new BigDecimal(50)));
+        assertTrue(actual.next());
+        assertThat((Long) actual.getValue(3, Object.class), is(3L));
+        assertThat((BigDecimal) actual.getValue(1, Object.class), is(new BigDecimal(2)));
+        assertThat((BigDecimal) actual.getValue(2, Object.class), is(new BigDecimal("35.0000")));
+        assertTrue(actual.next());
+        assertThat((Long) actual.getValue(3, Object.class), is(1L));
+        assertThat((BigDecimal) actual.getValue(1, Object.class), is(new BigDecimal(1)));
+        assertThat((BigDecimal) actual.getValue(2, Object.class), is(new BigDecimal("10.0000")));
+        assertFalse(actual.next());
+    }
+    
+    private ResultSet mockResultSet(final long[][] rows) throws SQLException {
+        final AtomicInteger cursor = new AtomicInteger(-1);
+        ResultSet result = mock(ResultSet.class);
+        ResultSetMetaData resultSetMetaData = mock(ResultSetMetaData.class);
+        when(result.getMetaData()).thenReturn(resultSetMetaData);
+        when(resultSetMetaData.getColumnCount()).thenReturn(5);
+        when(resultSetMetaData.getColumnLabel(1)).thenReturn("c");
+        when(resultSetMetaData.getColumnLabel(2)).thenReturn("a");
+        when(resultSetMetaData.getColumnLabel(3)).thenReturn("id");
+        when(resultSetMetaData.getColumnLabel(4)).thenReturn("AVG_DERIVED_COUNT_0");
+        when(resultSetMetaData.getColumnLabel(5)).thenReturn("AVG_DERIVED_SUM_0");
+        when(resultSetMetaData.getColumnType(1)).thenReturn(Types.BIGINT);
+        when(resultSetMetaData.getColumnType(4)).thenReturn(Types.BIGINT);
+        when(resultSetMetaData.getColumnType(5)).thenReturn(Types.BIGINT);
+        when(resultSetMetaData.isSigned(1)).thenReturn(true);
+        when(resultSetMetaData.isSigned(4)).thenReturn(true);
+        when(resultSetMetaData.isSigned(5)).thenReturn(true);
+        when(result.next()).thenAnswer(new Answer<Boolean>() {
+            
+            @Override
+            public Boolean answer(final InvocationOnMock invocation) {
+                return cursor.incrementAndGet() < rows.length;
+            }
+        });
+        Answer<Long> columnAnswer = new Answer<Long>() {
+            
+            @Override
+            public Long answer(final InvocationOnMock invocation) {
+                long[] row = rows[cursor.get()];
+                switch ((Integer) invocation.getArguments()[0]) {
+                    case 1:
+                    case 4:
+                        return row[0];
+                    case 3:
+                        return row[1];
+                    case 5:
+                        return row[2];
+                    default:
+                        return 0L;
+                }
+            }
+        };
+        for (int i = 1; i <= 5; i++) {
+            when(result.getLong(i)).thenAnswer(columnAnswer);
+            when(result.getObject(i)).thenAnswer(columnAnswer);
+        }
+        return result;
+    }
+}
@@ -125,6 +125,9 @@ public final class GroupByStreamResultSetMergerTest {
         assertThat((BigDecimal) actual.getValue("AVG_DERIVED_COUNT_0", Object.class), is(new BigDecimal(4)));
         assertThat((BigDecimal) actual.getValue(6, Object.class), is(new BigDecimal(40)));
         assertThat((BigDecimal) actual.getValue("Avg_Derived_Sum_0", Object.class), is(new BigDecimal(40)));
+        assertThat(actual.getLong(1), is(40L));
+        assertThat(actual.getInt("ID"), is(2));
+        assertFalse(actual.wasNull());
         assertTrue(actual.next());
         assertThat((BigDecimal) actual.getValue(1, Object.class), is(new BigDecimal(30)));
         assertThat(((BigDecimal) actual.getValue(2, Object.class)).intValue(), is(10));
@@ -19,6 +19,7 @@ package com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation;
 
 import org.junit.Test;
 
+import java.math.BigDecimal;
 import java.util.Collections;
 
 import static org.hamcrest.CoreMatchers.is;
@@ -36,4 +37,12 @@ public final class AccumulationAggregationUnitTest {
         accumulationAggregationUnit.merge(Collections.<Comparable<?>>singletonList(10));
         assertThat(((Number) accumulationAggregationUnit.getResult()).intValue(), is(12));
     }
+    
+    @Test
+    public void assertAccumulationAggregationForDoubleValues() {
+        AccumulationAggregationUnit accumulationAggregationUnit = new AccumulationAggregationUnit();
+        accumulationAggregationUnit.merge(Collections.<Comparable<?>>singletonList(0.1D));
+        accumulationAggregationUnit.merge(Collections.<Comparable<?>>singletonList(0.2D));
+        assertThat(accumulationAggregationUnit.getResult(), is((Comparable) new BigDecimal("0.3")));
+    }
 }
@@ -18,10 +18,18 @@
 package com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation;
 
 import com.dangdang.ddframe.rdb.sharding.constant.AggregationType;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.selectitem.AggregationSelectItem;
+import com.google.common.base.Optional;
 import org.junit.Test;
 
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public final class AggregationUnitFactoryTest {
     
@@ -41,4 +49,37 @@ public final class AggregationUnitFactoryTest {
     public void assertCreateAverageAggregationUnit() {
         assertThat(AggregationUnitFactory.create(AggregationType.AVG), instanceOf(AverageAggregationUnit.class));
     }
+    
+    @Test
+    public void assertCreateWithResultSetMetaData() throws SQLException {
+        ResultSetMetaData resultSetMetaData = mock(ResultSetMetaData.class);
+        when(resultSetMetaData.getColumnType(1)).thenReturn(Types.BIGINT);
+        when(resultSetMetaData.isSigned(1)).thenReturn(true);
+        when(resultSetMetaData.getColumnType(2)).thenReturn(Types.DOUBLE);
+        when(resultSetMetaData.getColumnType(3)).thenReturn(Types.DECIMAL);
+        when(resultSetMetaData.getColumnType(4)).thenReturn(Types.BIGINT);
+        when(resultSetMetaData.isSigned(4)).thenReturn(false);
+        assertThat(AggregationUnitFactory.create(createAggregationSelectItem(AggregationType.COUNT, 1), resultSetMetaData), instanceOf(LongAccumulationAggregationUnit.class));
+        assertThat(AggregationUnitFactory.create(createAggregationSelectItem(AggregationType.SUM, 2), resultSetMetaData), instanceOf(AccumulationAggregationUnit.class));
+        assertThat(AggregationUnitFactory.create(createAggregationSelectItem(AggregationType.SUM, 3), resultSetMetaData), instanceOf(AccumulationAggregationUnit.class));
+        assertThat(AggregationUnitFactory.create(createAggregationSelectItem(AggregationType.SUM, 4), resultSetMetaData), instanceOf(AccumulationAggregationUnit.class));
+        assertThat(AggregationUnitFactory.create(createAggregationSelectItem(AggregationType.MAX, 1), resultSetMetaData), instanceOf(ComparableAggregationUnit.class));
+        AggregationSelectItem avgSelectItem = createAggregationSelectItem(AggregationType.AVG, 5);
+        avgSelectItem.getDerivedAggregationSelectItems().add(createAggregationSelectItem(AggregationType.COUNT, 1));
+        avgSelectItem.getDerivedAggregationSelectItems().add(createAggregationSelectItem(AggregationType.SUM, 2));
+        assertThat(AggregationUnitFactory.create(avgSelectItem, resultSetMetaData), instanceOf(AverageAggregationUnit.class));
+    }
+    
+    @Test
+    public void assertCreateHyperLogLogAggregationUnit() throws SQLException {
+        AggregationSelectItem countDistinctSelectItem = createAggregationSelectItem(AggregationType.COUNT, 1);
+        countDistinctSelectItem.setApproximateDistinctAlias(Optional.of("COUNT_DISTINCT_DERIVED_0"));
+        assertThat(AggregationUnitFactory.create(countDistinctSelectItem, mock(ResultSetMetaData.class)), instanceOf(HyperLogLogAggregationUnit.class));
+    }
+    
+    private AggregationSelectItem createAggregationSelectItem(final AggregationType type, final int index) {
+        AggregationSelectItem result = new AggregationSelectItem(type, "(num)", Optional.<String>absent());
+        result.setIndex(index);
+        return result;
+    }
 }
@@ -25,7 +25,9 @@ import org.junit.runners.Suite;
         AggregationUnitFactoryTest.class, 
         ComparableAggregationUnitTest.class, 
         AccumulationAggregationUnitTest.class, 
-        AverageAggregationUnitTest.class
+        LongAccumulationAggregationUnitTest.class, 
+        AverageAggregationUnitTest.class, 
+        HyperLogLogAggregationUnitTest.class
     })
 public class AllAggregationTests {
 }
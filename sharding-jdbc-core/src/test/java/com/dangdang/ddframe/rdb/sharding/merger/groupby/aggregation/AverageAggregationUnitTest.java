@@ -17,16 +17,39 @@
 
 package com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation;
 
+import com.dangdang.ddframe.rdb.sharding.constant.AggregationType;
+import com.dangdang.ddframe.rdb.sharding.merger.common.MemoryResultSetRow;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.selectitem.AggregationSelectItem;
+import com.google.common.base.Optional;
 import org.junit.Test;
 
 import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.Arrays;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public final class AverageAggregationUnitTest {
     
+    @Test
+    public void assertAvgAggregationWithMemoryResultSetRow() {
+        AggregationSelectItem aggregationSelectItem = new AggregationSelectItem(AggregationType.AVG, "(num)", Optional.<String>absent());
+        AggregationSelectItem derivedCountAggregationSelectItem = new AggregationSelectItem(AggregationType.COUNT, "(num)", Optional.of("AVG_DERIVED_COUNT_0"));
+        derivedCountAggregationSelectItem.setIndex(1);
+        AggregationSelectItem derivedSumAggregationSelectItem = new AggregationSelectItem(AggregationType.SUM, "(num)", Optional.of("AVG_DERIVED_SUM_0"));
+        derivedSumAggregationSelectItem.setIndex(2);
+        aggregationSelectItem.getDerivedAggregationSelectItems().add(derivedCountAggregationSelectItem);
+        aggregationSelectItem.getDerivedAggregationSelectItems().add(derivedSumAggregationSelectItem);
+        AverageAggregationUnit avgAggregationUnit = new AverageAggregationUnit(new LongAccumulationAggregationUnit(), new LongAccumulationAggregationUnit());
+        avgAggregationUnit.merge(new MemoryResultSetRow(new Object[] {10, 50}), aggregationSelectItem);
+        avgAggregationUnit.merge(new MemoryResultSetRow(new Object[] {10, 20}), aggregationSelectItem);
+        assertThat((BigDecimal) avgAggregationUnit.getResult(), is(new BigDecimal("3.5000")));
+    }
+    
     @Test
     public void assertAvgAggregation() {
         AverageAggregationUnit avgAggregationUnit = new AverageAggregationUnit();
@@ -47,4 +70,35 @@ public final class AverageAggregationUnitTest {
         avgAggregationUnit.merge(Arrays.<Comparable<?>>asList(0, 40));
         assertThat((BigDecimal) avgAggregationUnit.getResult(), is(new BigDecimal(0)));
     }
+    
+    @Test
+    public void assertAvgAggregationWithResultSet() throws SQLException {
+        AggregationSelectItem avgSelectItem = new AggregationSelectItem(AggregationType.AVG, "(num)", Optional.<String>absent());
+        AggregationSelectItem countSelectItem = new AggregationSelectItem(AggregationType.COUNT, "(num)", Optional.of("AVG_DERIVED_COUNT_0"));
+        countSelectItem.setIndex(1);
+        AggregationSelectItem sumSelectItem = new AggregationSelectItem(AggregationType.SUM, "(num)", Optional.of("AVG_DERIVED_SUM_0"));
+        sumSelectItem.setIndex(2);
+        avgSelectItem.getDerivedAggregationSelectItems().add(countSelectItem);
+        avgSelectItem.getDerivedAggregationSelectItems().add(sumSelectItem);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getLong(1)).thenReturn(10L, 10L, 5L);
+        when(resultSet.getLong(2)).thenReturn(50L, 20L, 40L);
+        AverageAggregationUnit avgAggregationUnit = new AverageAggregationUnit(new LongAccumulationAggregationUnit(), new LongAccumulationAggregationUnit());
+        for (int i = 0; i < 3; i++) {
+            avgAggregationUnit.merge(resultSet, avgSelectItem);
+        }
+        assertThat((BigDecimal) avgAggregationUnit.getResult(), is(new BigDecimal("4.4000")));
+    }
+    
+    @Test
+    public void assertCombine() {
+        AverageAggregationUnit avgAggregationUnit = new AverageAggregationUnit(new LongAccumulationAggregationUnit(), new LongAccumulationAggregationUnit());
+        avgAggregationUnit.merge(Arrays.<Comparable<?>>asList(10L, 50L));
+        AverageAggregationUnit otherAvgAggregationUnit = new AverageAggregationUnit(new LongAccumulationAggregationUnit(), new LongAccumulationAggregationUnit());
+        otherAvgAggregationUnit.merge(Arrays.<Comparable<?>>asList(10L, 20L));
+        otherAvgAggregationUnit.merge(Arrays.<Comparable<?>>asList(5L, 40L));
+        avgAggregationUnit.combine(otherAvgAggregationUnit);
+        avgAggregationUnit.combine(new AverageAggregationUnit(new LongAccumulationAggregationUnit(), new LongAccumulationAggregationUnit()));
+        assertThat((BigDecimal) avgAggregationUnit.getResult(), is(new BigDecimal("4.4000")));
+    }
 }
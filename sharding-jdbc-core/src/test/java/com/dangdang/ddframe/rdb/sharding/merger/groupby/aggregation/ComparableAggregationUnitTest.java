@@ -47,4 +47,15 @@ public final class ComparableAggregationUnitTest {
         comparableAggregation.merge(Collections.<Comparable<?>>singletonList(5));
         assertThat((Integer) comparableAggregation.getResult(), is(10));
     }
+    
+    @Test
+    public void assertCombine() {
+        ComparableAggregationUnit comparableAggregation = new ComparableAggregationUnit(true);
+        comparableAggregation.merge(Collections.<Comparable<?>>singletonList(5));
+        ComparableAggregationUnit otherComparableAggregation = new ComparableAggregationUnit(true);
+        comparableAggregation.combine(otherComparableAggregation);
+        otherComparableAggregation.merge(Collections.<Comparable<?>>singletonList(1));
+        comparableAggregation.combine(otherComparableAggregation);
+        assertThat((Integer) comparableAggregation.getResult(), is(1));
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+
+package com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation;
+
+import com.dangdang.ddframe.rdb.sharding.constant.AggregationType;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.selectitem.AggregationSelectItem;
+import com.google.common.base.Optional;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public final class HyperLogLogAggregationUnitTest {
+    
+    @Test
+    public void assertHyperLogLogAggregationForSmallCardinality() {
+        HyperLogLogAggregationUnit hyperLogLogAggregationUnit = new HyperLogLogAggregationUnit();
+        assertThat((BigDecimal) hyperLogLogAggregationUnit.getResult(), is(BigDecimal.ZERO));
+        hyperLogLogAggregationUnit.merge(null);
+        hyperLogLogAggregationUnit.merge(Collections.<Comparable<?>>singletonList(null));
+        hyperLogLogAggregationUnit.merge(Collections.<Comparable<?>>singletonList(1));
+        hyperLogLogAggregationUnit.merge(Collections.<Comparable<?>>singletonList(1L));
+        hyperLogLogAggregationUnit.merge(Collections.<Comparable<?>>singletonList("2"));
+        hyperLogLogAggregationUnit.merge(Collections.<Comparable<?>>singletonList("3"));
+        assertThat((BigDecimal) hyperLogLogAggregationUnit.getResult(), is(new BigDecimal("3")));
+    }
+    
+    @Test
+    public void assertHyperLogLogAggregationForLargeCardinality() {
+        HyperLogLogAggregationUnit hyperLogLogAggregationUnit = new HyperLogLogAggregationUnit();
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 100000; j++) {
+                hyperLogLogAggregationUnit.merge(Collections.<Comparable<?>>singletonList(j));
+            }
+        }
+        assertEstimated(hyperLogLogAggregationUnit, 100000);
+    }
+    
+    @Test
+    public void assertHyperLogLogAggregationWithResultSet() throws SQLException {
+        AggregationSelectItem aggregationSelectItem = new AggregationSelectItem(AggregationType.COUNT, "(DISTINCT user_id)", Optional.<String>absent());
+        aggregationSelectItem.setIndex(1);
+        aggregationSelectItem.setApproximateDistinctAlias(Optional.of("COUNT_DISTINCT_DERIVED_0"));
+        aggregationSelectItem.setApproximateDistinctIndex(2);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getObject(2)).thenReturn(null, 10, 20, 10);
+        HyperLogLogAggregationUnit hyperLogLogAggregationUnit = new HyperLogLogAggregationUnit();
+        for (int i = 0; i < 4; i++) {
+            hyperLogLogAggregationUnit.merge(resultSet, aggregationSelectItem);
+        }
+        assertThat((BigDecimal) hyperLogLogAggregationUnit.getResult(), is(new BigDecimal("2")));
+    }
+    
+    @Test
+    public void assertCombine() {
+        HyperLogLogAggregationUnit hyperLogLogAggregationUnit = new HyperLogLogAggregationUnit();
+        HyperLogLogAggregationUnit otherHyperLogLogAggregationUnit = new HyperLogLogAggregationUnit();
+        HyperLogLogAggregationUnit expectedHyperLogLogAggregationUnit = new HyperLogLogAggregationUnit();
+        for (int i = 0; i < 60000; i++) {
+            hyperLogLogAggregationUnit.merge(Collections.<Comparable<?>>singletonList(i));
+            expectedHyperLogLogAggregationUnit.merge(Collections.<Comparable<?>>singletonList(i));
+        }
+        for (int i = 40000; i < 100000; i++) {
+            otherHyperLogLogAggregationUnit.merge(Collections.<Comparable<?>>singletonList(i));
+            expectedHyperLogLogAggregationUnit.merge(Collections.<Comparable<?>>singletonList(i));
+        }
+        hyperLogLogAggregationUnit.combine(otherHyperLogLogAggregationUnit);
+        assertThat((BigDecimal) hyperLogLogAggregationUnit.getResult(), is((BigDecimal) expectedHyperLogLogAggregationUnit.getResult()));
+        assertEstimated(hyperLogLogAggregationUnit, 100000);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void assertCombineWithOtherAggregationUnit() {
+        new HyperLogLogAggregationUnit().combine(new LongAccumulationAggregationUnit());
+    }
+    
+    private void assertEstimated(final HyperLogLogAggregationUnit hyperLogLogAggregationUnit, final long expected) {
+        long actual = ((BigDecimal) hyperLogLogAggregationUnit.getResult()).longValue();
+        assertTrue(String.format("Estimated %s, expected %s", actual, expected), Math.abs(actual - expected) < expected * 0.03);
+    }
+}
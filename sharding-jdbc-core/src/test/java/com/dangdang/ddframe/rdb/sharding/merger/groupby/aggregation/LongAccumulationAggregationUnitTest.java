@@ -0,0 +1,104 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+
+package com.dangdang.ddframe.rdb.sharding.merger.groupby.aggregation;
+
+import com.dangdang.ddframe.rdb.sharding.constant.AggregationType;
+import com.dangdang.ddframe.rdb.sharding.merger.common.MemoryResultSetRow;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.selectitem.AggregationSelectItem;
+import com.google.common.base.Optional;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public final class LongAccumulationAggregationUnitTest {
+    
+    @Test
+    public void assertAccumulationAggregation() {
+        LongAccumulationAggregationUnit accumulationAggregationUnit = new LongAccumulationAggregationUnit();
+        accumulationAggregationUnit.merge(null);
+        accumulationAggregationUnit.merge(Collections.<Comparable<?>>singletonList(null));
+        assertNull(accumulationAggregationUnit.getResult());
+        accumulationAggregationUnit.merge(Collections.<Comparable<?>>singletonList(1));
+        accumulationAggregationUnit.merge(Collections.<Comparable<?>>singletonList(1L));
+        accumulationAggregationUnit.merge(Collections.<Comparable<?>>singletonList(new BigDecimal("10")));
+        assertThat((BigDecimal) accumulationAggregationUnit.getResult(), is(new BigDecimal("12")));
+    }
+    
+    @Test
+    public void assertAccumulationAggregationWithResultSet() throws SQLException {
+        AggregationSelectItem aggregationSelectItem = new AggregationSelectItem(AggregationType.SUM, "(num)", Optional.<String>absent());
+        aggregationSelectItem.setIndex(1);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getLong(1)).thenReturn(0L, 10L, 20L);
+        when(resultSet.wasNull()).thenReturn(true, false, false);
+        LongAccumulationAggregationUnit accumulationAggregationUnit = new LongAccumulationAggregationUnit();
+        accumulationAggregationUnit.merge(resultSet, aggregationSelectItem);
+        assertNull(accumulationAggregationUnit.getResult());
+        accumulationAggregationUnit.merge(resultSet, aggregationSelectItem);
+        accumulationAggregationUnit.merge(resultSet, aggregationSelectItem);
+        assertThat((BigDecimal) accumulationAggregationUnit.getResult(), is(new BigDecimal(30)));
+    }
+    
+    @Test
+    public void assertAccumulationAggregationWithMemoryResultSetRow() {
+        AggregationSelectItem aggregationSelectItem = new AggregationSelectItem(AggregationType.SUM, "(num)", Optional.<String>absent());
+        aggregationSelectItem.setIndex(1);
+        LongAccumulationAggregationUnit accumulationAggregationUnit = new LongAccumulationAggregationUnit();
+        accumulationAggregationUnit.merge(new MemoryResultSetRow(new Object[] {null}), aggregationSelectItem);
+        assertNull(accumulationAggregationUnit.getResult());
+        accumulationAggregationUnit.merge(new MemoryResultSetRow(new Object[] {10}), aggregationSelectItem);
+        accumulationAggregationUnit.merge(new MemoryResultSetRow(new Object[] {20L}), aggregationSelectItem);
+        accumulationAggregationUnit.merge(new MemoryResultSetRow(new Object[] {new BigDecimal("5")}), aggregationSelectItem);
+        assertThat((BigDecimal) accumulationAggregationUnit.getResult(), is(new BigDecimal(35)));
+    }
+    
+    @Test
+    public void assertAccumulationAggregationWithOverflow() {
+        LongAccumulationAggregationUnit accumulationAggregationUnit = new LongAccumulationAggregationUnit();
+        accumulationAggregationUnit.merge(Collections.<Comparable<?>>singletonList(Long.MAX_VALUE));
+        accumulationAggregationUnit.merge(Collections.<Comparable<?>>singletonList(Long.MAX_VALUE));
+        accumulationAggregationUnit.merge(Collections.<Comparable<?>>singletonList(2L));
+        assertThat((BigDecimal) accumulationAggregationUnit.getResult(), is(BigDecimal.valueOf(Long.MAX_VALUE).multiply(new BigDecimal(2)).add(new BigDecimal(2))));
+    }
+    
+    @Test
+    public void assertCombine() {
+        LongAccumulationAggregationUnit accumulationAggregationUnit = new LongAccumulationAggregationUnit();
+        accumulationAggregationUnit.combine(new LongAccumulationAggregationUnit());
+        assertNull(accumulationAggregationUnit.getResult());
+        accumulationAggregationUnit.merge(Collections.<Comparable<?>>singletonList(Long.MAX_VALUE));
+        LongAccumulationAggregationUnit otherAccumulationAggregationUnit = new LongAccumulationAggregationUnit();
+        otherAccumulationAggregationUnit.merge(Collections.<Comparable<?>>singletonList(Long.MAX_VALUE));
+        otherAccumulationAggregationUnit.merge(Collections.<Comparable<?>>singletonList(2L));
+        accumulationAggregationUnit.combine(otherAccumulationAggregationUnit);
+        AccumulationAggregationUnit decimalAccumulationAggregationUnit = new AccumulationAggregationUnit();
+        decimalAccumulationAggregationUnit.merge(Collections.<Comparable<?>>singletonList(new BigDecimal("10")));
+        accumulationAggregationUnit.combine(decimalAccumulationAggregationUnit);
+        assertThat((BigDecimal) accumulationAggregationUnit.getResult(), is(BigDecimal.valueOf(Long.MAX_VALUE).multiply(new BigDecimal(2)).add(new BigDecimal(12))));
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+
+package com.dangdang.ddframe.rdb.sharding.merger.iterator;
+
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryAccount;
+import com.dangdang.ddframe.rdb.sharding.merger.memory.MergeMemoryBudget;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.Test;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public final class ConcurrentIteratorResultSetMergerTest {
+    
+    @Test
+    public void assertNextForAllResultSetsProduced() throws SQLException {
+        ConcurrentIteratorResultSetMerger actual = new ConcurrentIteratorResultSetMerger(10);
+        SettableFuture<Object> future = SettableFuture.create();
+        actual.bind(future);
+        actual.produce(createResultSet(1));
+        actual.produce(createResultSet(2));
+        future.set(null);
+        assertThat(actual.awaitResultSets().size(), is(2));
+        assertTrue(actual.next());
+        assertThat(actual.getValue(1, Object.class), is((Object) "value_0"));
+        assertThat(actual.getValue("label", Object.class), is((Object) "value_0"));
+        assertTrue(actual.next());
+        assertThat(actual.getValue(1, Object.class), is((Object) "value_0"));
+        assertTrue(actual.next());
+        assertThat(actual.getValue(1, Object.class), is((Object) "value_1"));
+        assertFalse(actual.next());
+        assertFalse(actual.next());
+    }
+    
+    @Test
+    public void assertNextBeforeAllResultSetsProduced() throws SQLException {
+        ConcurrentIteratorResultSetMerger actual = new ConcurrentIteratorResultSetMerger(10);
+        SettableFuture<Object> future = SettableFuture.create();
+        actual.bind(future);
+        actual.produce(createResultSet(1));
+        assertThat(actual.awaitResultSets().size(), is(1));
+        assertTrue(actual.next());
+        actual.produce(createResultSet(1));
+        future.set(null);
+        assertTrue(actual.next());
+        assertFalse(actual.next());
+    }
+    
+    @Test(expected = SQLException.class)
+    public void assertAwaitResultSetsWhenAllDataSourcesFailure() throws SQLException {
+        ConcurrentIteratorResultSetMerger actual = new ConcurrentIteratorResultSetMerger(10);
+        SettableFuture<Object> future = SettableFuture.create();
+        actual.bind(future);
+        future.setException(new SQLException("test"));
+        actual.awaitResultSets();
+    }
+    
+    @Test
+    public void assertNextWhenDataSourceFailure() throws SQLException {
+        ConcurrentIteratorResultSetMerger actual = new ConcurrentIteratorResultSetMerger(10);
+        SettableFuture<Object> future = SettableFuture.create();
+        actual.bind(future);
+        actual.produce(createResultSet(1));
+        SQLException cause = new SQLException("test");
+        future.setException(cause);
+        actual.awaitResultSets();
+        assertTrue(actual.next());
+        try {
+            actual.next();
+            fail("Expected SQLException.");
+        } catch (final SQLException ex) {
+            assertThat(ex.getCause(), is((Throwable) cause));
+        }
+    }
+    
+    @Test
+    public void assertProduceWhenClosed() throws Exception {
+        final ConcurrentIteratorResultSetMerger actual = new ConcurrentIteratorResultSetMerger(1);
+        final ResultSet resultSet = createResultSet(Integer.MAX_VALUE);
+        Thread producer = new Thread() {
+            
+            @Override
+            public void run() {
+                try {
+                    actual.produce(resultSet);
+                } catch (final SQLException ignored) {
+                }
+            }
+        };
+        producer.start();
+        assertTrue(actual.next());
+        actual.close();
+        producer.join(1000L);
+        assertFalse(producer.isAlive());
+        verify(resultSet, never()).isClosed();
+    }
+    
+    @Test
+    public void assertProduceWhenDataSourceFailure() throws Exception {
+        final ConcurrentIteratorResultSetMerger actual = new ConcurrentIteratorResultSetMerger(1);
+        SettableFuture<Object> future = SettableFuture.create();
+        actual.bind(future);
+        final ResultSet resultSet = createResultSet(Integer.MAX_VALUE);
+        Thread producer = new Thread() {
+            
+            @Override
+            public void run() {
+                try {
+                    actual.produce(resultSet);
+                } catch (final SQLException ignored) {
+                }
+            }
+        };
+        producer.start();
+        actual.awaitResultSets();
+        assertTrue(actual.next());
+        future.setException(new SQLException("test"));
+        producer.join(1000L);
+        assertFalse(producer.isAlive());
+    }
+    
+    @Test
+    public void assertQueuedRowsChargedToMergeMemoryAccount() throws SQLException {
+        MergeMemoryAccount mergeMemoryAccount = new MergeMemoryBudget().createAccount();
+        ConcurrentIteratorResultSetMerger actual = new ConcurrentIteratorResultSetMerger(10, mergeMemoryAccount);
+        SettableFuture<Object> future = SettableFuture.create();
+        actual.bind(future);
+        actual.produce(createResultSet(2));
+        future.set(null);
+        actual.awaitResultSets();
+        long chargedBytes = mergeMemoryAccount.getChargedBytes();
+        assertTrue(chargedBytes > 0L);
+        assertTrue(actual.next());
+        assertThat(mergeMemoryAccount.getChargedBytes(), is(chargedBytes / 2));
+        actual.close();
+        assertThat(mergeMemoryAccount.getChargedBytes(), is(0L));
+    }
+    
+    private ResultSet createResultSet(final int rowCount) throws SQLException {
+        ResultSet result = mock(ResultSet.class);
+        ResultSetMetaData resultSetMetaData = mock(ResultSetMetaData.class);
+        when(resultSetMetaData.getColumnCount()).thenReturn(1);
+        when(resultSetMetaData.getColumnLabel(1)).thenReturn("label");
+        when(result.getMetaData()).thenReturn(resultSetMetaData);
+        if (Integer.MAX_VALUE == rowCount) {
+            when(result.next()).thenReturn(true);
+        } else {
+            Boolean[] nexts = new Boolean[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                nexts[i] = i < rowCount - 1;
+            }
+            when(result.next()).thenReturn(true, nexts);
+        }
+        when(result.getObject(1)).thenReturn("value_0", "value_1");
+        return result;
+    }
+}
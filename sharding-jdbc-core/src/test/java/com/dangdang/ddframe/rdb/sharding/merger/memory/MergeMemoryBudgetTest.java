@@ -0,0 +1,129 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+
+package com.dangdang.ddframe.rdb.sharding.merger.memory;
+
+import com.dangdang.ddframe.rdb.sharding.exception.ShardingJdbcException;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public final class MergeMemoryBudgetTest {
+    
+    @Test
+    public void assertChargeWithUnlimited() {
+        MergeMemoryBudget actual = new MergeMemoryBudget();
+        try (MergeMemoryAccount mergeMemoryAccount = actual.createAccount()) {
+            mergeMemoryAccount.charge(Long.MAX_VALUE / 2);
+            assertTrue(mergeMemoryAccount.tryCharge(100L));
+            assertThat(actual.getUsedBytes(), is(Long.MAX_VALUE / 2 + 100L));
+        }
+        assertThat(actual.getUsedBytes(), is(0L));
+        assertThat(actual.getPeakBytes(), is(Long.MAX_VALUE / 2 + 100L));
+        assertFalse(actual.isSpillEnabled());
+    }
+    
+    @Test
+    public void assertRelease() {
+        MergeMemoryBudget actual = new MergeMemoryBudget(100L, MergeMemoryExhaustedPolicy.FAIL_FAST, 0L);
+        MergeMemoryAccount mergeMemoryAccount = actual.createAccount();
+        mergeMemoryAccount.charge(80L);
+        mergeMemoryAccount.release(30L);
+        assertThat(mergeMemoryAccount.getChargedBytes(), is(50L));
+        mergeMemoryAccount.charge(50L);
+        assertThat(actual.getUsedBytes(), is(100L));
+        mergeMemoryAccount.close();
+        mergeMemoryAccount.close();
+        assertThat(mergeMemoryAccount.getChargedBytes(), is(0L));
+        assertThat(actual.getUsedBytes(), is(0L));
+        assertThat(actual.getPeakBytes(), is(100L));
+    }
+    
+    @Test(expected = ShardingJdbcException.class)
+    public void assertChargeWithFailFast() {
+        MergeMemoryBudget mergeMemoryBudget = new MergeMemoryBudget(100L, MergeMemoryExhaustedPolicy.FAIL_FAST, 0L);
+        mergeMemoryBudget.createAccount().charge(60L);
+        mergeMemoryBudget.createAccount().tryCharge(60L);
+    }
+    
+    @Test
+    public void assertTryChargeWithSpill() {
+        MergeMemoryBudget actual = new MergeMemoryBudget(100L, MergeMemoryExhaustedPolicy.SPILL, 0L);
+        assertTrue(actual.isSpillEnabled());
+        MergeMemoryAccount mergeMemoryAccount = actual.createAccount();
+        assertTrue(mergeMemoryAccount.tryCharge(60L));
+        assertFalse(mergeMemoryAccount.tryCharge(60L));
+        assertThat(mergeMemoryAccount.getChargedBytes(), is(60L));
+        assertThat(actual.getUsedBytes(), is(60L));
+    }
+    
+    @Test(expected = ShardingJdbcException.class)
+    public void assertChargeWithSpill() {
+        MergeMemoryAccount mergeMemoryAccount = new MergeMemoryBudget(100L, MergeMemoryExhaustedPolicy.SPILL, 0L).createAccount();
+        mergeMemoryAccount.charge(60L);
+        mergeMemoryAccount.charge(60L);
+    }
+    
+    @Test
+    public void assertChargeWithWaitUntilReleased() throws InterruptedException {
+        MergeMemoryBudget actual = new MergeMemoryBudget(100L, MergeMemoryExhaustedPolicy.WAIT, TimeUnit.SECONDS.toMillis(10L));
+        final MergeMemoryAccount holdingAccount = actual.createAccount();
+        holdingAccount.charge(60L);
+        final CountDownLatch latch = new CountDownLatch(1);
+        Thread releaseThread = new Thread(new Runnable() {
+    
+            @Override
+            public void run() {
+                try {
+                    latch.await();
+                    TimeUnit.MILLISECONDS.sleep(50L);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                holdingAccount.close();
+            }
+        });
+        releaseThread.start();
+        MergeMemoryAccount waitingAccount = actual.createAccount();
+        latch.countDown();
+        waitingAccount.charge(60L);
+        releaseThread.join();
+        assertThat(waitingAccount.getChargedBytes(), is(60L));
+        assertThat(actual.getUsedBytes(), is(60L));
+    }
+    
+    @Test(expected = ShardingJdbcException.class)
+    public void assertChargeWithWaitTimeout() {
+        MergeMemoryBudget mergeMemoryBudget = new MergeMemoryBudget(100L, MergeMemoryExhaustedPolicy.WAIT, 10L);
+        mergeMemoryBudget.createAccount().charge(60L);
+        mergeMemoryBudget.createAccount().charge(60L);
+    }
+    
+    @Test(timeout = 5000L, expected = ShardingJdbcException.class)
+    public void assertChargeWithWaitForOwnMemory() {
+        MergeMemoryAccount mergeMemoryAccount = new MergeMemoryBudget(100L, MergeMemoryExhaustedPolicy.WAIT, TimeUnit.MINUTES.toMillis(1L)).createAccount();
+        mergeMemoryAccount.charge(60L);
+        mergeMemoryAccount.charge(60L);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+
+package com.dangdang.ddframe.rdb.sharding.merger.orderby;
+
+import com.dangdang.ddframe.rdb.sharding.constant.OrderType;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.OrderItem;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public final class OrderByValueLoserTreeTest {
+    
+    @Test
+    public void assertNextWithoutOrderByValues() throws SQLException {
+        OrderByValueLoserTree actual = new OrderByValueLoserTree(Collections.<OrderByValue>emptyList());
+        assertTrue(actual.isEmpty());
+        assertFalse(actual.next());
+    }
+    
+    @Test
+    public void assertNextWithSingleOrderByValue() throws SQLException {
+        assertMerge(OrderType.ASC, new long[] {1, 2, 3});
+    }
+    
+    @Test
+    public void assertNextForAsc() throws SQLException {
+        assertMerge(OrderType.ASC, new long[] {1, 4, 7}, new long[] {2, 2, 9}, new long[] {3}, new long[] {5, 6, 8, 10}, new long[] {0, 11});
+    }
+    
+    @Test
+    public void assertNextForDesc() throws SQLException {
+        assertMerge(OrderType.DESC, new long[] {7, 4, 1}, new long[] {9, 2, 2}, new long[] {3}, new long[] {10, 8, 6, 5}, new long[] {11, 0}, new long[] {12});
+    }
+    
+    private void assertMerge(final OrderType orderType, final long[]... values) throws SQLException {
+        List<OrderItem> orderItems = Collections.singletonList(new OrderItem(1, orderType));
+        List<OrderByValue> orderByValues = new ArrayList<>(values.length);
+        List<Long> expected = new ArrayList<>();
+        for (long[] each : values) {
+            OrderByValue orderByValue = new OrderByValue(mockResultSet(each), orderItems, OrderType.ASC, Collections.singletonList(OrderValueType.LONG));
+            assertTrue(orderByValue.next());
+            orderByValues.add(orderByValue);
+            for (long value : each) {
+                expected.add(value);
+            }
+        }
+        Collections.sort(expected);
+        if (OrderType.DESC == orderType) {
+            Collections.reverse(expected);
+        }
+        OrderByValueLoserTree actual = new OrderByValueLoserTree(orderByValues);
+        List<Long> actualValues = new ArrayList<>(expected.size());
+        do {
+            actualValues.add(actual.getWinner().getResultSet().getLong(1));
+        } while (actual.next());
+        assertTrue(actual.isEmpty());
+        assertThat(actualValues, is(expected));
+    }
+    
+    private ResultSet mockResultSet(final long... values) throws SQLException {
+        final AtomicInteger cursor = new AtomicInteger(-1);
+        ResultSet result = mock(ResultSet.class);
+        when(result.next()).thenAnswer(new Answer<Boolean>() {
+            
+            @Override
+            public Boolean answer(final InvocationOnMock invocation) {
+                return cursor.incrementAndGet() < values.length;
+            }
+        });
+        when(result.getLong(1)).thenAnswer(new Answer<Long>() {
+            
+            @Override
+            public Long answer(final InvocationOnMock invocation) {
+                return values[cursor.get()];
+            }
+        });
+        return result;
+    }
+}
@@ -28,6 +28,8 @@ import org.mockito.junit.MockitoJUnitRunner;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertFalse;
@@ -90,4 +92,37 @@ public final class OrderByValueTest {
         assertFalse(orderByValue1.getResultSet().next());
         assertFalse(orderByValue2.getResultSet().next());
     }
+    
+    @Test
+    public void assertCompareToWithOrderValueTypes() throws SQLException {
+        when(resultSet1.getLong(1)).thenReturn(10L);
+        when(resultSet1.getString(2)).thenReturn("b");
+        when(resultSet2.getLong(1)).thenReturn(10L);
+        when(resultSet2.getString(2)).thenReturn("a");
+        List<OrderItem> orderItems = Arrays.asList(new OrderItem(1, OrderType.ASC), new OrderItem(2, OrderType.DESC));
+        List<OrderValueType> orderValueTypes = Arrays.asList(OrderValueType.LONG, OrderValueType.STRING);
+        OrderByValue orderByValue1 = new OrderByValue(resultSet1, orderItems, OrderType.ASC, orderValueTypes);
+        assertTrue(orderByValue1.next());
+        OrderByValue orderByValue2 = new OrderByValue(resultSet2, orderItems, OrderType.ASC, orderValueTypes);
+        assertTrue(orderByValue2.next());
+        assertTrue(orderByValue1.compareTo(orderByValue2) < 0);
+        assertTrue(orderByValue2.compareTo(orderByValue1) > 0);
+    }
+    
+    @Test
+    public void assertCompareToWithNullValue() throws SQLException {
+        when(resultSet1.getLong(1)).thenReturn(0L);
+        when(resultSet1.wasNull()).thenReturn(true);
+        when(resultSet2.getLong(1)).thenReturn(-1L);
+        List<OrderItem> orderItems = Collections.singletonList(new OrderItem(1, OrderType.ASC));
+        List<OrderValueType> orderValueTypes = Collections.singletonList(OrderValueType.LONG);
+        OrderByValue orderByValue1 = new OrderByValue(resultSet1, orderItems, OrderType.ASC, orderValueTypes);
+        assertTrue(orderByValue1.next());
+        OrderByValue orderByValue2 = new OrderByValue(resultSet2, orderItems, OrderType.ASC, orderValueTypes);
+        assertTrue(orderByValue2.next());
+        assertTrue(orderByValue1.compareTo(orderByValue2) < 0);
+        assertTrue(orderByValue2.compareTo(orderByValue1) > 0);
+        OrderByValue orderByValue3 = new OrderByValue(resultSet1, orderItems, OrderType.DESC, orderValueTypes);
+        assertFalse(orderByValue3.next());
+    }
 }
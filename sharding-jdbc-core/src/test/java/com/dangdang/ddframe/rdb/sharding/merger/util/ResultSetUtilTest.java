@@ -59,6 +59,20 @@ public final class ResultSetUtilTest {
         ResultSetUtil.convertValue(1, Date.class);
     }
     
+    @Test
+    public void assertConvertPrimitiveValue() {
+        assertThat(ResultSetUtil.convertBooleanValue(true), is(true));
+        assertThat(ResultSetUtil.convertBooleanValue(null), is(false));
+        assertThat(ResultSetUtil.convertByteValue(1), is((byte) 1));
+        assertThat(ResultSetUtil.convertShortValue(1L), is((short) 1));
+        assertThat(ResultSetUtil.convertIntValue(new BigDecimal("1")), is(1));
+        assertThat(ResultSetUtil.convertIntValue(null), is(0));
+        assertThat(ResultSetUtil.convertLongValue(1), is(1L));
+        assertThat(ResultSetUtil.convertFloatValue(1), is(1F));
+        assertThat(ResultSetUtil.convertDoubleValue(new BigDecimal("1.5")), is(1.5D));
+        assertThat(ResultSetUtil.convertDoubleValue(null), is(0D));
+    }
+    
     @Test
     public void assertConvertNullValue() {
         assertThat(ResultSetUtil.convertValue(null, boolean.class), is((Object) false));
@@ -0,0 +1,96 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.metrics;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public final class ShardingMetricsTest {
+    
+    @Test
+    public void assertStartWhenMetricsDisable() {
+        ShardingMetrics actual = new ShardingMetrics();
+        assertFalse(actual.getMetricRegistry().isPresent());
+        assertNull(actual.start(MetricsType.PARSE));
+        assertNull(actual.startExecute("ds_0"));
+        assertNull(actual.startGetConnection("ds_0"));
+        actual.updateExecutionUnits(1);
+        ShardingMetrics.stop(null);
+    }
+    
+    @Test
+    public void assertRegisterWhenMetricsEnable() {
+        MetricRegistry actual = new ShardingMetrics(true, Arrays.asList("ds_0", "ds_1")).getMetricRegistry().get();
+        for (MetricsType each : MetricsType.values()) {
+            assertTrue(actual.getTimers().containsKey(each.getName()));
+        }
+        assertTrue(actual.getTimers().containsKey("sharding-jdbc.execute.data-source.ds_0"));
+        assertTrue(actual.getTimers().containsKey("sharding-jdbc.execute.data-source.ds_1"));
+        assertTrue(actual.getTimers().containsKey("sharding-jdbc.get-connection.data-source.ds_0"));
+        assertTrue(actual.getTimers().containsKey("sharding-jdbc.get-connection.data-source.ds_1"));
+        assertTrue(actual.getHistograms().containsKey("sharding-jdbc.route.execution-units"));
+    }
+    
+    @Test
+    public void assertStopWhenMetricsEnable() {
+        ShardingMetrics actual = new ShardingMetrics(true, Collections.singletonList("ds_0"));
+        ShardingMetrics.stop(actual.start(MetricsType.ROUTE));
+        ShardingMetrics.stop(actual.startGetConnection("ds_0"));
+        actual.updateExecutionUnits(2);
+        MetricRegistry metricRegistry = actual.getMetricRegistry().get();
+        assertThat(metricRegistry.timer(MetricsType.ROUTE.getName()).getCount(), is(1L));
+        assertThat(metricRegistry.timer("sharding-jdbc.get-connection.data-source.ds_0").getCount(), is(1L));
+        assertThat(metricRegistry.histogram("sharding-jdbc.route.execution-units").getCount(), is(1L));
+    }
+    
+    @Test
+    public void assertStartExecuteInOtherThread() throws InterruptedException {
+        final ShardingMetrics actual = new ShardingMetrics(true, Collections.<String>emptyList());
+        Thread thread = new Thread(new Runnable() {
+            
+            @Override
+            public void run() {
+                ShardingMetrics.stop(actual.startExecute("ds_2"));
+            }
+        });
+        thread.start();
+        thread.join();
+        assertThat(actual.getMetricRegistry().get().timer("sharding-jdbc.execute.data-source.ds_2").getCount(), is(1L));
+    }
+    
+    @Test
+    public void assertStartReporters() {
+        ShardingMetrics actual = new ShardingMetrics(true, Collections.singletonList("ds_0"));
+        actual.startReporters("slf4j, jmx", 30000L);
+        actual.close();
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void assertStartUnsupportedReporter() {
+        new ShardingMetrics(true, Collections.<String>emptyList()).startReporters("console", 30000L);
+    }
+}
@@ -17,6 +17,7 @@
 
 package com.dangdang.ddframe.rdb.sharding.parsing;
 
+import com.dangdang.ddframe.rdb.sharding.parsing.cache.ParsingResultCacheTest;
 import com.dangdang.ddframe.rdb.sharding.parsing.lexer.AllLexerTests;
 import com.dangdang.ddframe.rdb.sharding.parsing.lexer.analyzer.TokenizerTest;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.dialect.AllSQLParserTests;
@@ -31,7 +32,8 @@ import org.junit.runners.Suite;
         AllStatementParserTests.class,
         AllSQLParserTests.class,
         SQLParsingEngineTest.class,
-        UnsupportedParseTest.class
+        UnsupportedParseTest.class,
+        ParsingResultCacheTest.class
     })
 public class AllParsingTests {
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.parsing.cache;
+
+import com.dangdang.ddframe.rdb.sharding.api.fixture.ShardingRuleMockBuilder;
+import com.dangdang.ddframe.rdb.sharding.api.rule.ShardingRule;
+import com.dangdang.ddframe.rdb.sharding.constant.DatabaseType;
+import com.dangdang.ddframe.rdb.sharding.parsing.SQLParsingEngine;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.SQLStatement;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dml.insert.InsertStatement;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.DQLStatement;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.select.SelectStatement;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public final class ParsingResultCacheTest {
+    
+    private final ShardingRule shardingRule = new ShardingRuleMockBuilder().addGenerateKeyColumn("order", "order_id").addShardingColumns("user_id").build();
+    
+    @Test
+    public void assertGetWhenMissed() {
+        ParsingResultCache cache = new ParsingResultCache(16);
+        assertFalse(cache.get(DatabaseType.MySQL, "SELECT * FROM order").isPresent());
+        assertThat(cache.getMissCount(), is(1L));
+        assertThat(cache.getHitCount(), is(0L));
+    }
+    
+    @Test
+    public void assertGetWhenHit() {
+        ParsingResultCache cache = new ParsingResultCache(16);
+        String sql = "SELECT * FROM order WHERE user_id = ?";
+        cache.put(DatabaseType.MySQL, sql, parse(DatabaseType.MySQL, sql));
+        assertThat(cache.get(DatabaseType.MySQL, sql).get(), instanceOf(SelectStatement.class));
+        assertThat(cache.getHitCount(), is(1L));
+        assertFalse(cache.get(DatabaseType.Oracle, sql).isPresent());
+        assertThat(cache.getMissCount(), is(1L));
+    }
+    
+    @Test
+    public void assertGetWhenDisabled() {
+        ParsingResultCache cache = new ParsingResultCache(0);
+        String sql = "SELECT * FROM order";
+        cache.put(DatabaseType.MySQL, sql, parse(DatabaseType.MySQL, sql));
+        assertFalse(cache.get(DatabaseType.MySQL, sql).isPresent());
+        assertThat(cache.size(), is(0L));
+    }
+    
+    @Test
+    public void assertEvictWhenExceedMaximumSize() {
+        ParsingResultCache cache = new ParsingResultCache(1);
+        cache.put(DatabaseType.MySQL, "SELECT * FROM order", parse(DatabaseType.MySQL, "SELECT * FROM order"));
+        cache.put(DatabaseType.MySQL, "SELECT * FROM order_item", parse(DatabaseType.MySQL, "SELECT * FROM order_item"));
+        assertThat(cache.size(), is(1L));
+        assertTrue(cache.get(DatabaseType.MySQL, "SELECT * FROM order_item").isPresent());
+    }
+    
+    @Test
+    public void assertGetSelectStatementIsolatedFromOtherUsers() {
+        ParsingResultCache cache = new ParsingResultCache(16);
+        String sql = "SELECT user_id, COUNT(*) AS cnt FROM order GROUP BY user_id LIMIT ?, ?";
+        cache.put(DatabaseType.MySQL, sql, parse(DatabaseType.MySQL, sql));
+        SelectStatement first = (SelectStatement) cache.get(DatabaseType.MySQL, sql).get();
+        SelectStatement second = (SelectStatement) cache.get(DatabaseType.MySQL, sql).get();
+        assertThat(first, not(sameInstance(second)));
+        first.getLimit().processParameters(Arrays.<Object>asList(10, 20), true, false);
+        first.getAggregationSelectItems().get(0).setIndex(2);
+        first.getGroupByItems().get(0).setIndex(1);
+        assertThat(first.getLimit().getOffsetValue(), is(10));
+        assertThat(second.getLimit().getOffsetValue(), is(-1));
+        assertThat(second.getAggregationSelectItems().get(0).getIndex(), is(-1));
+        assertThat(second.getGroupByItems().get(0).getIndex(), is(-1));
+        assertThat(first.getOrderByItems().get(0), sameInstance(first.getGroupByItems().get(0)));
+    }
+    
+    @Test
+    public void assertGetInsertStatementIsolatedFromOtherUsers() {
+        ParsingResultCache cache = new ParsingResultCache(16);
+        String sql = "INSERT INTO order (user_id) VALUES (?)";
+        cache.put(DatabaseType.MySQL, sql, parse(DatabaseType.MySQL, sql));
+        InsertStatement first = (InsertStatement) cache.get(DatabaseType.MySQL, sql).get();
+        int sqlTokensSize = first.getSqlTokens().size();
+        first.appendGenerateKeyToken(shardingRule, 1);
+        InsertStatement second = (InsertStatement) cache.get(DatabaseType.MySQL, sql).get();
+        assertThat(first.getGeneratedKey().getIndex(), is(1));
+        assertNull(second.getGeneratedKey());
+        assertThat(second.getSqlTokens().size(), is(sqlTokensSize));
+        assertFalse(second.getConditions().isEmpty());
+    }
+    
+    @Test
+    public void assertPutWhenCopyNotOverridden() {
+        ParsingResultCache cache = new ParsingResultCache(16);
+        cache.put(DatabaseType.MySQL, "SHOW TABLES", new DQLStatement() { });
+        assertFalse(cache.get(DatabaseType.MySQL, "SHOW TABLES").isPresent());
+        assertThat(cache.size(), is(0L));
+    }
+    
+    private SQLStatement parse(final DatabaseType databaseType, final String sql) {
+        return new SQLParsingEngine(databaseType, sql, shardingRule).parse();
+    }
+}
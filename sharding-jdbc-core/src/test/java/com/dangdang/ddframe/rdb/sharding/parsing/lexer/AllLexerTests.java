@@ -17,6 +17,7 @@
 
 package com.dangdang.ddframe.rdb.sharding.parsing.lexer;
 
+import com.dangdang.ddframe.rdb.sharding.parsing.lexer.analyzer.DictionaryTest;
 import com.dangdang.ddframe.rdb.sharding.parsing.lexer.dialect.mysql.MySQLLexerTest;
 import com.dangdang.ddframe.rdb.sharding.parsing.lexer.dialect.oracle.OracleLexerTest;
 import com.dangdang.ddframe.rdb.sharding.parsing.lexer.dialect.postgresql.PostgreSQLLexerTest;
@@ -27,6 +28,7 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
         LexerTest.class,
+        DictionaryTest.class,
         MySQLLexerTest.class,
         OracleLexerTest.class,
         SQLServerLexerTest.class,
@@ -30,6 +30,8 @@ import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.condition.Column
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.condition.Condition;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.exception.SQLParsingUnsupportedException;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dml.insert.InsertStatement;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.InsertValuesToken;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.SQLToken;
 import org.junit.Test;
 
 import javax.sql.DataSource;
@@ -142,6 +144,47 @@ public final class InsertStatementParserTest extends AbstractStatementParserTest
         assertThat(condition.getShardingValue(Collections.emptyList()).getValue(), is((Comparable) 1));
     }
     
+    @Test
+    public void assertParseMultipleInsertValues() {
+        ShardingRule shardingRule = createShardingRule();
+        InsertStatement insertStatement = (InsertStatement) new SQLParsingEngine(DatabaseType.MySQL, "INSERT INTO TABLE_XXX (field1, field2) VALUES (1, 'value_char'), (?, ?)", shardingRule).parse();
+        assertThat(insertStatement.getInsertValues().size(), is(2));
+        assertThat(insertStatement.getInsertValues().get(0).getExpression(), is("(1, 'value_char')"));
+        assertThat(insertStatement.getInsertValues().get(0).getParameterIndexes(), is(Collections.<Integer>emptyList()));
+        assertThat(insertStatement.getInsertValues().get(1).getExpression(), is("(?, ?)"));
+        assertThat(insertStatement.getInsertValues().get(1).getParameterIndexes(), is(Arrays.asList(0, 1)));
+        Condition condition = insertStatement.getInsertValues().get(1).getConditions().find(new Column("field1", "TABLE_XXX")).get();
+        assertThat(condition.getShardingValue(Arrays.<Object>asList(2, "value_char")).getValue(), is((Comparable) 2));
+        condition = insertStatement.getConditions().find(new Column("field1", "TABLE_XXX")).get();
+        assertThat(condition.getShardingValue(Collections.emptyList()).getValue(), is((Comparable) 1));
+        InsertValuesToken insertValuesToken = findInsertValuesToken(insertStatement);
+        assertThat(insertValuesToken.getBeginPosition(), is(46));
+        assertThat(insertValuesToken.getOriginalLiterals(), is("(1, 'value_char'), (?, ?)"));
+        assertThat(insertValuesToken.getValues(), is(Arrays.asList("(1, 'value_char')", "(?, ?)")));
+    }
+    
+    @Test
+    public void assertParseMultipleInsertValuesWithGenerateKeyColumns() {
+        ShardingRule shardingRule = createShardingRuleWithGenerateKeyColumns();
+        InsertStatement insertStatement = (InsertStatement) new SQLParsingEngine(DatabaseType.MySQL, "INSERT INTO TABLE_XXX (field1) VALUES (?), (?)", shardingRule).parse();
+        insertStatement.appendGenerateKeyToken(shardingRule, 2);
+        assertThat(insertStatement.getInsertValues().get(0).getParameterIndexes(), is(Arrays.asList(0, 2)));
+        assertThat(insertStatement.getInsertValues().get(0).getGeneratedKey().getIndex(), is(2));
+        assertThat(insertStatement.getInsertValues().get(1).getParameterIndexes(), is(Arrays.asList(1, 3)));
+        assertThat(insertStatement.getInsertValues().get(1).getGeneratedKey().getIndex(), is(3));
+        assertThat(insertStatement.getGeneratedKey().getIndex(), is(2));
+        assertThat(findInsertValuesToken(insertStatement).getValues(), is(Arrays.asList("(?, ?)", "(?, ?)")));
+    }
+    
+    private InsertValuesToken findInsertValuesToken(final InsertStatement insertStatement) {
+        for (SQLToken each : insertStatement.getSqlTokens()) {
+            if (each instanceof InsertValuesToken) {
+                return (InsertValuesToken) each;
+            }
+        }
+        throw new AssertionError("InsertValuesToken not found");
+    }
+    
     @Test(expected = UnsupportedOperationException.class)
     public void parseMultipleInsertForMySQL() {
         ShardingRule shardingRule = createShardingRule();
@@ -20,12 +20,19 @@ package com.dangdang.ddframe.rdb.sharding.parsing.parser.statement;
 import com.dangdang.ddframe.rdb.sharding.constant.OrderType;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.OrderItem;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.select.SelectStatement;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.SeekConditionToken;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.WhereBeginToken;
 import com.google.common.base.Optional;
 import org.junit.Test;
 
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
 
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
 public final class SelectStatementTest {
@@ -50,4 +57,59 @@ public final class SelectStatementTest {
         actual.getGroupByItems().add(new OrderItem("group_col", OrderType.ASC, Optional.<String>absent()));
         assertFalse(actual.isSameGroupByAndOrderByItems());
     }
+    
+    @Test
+    public void assertAppendSeekConditionToken() {
+        SelectStatement actual = new SelectStatement();
+        actual.setWhereLastPosition(30);
+        actual.setWhereParametersIndex(2);
+        actual.getOrderByItems().add(new OrderItem("col_1", OrderType.ASC, Optional.<String>absent()));
+        actual.getOrderByItems().add(new OrderItem("col_2", OrderType.DESC, Optional.<String>absent()));
+        assertFalse(actual.findSeekConditionToken().isPresent());
+        actual.appendSeekConditionToken(Arrays.<Object>asList(1, "a"));
+        SeekConditionToken seekConditionToken = actual.findSeekConditionToken().get();
+        assertThat(seekConditionToken.getBeginPosition(), is(30));
+        assertThat(seekConditionToken.getParametersIndex(), is(2));
+        assertThat(seekConditionToken.getParameters(), is(Arrays.<Object>asList(1, 1, "a")));
+        assertThat(new SelectStatement(actual).getWhereLastPosition(), is(30));
+    }
+    
+    @Test
+    public void assertAppendSeekConditionTokenWithWhere() {
+        SelectStatement actual = new SelectStatement();
+        actual.setContainWhere(true);
+        actual.setWhereBeginPosition(20);
+        actual.setWhereLastPosition(30);
+        actual.getOrderByItems().add(new OrderItem("col", OrderType.ASC, Optional.<String>absent()));
+        actual.appendSeekConditionToken(Collections.<Object>singletonList(1));
+        assertThat(actual.getSqlTokens().size(), is(2));
+        assertThat(actual.getSqlTokens().get(0), instanceOf(WhereBeginToken.class));
+        assertThat(actual.getSqlTokens().get(0).getBeginPosition(), is(20));
+        assertThat(new SelectStatement(actual).getWhereBeginPosition(), is(20));
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void assertAppendSeekConditionTokenWithGroupBy() {
+        SelectStatement actual = new SelectStatement();
+        actual.setWhereLastPosition(30);
+        actual.getOrderByItems().add(new OrderItem("col", OrderType.ASC, Optional.<String>absent()));
+        actual.getGroupByItems().add(new OrderItem("col", OrderType.ASC, Optional.<String>absent()));
+        actual.appendSeekConditionToken(Collections.<Object>singletonList(1));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void assertAppendSeekConditionTokenWithWrongValuesSize() {
+        SelectStatement actual = new SelectStatement();
+        actual.setWhereLastPosition(30);
+        actual.getOrderByItems().add(new OrderItem("col", OrderType.ASC, Optional.<String>absent()));
+        actual.appendSeekConditionToken(Arrays.<Object>asList(1, 2));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void assertAppendSeekConditionTokenWithNullValue() {
+        SelectStatement actual = new SelectStatement();
+        actual.setWhereLastPosition(30);
+        actual.getOrderByItems().add(new OrderItem("col", OrderType.ASC, Optional.<String>absent()));
+        actual.appendSeekConditionToken(Collections.<Object>singletonList(null));
+    }
 }
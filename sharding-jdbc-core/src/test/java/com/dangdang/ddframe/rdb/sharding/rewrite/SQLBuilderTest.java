@@ -18,7 +18,10 @@
 package com.dangdang.ddframe.rdb.sharding.rewrite;
 
 import org.junit.Test;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.condition.Column;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.InValuesToken;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -62,4 +65,32 @@ public final class SQLBuilderTest {
         tableTokens.put("table_x", "table_x_1");
         assertThat(sqlBuilder.toSQL(tableTokens), is("SELECT table_x_1.id FROM table_x_1"));
     }
+    
+    @Test
+    public void assertAppendLiteralsWithPosition() {
+        SQLBuilder sqlBuilder = new SQLBuilder();
+        String originalSQL = "SELECT table_x.id FROM table_x";
+        sqlBuilder.appendLiterals(originalSQL, 0, 7);
+        sqlBuilder.appendTable("table_x");
+        sqlBuilder.appendLiterals(originalSQL, 14, 23);
+        sqlBuilder.appendTable("table_x");
+        sqlBuilder.appendLiterals(originalSQL, 30, 30);
+        Map<String, String> tableTokens = new HashMap<>(1, 1);
+        tableTokens.put("table_x", "table_x_1");
+        assertThat(sqlBuilder.toSQL(tableTokens), is("SELECT table_x_1.id FROM table_x_1"));
+    }
+    
+    @Test
+    public void assertAppendInValues() {
+        SQLBuilder sqlBuilder = new SQLBuilder();
+        sqlBuilder.appendLiterals("SELECT * FROM ");
+        sqlBuilder.appendTable("table_x");
+        sqlBuilder.appendLiterals(" WHERE id IN (");
+        sqlBuilder.appendInValues(new InValuesToken(28, "?,?, ?", new Column("id", "table_x"), Arrays.asList("?", "?", "?"), Arrays.asList(0, 1, 2)));
+        sqlBuilder.appendLiterals(")");
+        Map<String, String> tableTokens = new HashMap<>(1, 1);
+        tableTokens.put("table_x", "table_x_1");
+        assertThat(sqlBuilder.toSQL(tableTokens), is("SELECT * FROM table_x_1 WHERE id IN (?,?, ?)"));
+        assertThat(sqlBuilder.toSQL(tableTokens, Arrays.asList(0, 2)), is("SELECT * FROM table_x_1 WHERE id IN (?, ?)"));
+    }
 }
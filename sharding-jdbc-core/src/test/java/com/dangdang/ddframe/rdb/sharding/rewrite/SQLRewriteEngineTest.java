@@ -19,10 +19,12 @@ package com.dangdang.ddframe.rdb.sharding.rewrite;
 
 import com.dangdang.ddframe.rdb.sharding.api.fixture.ShardingRuleMockBuilder;
 import com.dangdang.ddframe.rdb.sharding.api.rule.ShardingRule;
+import com.dangdang.ddframe.rdb.sharding.constant.AggregationType;
 import com.dangdang.ddframe.rdb.sharding.constant.OrderType;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.OrderItem;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.limit.Limit;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.limit.LimitValue;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.selectitem.AggregationSelectItem;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.context.table.Table;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.select.SelectStatement;
 import com.dangdang.ddframe.rdb.sharding.parsing.parser.token.ItemsToken;
@@ -42,6 +44,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 
 public final class SQLRewriteEngineTest {
@@ -240,6 +243,130 @@ public final class SQLRewriteEngineTest {
         assertThat(rewriteEngine.rewrite(true).toSQL(tableTokens), is("SELECT x.id, x.name FROM table_1 x GROUP BY x.id, x.name DESC ORDER BY id ASC,name DESC "));
     }
     
+    @Test
+    public void assertRewriteForDerivedOrderByWithLimit() {
+        selectStatement.setDistinct(true);
+        selectStatement.setLimit(new Limit(true));
+        selectStatement.getLimit().setRowCount(new LimitValue(2, -1));
+        selectStatement.getOrderByItems().add(new OrderItem("x", "id", OrderType.ASC, Optional.<String>absent()));
+        selectStatement.getSqlTokens().add(new TableToken(26, "table_x"));
+        selectStatement.getSqlTokens().add(new OrderByToken(36));
+        selectStatement.getSqlTokens().add(new RowCountToken(42, 2));
+        SQLRewriteEngine rewriteEngine = new SQLRewriteEngine(shardingRule, "SELECT DISTINCT x.id FROM table_x x LIMIT 2", selectStatement);
+        assertThat(rewriteEngine.rewrite(true).toSQL(tableTokens), is("SELECT DISTINCT x.id FROM table_1 x  ORDER BY id ASC LIMIT 2"));
+    }
+    
+    @Test
+    public void assertRewriteForDistinctWithOrderByAndLimit() {
+        selectStatement.setDistinct(true);
+        selectStatement.setLimit(new Limit(true));
+        selectStatement.getLimit().setRowCount(new LimitValue(2, -1));
+        selectStatement.getOrderByItems().add(new OrderItem("x", "id", OrderType.ASC, Optional.<String>absent()));
+        selectStatement.getSqlTokens().add(new TableToken(34, "table_x"));
+        selectStatement.getSqlTokens().add(new RowCountToken(64, 2));
+        SQLRewriteEngine rewriteEngine = new SQLRewriteEngine(shardingRule, "SELECT DISTINCT x.id, x.name FROM table_x x ORDER BY x.id LIMIT 2", selectStatement);
+        assertThat(rewriteEngine.rewrite(true).toSQL(tableTokens), is("SELECT DISTINCT x.id, x.name FROM table_1 x ORDER BY x.id LIMIT 2"));
+    }
+    
+    @Test
+    public void assertRewriteForDistinctWithDerivedOrderByColumnAndLimit() {
+        selectStatement.setDistinct(true);
+        selectStatement.setLimit(new Limit(true));
+        selectStatement.getLimit().setRowCount(new LimitValue(2, -1));
+        selectStatement.getOrderByItems().add(new OrderItem("x", "id", OrderType.ASC, Optional.of("ORDER_BY_DERIVED_0")));
+        ItemsToken itemsToken = new ItemsToken(22);
+        itemsToken.getItems().add("x.id AS ORDER_BY_DERIVED_0 ");
+        selectStatement.getSqlTokens().add(itemsToken);
+        selectStatement.getSqlTokens().add(new TableToken(28, "table_x"));
+        selectStatement.getSqlTokens().add(new RowCountToken(58, 2));
+        SQLRewriteEngine rewriteEngine = new SQLRewriteEngine(shardingRule, "SELECT DISTINCT x.name FROM table_x x ORDER BY x.id LIMIT 2", selectStatement);
+        assertThat(rewriteEngine.rewrite(true).toSQL(tableTokens), is("SELECT DISTINCT x.name, x.id AS ORDER_BY_DERIVED_0  FROM table_1 x ORDER BY x.id LIMIT 2147483647"));
+    }
+    
+    @Test
+    public void assertRewriteForApproximateCountDistinctWithGroupBy() {
+        selectStatement.getItems().add(new AggregationSelectItem(AggregationType.COUNT, "(DISTINCT x.user_id)", Optional.of("uv")));
+        selectStatement.getGroupByItems().add(new OrderItem("x", "age", OrderType.ASC, Optional.<String>absent()));
+        selectStatement.getOrderByItems().addAll(selectStatement.getGroupByItems());
+        selectStatement.setSelectListLastPosition(46);
+        selectStatement.setGroupByLastPosition(75);
+        selectStatement.getSqlTokens().add(new TableToken(51, "table_x"));
+        selectStatement.getSqlTokens().add(new OrderByToken(75));
+        selectStatement.appendApproximateCountDistinctTokens();
+        assertFalse(selectStatement.isSameGroupByAndOrderByItems());
+        SQLRewriteEngine rewriteEngine = new SQLRewriteEngine(shardingRule, "SELECT x.age, COUNT(DISTINCT x.user_id) AS uv FROM table_x x GROUP BY x.age", selectStatement);
+        assertThat(rewriteEngine.rewrite(true).toSQL(tableTokens), 
+                is("SELECT x.age, COUNT(DISTINCT x.user_id) AS uv , x.user_id AS COUNT_DISTINCT_DERIVED_0 FROM table_1 x GROUP BY x.age, x.user_id  ORDER BY age ASC "));
+    }
+    
+    @Test
+    public void assertRewriteForApproximateCountDistinctWithoutGroupBy() {
+        selectStatement.getItems().add(new AggregationSelectItem(AggregationType.COUNT, "(DISTINCT user_id)", Optional.<String>absent()));
+        selectStatement.setLimit(new Limit(true));
+        selectStatement.getLimit().setRowCount(new LimitValue(5, -1));
+        selectStatement.setSelectListLastPosition(31);
+        selectStatement.setGroupByLastPosition(44);
+        selectStatement.getSqlTokens().add(new TableToken(36, "table_x"));
+        selectStatement.getSqlTokens().add(new RowCountToken(50, 5));
+        selectStatement.appendApproximateCountDistinctTokens();
+        SQLRewriteEngine rewriteEngine = new SQLRewriteEngine(shardingRule, "SELECT COUNT(DISTINCT user_id) FROM table_x LIMIT 5", selectStatement);
+        assertThat(rewriteEngine.rewrite(true).toSQL(tableTokens), is("SELECT COUNT(DISTINCT user_id) , user_id AS COUNT_DISTINCT_DERIVED_0 FROM table_1  GROUP BY user_id LIMIT 2147483647"));
+    }
+    
+    @Test
+    public void assertRewriteForApproximateCountWithoutDistinct() {
+        selectStatement.getItems().add(new AggregationSelectItem(AggregationType.COUNT, "(user_id)", Optional.<String>absent()));
+        selectStatement.setSelectListLastPosition(22);
+        selectStatement.setGroupByLastPosition(34);
+        selectStatement.getSqlTokens().add(new TableToken(27, "table_x"));
+        selectStatement.appendApproximateCountDistinctTokens();
+        assertFalse(selectStatement.isContainApproximateCountDistinct());
+        SQLRewriteEngine rewriteEngine = new SQLRewriteEngine(shardingRule, "SELECT COUNT(user_id) FROM table_x", selectStatement);
+        assertThat(rewriteEngine.rewrite(true).toSQL(tableTokens), is("SELECT COUNT(user_id) FROM table_1"));
+    }
+    
+    @Test
+    public void assertRewriteForSeekConditionWithWhere() {
+        selectStatement.setContainWhere(true);
+        selectStatement.setWhereBeginPosition(32);
+        selectStatement.setWhereLastPosition(44);
+        selectStatement.setWhereParametersIndex(1);
+        selectStatement.getOrderByItems().add(new OrderItem("x", "id", OrderType.ASC, Optional.<String>absent()));
+        selectStatement.setLimit(new Limit(true));
+        selectStatement.getLimit().setRowCount(new LimitValue(2, -1));
+        selectStatement.getSqlTokens().add(new TableToken(17, "table_x"));
+        selectStatement.getSqlTokens().add(new RowCountToken(64, 2));
+        selectStatement.appendSeekConditionToken(Collections.<Object>singletonList(5));
+        SQLRewriteEngine rewriteEngine = new SQLRewriteEngine(shardingRule, "SELECT x.id FROM table_x x WHERE x.status=? ORDER BY x.id LIMIT 2", selectStatement);
+        assertThat(rewriteEngine.rewrite(true).toSQL(tableTokens), is("SELECT x.id FROM table_1 x WHERE ( x.status=? ) AND ((x.id > ?)) ORDER BY x.id LIMIT 2"));
+    }
+    
+    @Test
+    public void assertRewriteForSeekConditionWithOrInWhere() {
+        selectStatement.setContainWhere(true);
+        selectStatement.setWhereBeginPosition(32);
+        selectStatement.setWhereLastPosition(56);
+        selectStatement.setWhereParametersIndex(2);
+        selectStatement.getOrderByItems().add(new OrderItem("x", "id", OrderType.ASC, Optional.<String>absent()));
+        selectStatement.getSqlTokens().add(new TableToken(17, "table_x"));
+        selectStatement.appendSeekConditionToken(Collections.<Object>singletonList(5));
+        SQLRewriteEngine rewriteEngine = new SQLRewriteEngine(shardingRule, "SELECT x.id FROM table_x x WHERE x.status=? OR x.type=? ORDER BY x.id", selectStatement);
+        assertThat(rewriteEngine.rewrite(true).toSQL(tableTokens), is("SELECT x.id FROM table_1 x WHERE ( x.status=? OR x.type=? ) AND ((x.id > ?)) ORDER BY x.id"));
+    }
+    
+    @Test
+    public void assertRewriteForSeekConditionWithoutWhere() {
+        selectStatement.getTables().add(new Table("table_x", Optional.<String>absent()));
+        selectStatement.setWhereLastPosition(23);
+        selectStatement.getOrderByItems().add(new OrderItem("table_x", "age", OrderType.DESC, Optional.<String>absent()));
+        selectStatement.getOrderByItems().add(new OrderItem("id", OrderType.ASC, Optional.<String>absent()));
+        selectStatement.getSqlTokens().add(new TableToken(15, "table_x"));
+        selectStatement.getSqlTokens().add(new TableToken(32, "table_x"));
+        selectStatement.appendSeekConditionToken(Arrays.<Object>asList(18, 5));
+        SQLRewriteEngine rewriteEngine = new SQLRewriteEngine(shardingRule, "SELECT id FROM table_x ORDER BY table_x.age DESC, id", selectStatement);
+        assertThat(rewriteEngine.rewrite(true).toSQL(tableTokens), is("SELECT id FROM table_1 WHERE ((table_1.age < ?) OR (table_1.age = ? AND id > ?)) ORDER BY table_1.age DESC, id"));
+    }
+    
     @Test
     public void assertGenerateSQL() {
         selectStatement.getSqlTokens().add(new TableToken(7, "table_x"));
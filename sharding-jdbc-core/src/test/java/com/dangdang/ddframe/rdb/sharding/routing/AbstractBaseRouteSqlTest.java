@@ -23,8 +23,11 @@ import com.dangdang.ddframe.rdb.sharding.api.rule.ShardingRule;
 import com.dangdang.ddframe.rdb.sharding.api.rule.TableRule;
 import com.dangdang.ddframe.rdb.sharding.api.strategy.database.DatabaseShardingStrategy;
 import com.dangdang.ddframe.rdb.sharding.api.strategy.table.TableShardingStrategy;
+import com.dangdang.ddframe.rdb.sharding.config.ShardingProperties;
+import com.dangdang.ddframe.rdb.sharding.config.ShardingPropertiesConstant;
 import com.dangdang.ddframe.rdb.sharding.constant.DatabaseType;
 import com.dangdang.ddframe.rdb.sharding.jdbc.core.ShardingContext;
+import com.dangdang.ddframe.rdb.sharding.metrics.ShardingMetrics;
 import com.dangdang.ddframe.rdb.sharding.routing.fixture.OrderAttrShardingAlgorithm;
 import com.dangdang.ddframe.rdb.sharding.routing.fixture.OrderShardingAlgorithm;
 import com.google.common.base.Function;
@@ -42,6 +45,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 
 import static org.hamcrest.CoreMatchers.hasItems;
@@ -74,11 +78,15 @@ public abstract class AbstractBaseRouteSqlTest {
     }
     
     protected void assertMultipleTargetsWithoutParameter(final String originSql, final int expectedSize, final Collection<String> targetDataSources, final Collection<String> targetSQLs) {
-        ShardingContext shardingContext = new ShardingContext(getShardingRule(), DatabaseType.MySQL, null, false);
+        Properties props = new Properties();
+        props.setProperty(ShardingPropertiesConstant.SQL_SHOW.getKey(), Boolean.FALSE.toString());
+        props.setProperty(ShardingPropertiesConstant.PARSING_RESULT_CACHE_SIZE.getKey(), "1024");
+        props.setProperty(ShardingPropertiesConstant.ROUTING_RESULT_CACHE_SIZE.getKey(), "1024");
+        ShardingContext shardingContext = new ShardingContext(getShardingRule(), DatabaseType.MySQL, null, new ShardingMetrics(), new ShardingProperties(props));
         SQLRouteResult actual = new StatementRoutingEngine(shardingContext).route(originSql);
         assertThat(actual.getExecutionUnits().size(), is(expectedSize));
         Set<String> actualDataSources = new HashSet<>(Collections2.transform(actual.getExecutionUnits(), new Function<SQLExecutionUnit, String>() {
-            
+    
             @Override
             public String apply(final SQLExecutionUnit input) {
                 return input.getDataSource();
@@ -86,7 +94,7 @@ public abstract class AbstractBaseRouteSqlTest {
         }));
         assertThat(actualDataSources, hasItems(targetDataSources.toArray(new String[targetDataSources.size()])));
         Collection<String> actualSQLs = Collections2.transform(actual.getExecutionUnits(), new Function<SQLExecutionUnit, String>() {
-            
+    
             @Override
             public String apply(final SQLExecutionUnit input) {
                 return input.getSql();
@@ -101,11 +109,15 @@ public abstract class AbstractBaseRouteSqlTest {
     
     protected void assertMultipleTargetsWithParameters(
             final String originSql, final List<Object> parameters, final int expectedSize, final Collection<String> targetDataSources, final Collection<String> targetSQLs) {
-        ShardingContext shardingContext = new ShardingContext(getShardingRule(), DatabaseType.MySQL, null, false);
+        Properties props = new Properties();
+        props.setProperty(ShardingPropertiesConstant.SQL_SHOW.getKey(), Boolean.FALSE.toString());
+        props.setProperty(ShardingPropertiesConstant.PARSING_RESULT_CACHE_SIZE.getKey(), "1024");
+        props.setProperty(ShardingPropertiesConstant.ROUTING_RESULT_CACHE_SIZE.getKey(), "1024");
+        ShardingContext shardingContext = new ShardingContext(getShardingRule(), DatabaseType.MySQL, null, new ShardingMetrics(), new ShardingProperties(props));
         SQLRouteResult actual = new PreparedStatementRoutingEngine(originSql, shardingContext).route(parameters);
         assertThat(actual.getExecutionUnits().size(), is(expectedSize));
         Set<String> actualDataSources = new HashSet<>(Collections2.transform(actual.getExecutionUnits(), new Function<SQLExecutionUnit, String>() {
-            
+    
             @Override
             public String apply(final SQLExecutionUnit input) {
                 return input.getDataSource();
@@ -113,7 +125,7 @@ public abstract class AbstractBaseRouteSqlTest {
         }));
         assertThat(actualDataSources, hasItems(targetDataSources.toArray(new String[targetDataSources.size()])));
         Collection<String> actualSQLs = Collections2.transform(actual.getExecutionUnits(), new Function<SQLExecutionUnit, String>() {
-            
+    
             @Override
             public String apply(final SQLExecutionUnit input) {
                 return input.getSql();
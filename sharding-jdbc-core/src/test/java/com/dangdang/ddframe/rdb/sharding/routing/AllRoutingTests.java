@@ -19,6 +19,7 @@ package com.dangdang.ddframe.rdb.sharding.routing;
 
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
+import com.dangdang.ddframe.rdb.sharding.routing.cache.RoutingResultCacheTest;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
@@ -26,7 +27,8 @@ import org.junit.runners.Suite;
         SelectBindingTableTest.class, 
         SelectMixedTablesTest.class, 
         DMLTest.class, 
-        DatabaseTest.class
+        DatabaseTest.class, 
+        RoutingResultCacheTest.class
     })
 public class AllRoutingTests {
 }
@@ -17,11 +17,20 @@
 
 package com.dangdang.ddframe.rdb.sharding.routing;
 
+import com.dangdang.ddframe.rdb.sharding.config.ShardingProperties;
+import com.dangdang.ddframe.rdb.sharding.config.ShardingPropertiesConstant;
+import com.dangdang.ddframe.rdb.sharding.constant.DatabaseType;
+import com.dangdang.ddframe.rdb.sharding.jdbc.core.ShardingContext;
+import com.dangdang.ddframe.rdb.sharding.metrics.ShardingMetrics;
 import com.google.common.collect.Lists;
 import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Properties;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
 
 public final class DMLTest extends AbstractDynamicRouteSqlTest {
     
@@ -33,6 +42,34 @@ public final class DMLTest extends AbstractDynamicRouteSqlTest {
                 Lists.newArrayList(new ShardingValuePair("order", 2)), "insert into `order` value (?,?)", Arrays.<Object>asList(2, "test"), "ds_0", "insert into order_0 value (?,?)");
     }
     
+    @Test
+    public void assertInsertMultipleValues() {
+        assertMultipleTargetsWithoutParameter("insert into `order` (order_id, name) values (1, 'a'), (2, 'b'), (3, 'c')", 2, Arrays.asList("ds_0", "ds_1"), 
+                Arrays.asList("insert into order_1 (order_id, name) values (1, 'a'), (3, 'c')", "insert into order_0 (order_id, name) values (2, 'b')"));
+        assertMultipleTargetsWithParameters("insert into `order` (order_id, name) values (?, ?), (?, ?), (?, ?)", Arrays.<Object>asList(1, "a", 2, "b", 3, "c"), 2, Arrays.asList("ds_0", "ds_1"), 
+                Arrays.asList("insert into order_1 (order_id, name) values (?, ?), (?, ?)", "insert into order_0 (order_id, name) values (?, ?)"));
+    }
+    
+    @Test
+    public void assertInsertMultipleValuesParameterIndexes() {
+        Properties props = new Properties();
+        props.setProperty(ShardingPropertiesConstant.SQL_SHOW.getKey(), Boolean.FALSE.toString());
+        props.setProperty(ShardingPropertiesConstant.PARSING_RESULT_CACHE_SIZE.getKey(), "0");
+        ShardingContext shardingContext = new ShardingContext(getShardingRule(), DatabaseType.MySQL, null, new ShardingMetrics(), new ShardingProperties(props));
+        SQLRouteResult actual = new PreparedStatementRoutingEngine("insert into `order` (order_id, name) values (?, ?), (?, ?), (?, ?) on duplicate key update name = ?", shardingContext)
+                .route(Arrays.<Object>asList(1, "a", 2, "b", 3, "c", "d"));
+        assertThat(actual.getExecutionUnits().size(), is(2));
+        for (SQLExecutionUnit each : actual.getExecutionUnits()) {
+            if ("ds_1".equals(each.getDataSource())) {
+                assertThat(each.getSql(), is("insert into order_1 (order_id, name) values (?, ?), (?, ?) on duplicate key update name = ?"));
+                assertThat(each.getParameterIndexes(), is(Arrays.asList(0, 1, 4, 5, 6)));
+            } else {
+                assertThat(each.getSql(), is("insert into order_0 (order_id, name) values (?, ?) on duplicate key update name = ?"));
+                assertThat(each.getParameterIndexes(), is(Arrays.asList(2, 3, 6)));
+            }
+        }
+    }
+    
     @Test
     public void assertUpdate() {
         assertSingleTargetWithoutParameter("update `order` set name = 'test' where order_id = 1", "ds_1", "update order_1 set name = 'test' where order_id = 1");
@@ -17,13 +17,19 @@
 
 package com.dangdang.ddframe.rdb.sharding.routing;
 
+import com.dangdang.ddframe.rdb.sharding.config.ShardingProperties;
+import com.dangdang.ddframe.rdb.sharding.config.ShardingPropertiesConstant;
+import com.dangdang.ddframe.rdb.sharding.constant.DatabaseType;
 import com.dangdang.ddframe.rdb.sharding.constant.ShardingOperator;
+import com.dangdang.ddframe.rdb.sharding.jdbc.core.ShardingContext;
+import com.dangdang.ddframe.rdb.sharding.metrics.ShardingMetrics;
 import org.junit.Ignore;
 import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Properties;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
@@ -63,12 +69,33 @@ public final class SelectSingleTableTest extends AbstractDynamicRouteSqlTest {
     
     @Test
     public void assertSelectWithIn() {
-        assertMultipleTargetsWithParameters("select * from order where order_id in (?,?,?)", Arrays.<Object>asList(1, 2, 100), 4, 
-                Arrays.asList("ds_0", "ds_1"), Arrays.asList("select * from order_0 where order_id in (?,?,?)", "select * from order_1 where order_id in (?,?,?)"));
+        assertMultipleTargetsWithParameters("select * from order where order_id in (?,?,?)", Arrays.<Object>asList(1, 2, 100), 2, 
+                Arrays.asList("ds_0", "ds_1"), Arrays.asList("select * from order_0 where order_id in (?, ?)", "select * from order_1 where order_id in (?)"));
+        assertMultipleTargetsWithoutParameter("select * from order where order_id in (1, 2, 100) and status = 'init'", 2, 
+                Arrays.asList("ds_0", "ds_1"), Arrays.asList("select * from order_0 where order_id in (2, 100) and status = 'init'", "select * from order_1 where order_id in (1) and status = 'init'"));
         assertMultipleTargetsWithoutParameter(Collections.singletonList(new ShardingValuePair("order", ShardingOperator.IN, 1, 2, 100)), "select * from order", 4,
                 Arrays.asList("ds_0", "ds_1"), Arrays.asList("select * from order_0", "select * from order_1"));
     }
     
+    @Test
+    public void assertSelectWithInParameterIndexes() {
+        Properties props = new Properties();
+        props.setProperty(ShardingPropertiesConstant.SQL_SHOW.getKey(), Boolean.FALSE.toString());
+        props.setProperty(ShardingPropertiesConstant.PARSING_RESULT_CACHE_SIZE.getKey(), "0");
+        ShardingContext shardingContext = new ShardingContext(getShardingRule(), DatabaseType.MySQL, null, new ShardingMetrics(), new ShardingProperties(props));
+        SQLRouteResult actual = new PreparedStatementRoutingEngine("select * from order where order_id in (?,?,?) and status = ?", shardingContext).route(Arrays.<Object>asList(1, 2, 100, "init"));
+        assertThat(actual.getExecutionUnits().size(), is(2));
+        for (SQLExecutionUnit each : actual.getExecutionUnits()) {
+            if ("ds_1".equals(each.getDataSource())) {
+                assertThat(each.getSql(), is("select * from order_1 where order_id in (?) and status = ?"));
+                assertThat(each.getParameterIndexes(), is(Arrays.asList(0, 3)));
+            } else {
+                assertThat(each.getSql(), is("select * from order_0 where order_id in (?, ?) and status = ?"));
+                assertThat(each.getParameterIndexes(), is(Arrays.asList(1, 2, 3)));
+            }
+        }
+    }
+    
     @Test
     @Ignore
     // TODO or
@@ -120,31 +147,31 @@ public final class SelectSingleTableTest extends AbstractDynamicRouteSqlTest {
     
     @Test
     public void assertSelectInLimit() {
-        assertMultipleTargetsWithParameters("select * from order where order_id in (?,?,?) limit 5", Arrays.<Object>asList(1, 2, 100), 4,
-                Arrays.asList("ds_0", "ds_1"), Arrays.asList("select * from order_0 where order_id in (?,?,?) limit 5", "select * from order_1 where order_id in (?,?,?) limit 5"));
-        assertMultipleTargetsWithParameters("select * from order where order_id in (?,?,?) limit 2,5", Arrays.<Object>asList(1, 2, 100), 4,
-                Arrays.asList("ds_0", "ds_1"), Arrays.asList("select * from order_0 where order_id in (?,?,?) limit 0,7", "select * from order_1 where order_id in (?,?,?) limit 0,7"));
-        assertMultipleTargetsWithParameters("select * from order where order_id in (?,?,?) limit 5 offset 2", Arrays.<Object>asList(1, 2, 100), 4,
-                Arrays.asList("ds_0", "ds_1"), Arrays.asList("select * from order_0 where order_id in (?,?,?) limit 7 offset 0", "select * from order_1 where order_id in (?,?,?) limit 7 offset 0"));
+        assertMultipleTargetsWithParameters("select * from order where order_id in (?,?,?) limit 5", Arrays.<Object>asList(1, 2, 100), 2,
+                Arrays.asList("ds_0", "ds_1"), Arrays.asList("select * from order_0 where order_id in (?, ?) limit 5", "select * from order_1 where order_id in (?) limit 5"));
+        assertMultipleTargetsWithParameters("select * from order where order_id in (?,?,?) limit 2,5", Arrays.<Object>asList(1, 2, 100), 2,
+                Arrays.asList("ds_0", "ds_1"), Arrays.asList("select * from order_0 where order_id in (?, ?) limit 0,7", "select * from order_1 where order_id in (?) limit 0,7"));
+        assertMultipleTargetsWithParameters("select * from order where order_id in (?,?,?) limit 5 offset 2", Arrays.<Object>asList(1, 2, 100), 2,
+                Arrays.asList("ds_0", "ds_1"), Arrays.asList("select * from order_0 where order_id in (?, ?) limit 7 offset 0", "select * from order_1 where order_id in (?) limit 7 offset 0"));
         List<Object> parameters = Arrays.<Object>asList(1, 2, 100, 5);
-        assertMultipleTargetsWithParameters("select * from order where order_id in (?,?,?) limit ?", parameters, 4,
-                Arrays.asList("ds_0", "ds_1"), Arrays.asList("select * from order_0 where order_id in (?,?,?) limit ?", "select * from order_1 where order_id in (?,?,?) limit ?"));
+        assertMultipleTargetsWithParameters("select * from order where order_id in (?,?,?) limit ?", parameters, 2,
+                Arrays.asList("ds_0", "ds_1"), Arrays.asList("select * from order_0 where order_id in (?, ?) limit ?", "select * from order_1 where order_id in (?) limit ?"));
         assertThat(parameters, is(Arrays.<Object>asList(1, 2, 100, 5)));
         parameters = Arrays.<Object>asList(1, 2, 100, 2, 5);
-        assertMultipleTargetsWithParameters("select * from order where order_id in (?,?,?) limit ?,?", parameters, 4,
-                Arrays.asList("ds_0", "ds_1"), Arrays.asList("select * from order_0 where order_id in (?,?,?) limit ?,?", "select * from order_1 where order_id in (?,?,?) limit ?,?"));
+        assertMultipleTargetsWithParameters("select * from order where order_id in (?,?,?) limit ?,?", parameters, 2,
+                Arrays.asList("ds_0", "ds_1"), Arrays.asList("select * from order_0 where order_id in (?, ?) limit ?,?", "select * from order_1 where order_id in (?) limit ?,?"));
         assertThat(parameters, is(Arrays.<Object>asList(1, 2, 100, 0, 7)));
         parameters = Arrays.<Object>asList(1, 2, 100, 5, 2);
-        assertMultipleTargetsWithParameters("select * from order where order_id in (?,?,?) limit ? offset ?", parameters, 4,
-                Arrays.asList("ds_0", "ds_1"), Arrays.asList("select * from order_0 where order_id in (?,?,?) limit ? offset ?", "select * from order_1 where order_id in (?,?,?) limit ? offset ?"));
+        assertMultipleTargetsWithParameters("select * from order where order_id in (?,?,?) limit ? offset ?", parameters, 2,
+                Arrays.asList("ds_0", "ds_1"), Arrays.asList("select * from order_0 where order_id in (?, ?) limit ? offset ?", "select * from order_1 where order_id in (?) limit ? offset ?"));
         assertThat(parameters, is(Arrays.<Object>asList(1, 2, 100, 7, 0)));
         parameters = Arrays.<Object>asList(1, 2, 100, 5);
-        assertMultipleTargetsWithParameters("select * from order where order_id in (?,?,?) limit 2,?", parameters, 4,
-                Arrays.asList("ds_0", "ds_1"), Arrays.asList("select * from order_0 where order_id in (?,?,?) limit 0,?", "select * from order_1 where order_id in (?,?,?) limit 0,?"));
+        assertMultipleTargetsWithParameters("select * from order where order_id in (?,?,?) limit 2,?", parameters, 2,
+                Arrays.asList("ds_0", "ds_1"), Arrays.asList("select * from order_0 where order_id in (?, ?) limit 0,?", "select * from order_1 where order_id in (?) limit 0,?"));
         assertThat(parameters, is(Arrays.<Object>asList(1, 2, 100, 7)));
         parameters = Arrays.<Object>asList(1, 2, 100, 2);
-        assertMultipleTargetsWithParameters("select * from order where order_id in (?,?,?) limit ?,5", parameters, 4,
-                Arrays.asList("ds_0", "ds_1"), Arrays.asList("select * from order_0 where order_id in (?,?,?) limit ?,7", "select * from order_1 where order_id in (?,?,?) limit ?,7"));
+        assertMultipleTargetsWithParameters("select * from order where order_id in (?,?,?) limit ?,5", parameters, 2,
+                Arrays.asList("ds_0", "ds_1"), Arrays.asList("select * from order_0 where order_id in (?, ?) limit ?,7", "select * from order_1 where order_id in (?) limit ?,7"));
         assertThat(parameters, is(Arrays.<Object>asList(1, 2, 100, 0)));
     }
     
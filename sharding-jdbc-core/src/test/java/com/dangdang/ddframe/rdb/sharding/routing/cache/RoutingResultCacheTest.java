@@ -0,0 +1,121 @@
+/*
+ * Copyright 1999-2015 dangdang.com.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * </p>
+ */
+
+package com.dangdang.ddframe.rdb.sharding.routing.cache;
+
+import com.dangdang.ddframe.rdb.sharding.api.HintManager;
+import com.dangdang.ddframe.rdb.sharding.api.fixture.ShardingRuleMockBuilder;
+import com.dangdang.ddframe.rdb.sharding.api.rule.ShardingRule;
+import com.dangdang.ddframe.rdb.sharding.constant.DatabaseType;
+import com.dangdang.ddframe.rdb.sharding.parsing.SQLParsingEngine;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.SQLStatement;
+import com.dangdang.ddframe.rdb.sharding.parsing.parser.statement.dql.select.SelectStatement;
+import com.dangdang.ddframe.rdb.sharding.routing.SQLExecutionUnit;
+import com.google.common.base.Optional;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public final class RoutingResultCacheTest {
+    
+    private final ShardingRule shardingRule = new ShardingRuleMockBuilder().addGenerateKeyColumn("order", "order_id").addShardingColumns("user_id").build();
+    
+    @Test
+    public void assertCreateKeyWhenDisabled() {
+        String sql = "SELECT * FROM order WHERE user_id = ?";
+        assertFalse(new RoutingResultCache(0).createKey(sql, parse(sql), Collections.<Object>singletonList(1)).isPresent());
+    }
+    
+    @Test
+    public void assertCreateKeyForInsert() {
+        String sql = "INSERT INTO order (user_id) VALUES (?)";
+        assertFalse(new RoutingResultCache(16).createKey(sql, parse(sql), Collections.<Object>singletonList(1)).isPresent());
+    }
+    
+    @Test
+    public void assertCreateKeyForBetween() {
+        String sql = "SELECT * FROM order WHERE user_id BETWEEN ? AND ?";
+        assertFalse(new RoutingResultCache(16).createKey(sql, parse(sql), Arrays.<Object>asList(1, 10)).isPresent());
+    }
+    
+    @Test
+    public void assertCreateKeyForSeekCondition() {
+        String sql = "SELECT * FROM order WHERE user_id = ? ORDER BY order_id";
+        SelectStatement selectStatement = (SelectStatement) parse(sql);
+        selectStatement.appendSeekConditionToken(Collections.<Object>singletonList(1000));
+        assertFalse(new RoutingResultCache(16).createKey(sql, selectStatement, Collections.<Object>singletonList(1)).isPresent());
+    }
+    
+    @Test
+    public void assertCreateKeyWhenUseShardingHint() {
+        String sql = "SELECT * FROM order WHERE user_id = ?";
+        try (HintManager hintManager = HintManager.getInstance()) {
+            hintManager.addDatabaseShardingValue("order", "user_id", 1);
+            assertFalse(new RoutingResultCache(16).createKey(sql, parse(sql), Collections.<Object>singletonList(1)).isPresent());
+        }
+    }
+    
+    @Test
+    public void assertCreateKeyForEqualAndIn() {
+        RoutingResultCache cache = new RoutingResultCache(16);
+        String sql = "SELECT * FROM order WHERE user_id IN (?, ?)";
+        SQLStatement sqlStatement = parse(sql);
+        Optional<RoutingResultCacheKey> actual = cache.createKey(sql, sqlStatement, Arrays.<Object>asList(1, 2));
+        assertTrue(actual.isPresent());
+        assertThat(actual.get(), is(cache.createKey(sql, sqlStatement, Arrays.<Object>asList(1, 2)).get()));
+        assertThat(actual.get(), not(cache.createKey(sql, sqlStatement, Arrays.<Object>asList(1, 3)).get()));
+    }
+    
+    @Test
+    public void assertCreateKeyWithLimit() {
+        RoutingResultCache cache = new RoutingResultCache(16);
+        String sql = "SELECT * FROM order WHERE user_id = ? LIMIT ?, ?";
+        SQLStatement sqlStatement = parse(sql);
+        RoutingResultCacheKey actual = cache.createKey(sql, sqlStatement, Arrays.<Object>asList(1, 0, 10)).get();
+        assertThat(actual, is(cache.createKey(sql, sqlStatement, Arrays.<Object>asList(1, 0, 10)).get()));
+        assertThat(actual, not(cache.createKey(sql, sqlStatement, Arrays.<Object>asList(1, 10, 10)).get()));
+    }
+    
+    @Test
+    public void assertGetAndPut() {
+        RoutingResultCache cache = new RoutingResultCache(16);
+        String sql = "SELECT * FROM order WHERE user_id = ?";
+        RoutingResultCacheKey key = cache.createKey(sql, parse(sql), Collections.<Object>singletonList(1)).get();
+        assertFalse(cache.get(key).isPresent());
+        SQLExecutionUnit executionUnit = new SQLExecutionUnit("ds_0", "SELECT * FROM order_0 WHERE user_id = ?");
+        cache.put(key, true, Collections.singletonList(executionUnit));
+        CachedRoutingResult actual = cache.get(key).get();
+        assertTrue(actual.isSingleRouting());
+        assertThat(actual.getExecutionUnits().size(), is(1));
+        assertThat(actual.getExecutionUnits().iterator().next(), is(executionUnit));
+        assertThat(cache.getHitCount(), is(1L));
+        assertThat(cache.getMissCount(), is(1L));
+        cache.clear();
+        assertThat(cache.size(), is(0L));
+    }
+    
+    private SQLStatement parse(final String sql) {
+        return new SQLParsingEngine(DatabaseType.MySQL, sql, shardingRule).parse();
+    }
+}
@@ -17,10 +17,13 @@
 
 package com.dangdang.ddframe.rdb.sharding.util;
 
+import com.google.common.eventbus.Subscribe;
 import org.junit.Test;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public final class EventBusInstanceTest {
     
@@ -28,4 +31,48 @@ public final class EventBusInstanceTest {
     public void assertGetInstance() {
         assertThat(EventBusInstance.getInstance(), is(EventBusInstance.getInstance()));
     }
+    
+    @Test
+    public void assertHasRegistered() {
+        boolean registered = EventBusInstance.hasRegistered();
+        Object listener = new Object();
+        EventBusInstance.getInstance().register(listener);
+        assertTrue(EventBusInstance.hasRegistered());
+        EventBusInstance.getInstance().unregister(listener);
+        assertThat(EventBusInstance.hasRegistered(), is(registered));
+    }
+    
+    @Test
+    public void assertHasRegisteredWhenRegisteredTwice() {
+        boolean registered = EventBusInstance.hasRegistered();
+        Object listener = new Object();
+        EventBusInstance.getInstance().register(listener);
+        EventBusInstance.getInstance().register(listener);
+        EventBusInstance.getInstance().unregister(listener);
+        assertThat(EventBusInstance.hasRegistered(), is(registered));
+    }
+    
+    @Test
+    public void assertHasRegisteredWhenUnregisterFailure() {
+        Object listener = new Object() {
+            
+            @Subscribe
+            public void listen(final Object event) {
+            }
+        };
+        EventBusInstance.getInstance().register(listener);
+        try {
+            EventBusInstance.getInstance().unregister(new Object() {
+                
+                @Subscribe
+                public void listen(final Object event) {
+                }
+            });
+            fail("Expected IllegalArgumentException.");
+        } catch (final IllegalArgumentException ex) {
+            assertTrue(EventBusInstance.hasRegistered());
+        } finally {
+            EventBusInstance.getInstance().unregister(listener);
+        }
+    }
 }